@@ -3,6 +3,7 @@ package edu.uci.ics.texera.api.dataflow;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
 
 /**
  * Created by chenli on 3/25/16.
@@ -16,6 +17,29 @@ public interface IOperator {
 
     Tuple getNextTuple() throws TexeraException;
 
+    /**
+     * Gets the next batch of tuples.
+     * 
+     * The batch is cleared and then filled with at most batch.capacity() tuples.
+     * It returns false (and leaves the batch empty) if there are no more tuples.
+     * 
+     * The default implementation is an adapter over getNextTuple(),
+     *   operators that can produce a batch more efficiently should override it.
+     * The two methods can be called interchangeably on the same operator.
+     * 
+     * @param batch, a reusable batch provided by the caller
+     * @return true if at least one tuple is put into the batch, false if there are no more tuples
+     * @throws TexeraException
+     */
+    default boolean getNextBatch(TupleBatch batch) throws TexeraException {
+        batch.clear();
+        Tuple tuple;
+        while (! batch.isFull() && (tuple = getNextTuple()) != null) {
+            batch.add(tuple);
+        }
+        return ! batch.isEmpty();
+    }
+
     void close() throws TexeraException;
 
     Schema getOutputSchema();
@@ -10,11 +10,12 @@ import com.google.common.collect.ImmutableList;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import edu.uci.ics.texera.api.constants.JsonConstants;
+import edu.uci.ics.texera.api.span.CompactSpanList;
 
 @JsonDeserialize(using = ListFieldJsonDeserializer.class)
 public class ListField<T> implements IField {
 
-    private ImmutableList<T> list;
+    private List<T> list;
 
     @JsonCreator
     public ListField(
@@ -22,7 +23,12 @@ public class ListField<T> implements IField {
             List<T> list) {
         checkNotNull(list);
         
-        this.list = ImmutableList.copyOf(list);
+        // a compact span list is already immutable, copying it would create all the spans
+        if (list instanceof CompactSpanList) {
+            this.list = list;
+        } else {
+            this.list = ImmutableList.copyOf(list);
+        }
     }
 
     @Override
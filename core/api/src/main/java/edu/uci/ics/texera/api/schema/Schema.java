@@ -12,6 +12,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import edu.uci.ics.texera.api.constants.ErrorMessages;
@@ -22,28 +24,61 @@ import edu.uci.ics.texera.api.exception.TexeraException;
 /**
  * A schema is a list of attributes that describe all the columns of a table.
  * 
+ * Equal schemas can share one canonical instance, which is returned by {@link #intern()}.
+ * The schemas built by Schema.Builder, deserialized from JSON, or used by a Tuple are canonical,
+ *   so comparing them is usually a reference comparison.
+ * 
  * @author zuozhiw
  *
  */
 public class Schema {
+    
+    // the canonical schemas are weakly referenced, a schema is removed when it's not used anymore
+    private static final Interner<CanonicalKey> CANONICAL_SCHEMAS = Interners.newWeakInterner();
+    
     private final ImmutableList<Attribute> attributes;
-    private final ImmutableMap<String, Integer> attributeIndex;
+    private final boolean canonical;
+    // the key of a canonical schema, it keeps the entry in CANONICAL_SCHEMAS as long as the schema is used
+    private CanonicalKey canonicalKey;
+    // the hash code and the indexes of the attributes are computed when they are used for the first time,
+    //   so that creating a schema which is then replaced by its canonical instance is cheap
+    private int hashCode;
+    private volatile AttributeIndex attributeIndex;
 
     public Schema(Attribute... attributes) {
         this(Arrays.asList(attributes));
     }
     
+    public Schema(List<Attribute> attributes) {
+        this(ImmutableList.copyOf(checkNotNull(attributes)), false);
+    }
+    
+    private Schema(ImmutableList<Attribute> attributes, boolean canonical) {
+        this.attributes = attributes;
+        this.canonical = canonical;
+    }
+    
     @JsonCreator
-    public Schema(
+    public static Schema fromAttributes(
             @JsonProperty(value = JsonConstants.ATTRIBUTES, required = true)
             List<Attribute> attributes) {
-        checkNotNull(attributes);
-        this.attributes = ImmutableList.copyOf(attributes);
-        HashMap<String, Integer> attributeIndexTemp = new HashMap<String, Integer>();
-        for (int i = 0; i < attributes.size(); i++) {
-            attributeIndexTemp.put(attributes.get(i).getName().toLowerCase(), i);
+        return new Schema(attributes).intern();
+    }
+    
+    /**
+     * Gets the canonical instance of this schema,
+     *   which is the same instance for all the schemas with the same attributes (with the same names and types).
+     * 
+     * @return the canonical schema
+     */
+    public Schema intern() {
+        if (canonical) {
+            return this;
         }
-        this.attributeIndex = ImmutableMap.copyOf(attributeIndexTemp);
+        Schema candidate = new Schema(attributes, true);
+        candidate.attributeIndex = attributeIndex;
+        candidate.canonicalKey = new CanonicalKey(candidate);
+        return CANONICAL_SCHEMAS.intern(candidate.canonicalKey).schema;
     }
 
     @JsonProperty(value = JsonConstants.ATTRIBUTES)
@@ -57,10 +92,27 @@ public class Schema {
     }
 
     public Integer getIndex(String attributeName) {
-	    	if (! containsAttribute(attributeName)) {
-	    		throw new TexeraException(attributeName + " is not contained in the schema");
-	    	}
-	    return attributeIndex.get(attributeName.toLowerCase());
+        int index = indexOf(attributeName);
+        if (index == -1) {
+            throw new TexeraException(attributeName + " is not contained in the schema");
+        }
+        return index;
+    }
+    
+    /**
+     * Gets the index of an attribute (case insensitive), or -1 if the attribute is not in the schema.
+     * The name is only lowercased if it's not found by its exact name.
+     * 
+     * @param attributeName
+     * @return the index of the attribute, or -1
+     */
+    public int indexOf(String attributeName) {
+        AttributeIndex index = attributeIndex;
+        if (index == null) {
+            index = new AttributeIndex(attributes);
+            attributeIndex = index;
+        }
+        return index.indexOf(attributeName);
     }
     
     public Attribute getAttribute(String attributeName) {
@@ -69,15 +121,24 @@ public class Schema {
 
     @JsonIgnore
     public boolean containsAttribute(String attributeName) {
-        return attributeIndex.containsKey(attributeName.toLowerCase());
+        return indexOf(attributeName) != -1;
     }
     
+    /*
+     * The hash code ignores the case of the attribute names, the same as Attribute.equals().
+     */
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((attributes == null) ? 0 : attributes.hashCode());
-        result = prime * result + ((attributeIndex == null) ? 0 : attributeIndex.hashCode());
+        int result = hashCode;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            for (Attribute attribute : attributes) {
+                result = prime * result + attribute.getName().toLowerCase().hashCode();
+                result = prime * result + attribute.getType().hashCode();
+            }
+            hashCode = result;
+        }
         return result;
     }
 
@@ -90,15 +151,11 @@ public class Schema {
         if (getClass() != obj.getClass())
             return false;
         Schema other = (Schema) obj;
-        if (attributes == null) {
-            if (other.attributes != null)
-                return false;
-        } else if (!attributes.equals(other.attributes))
+        // two canonical schemas are different instances only if their attributes are different,
+        //   they can still be equal if the attribute names only differ in case
+        if (canonical && other.canonical && hashCode() != other.hashCode())
             return false;
-        if (attributeIndex == null) {
-            if (other.attributeIndex != null)
-                return false;
-        } else if (!attributeIndex.equals(other.attributeIndex))
+        if (!attributes.equals(other.attributes))
             return false;
         return true;
     }
@@ -188,7 +245,7 @@ public class Schema {
          * Returns a newly created schema based on the builder.
          */
         public Schema build() {
-            return new Schema(this.attributeList);
+            return new Schema(this.attributeList).intern();
         }
         
         /********************
@@ -407,4 +464,88 @@ public class Schema {
         
     }
 
+    /*
+     * The indexes of the attributes by their lowercased names and by their exact names,
+     *   the exact names are only used to avoid lowercasing the name on every lookup.
+     */
+    private static final class AttributeIndex {
+        
+        private final ImmutableMap<String, Integer> attributeIndex;
+        private final ImmutableMap<String, Integer> exactAttributeIndex;
+        
+        private AttributeIndex(List<Attribute> attributes) {
+            HashMap<String, Integer> attributeIndexTemp = new HashMap<String, Integer>();
+            for (int i = 0; i < attributes.size(); i++) {
+                attributeIndexTemp.put(attributes.get(i).getName().toLowerCase(), i);
+            }
+            this.attributeIndex = ImmutableMap.copyOf(attributeIndexTemp);
+            HashMap<String, Integer> exactAttributeIndexTemp = new HashMap<String, Integer>();
+            for (int i = 0; i < attributes.size(); i++) {
+                String attributeName = attributes.get(i).getName();
+                if (attributeIndexTemp.get(attributeName.toLowerCase()) == i) {
+                    exactAttributeIndexTemp.put(attributeName, i);
+                }
+            }
+            this.exactAttributeIndex = ImmutableMap.copyOf(exactAttributeIndexTemp);
+        }
+        
+        private int indexOf(String attributeName) {
+            Integer index = exactAttributeIndex.get(attributeName);
+            if (index == null) {
+                index = attributeIndex.get(attributeName.toLowerCase());
+            }
+            return index == null ? -1 : index;
+        }
+        
+    }
+    
+    /*
+     * The key of a canonical schema in CANONICAL_SCHEMAS, 
+     *   two keys are equal only if the attribute names are exactly the same (not ignoring the case),
+     *   so that interning a schema never changes the names of its attributes.
+     */
+    private static final class CanonicalKey {
+        
+        private final Schema schema;
+        private final int hashCode;
+        
+        private CanonicalKey(Schema schema) {
+            this.schema = schema;
+            int result = 1;
+            for (Attribute attribute : schema.attributes) {
+                result = 31 * result + attribute.getName().hashCode();
+                result = 31 * result + attribute.getType().hashCode();
+            }
+            this.hashCode = result;
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (! (obj instanceof CanonicalKey)) {
+                return false;
+            }
+            List<Attribute> attributes = schema.attributes;
+            List<Attribute> otherAttributes = ((CanonicalKey) obj).schema.attributes;
+            if (hashCode != ((CanonicalKey) obj).hashCode || attributes.size() != otherAttributes.size()) {
+                return false;
+            }
+            for (int i = 0; i < attributes.size(); i++) {
+                if (! attributes.get(i).getName().equals(otherAttributes.get(i).getName())
+                        || attributes.get(i).getType() != otherAttributes.get(i).getType()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+    }
+    
 }
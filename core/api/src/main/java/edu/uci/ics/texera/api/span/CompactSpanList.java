@@ -0,0 +1,209 @@
+package edu.uci.ics.texera.api.span;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * CompactSpanList is an immutable list of spans stored in parallel int arrays instead of span objects,
+ *   it's used for the payload, which has one span for every token of every TEXT field.
+ *
+ * For every span, the start, the end, the token offset, the id of its attribute and the id of its key are stored.
+ *   The attribute names and the keys are stored once per list, and they are referenced by their ids.
+ *   The value of a span is not stored, it's the substring of the text of its attribute,
+ *   which is only copied when {@link Span#getValue()} is called.
+ *
+ * A Span is created when an element is accessed with {@link #get(int)},
+ *   the index based accessors (such as {@link #getStart(int)}) read the arrays without creating a Span.
+ *
+ * It's a normal List<Span>, so it can be the value of a ListField, and it's serialized to JSON as a list of spans.
+ *
+ */
+public final class CompactSpanList extends AbstractList<Span> implements RandomAccess {
+
+    private final String[] attributeNames;
+    private final String[] sourceTexts;
+    private final String[] keys;
+
+    private final int size;
+    private final int[] attributeIds;
+    private final int[] keyIds;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] tokenOffsets;
+
+    private CompactSpanList(Builder builder) {
+        this.attributeNames = builder.attributeNames.toArray(new String[builder.attributeNames.size()]);
+        this.sourceTexts = builder.sourceTexts.toArray(new String[builder.sourceTexts.size()]);
+        this.keys = builder.keys.toArray(new String[builder.keys.size()]);
+
+        this.size = builder.size;
+        this.attributeIds = Arrays.copyOf(builder.attributeIds, size);
+        this.keyIds = Arrays.copyOf(builder.keyIds, size);
+        this.starts = Arrays.copyOf(builder.starts, size);
+        this.ends = Arrays.copyOf(builder.ends, size);
+        this.tokenOffsets = Arrays.copyOf(builder.tokenOffsets, size);
+    }
+
+    @Override
+    public Span get(int index) {
+        checkIndex(index);
+        int attributeId = attributeIds[index];
+        return new Span(attributeNames[attributeId], starts[index], ends[index], keys[keyIds[index]],
+                tokenOffsets[index], sourceTexts[attributeId]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public String getAttributeName(int index) {
+        checkIndex(index);
+        return attributeNames[attributeIds[index]];
+    }
+
+    public int getStart(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    public int getEnd(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    public String getKey(int index) {
+        checkIndex(index);
+        return keys[keyIds[index]];
+    }
+
+    public String getValue(int index) {
+        checkIndex(index);
+        return sourceTexts[attributeIds[index]].substring(starts[index], ends[index]);
+    }
+
+    public int getTokenOffset(int index) {
+        checkIndex(index);
+        return tokenOffsets[index];
+    }
+
+    /**
+     * Gets the approximate number of bytes used by the list, not including the source texts,
+     *   which are the values of the fields of the tuple.
+     */
+    public long getMemoryUsageBytes() {
+        long bytes = 64 + 20L * size;
+        for (String key : keys) {
+            bytes += 48 + (key == null ? 0 : 2L * key.length());
+        }
+        return bytes;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Builder builds a CompactSpanList span by span.
+     */
+    public static class Builder {
+
+        private final List<String> attributeNames = new ArrayList<>();
+        private final List<String> sourceTexts = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+        private final Map<String, Integer> keyIdMap = new HashMap<>();
+
+        private int size = 0;
+        private int[] attributeIds = new int[16];
+        private int[] keyIds = new int[16];
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int[] tokenOffsets = new int[16];
+
+        // the ids of the previous span, the spans of a payload are added attribute by attribute (and term by term)
+        private int lastAttributeId = -1;
+        private String lastKey = null;
+        private int lastKeyId = -1;
+
+        /**
+         * Adds a span whose value is sourceText.substring(start, end).
+         *
+         * @param attributeName
+         * @param sourceText, the text of the attribute
+         * @param start
+         * @param end
+         * @param key
+         * @param tokenOffset
+         * @return this builder
+         */
+        public Builder add(String attributeName, String sourceText, int start, int end, String key, int tokenOffset) {
+            if (start < 0 || end < start || end > sourceText.length()) {
+                throw new IndexOutOfBoundsException(
+                        "span [" + start + ", " + end + ") is out of the text of attribute " + attributeName);
+            }
+            if (size == starts.length) {
+                int capacity = size * 2;
+                attributeIds = Arrays.copyOf(attributeIds, capacity);
+                keyIds = Arrays.copyOf(keyIds, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                tokenOffsets = Arrays.copyOf(tokenOffsets, capacity);
+            }
+            attributeIds[size] = getAttributeId(attributeName, sourceText);
+            keyIds[size] = getKeyId(key);
+            starts[size] = start;
+            ends[size] = end;
+            tokenOffsets[size] = tokenOffset;
+            size++;
+            return this;
+        }
+
+        /*
+         * An attribute is identified by its name and its text, there are only a few attributes in a list.
+         */
+        private int getAttributeId(String attributeName, String sourceText) {
+            if (lastAttributeId != -1 && attributeNames.get(lastAttributeId).equals(attributeName)
+                    && sourceTexts.get(lastAttributeId) == sourceText) {
+                return lastAttributeId;
+            }
+            for (int i = 0; i < attributeNames.size(); i++) {
+                if (attributeNames.get(i).equals(attributeName) && sourceTexts.get(i).equals(sourceText)) {
+                    lastAttributeId = i;
+                    return i;
+                }
+            }
+            attributeNames.add(attributeName);
+            sourceTexts.add(sourceText);
+            lastAttributeId = attributeNames.size() - 1;
+            return lastAttributeId;
+        }
+
+        private int getKeyId(String key) {
+            if (lastKeyId != -1 && key == lastKey) {
+                return lastKeyId;
+            }
+            Integer keyId = keyIdMap.get(key);
+            if (keyId == null) {
+                keyId = keys.size();
+                keys.add(key);
+                keyIdMap.put(key, keyId);
+            }
+            lastKey = key;
+            lastKeyId = keyId;
+            return keyId;
+        }
+
+        public CompactSpanList build() {
+            return new CompactSpanList(this);
+        }
+
+    }
+
+}
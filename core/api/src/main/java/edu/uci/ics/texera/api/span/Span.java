@@ -20,6 +20,9 @@ public class Span {
     private String value;
     // The token position of the span, starting from 0.
     private int tokenOffset;
+    // The text of the field, if the value is materialized lazily from it (see CompactSpanList),
+    //   it's shared with the field and the other spans of the field, so keeping it costs no extra memory
+    private String sourceText;
 
     /*
      * Example: Value = "The quick brown fox jumps over the lazy dog" Now the
@@ -55,6 +58,14 @@ public class Span {
         this(attributeName, start, end, key, value, INVALID_TOKEN_OFFSET);
     }
 
+    /*
+     * Creates a span whose value is the substring of the source text, it's only copied when it's accessed.
+     */
+    Span(String attributeName, int start, int end, String key, int tokenOffset, String sourceText) {
+        this(attributeName, start, end, key, null, tokenOffset);
+        this.sourceText = sourceText;
+    }
+
     @JsonProperty(value = JsonConstants.ATTRIBUTE_NAME)
     public String getAttributeName() {
         return attributeName;
@@ -77,7 +88,17 @@ public class Span {
 
     @JsonProperty(value = JsonConstants.SPAN_VALUE)
     public String getValue() {
-        return value;
+        // the span can be read by several threads: the fields are read once into locals,
+        //   and the source text is never cleared, so a racing thread at worst copies the value again
+        String spanValue = value;
+        if (spanValue == null) {
+            String text = sourceText;
+            if (text != null) {
+                spanValue = text.substring(start, end);
+                value = spanValue;
+            }
+        }
+        return spanValue;
     }
 
     @JsonProperty(value = JsonConstants.SPAN_TOKEN_OFFSET)
@@ -93,7 +114,7 @@ public class Span {
         result = prime * result + ((attributeName == null) ? 0 : attributeName.hashCode());
         result = prime * result + ((key == null) ? 0 : key.hashCode());
         result = prime * result + start;
-        result = prime * result + ((value == null) ? 0 : value.hashCode());
+        result = prime * result + ((getValue() == null) ? 0 : getValue().hashCode());
         result = prime * result + tokenOffset;
         return result;
     }
@@ -126,10 +147,10 @@ public class Span {
         } else if (!key.equals(other.key))
             return false;
 
-        if (value == null) {
-            if (other.value != null)
+        if (getValue() == null) {
+            if (other.getValue() != null)
                 return false;
-        } else if (!value.equals(other.value))
+        } else if (!getValue().equals(other.getValue()))
             return false;
 
         if (tokenOffset != other.tokenOffset)
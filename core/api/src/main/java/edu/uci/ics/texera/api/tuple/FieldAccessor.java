@@ -0,0 +1,77 @@
+package edu.uci.ics.texera.api.tuple;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.field.IField;
+import edu.uci.ics.texera.api.schema.Attribute;
+import edu.uci.ics.texera.api.schema.Schema;
+
+/**
+ * FieldAccessor gets the field of an attribute from many tuples by its index,
+ *   instead of looking up the attribute name in the schema for every tuple.
+ *
+ * It's created once with the schema of the tuples (for example, when an operator is opened).
+ * The index is resolved again by the name if a tuple has a different schema object,
+ *   so the accessor always returns the same field as {@link Tuple#getField(String)}.
+ *
+ * A FieldAccessor is not thread safe, each operator should have its own accessors.
+ *
+ */
+public class FieldAccessor {
+
+    private final String attributeName;
+
+    private Schema schema;
+    private int index;
+
+    /**
+     * Creates an accessor of the attribute in the schema.
+     *
+     * @param schema
+     * @param attributeName
+     * @throws TexeraException, if the attribute is not in the schema
+     */
+    public FieldAccessor(Schema schema, String attributeName) throws TexeraException {
+        checkNotNull(schema);
+        checkNotNull(attributeName);
+        this.attributeName = attributeName;
+        resolve(schema);
+    }
+
+    public String getAttributeName() {
+        return attributeName;
+    }
+
+    /**
+     * Gets the attribute in the schema which the accessor is resolved against.
+     */
+    public Attribute getAttribute() {
+        return schema.getAttributes().get(index);
+    }
+
+    /**
+     * Gets the field of the attribute in the tuple.
+     *
+     * @param tuple
+     * @return
+     * @throws TexeraException, if the attribute is not in the tuple
+     */
+    public <T extends IField> T getField(Tuple tuple) throws TexeraException {
+        Schema tupleSchema = tuple.getSchema();
+        if (tupleSchema != schema) {
+            resolve(tupleSchema);
+        }
+        return tuple.getField(index);
+    }
+
+    private void resolve(Schema schema) throws TexeraException {
+        int index = schema.indexOf(attributeName);
+        if (index == -1) {
+            throw new TexeraException(attributeName + " is not in the tuple");
+        }
+        this.schema = schema;
+        this.index = index;
+    }
+
+}
@@ -1,10 +1,12 @@
 package edu.uci.ics.texera.api.tuple;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -32,6 +34,7 @@ import edu.uci.ics.texera.api.schema.Schema;
  * A Tuple can be considered as a record/a row in a table.
  * 
  * Tuple instances are immutable. Use Tuple.Builder to create/manipulate Tuple objects.
+ * Use Tuple.Appender to add attributes to many tuples of the same schema (for example, in an operator).
  * 
  * @author chenli
  * @author sandeepreddy602
@@ -42,7 +45,7 @@ import edu.uci.ics.texera.api.schema.Schema;
 @JsonDeserialize(using = TupleJsonDeserializer.class)
 public class Tuple {
     private final Schema schema;
-    private final ImmutableList<IField> fields;
+    private final List<IField> fields;
 
     public Tuple(Schema schema, IField... fields) {
         this(schema, Arrays.asList(fields));
@@ -62,13 +65,24 @@ public class Tuple {
         // check schema matches the fields
         checkSchemaMatchesFields(schema.getAttributes(), fields);
 
-        this.schema = schema;
+        // the canonical schema is used, so that comparing the schemas of tuples is a reference comparison
+        this.schema = schema.intern();
         this.fields = ImmutableList.copyOf(fields);
         if (this.fields == null) {
             throw new TexeraException("something goes wrong here");
         }
     }
     
+    /*
+     * Creates a tuple without checking the fields.
+     * The caller must have checked that the fields match the schema, and the list must never be modified.
+     * The schema must be canonical.
+     */
+    private Tuple(Schema schema, List<IField> fields, boolean checked) {
+        this.schema = schema;
+        this.fields = fields;
+    }
+    
     @JsonProperty(value = JsonConstants.SCHEMA)
     public Schema getSchema() {
         return schema;
@@ -81,10 +95,23 @@ public class Tuple {
 
     @SuppressWarnings("unchecked")
     public <T extends IField> T getField(String attributeName) {
-        if (! schema.containsAttribute(attributeName)) {
+        int index = schema.indexOf(attributeName);
+        if (index == -1) {
             throw new TexeraException(attributeName + " is not in the tuple");
         }
-        return (T) fields.get(schema.getIndex(attributeName));
+        return (T) fields.get(index);
+    }
+    
+    /**
+     * Gets the field at the index of its attribute in the schema.
+     * Use a {@link FieldAccessor} to get a field of many tuples by its attribute name.
+     * 
+     * @param index
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends IField> T getField(int index) {
+        return (T) fields.get(index);
     }
     
     public <T extends IField> T getField(String attributeName, Class<T> fieldClass) {
@@ -229,7 +256,8 @@ public class Tuple {
             for (int i = 0; i < schema.getAttributes().size(); i++) {
                 fields.add(fieldNameMap.get(schema.getAttributes().get(i).getName().toLowerCase()));
             }
-            return new Tuple(schema, fields);
+            // every field is checked when it's added (or it's from an existing tuple)
+            return new Tuple(schema, ImmutableList.copyOf(fields), true);
         }
         
         /**
@@ -556,4 +584,138 @@ public class Tuple {
         
     }
     
+    /**
+     * Tuple.Appender adds the same attributes to many tuples of the same schema, 
+     *   it's created once (for example, when an operator is opened) and used for every tuple.
+     * 
+     * The output schema is built and checked once when the appender is created.
+     * The appended tuple shares the fields of the input tuple instead of copying them,
+     *   only the type of the appended fields are checked for each tuple.
+     * 
+     */
+    public static class Appender {
+        
+        // the number of appends before the shared fields are copied into one list
+        private static final int MAX_APPEND_DEPTH = 4;
+        
+        private final Schema inputSchema;
+        private final Schema outputSchema;
+        private final List<Attribute> appendedAttributes;
+        
+        /**
+         * Creates an appender which appends the attributes to the tuples of the input schema.
+         * 
+         * @param inputSchema
+         * @param attributes
+         * @throws TexeraException, if one of the attributes already exists
+         */
+        public Appender(Schema inputSchema, Attribute... attributes) throws TexeraException {
+            this(inputSchema, new Schema.Builder(checkNotNull(inputSchema)).add(attributes).build());
+        }
+        
+        /**
+         * Creates an appender from the tuples of the input schema to the tuples of the output schema.
+         * 
+         * @param inputSchema
+         * @param outputSchema, the attributes of the input schema followed by the appended attributes
+         * @throws TexeraException, if the output schema doesn't start with the attributes of the input schema
+         */
+        public Appender(Schema inputSchema, Schema outputSchema) throws TexeraException {
+            checkNotNull(inputSchema);
+            checkNotNull(outputSchema);
+            List<Attribute> inputAttributes = inputSchema.getAttributes();
+            List<Attribute> outputAttributes = outputSchema.getAttributes();
+            if (outputAttributes.size() < inputAttributes.size() 
+                    || ! outputAttributes.subList(0, inputAttributes.size()).equals(inputAttributes)) {
+                throw new TexeraException(String.format(
+                        "Output schema %s doesn't start with the attributes of input schema %s", 
+                        outputSchema, inputSchema));
+            }
+            this.inputSchema = inputSchema.intern();
+            this.outputSchema = outputSchema.intern();
+            this.appendedAttributes = ImmutableList.copyOf(
+                    outputAttributes.subList(inputAttributes.size(), outputAttributes.size()));
+        }
+        
+        public Schema getInputSchema() {
+            return inputSchema;
+        }
+        
+        public Schema getOutputSchema() {
+            return outputSchema;
+        }
+        
+        /**
+         * Appends the fields to the tuple, the fields correspond to the appended attributes.
+         * 
+         * @param tuple, a tuple of the input schema
+         * @param fields
+         * @return a new tuple of the output schema
+         * @throws TexeraException, if the tuple's schema is not the input schema, or the fields don't match
+         */
+        public Tuple append(Tuple tuple, IField... fields) throws TexeraException {
+            checkNotNull(tuple);
+            checkNotNull(fields);
+            if (tuple.schema != inputSchema && ! tuple.schema.equals(inputSchema)) {
+                throw new TexeraException(String.format(
+                        "Tuple's schema %s is different from the input schema %s", tuple.schema, inputSchema));
+            }
+            if (fields.length != appendedAttributes.size()) {
+                throw new TexeraException(String.format(
+                        "Appended attributes size (%d) and field size (%d) are different", 
+                        appendedAttributes.size(), fields.length));
+            }
+            IField[] appendedFields = fields.clone();
+            for (int i = 0; i < appendedFields.length; i++) {
+                checkNotNull(appendedFields[i]);
+                checkAttributeMatchesField(appendedAttributes.get(i), appendedFields[i]);
+            }
+            return new Tuple(outputSchema, AppendedFieldList.append(tuple.fields, appendedFields), true);
+        }
+        
+    }
+    
+    /*
+     * An immutable list of the fields of a tuple followed by the appended fields, 
+     *   the fields of the tuple are shared instead of copied.
+     * If a tuple is appended many times, the fields are copied once every MAX_APPEND_DEPTH appends,
+     *   so that getting a field never goes through more than MAX_APPEND_DEPTH lists.
+     */
+    private static final class AppendedFieldList extends AbstractList<IField> implements RandomAccess {
+        
+        private final List<IField> parentFields;
+        private final IField[] appendedFields;
+        private final int parentSize;
+        private final int depth;
+        
+        private AppendedFieldList(List<IField> parentFields, IField[] appendedFields, int depth) {
+            this.parentFields = parentFields;
+            this.appendedFields = appendedFields;
+            this.parentSize = parentFields.size();
+            this.depth = depth;
+        }
+        
+        static List<IField> append(List<IField> parentFields, IField[] appendedFields) {
+            int depth = parentFields instanceof AppendedFieldList ? ((AppendedFieldList) parentFields).depth + 1 : 1;
+            if (depth > Appender.MAX_APPEND_DEPTH) {
+                return ImmutableList.<IField>builder().addAll(parentFields).add(appendedFields).build();
+            }
+            return new AppendedFieldList(parentFields, appendedFields, depth);
+        }
+        
+        @Override
+        public IField get(int index) {
+            if (index < parentSize) {
+                return parentFields.get(index);
+            }
+            return appendedFields[index - parentSize];
+        }
+        
+        @Override
+        public int size() {
+            return parentSize + appendedFields.length;
+        }
+        
+    }
+    
 }
@@ -0,0 +1,122 @@
+package edu.uci.ics.texera.api.tuple;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.uci.ics.texera.api.exception.TexeraException;
+
+/**
+ * TupleBatch is a reusable, fixed-capacity container of tuples.
+ *
+ * It is used by the batch-at-a-time protocol (IOperator.getNextBatch()), where the caller
+ *   allocates one batch and passes it to the operator repeatedly. The operator clears the
+ *   batch and fills it with up to "capacity" tuples on each call.
+ *
+ * A TupleBatch is NOT thread-safe, and the tuples in it are only valid until the next call
+ *   that refills it. Callers who need to keep the tuples must copy them out.
+ */
+public class TupleBatch {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final Tuple[] tuples;
+    private int size = 0;
+
+    /**
+     * Creates a TupleBatch with the default capacity.
+     */
+    public TupleBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a TupleBatch with the given capacity.
+     * @param capacity, the maximum number of tuples the batch can hold, must be positive
+     */
+    public TupleBatch(int capacity) {
+        checkArgument(capacity > 0, "batch capacity must be positive");
+        this.tuples = new Tuple[capacity];
+    }
+
+    public int capacity() {
+        return tuples.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == tuples.length;
+    }
+
+    /**
+     * Appends a tuple to the end of the batch.
+     *
+     * @param tuple
+     * @throws TexeraException, if the batch is full
+     */
+    public void add(Tuple tuple) throws TexeraException {
+        checkNotNull(tuple);
+        if (isFull()) {
+            throw new TexeraException(String.format("tuple batch is full (capacity %d)", tuples.length));
+        }
+        tuples[size++] = tuple;
+    }
+
+    public Tuple get(int index) {
+        checkElementIndex(index, size);
+        return tuples[index];
+    }
+
+    /**
+     * Removes all the tuples from the batch. The capacity is unchanged.
+     */
+    public void clear() {
+        // release the references so that the tuples can be garbage collected
+        Arrays.fill(tuples, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Keeps only the tuples in the range [fromIndex, toIndex),
+     *   and moves them to the beginning of the batch.
+     *
+     * It's used to apply offset and limit on a batch.
+     *
+     * @param fromIndex, inclusive
+     * @param toIndex, exclusive
+     */
+    public void retainRange(int fromIndex, int toIndex) {
+        checkArgument(0 <= fromIndex && fromIndex <= toIndex && toIndex <= size,
+                "invalid range [%s, %s) for batch size %s", fromIndex, toIndex, size);
+        int newSize = toIndex - fromIndex;
+        if (fromIndex > 0) {
+            System.arraycopy(tuples, fromIndex, tuples, 0, newSize);
+        }
+        Arrays.fill(tuples, newSize, size, null);
+        size = newSize;
+    }
+
+    /**
+     * Copies the tuples in the batch to a new list.
+     * @return a list of tuples in the batch
+     */
+    public List<Tuple> toList() {
+        return new ArrayList<>(Arrays.asList(tuples).subList(0, size));
+    }
+
+    public String toString() {
+        return "TupleBatch [size=" + size + ", capacity=" + tuples.length + "]";
+    }
+
+}
@@ -0,0 +1,72 @@
+package edu.uci.ics.texera.api.tuple;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * TupleBinaryFormat has the constants of the compact binary format of tuples,
+ *   which is written by {@link TupleBinaryWriter} and read by {@link TupleBinaryReader}.
+ *
+ * A stream starts with the magic bytes "TXTB" and the version, followed by records, and ends with an END record.
+ * Each record starts with its type byte:
+ *   SCHEMA: the number of attributes, and the name and the type name of each attribute.
+ *     A schema is written once before the first tuple of the schema, the schemas are numbered from 0.
+ *   TUPLE: the number of its schema, followed by its fields in the order of the attributes,
+ *     except that the LIST fields are written after all the other fields.
+ *   END: the end of the stream.
+ *
+ * The numbers are written as varints (7 bits per byte), the signed numbers are zigzag encoded first.
+ * A string is written as a varint header: 0 for null, (id << 1 | 1) for a string in the dictionary,
+ *   otherwise ((length + 1) << 1) followed by the UTF-8 bytes.
+ * The short strings which are likely to repeat (attribute names, STRING fields, span keys) are added to a dictionary
+ *   when they are written for the first time, and they are written by their ids afterwards.
+ *
+ * The fields are written by their attribute types:
+ *   STRING, TEXT, _ID: a string (only STRING fields use the dictionary).
+ *   INTEGER: the zigzag encoded value. DOUBLE: the 8 bytes of the value.
+ *   DATE: the zigzag encoded epoch day. DATETIME: the zigzag encoded epoch second (UTC) and the nano of second.
+ *   LIST (of spans): the number of spans, and for each span: the attribute name, the start (delta from the previous span),
+ *     the length, the key, the token offset (delta from the previous span), and the value.
+ *     The value is not written (a 0 byte) if it's the text of the span's attribute in the tuple from start to end,
+ *     otherwise it's a 1 byte followed by the value as a string.
+ *
+ */
+final class TupleBinaryFormat {
+
+    static final byte[] MAGIC = { 'T', 'X', 'T', 'B' };
+    static final int VERSION = 1;
+
+    static final int END_RECORD = 0;
+    static final int SCHEMA_RECORD = 1;
+    static final int TUPLE_RECORD = 2;
+
+    static final int SPAN_VALUE_FROM_SOURCE = 0;
+    static final int SPAN_VALUE_WRITTEN = 1;
+
+    // the dictionary is bounded, so that a stream of unique strings doesn't keep all of them in memory
+    static final int MAX_DICTIONARY_SIZE = 1 << 16;
+    static final int MAX_DICTIONARY_STRING_LENGTH = 64;
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    private TupleBinaryFormat() {
+    }
+
+    static long zigzagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /*
+     * The writer and the reader add the same strings to their dictionaries.
+     */
+    static boolean isDictionaryString(String string, int dictionarySize) {
+        return dictionarySize < MAX_DICTIONARY_SIZE && string.length() <= MAX_DICTIONARY_STRING_LENGTH;
+    }
+
+}
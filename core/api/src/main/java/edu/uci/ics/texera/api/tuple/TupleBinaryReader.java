@@ -0,0 +1,359 @@
+package edu.uci.ics.texera.api.tuple;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.uci.ics.texera.api.exception.StorageException;
+import edu.uci.ics.texera.api.field.DateField;
+import edu.uci.ics.texera.api.field.DateTimeField;
+import edu.uci.ics.texera.api.field.DoubleField;
+import edu.uci.ics.texera.api.field.IDField;
+import edu.uci.ics.texera.api.field.IField;
+import edu.uci.ics.texera.api.field.IntegerField;
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.field.StringField;
+import edu.uci.ics.texera.api.field.TextField;
+import edu.uci.ics.texera.api.schema.Attribute;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.span.CompactSpanList;
+import edu.uci.ics.texera.api.span.Span;
+
+/**
+ * TupleBinaryReader reads the tuples written by {@link TupleBinaryWriter} one by one from a stream.
+ *
+ * The spans whose values are read from the fields of the tuple are read into a {@link CompactSpanList}.
+ *
+ */
+public class TupleBinaryReader implements Closeable {
+
+    private final InputStream input;
+    private final byte[] buffer = new byte[TupleBinaryFormat.BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+
+    private final List<Schema> schemas = new ArrayList<>();
+    private final List<String> strings = new ArrayList<>();
+
+    private boolean finished = false;
+
+    public TupleBinaryReader(InputStream input) throws StorageException {
+        checkNotNull(input);
+        this.input = input;
+        byte[] magic = new byte[TupleBinaryFormat.MAGIC.length];
+        for (int i = 0; i < magic.length; i++) {
+            magic[i] = (byte) readByte();
+        }
+        if (! Arrays.equals(magic, TupleBinaryFormat.MAGIC)) {
+            throw new StorageException("The stream is not in the tuple binary format");
+        }
+        long version = readVarLong();
+        if (version != TupleBinaryFormat.VERSION) {
+            throw new StorageException("Unsupported tuple binary format version " + version);
+        }
+    }
+
+    /**
+     * Reads all the tuples from a byte array written by {@link TupleBinaryWriter#toBytes(Iterable)}.
+     *
+     * @param bytes
+     * @return
+     * @throws StorageException
+     */
+    public static List<Tuple> fromBytes(byte[] bytes) throws StorageException {
+        try (TupleBinaryReader reader = new TupleBinaryReader(new ByteArrayInputStream(bytes))) {
+            return reader.readAll();
+        }
+    }
+
+    public List<Tuple> readAll() throws StorageException {
+        List<Tuple> tuples = new ArrayList<>();
+        Tuple tuple;
+        while ((tuple = read()) != null) {
+            tuples.add(tuple);
+        }
+        return tuples;
+    }
+
+    /**
+     * Reads the next tuple.
+     *
+     * @return the next tuple, or null if the stream is ended
+     * @throws StorageException, if the stream is corrupted or it ends without an END record
+     */
+    public Tuple read() throws StorageException {
+        while (! finished) {
+            int recordType = readByte();
+            switch (recordType) {
+            case TupleBinaryFormat.SCHEMA_RECORD:
+                schemas.add(readSchema());
+                break;
+            case TupleBinaryFormat.TUPLE_RECORD:
+                return readTuple();
+            case TupleBinaryFormat.END_RECORD:
+                finished = true;
+                break;
+            default:
+                throw new StorageException("Unknown record type " + recordType + " in the tuple stream");
+            }
+        }
+        return null;
+    }
+
+    private Schema readSchema() throws StorageException {
+        int attributeCount = readLength();
+        List<Attribute> attributes = new ArrayList<>(attributeCount);
+        for (int i = 0; i < attributeCount; i++) {
+            String attributeName = readString(true);
+            String attributeTypeName = readString(true);
+            AttributeType attributeType = null;
+            for (AttributeType type : AttributeType.values()) {
+                if (type.getName().equals(attributeTypeName)) {
+                    attributeType = type;
+                }
+            }
+            if (attributeName == null || attributeType == null) {
+                throw new StorageException("Invalid attribute " + attributeName + " of type " + attributeTypeName);
+            }
+            attributes.add(new Attribute(attributeName, attributeType));
+        }
+        return new Schema(attributes).intern();
+    }
+
+    private Tuple readTuple() throws StorageException {
+        long schemaId = readVarLong();
+        if (schemaId < 0 || schemaId >= schemas.size()) {
+            throw new StorageException("Unknown schema " + schemaId + " in the tuple stream");
+        }
+        Schema schema = schemas.get((int) schemaId);
+        List<Attribute> attributes = schema.getAttributes();
+        IField[] fields = new IField[attributes.size()];
+        for (int i = 0; i < attributes.size(); i++) {
+            if (attributes.get(i).getType() != AttributeType.LIST) {
+                fields[i] = readField(attributes.get(i).getType());
+            }
+        }
+        for (int i = 0; i < attributes.size(); i++) {
+            if (attributes.get(i).getType() == AttributeType.LIST) {
+                fields[i] = new ListField<Span>(readSpanList(schema, fields));
+            }
+        }
+        return new Tuple(schema, fields);
+    }
+
+    private IField readField(AttributeType attributeType) throws StorageException {
+        switch (attributeType) {
+        case STRING:
+            return new StringField(readString(true));
+        case TEXT:
+            return new TextField(readString(false));
+        case _ID_TYPE:
+            return new IDField(readString(false));
+        case INTEGER:
+            return new IntegerField((int) TupleBinaryFormat.zigzagDecode(readVarLong()));
+        case DOUBLE:
+            return new DoubleField(Double.longBitsToDouble(readLong()));
+        case DATE:
+            return new DateField(LocalDate.ofEpochDay(TupleBinaryFormat.zigzagDecode(readVarLong())));
+        case DATETIME:
+            long epochSecond = TupleBinaryFormat.zigzagDecode(readVarLong());
+            int nano = (int) readVarLong();
+            return new DateTimeField(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+        default:
+            throw new StorageException("Attribute type " + attributeType + " can't be read from the binary format");
+        }
+    }
+
+    private List<Span> readSpanList(Schema schema, IField[] fields) throws StorageException {
+        int spanCount = readLength();
+        String[] attributeNames = new String[spanCount];
+        String[] sourceTexts = new String[spanCount];
+        String[] keys = new String[spanCount];
+        String[] values = new String[spanCount];
+        int[] starts = new int[spanCount];
+        int[] ends = new int[spanCount];
+        int[] tokenOffsets = new int[spanCount];
+        boolean allValuesFromSource = true;
+
+        int previousStart = 0;
+        int previousTokenOffset = 0;
+        String sourceAttributeName = null;
+        String sourceText = null;
+        for (int i = 0; i < spanCount; i++) {
+            attributeNames[i] = readString(true);
+            starts[i] = previousStart + (int) TupleBinaryFormat.zigzagDecode(readVarLong());
+            ends[i] = starts[i] + (int) TupleBinaryFormat.zigzagDecode(readVarLong());
+            keys[i] = readString(true);
+            tokenOffsets[i] = previousTokenOffset + (int) TupleBinaryFormat.zigzagDecode(readVarLong());
+
+            if (sourceAttributeName == null || ! sourceAttributeName.equals(attributeNames[i])) {
+                sourceAttributeName = attributeNames[i];
+                sourceText = getSourceText(schema, fields, attributeNames[i]);
+            }
+            int valueType = readByte();
+            if (valueType == TupleBinaryFormat.SPAN_VALUE_FROM_SOURCE) {
+                if (sourceText == null || starts[i] < 0 || ends[i] < starts[i] || ends[i] > sourceText.length()) {
+                    throw new StorageException("The span of attribute " + attributeNames[i] + " is out of its text");
+                }
+                sourceTexts[i] = sourceText;
+            } else if (valueType == TupleBinaryFormat.SPAN_VALUE_WRITTEN) {
+                values[i] = readString(false);
+                allValuesFromSource = false;
+            } else {
+                throw new StorageException("Unknown span value type " + valueType + " in the tuple stream");
+            }
+            previousStart = starts[i];
+            previousTokenOffset = tokenOffsets[i];
+        }
+
+        if (allValuesFromSource) {
+            CompactSpanList.Builder spanListBuilder = new CompactSpanList.Builder();
+            for (int i = 0; i < spanCount; i++) {
+                spanListBuilder.add(attributeNames[i], sourceTexts[i], starts[i], ends[i], keys[i], tokenOffsets[i]);
+            }
+            return spanListBuilder.build();
+        }
+        List<Span> spanList = new ArrayList<>(spanCount);
+        for (int i = 0; i < spanCount; i++) {
+            String value = sourceTexts[i] != null ? sourceTexts[i].substring(starts[i], ends[i]) : values[i];
+            spanList.add(new Span(attributeNames[i], starts[i], ends[i], keys[i], value, tokenOffsets[i]));
+        }
+        return spanList;
+    }
+
+    /*
+     * The same as TupleBinaryWriter.getSourceText(), from the fields which are read.
+     */
+    private static String getSourceText(Schema schema, IField[] fields, String attributeName) {
+        if (attributeName == null) {
+            return null;
+        }
+        int index = schema.indexOf(attributeName);
+        if (index == -1) {
+            return null;
+        }
+        AttributeType attributeType = schema.getAttributes().get(index).getType();
+        if (attributeType != AttributeType.TEXT && attributeType != AttributeType.STRING) {
+            return null;
+        }
+        return (String) fields[index].getValue();
+    }
+
+    private String readString(boolean useDictionary) throws StorageException {
+        long header = readVarLong();
+        if (header == 0) {
+            return null;
+        }
+        if ((header & 1) == 1) {
+            long stringId = header >>> 1;
+            if (stringId >= strings.size()) {
+                throw new StorageException("Unknown string " + stringId + " in the tuple stream");
+            }
+            return strings.get((int) stringId);
+        }
+        long length = (header >>> 1) - 1;
+        if (length > Integer.MAX_VALUE) {
+            throw new StorageException("Invalid string length " + length + " in the tuple stream");
+        }
+        String string;
+        if (length <= buffer.length) {
+            ensureAvailable((int) length);
+            string = new String(buffer, position, (int) length, TupleBinaryFormat.CHARSET);
+            position += length;
+        } else {
+            byte[] bytes = new byte[(int) length];
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (position == limit) {
+                    ensureAvailable(1);
+                }
+                int count = Math.min(limit - position, bytes.length - offset);
+                System.arraycopy(buffer, position, bytes, offset, count);
+                position += count;
+                offset += count;
+            }
+            string = new String(bytes, TupleBinaryFormat.CHARSET);
+        }
+        if (useDictionary && TupleBinaryFormat.isDictionaryString(string, strings.size())) {
+            strings.add(string);
+        }
+        return string;
+    }
+
+    private int readLength() throws StorageException {
+        long length = readVarLong();
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new StorageException("Invalid length " + length + " in the tuple stream");
+        }
+        return (int) length;
+    }
+
+    private long readVarLong() throws StorageException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StorageException("Invalid varint in the tuple stream");
+    }
+
+    private long readLong() throws StorageException {
+        ensureAvailable(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    private int readByte() throws StorageException {
+        ensureAvailable(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    /*
+     * Reads from the input stream until at least length bytes are in the buffer.
+     */
+    private void ensureAvailable(int length) throws StorageException {
+        if (limit - position >= length) {
+            return;
+        }
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+        try {
+            while (limit < length) {
+                int count = input.read(buffer, limit, buffer.length - limit);
+                if (count == -1) {
+                    throw new StorageException("Unexpected end of the tuple stream");
+                }
+                limit += count;
+            }
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws StorageException {
+        try {
+            input.close();
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,304 @@
+package edu.uci.ics.texera.api.tuple;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.uci.ics.texera.api.exception.StorageException;
+import edu.uci.ics.texera.api.field.DateField;
+import edu.uci.ics.texera.api.field.DateTimeField;
+import edu.uci.ics.texera.api.field.DoubleField;
+import edu.uci.ics.texera.api.field.IField;
+import edu.uci.ics.texera.api.field.IntegerField;
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.schema.Attribute;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.span.Span;
+
+/**
+ * TupleBinaryWriter writes tuples to a stream in the compact binary format described in {@link TupleBinaryFormat}.
+ *
+ * Unlike the JSON of a tuple, the schema is written once instead of with every tuple,
+ *   the fields are written without their type wrappers, the repeated short strings are written by their ids,
+ *   and the spans are delta encoded without the values which can be read from the fields of the tuple.
+ *
+ * The tuples are read back by {@link TupleBinaryReader}. The stream is ended when the writer is closed.
+ *
+ */
+public class TupleBinaryWriter implements Closeable {
+
+    private final OutputStream output;
+    private final byte[] buffer = new byte[TupleBinaryFormat.BUFFER_SIZE];
+    private int position = 0;
+
+    // the schemas are canonical, so that they are identified by reference
+    private final Map<Schema, Integer> schemaIds = new IdentityHashMap<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+
+    private boolean closed = false;
+
+    public TupleBinaryWriter(OutputStream output) throws StorageException {
+        checkNotNull(output);
+        this.output = output;
+        writeBytes(TupleBinaryFormat.MAGIC, 0, TupleBinaryFormat.MAGIC.length);
+        writeVarLong(TupleBinaryFormat.VERSION);
+    }
+
+    /**
+     * Writes the tuples to a byte array.
+     *
+     * @param tuples
+     * @return
+     * @throws StorageException
+     */
+    public static byte[] toBytes(Iterable<Tuple> tuples) throws StorageException {
+        ByteArrayOutputStream byteArrayOutput = new ByteArrayOutputStream();
+        try (TupleBinaryWriter writer = new TupleBinaryWriter(byteArrayOutput)) {
+            writer.writeAll(tuples);
+        }
+        return byteArrayOutput.toByteArray();
+    }
+
+    public void writeAll(Iterable<Tuple> tuples) throws StorageException {
+        for (Tuple tuple : tuples) {
+            write(tuple);
+        }
+    }
+
+    public void write(Tuple tuple) throws StorageException {
+        checkNotNull(tuple);
+        if (closed) {
+            throw new StorageException("TupleBinaryWriter is closed");
+        }
+        Schema schema = tuple.getSchema().intern();
+        Integer schemaId = schemaIds.get(schema);
+        if (schemaId == null) {
+            schemaId = schemaIds.size();
+            schemaIds.put(schema, schemaId);
+            writeSchema(schema);
+        }
+
+        writeByte(TupleBinaryFormat.TUPLE_RECORD);
+        writeVarLong(schemaId);
+        List<Attribute> attributes = schema.getAttributes();
+        // the spans are written after the other fields, so that their values can be read from the fields
+        for (int i = 0; i < attributes.size(); i++) {
+            if (attributes.get(i).getType() != AttributeType.LIST) {
+                writeField(attributes.get(i).getType(), tuple.getField(i));
+            }
+        }
+        for (int i = 0; i < attributes.size(); i++) {
+            if (attributes.get(i).getType() == AttributeType.LIST) {
+                writeSpanList(tuple, tuple.<ListField<?>>getField(i).getValue());
+            }
+        }
+    }
+
+    private void writeSchema(Schema schema) throws StorageException {
+        writeByte(TupleBinaryFormat.SCHEMA_RECORD);
+        writeVarLong(schema.getAttributes().size());
+        for (Attribute attribute : schema.getAttributes()) {
+            writeString(attribute.getName(), true);
+            writeString(attribute.getType().getName(), true);
+        }
+    }
+
+    private void writeField(AttributeType attributeType, IField field) throws StorageException {
+        switch (attributeType) {
+        case STRING:
+            writeString((String) field.getValue(), true);
+            break;
+        case TEXT:
+        case _ID_TYPE:
+            writeString((String) field.getValue(), false);
+            break;
+        case INTEGER:
+            writeVarLong(TupleBinaryFormat.zigzagEncode(((IntegerField) field).getValue()));
+            break;
+        case DOUBLE:
+            writeLong(Double.doubleToRawLongBits(((DoubleField) field).getValue()));
+            break;
+        case DATE:
+            writeVarLong(TupleBinaryFormat.zigzagEncode(((DateField) field).getValue().toEpochDay()));
+            break;
+        case DATETIME:
+            LocalDateTime dateTime = ((DateTimeField) field).getValue();
+            writeVarLong(TupleBinaryFormat.zigzagEncode(dateTime.toEpochSecond(ZoneOffset.UTC)));
+            writeVarLong(dateTime.getNano());
+            break;
+        default:
+            throw new StorageException("Attribute type " + attributeType + " can't be written in the binary format");
+        }
+    }
+
+    private void writeSpanList(Tuple tuple, List<?> spanList) throws StorageException {
+        writeVarLong(spanList.size());
+        int previousStart = 0;
+        int previousTokenOffset = 0;
+        String sourceAttributeName = null;
+        String sourceText = null;
+        for (Object element : spanList) {
+            if (! (element instanceof Span)) {
+                throw new StorageException("Only lists of spans can be written in the binary format");
+            }
+            Span span = (Span) element;
+            String attributeName = span.getAttributeName();
+            writeString(attributeName, true);
+            writeVarLong(TupleBinaryFormat.zigzagEncode(span.getStart() - previousStart));
+            writeVarLong(TupleBinaryFormat.zigzagEncode(span.getEnd() - span.getStart()));
+            writeString(span.getKey(), true);
+            writeVarLong(TupleBinaryFormat.zigzagEncode(span.getTokenOffset() - previousTokenOffset));
+
+            // the spans of a list are usually grouped by their attributes
+            if (sourceAttributeName == null || ! sourceAttributeName.equals(attributeName)) {
+                sourceAttributeName = attributeName;
+                sourceText = getSourceText(tuple, attributeName);
+            }
+            if (isValueFromSource(span, sourceText)) {
+                writeByte(TupleBinaryFormat.SPAN_VALUE_FROM_SOURCE);
+            } else {
+                writeByte(TupleBinaryFormat.SPAN_VALUE_WRITTEN);
+                writeString(span.getValue(), false);
+            }
+            previousStart = span.getStart();
+            previousTokenOffset = span.getTokenOffset();
+        }
+    }
+
+    /*
+     * Gets the text of the attribute of a span, or null if the attribute is not a text in the tuple.
+     */
+    static String getSourceText(Tuple tuple, String attributeName) {
+        if (attributeName == null) {
+            return null;
+        }
+        int index = tuple.getSchema().indexOf(attributeName);
+        if (index == -1) {
+            return null;
+        }
+        AttributeType attributeType = tuple.getSchema().getAttributes().get(index).getType();
+        if (attributeType != AttributeType.TEXT && attributeType != AttributeType.STRING) {
+            return null;
+        }
+        return (String) tuple.getField(index).getValue();
+    }
+
+    private static boolean isValueFromSource(Span span, String sourceText) {
+        int start = span.getStart();
+        int end = span.getEnd();
+        if (sourceText == null || start < 0 || end < start || end > sourceText.length()) {
+            return false;
+        }
+        String value = span.getValue();
+        return value != null && value.length() == end - start && sourceText.regionMatches(start, value, 0, value.length());
+    }
+
+    private void writeString(String string, boolean useDictionary) throws StorageException {
+        if (string == null) {
+            writeVarLong(0);
+            return;
+        }
+        if (useDictionary) {
+            Integer stringId = stringIds.get(string);
+            if (stringId != null) {
+                writeVarLong(((long) stringId << 1) | 1);
+                return;
+            }
+            if (TupleBinaryFormat.isDictionaryString(string, stringIds.size())) {
+                stringIds.put(string, stringIds.size());
+            }
+        }
+        byte[] bytes = string.getBytes(TupleBinaryFormat.CHARSET);
+        writeVarLong(((long) bytes.length + 1) << 1);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    private void writeVarLong(long value) throws StorageException {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeLong(long value) throws StorageException {
+        ensureCapacity(8);
+        for (int i = 0; i < 8; i++) {
+            buffer[position++] = (byte) (value >>> (56 - 8 * i));
+        }
+    }
+
+    private void writeByte(int value) throws StorageException {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) throws StorageException {
+        if (length > buffer.length) {
+            flushBuffer();
+            try {
+                output.write(bytes, offset, length);
+            } catch (IOException e) {
+                throw new StorageException(e.getMessage(), e);
+            }
+            return;
+        }
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void ensureCapacity(int length) throws StorageException {
+        if (buffer.length - position < length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws StorageException {
+        try {
+            output.write(buffer, 0, position);
+            position = 0;
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+
+    public void flush() throws StorageException {
+        flushBuffer();
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ends the stream, and closes the output stream.
+     */
+    @Override
+    public void close() throws StorageException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        writeByte(TupleBinaryFormat.END_RECORD);
+        flushBuffer();
+        try {
+            output.close();
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+
+}
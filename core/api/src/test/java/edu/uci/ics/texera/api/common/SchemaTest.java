@@ -8,6 +8,8 @@ import junit.framework.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
@@ -70,6 +72,36 @@ public class SchemaTest {
         Assert.assertEquals(expectedAttrNames, actualAttrNames);
     }
     
+    @Test
+    public void testIndexOf() {
+        Assert.assertEquals(0, schema.indexOf(attributeName1));
+        Assert.assertEquals(1, schema.indexOf(attributeName2.toUpperCase()));
+        Assert.assertEquals(-1, schema.indexOf("invalid_attribute"));
+    }
+    
+    /*
+     * Equal schemas should share one canonical instance, without changing the case of the attribute names.
+     */
+    @Test
+    public void testIntern() throws Exception {
+        Schema canonicalSchema = schema.intern();
+        Assert.assertNotSame(schema, canonicalSchema);
+        Assert.assertEquals(schema, canonicalSchema);
+        Assert.assertSame(canonicalSchema, new Schema(attributes).intern());
+        Assert.assertSame(canonicalSchema, canonicalSchema.intern());
+        Assert.assertSame(canonicalSchema, new Schema.Builder().add(attributes).build());
+        Assert.assertSame(canonicalSchema, new ObjectMapper().readValue(new ObjectMapper().writeValueAsString(schema), Schema.class));
+        
+        Schema upperCaseSchema = new Schema.Builder()
+                .add(attributeName1.toUpperCase(), type1).add(attributeName2.toUpperCase(), type2).build();
+        Assert.assertNotSame(canonicalSchema, upperCaseSchema);
+        Assert.assertEquals(canonicalSchema, upperCaseSchema);
+        Assert.assertEquals(canonicalSchema.hashCode(), upperCaseSchema.hashCode());
+        Assert.assertEquals(attributeName1.toUpperCase(), upperCaseSchema.getAttributeNames().get(0));
+        
+        Assert.assertFalse(canonicalSchema.equals(new Schema.Builder().add(attributeName1, type1).build()));
+    }
+    
     @Test(expected = TexeraException.class)
     public void testGetInvalidAttribute() {
         schema.getAttribute("invalid_attribute");
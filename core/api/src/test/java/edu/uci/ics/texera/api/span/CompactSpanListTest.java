@@ -0,0 +1,79 @@
+package edu.uci.ics.texera.api.span;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.utils.TestUtils;
+import junit.framework.Assert;
+
+public class CompactSpanListTest {
+
+    private static final String DESCRIPTION = "Tall Angry angry";
+    private static final String TITLE = "angry man";
+
+    private static CompactSpanList buildPayload() {
+        return new CompactSpanList.Builder()
+                .add("description", DESCRIPTION, 0, 4, "tall", 0)
+                .add("description", DESCRIPTION, 5, 10, "angry", 1)
+                .add("description", DESCRIPTION, 11, 16, "angry", 2)
+                .add("title", TITLE, 0, 5, "angry", 0)
+                .add("title", TITLE, 6, 9, "man", 1)
+                .build();
+    }
+
+    private static List<Span> buildSpanList() {
+        return Arrays.asList(
+                new Span("description", 0, 4, "tall", "Tall", 0),
+                new Span("description", 5, 10, "angry", "Angry", 1),
+                new Span("description", 11, 16, "angry", "angry", 2),
+                new Span("title", 0, 5, "angry", "angry", 0),
+                new Span("title", 6, 9, "man", "man", 1));
+    }
+
+    /*
+     * The spans of a compact span list should be equal to the spans with the values copied from the texts.
+     */
+    @Test
+    public void testCompactSpanList() {
+        CompactSpanList payload = buildPayload();
+        List<Span> spanList = buildSpanList();
+
+        Assert.assertEquals(spanList.size(), payload.size());
+        Assert.assertEquals(spanList, payload);
+        Assert.assertEquals(payload, spanList);
+        Assert.assertEquals(spanList.hashCode(), payload.hashCode());
+        for (int i = 0; i < payload.size(); i++) {
+            Assert.assertEquals(spanList.get(i).getAttributeName(), payload.getAttributeName(i));
+            Assert.assertEquals(spanList.get(i).getStart(), payload.getStart(i));
+            Assert.assertEquals(spanList.get(i).getEnd(), payload.getEnd(i));
+            Assert.assertEquals(spanList.get(i).getKey(), payload.getKey(i));
+            Assert.assertEquals(spanList.get(i).getValue(), payload.getValue(i));
+            Assert.assertEquals(spanList.get(i).getTokenOffset(), payload.getTokenOffset(i));
+        }
+    }
+
+    /*
+     * A ListField should keep the compact span list, and it should be serialized the same as a list of spans.
+     */
+    @Test
+    public void testCompactSpanListField() {
+        CompactSpanList payload = buildPayload();
+        ListField<Span> payloadField = new ListField<>(payload);
+        Assert.assertSame(payload, payloadField.getValue());
+        Assert.assertEquals(new ListField<>(buildSpanList()), payloadField);
+
+        JsonNode jsonNode = TestUtils.testJsonSerialization(payloadField);
+        Assert.assertEquals(TestUtils.testJsonSerialization(new ListField<>(buildSpanList())), jsonNode);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCompactSpanListImmutable() {
+        buildPayload().add(new Span("title", 0, 5, "angry", "angry", 0));
+    }
+
+}
@@ -0,0 +1,98 @@
+package edu.uci.ics.texera.api.tuple;
+
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.field.IntegerField;
+import edu.uci.ics.texera.api.field.StringField;
+import edu.uci.ics.texera.api.field.TextField;
+import edu.uci.ics.texera.api.schema.Attribute;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.utils.TestUtils;
+import junit.framework.Assert;
+
+public class TupleAppenderTest {
+
+    private static final Schema INPUT_SCHEMA = new Schema(
+            new Attribute("name", AttributeType.STRING), new Attribute("description", AttributeType.TEXT));
+
+    private static final Tuple INPUT_TUPLE = new Tuple(INPUT_SCHEMA,
+            new StringField("bruce"), new TextField("tall angry man"));
+
+    /*
+     * An appended tuple should be the same as the tuple built by Tuple.Builder, and share the fields of the input tuple.
+     */
+    @Test
+    public void testAppend() {
+        Tuple.Appender appender = new Tuple.Appender(INPUT_SCHEMA, new Attribute("age", AttributeType.INTEGER));
+        Tuple tuple = appender.append(INPUT_TUPLE, new IntegerField(46));
+
+        Tuple expectedTuple = new Tuple.Builder(INPUT_TUPLE).add("age", AttributeType.INTEGER, new IntegerField(46)).build();
+        Assert.assertEquals(expectedTuple, tuple);
+        Assert.assertEquals(tuple, expectedTuple);
+        Assert.assertEquals(expectedTuple.hashCode(), tuple.hashCode());
+        Assert.assertSame(appender.getOutputSchema(), tuple.getSchema());
+
+        Assert.assertSame(INPUT_TUPLE.getField(1), tuple.getField("DESCRIPTION"));
+        Assert.assertEquals(new IntegerField(46), tuple.getField(2));
+        Assert.assertEquals(TestUtils.testJsonSerialization(expectedTuple), TestUtils.testJsonSerialization(tuple));
+    }
+
+    /*
+     * A tuple appended many times should still have all its fields in order.
+     */
+    @Test
+    public void testAppendManyTimes() {
+        Tuple tuple = INPUT_TUPLE;
+        Tuple.Builder builder = new Tuple.Builder(INPUT_TUPLE);
+        for (int i = 0; i < 10; i++) {
+            Tuple.Appender appender = new Tuple.Appender(tuple.getSchema(), new Attribute("count" + i, AttributeType.INTEGER));
+            tuple = appender.append(tuple, new IntegerField(i));
+            builder.add("count" + i, AttributeType.INTEGER, new IntegerField(i));
+        }
+        Assert.assertEquals(builder.build(), tuple);
+        Assert.assertEquals(new IntegerField(9), tuple.getField("count9"));
+    }
+
+    @Test(expected = TexeraException.class)
+    public void testAppendFieldTypeMismatch() {
+        new Tuple.Appender(INPUT_SCHEMA, new Attribute("age", AttributeType.INTEGER))
+            .append(INPUT_TUPLE, new StringField("46"));
+    }
+
+    @Test(expected = TexeraException.class)
+    public void testAppendSchemaMismatch() {
+        Schema otherSchema = new Schema(new Attribute("name", AttributeType.STRING));
+        new Tuple.Appender(otherSchema, new Attribute("age", AttributeType.INTEGER))
+            .append(INPUT_TUPLE, new IntegerField(46));
+    }
+
+    @Test(expected = TexeraException.class)
+    public void testAppenderOutputSchemaMismatch() {
+        new Tuple.Appender(INPUT_SCHEMA, new Schema(
+                new Attribute("description", AttributeType.TEXT), new Attribute("name", AttributeType.STRING)));
+    }
+
+    /*
+     * A field accessor should get the same field as getField(String), even if the tuples have different schemas.
+     */
+    @Test
+    public void testFieldAccessor() {
+        FieldAccessor accessor = new FieldAccessor(INPUT_SCHEMA, "Description");
+        Assert.assertEquals(AttributeType.TEXT, accessor.getAttribute().getType());
+        Assert.assertSame(INPUT_TUPLE.getField("description"), accessor.getField(INPUT_TUPLE));
+
+        Tuple reorderedTuple = new Tuple(
+                new Schema(new Attribute("description", AttributeType.TEXT), new Attribute("name", AttributeType.STRING)),
+                new TextField("short happy man"), new StringField("lee"));
+        Assert.assertEquals(new TextField("short happy man"), accessor.getField(reorderedTuple));
+        Assert.assertEquals(new TextField("tall angry man"), accessor.getField(INPUT_TUPLE));
+    }
+
+    @Test(expected = TexeraException.class)
+    public void testFieldAccessorAttributeNotExists() {
+        new FieldAccessor(INPUT_SCHEMA, "age");
+    }
+
+}
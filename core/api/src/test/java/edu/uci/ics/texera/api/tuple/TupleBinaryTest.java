@@ -0,0 +1,155 @@
+package edu.uci.ics.texera.api.tuple;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.uci.ics.texera.api.constants.SchemaConstants;
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.exception.StorageException;
+import edu.uci.ics.texera.api.field.DateField;
+import edu.uci.ics.texera.api.field.DateTimeField;
+import edu.uci.ics.texera.api.field.DoubleField;
+import edu.uci.ics.texera.api.field.IDField;
+import edu.uci.ics.texera.api.field.IntegerField;
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.field.StringField;
+import edu.uci.ics.texera.api.field.TextField;
+import edu.uci.ics.texera.api.schema.Attribute;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.span.CompactSpanList;
+import edu.uci.ics.texera.api.span.Span;
+import junit.framework.Assert;
+
+public class TupleBinaryTest {
+
+    private static final Schema RESULT_SCHEMA = new Schema(
+            SchemaConstants._ID_ATTRIBUTE,
+            new Attribute("name", AttributeType.STRING),
+            new Attribute("description", AttributeType.TEXT),
+            new Attribute("age", AttributeType.INTEGER),
+            new Attribute("height", AttributeType.DOUBLE),
+            new Attribute("birthday", AttributeType.DATE),
+            new Attribute("updated", AttributeType.DATETIME),
+            new Attribute("spanList", AttributeType.LIST));
+
+    private static Tuple getResultTuple(String id, String name, String description, int age, List<Span> spanList) {
+        return new Tuple(RESULT_SCHEMA,
+                new IDField(id),
+                new StringField(name),
+                new TextField(description),
+                new IntegerField(age),
+                new DoubleField(-5.75),
+                new DateField(LocalDate.of(1970, 1, 1).minusDays(age)),
+                new DateTimeField(LocalDateTime.of(2017, 7, 1, 12, 30, 15, 123456789)),
+                new ListField<>(spanList));
+    }
+
+    private static List<Tuple> getResultTuples() {
+        String description = "tall angry man, 你好 angry";
+        List<Span> derivedSpans = Arrays.asList(
+                new Span("description", 5, 10, "angry", "angry", 1),
+                new Span("description", 19, 24, "angry", "angry", 4),
+                new Span("name", 0, 5, "bruce", "bruce", 0));
+        List<Span> explicitSpans = Arrays.asList(
+                new Span("description", 0, 4, "tall", "TALL", 0),
+                new Span("description", 1, 4, "all", "all", Span.INVALID_TOKEN_OFFSET),
+                new Span(null, -1, -1, null, null),
+                new Span("age", 0, 2, "age", "46", 0));
+
+        List<Tuple> tuples = new ArrayList<>();
+        tuples.add(getResultTuple("id-1", "bruce", description, 46, derivedSpans));
+        tuples.add(getResultTuple("id-2", "", "", -3, new ArrayList<>()));
+        tuples.add(getResultTuple("id-3", "bruce", description, Integer.MIN_VALUE, explicitSpans));
+        tuples.addAll(TestConstants.getSamplePeopleTuples());
+        tuples.add(new Tuple(new Schema(new Attribute("nullText", AttributeType.TEXT)), new TextField(null)));
+        tuples.add(getResultTuple("id-4", "bruce", description, Integer.MAX_VALUE, derivedSpans));
+        return tuples;
+    }
+
+    /*
+     * The tuples read back should be equal to the tuples written, and to the tuples read back from JSON.
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        List<Tuple> tuples = getResultTuples();
+        byte[] bytes = TupleBinaryWriter.toBytes(tuples);
+        List<Tuple> readTuples = TupleBinaryReader.fromBytes(bytes);
+        Assert.assertEquals(tuples, readTuples);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        byte[] jsonBytes = objectMapper.writeValueAsBytes(tuples);
+        List<Tuple> jsonTuples = objectMapper.readValue(jsonBytes,
+                objectMapper.getTypeFactory().constructCollectionLikeType(ArrayList.class, Tuple.class));
+        Assert.assertEquals(jsonTuples, readTuples);
+        Assert.assertTrue(bytes.length < jsonBytes.length);
+
+        // the spans whose values are in the tuple are read into a compact span list
+        Assert.assertTrue(readTuples.get(0).getField("spanList").getValue() instanceof CompactSpanList);
+        Assert.assertSame(readTuples.get(0).getSchema(), RESULT_SCHEMA.intern());
+    }
+
+    /*
+     * The tuples should be read one by one, and read() should return null after the end of the stream.
+     */
+    @Test
+    public void testStreaming() throws Exception {
+        List<Tuple> tuples = getResultTuples();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TupleBinaryWriter writer = new TupleBinaryWriter(output);
+        for (Tuple tuple : tuples) {
+            writer.write(tuple);
+        }
+        writer.close();
+
+        TupleBinaryReader reader = new TupleBinaryReader(new ByteArrayInputStream(output.toByteArray()));
+        for (Tuple tuple : tuples) {
+            Assert.assertEquals(tuple, reader.read());
+        }
+        Assert.assertNull(reader.read());
+        Assert.assertNull(reader.read());
+        reader.close();
+    }
+
+    /*
+     * A string longer than the buffer should be written and read directly.
+     */
+    @Test
+    public void testLongText() throws Exception {
+        StringBuilder description = new StringBuilder();
+        while (description.length() < 200000) {
+            description.append("tall angry man ");
+        }
+        List<Span> spanList = Arrays.asList(new Span("description", 199995, 200000, "man", "man", 0));
+        Tuple tuple = getResultTuple("id", "bruce", description.toString(), 46, spanList);
+        Assert.assertEquals(Arrays.asList(tuple), TupleBinaryReader.fromBytes(TupleBinaryWriter.toBytes(Arrays.asList(tuple))));
+    }
+
+    @Test(expected = StorageException.class)
+    public void testTruncatedStream() throws Exception {
+        byte[] bytes = TupleBinaryWriter.toBytes(getResultTuples());
+        TupleBinaryReader.fromBytes(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    @Test(expected = StorageException.class)
+    public void testInvalidMagic() throws Exception {
+        TupleBinaryReader.fromBytes("[{\"schema\":{}}]".getBytes());
+    }
+
+    @Test(expected = StorageException.class)
+    public void testWriteAfterClose() throws Exception {
+        TupleBinaryWriter writer = new TupleBinaryWriter(new ByteArrayOutputStream());
+        writer.close();
+        writer.write(TestConstants.getSamplePeopleTuples().get(0));
+    }
+
+}
@@ -6,6 +6,7 @@ import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
 
 /**
  * AbstractSingleInputOperator is an abstract class that can be used by many operators.
@@ -16,8 +17,12 @@ import edu.uci.ics.texera.api.tuple.Tuple;
  *          Its purpose is to initialize resources, and build the output schema.
  * computeNextMatchingTuple(): It is called in getNextTuple().
  *          It returns the next available matching tuple, null if there's no more match.
+ *          By default it's also used by getNextBatch(), unless computeNextMatchingBatch() is overridden.
  * cleanUp(). It is called in close(). 
  *          Its purpose is to deallocates resources.
+ *          
+ * The input operator is closed as soon as the limit is reached, 
+ *   so that the upstream operators stop and release their resources before close() is called.
 
  * @author Zuozhi Wang (zuozhiw)
  *
@@ -32,6 +37,11 @@ public abstract class AbstractSingleInputOperator implements IOperator {
     protected int limit = Integer.MAX_VALUE;
     protected int offset = 0;
     
+    private boolean inputOperatorClosed = false;
+    
+    // reusable batch used to pull tuples from the input operator in the batch path
+    private TupleBatch inputBatch;
+    
     @Override
     public void open() throws TexeraException {
         if (cursor != CLOSED) {
@@ -42,6 +52,7 @@ public abstract class AbstractSingleInputOperator implements IOperator {
                 throw new DataflowException(ErrorMessages.INPUT_OPERATOR_NOT_SPECIFIED);
             }
             inputOperator.open();
+            inputOperatorClosed = false;
             setUp();
             
         } catch (Exception e) {
@@ -77,6 +88,7 @@ public abstract class AbstractSingleInputOperator implements IOperator {
                     break;
                 }
             }
+            closeInputIfLimitReached();
             return resultTuple;
         } catch (Exception e) {
             throw new DataflowException(e.getMessage(), e);
@@ -90,8 +102,102 @@ public abstract class AbstractSingleInputOperator implements IOperator {
      * @throws TexeraException
      */
     protected abstract Tuple computeNextMatchingTuple() throws TexeraException;
+    
+    @Override
+    public boolean getNextBatch(TupleBatch batch) throws TexeraException {
+        if (cursor == CLOSED) {
+            throw new DataflowException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        batch.clear();
+        try {
+            boolean hasMoreInput = true;
+            // use long to avoid overflow when limit is Integer.MAX_VALUE
+            long end = (long) limit + offset;
+            while (batch.isEmpty() && hasMoreInput && cursor < end) {
+                hasMoreInput = computeNextMatchingBatch(batch);
+                
+                // apply offset and limit on the tuples computed in this round
+                int skipped = Math.min(batch.size(), Math.max(0, offset - cursor));
+                int kept = (int) Math.min(batch.size() - skipped, end - cursor - skipped);
+                batch.retainRange(skipped, skipped + kept);
+                cursor += skipped + kept;
+            }
+            closeInputIfLimitReached();
+            return ! batch.isEmpty();
+        } catch (Exception e) {
+            throw new DataflowException(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Given the input tuples, computes the next matching tuples and puts them into the empty batch.
+     * 
+     * The default implementation calls computeNextMatchingTuple() until the batch is full.
+     * Operators that compute each result only from one input tuple 
+     *   can override it with computeNextMatchingBatchFromInput().
+     * 
+     * @param batch, an empty batch to put the result tuples in
+     * @return false if there are no more input tuples, true otherwise
+     * @throws TexeraException
+     */
+    protected boolean computeNextMatchingBatch(TupleBatch batch) throws TexeraException {
+        while (! batch.isFull()) {
+            Tuple resultTuple = computeNextMatchingTuple();
+            if (resultTuple == null) {
+                return false;
+            }
+            batch.add(resultTuple);
+        }
+        return true;
+    }
+    
+    /**
+     * Pulls a batch from the input operator and calls processOneInputTuple() on each tuple.
+     * 
+     * Each input tuple produces at most one result tuple, 
+     *   therefore all results of one input batch always fit into the batch.
+     * 
+     * @param batch, an empty batch to put the result tuples in
+     * @return false if there are no more input tuples, true otherwise
+     * @throws TexeraException
+     */
+    protected boolean computeNextMatchingBatchFromInput(TupleBatch batch) throws TexeraException {
+        if (inputBatch == null || inputBatch.capacity() != batch.capacity()) {
+            inputBatch = new TupleBatch(batch.capacity());
+        }
+        if (! inputOperator.getNextBatch(inputBatch)) {
+            return false;
+        }
+        for (int i = 0; i < inputBatch.size(); i++) {
+            Tuple resultTuple = processOneInputTuple(inputBatch.get(i));
+            if (resultTuple != null) {
+                batch.add(resultTuple);
+            }
+        }
+        return true;
+    }
 
     public abstract Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException;
+    
+    private void closeInputIfLimitReached() throws TexeraException {
+        // use long to avoid overflow when limit is Integer.MAX_VALUE
+        if (cursor >= (long) limit + offset) {
+            closeInputOperator();
+        }
+    }
+    
+    /**
+     * Closes the input operator if it's not closed yet.
+     * It is called when the limit is reached, and in close().
+     * 
+     * @throws TexeraException
+     */
+    protected void closeInputOperator() throws TexeraException {
+        if (inputOperator != null && ! inputOperatorClosed) {
+            inputOperator.close();
+            inputOperatorClosed = true;
+        }
+    }
 
     @Override
     public void close() throws TexeraException {
@@ -99,8 +205,9 @@ public abstract class AbstractSingleInputOperator implements IOperator {
             return;
         }
         try {
-            if (inputOperator != null) {
-                inputOperator.close();
+            closeInputOperator();
+            if (inputBatch != null) {
+                inputBatch.clear();
             }
             cleanUp();
         } catch (Exception e) {
@@ -82,8 +82,10 @@ public class JsonSchemaHelper {
         JsonSchema schema = jsonSchemaGenerator.generateSchema(predicateClass);
         
         ObjectNode schemaNode = objectMapper.readValue(objectMapper.writeValueAsBytes(schema), ObjectNode.class);
-        // remove the operatorID from the json schema
+        // remove the operatorID and the execution properties from the json schema
         ((ObjectNode) schemaNode.get("properties")).remove("operatorID");
+        ((ObjectNode) schemaNode.get("properties")).remove(PropertyNameConstants.PARALLELISM);
+        ((ObjectNode) schemaNode.get("properties")).remove(PropertyNameConstants.PRESERVE_ORDER);
         
         // add required/optional properties to the schema
         List<String> requriedProperties = getRequiredProperties(predicateClass);
@@ -103,6 +103,11 @@ public abstract class PredicateBase implements IPredicate {
     // default id is random uuid (internal code doesn't care about id)
     private String id = UUID.randomUUID().toString();
     
+    // number of replicas of the operator, only stateless operators can have more than one replica
+    private int parallelism = 1;
+    // whether the replicas' results are merged in the input order
+    private boolean preserveOrder = true;
+    
     @JsonProperty(PropertyNameConstants.OPERATOR_ID)
     public void setID(String id) {
         this.id = id;
@@ -113,6 +118,26 @@ public abstract class PredicateBase implements IPredicate {
         return id;
     }
     
+    @JsonProperty(PropertyNameConstants.PARALLELISM)
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+    
+    @JsonProperty(PropertyNameConstants.PARALLELISM)
+    public int getParallelism() {
+        return parallelism;
+    }
+    
+    @JsonProperty(PropertyNameConstants.PRESERVE_ORDER)
+    public void setPreserveOrder(boolean preserveOrder) {
+        this.preserveOrder = preserveOrder;
+    }
+    
+    @JsonProperty(PropertyNameConstants.PRESERVE_ORDER)
+    public boolean isPreserveOrder() {
+        return preserveOrder;
+    }
+    
     @JsonIgnore
     public abstract IOperator newOperator();
     
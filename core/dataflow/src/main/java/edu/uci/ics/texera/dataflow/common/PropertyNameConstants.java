@@ -26,6 +26,10 @@ public class PropertyNameConstants {
     public static final String DESTINATION_OPERATOR_ID = "destination";
     public static final String OPERATOR_LIST = "operators";
     public static final String OPERATOR_LINK_LIST = "links";
+    public static final String PIPELINED_EXECUTION = "pipelinedExecution";
+    public static final String QUEUE_DEPTHS = "queueDepths";
+    public static final String PARALLELISM = "parallelism";
+    public static final String PRESERVE_ORDER = "preserveOrder";
     
     // common operator property names
     public static final String ATTRIBUTE_NAMES = "attributes";
@@ -46,11 +50,15 @@ public class PropertyNameConstants {
     // related to dictionary matcher
     public static final String DICTIONARY = "dictionary";
     public static final String DICTIONARY_ENTRIES = "dictionaryEntries";
+    public static final String DICTIONARY_NAME = "dictionaryName";
+    public static final String SINGLE_PASS = "singlePass";
     
     // related to regex matcher
     public static final String REGEX = "regex";
     public static final String REGEX_IGNORE_CASE = "regexIgnoreCase";
     public static final String REGEX_USE_INDEX = "regexUseIndex";
+    public static final String REGEX_ENGINE = "regexEngine";
+    public static final String REGEX_TUPLE_BUDGET_MILLIS = "regexTupleBudgetMillis";
     
     // related to fuzzy token matcher
     public static final String FUZZY_TOKEN_QUERY = "query";
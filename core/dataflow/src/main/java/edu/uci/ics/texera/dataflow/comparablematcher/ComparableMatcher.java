@@ -55,6 +55,11 @@ public class ComparableMatcher extends AbstractSingleInputOperator {
         return null;
     }
 
+    @Override
+    protected boolean computeNextMatchingBatch(TupleBatch batch) throws TexeraException {
+        return computeNextMatchingBatchFromInput(batch);
+    }
+
     @Override
     public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
         boolean conditionSatisfied = false;
@@ -93,7 +93,7 @@ public class OneToNBroadcastConnector implements IConnector {
      * Tuples from input operators are cached in an in-memory list.
      * A new tuple will be fetched from input operator whenever a cursor exceeds the list size.
      */
-    private Tuple getNextTuple(int outputOperatorIndex) throws TexeraException {
+    private synchronized Tuple getNextTuple(int outputOperatorIndex) throws TexeraException {
         int currentPosition = outputCursorList.get(outputOperatorIndex);
         
         if (currentPosition + 1 < inputTupleList.size()) {
@@ -117,7 +117,7 @@ public class OneToNBroadcastConnector implements IConnector {
         }
     }
     
-    private void openInputOperator(int outputOperatorIndex) throws TexeraException {
+    private synchronized void openInputOperator(int outputOperatorIndex) throws TexeraException {
         outputStatusList.set(outputOperatorIndex, OPENED);
         if (! inputOperatorOpened) {
             inputOperator.open();
@@ -125,7 +125,7 @@ public class OneToNBroadcastConnector implements IConnector {
         }
     }
     
-    private void closeInputOperator(int outputOperatorIndex) throws TexeraException {
+    private synchronized void closeInputOperator(int outputOperatorIndex) throws TexeraException {
         outputStatusList.set(outputOperatorIndex, CLOSED);
         boolean isAllClosed = isAllOutputOperatorClosed();
         if (isAllClosed) {
@@ -0,0 +1,328 @@
+package edu.uci.ics.texera.dataflow.connector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import edu.uci.ics.texera.api.constants.ErrorMessages;
+import edu.uci.ics.texera.api.dataflow.IConnector;
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
+
+/**
+ * OneToOnePipelineConnector connects one input operator with one output operator through a bounded queue.
+ *
+ * The input operator (and the operators below it that are not separated by another pipeline connector)
+ *   is driven by a dedicated worker thread, which keeps pulling batches of tuples from the input operator
+ *   and puts them into the queue. The output operator takes the tuples from the queue.
+ * Therefore the stages of a plan run concurrently, and a slow stage overlaps with the others.
+ * When the queue is full, the worker thread blocks until the downstream operator takes a batch (backpressure).
+ *
+ * The semantics of open/close are the same as calling the input operator directly:
+ *   open() and close() of the input operator are called on the caller's thread,
+ *   the worker thread is started lazily at the first getNextTuple()/getNextBatch() call,
+ *   and an exception thrown by the input operator on the worker thread is re-thrown
+ *   by the next getNextTuple()/getNextBatch() call of the output operator.
+ *
+ */
+public class OneToOnePipelineConnector implements IConnector {
+
+    public static final int DEFAULT_QUEUE_DEPTH = 16;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    // the worker thread checks if the connector is closed at this interval when the queue is full
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    // an empty list in the queue indicates the input operator's tuples are all consumed
+    private static final List<Tuple> END_OF_INPUT = new ArrayList<>();
+
+    private final int queueDepth;
+    private final int batchSize;
+
+    private IOperator inputOperator;
+    private final PipelineOutputOperator outputOperator;
+
+    private BlockingQueue<List<Tuple>> queue;
+    private Thread workerThread;
+    private volatile boolean closing = false;
+    private volatile Throwable workerException = null;
+
+    // the following fields are only accessed by the thread of the output operator
+    private boolean opened = false;
+    private boolean inputAllConsumed = false;
+    private List<Tuple> currentTupleList = new ArrayList<>();
+    private int currentTupleCursor = 0;
+
+    /**
+     * Constructs a OneToOnePipelineConnector with the default queue depth and batch size.
+     */
+    public OneToOnePipelineConnector() {
+        this(DEFAULT_QUEUE_DEPTH, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a OneToOnePipelineConnector.
+     *
+     * @param queueDepth, the maximum number of batches buffered in the queue
+     * @param batchSize, the maximum number of tuples in each batch
+     */
+    public OneToOnePipelineConnector(int queueDepth, int batchSize) {
+        if (queueDepth <= 0 || batchSize <= 0) {
+            throw new DataflowException("queue depth and batch size of a pipeline connector must be positive");
+        }
+        this.queueDepth = queueDepth;
+        this.batchSize = batchSize;
+        this.outputOperator = new PipelineOutputOperator(this);
+    }
+
+    @Override
+    public int getOutputNumber() {
+        return 1;
+    }
+
+    /**
+     * Get the output operator. The only valid index is 0.
+     *
+     * Return null if outputIndex is out of bound.
+     */
+    @Override
+    public IOperator getOutputOperator(int outputIndex) {
+        if (outputIndex == 0) {
+            return outputOperator;
+        }
+        return null;
+    }
+
+    public void setInputOperator(IOperator inputOperator) {
+        if (opened) {
+            throw new TexeraException(ErrorMessages.INPUT_OPERATOR_CHANGED_AFTER_OPEN);
+        }
+        this.inputOperator = inputOperator;
+    }
+
+    public IOperator getInputOperator() {
+        return this.inputOperator;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    private void open() throws TexeraException {
+        if (opened) {
+            return;
+        }
+        if (inputOperator == null) {
+            throw new DataflowException(ErrorMessages.INPUT_OPERATOR_NOT_SPECIFIED);
+        }
+        inputOperator.open();
+
+        queue = new ArrayBlockingQueue<>(queueDepth);
+        workerThread = null;
+        closing = false;
+        workerException = null;
+        inputAllConsumed = false;
+        currentTupleList = new ArrayList<>();
+        currentTupleCursor = 0;
+        opened = true;
+    }
+
+    private void close() throws TexeraException {
+        if (! opened) {
+            return;
+        }
+        opened = false;
+        stopWorkerThread();
+        currentTupleList = new ArrayList<>();
+        inputOperator.close();
+    }
+
+    private Tuple getNextTuple() throws TexeraException {
+        if (! opened) {
+            throw new DataflowException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        if (currentTupleCursor >= currentTupleList.size() && ! takeNextTupleList(true)) {
+            return null;
+        }
+        return currentTupleList.get(currentTupleCursor++);
+    }
+
+    /*
+     * Fills the batch with the tuples that are already in the queue.
+     * It only blocks when no tuple is available yet.
+     */
+    private boolean getNextBatch(TupleBatch batch) throws TexeraException {
+        if (! opened) {
+            throw new DataflowException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        batch.clear();
+        while (! batch.isFull()) {
+            if (currentTupleCursor >= currentTupleList.size() && ! takeNextTupleList(batch.isEmpty())) {
+                break;
+            }
+            batch.add(currentTupleList.get(currentTupleCursor++));
+        }
+        return ! batch.isEmpty();
+    }
+
+    /*
+     * Takes the next list of tuples from the queue and sets it as the current list.
+     * Returns false if there are no more tuples, or if "blocking" is false and the queue is empty.
+     */
+    private boolean takeNextTupleList(boolean blocking) throws TexeraException {
+        if (inputAllConsumed) {
+            return false;
+        }
+        startWorkerThreadIfNeeded();
+
+        List<Tuple> nextTupleList;
+        try {
+            nextTupleList = blocking ? queue.take() : queue.poll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataflowException(e.getMessage(), e);
+        }
+        if (nextTupleList == null) {
+            return false;
+        }
+        if (nextTupleList == END_OF_INPUT) {
+            inputAllConsumed = true;
+            rethrowWorkerException();
+            return false;
+        }
+        currentTupleList = nextTupleList;
+        currentTupleCursor = 0;
+        return true;
+    }
+
+    private void rethrowWorkerException() throws TexeraException {
+        Throwable e = workerException;
+        if (e == null) {
+            return;
+        }
+        if (e instanceof TexeraException) {
+            throw (TexeraException) e;
+        }
+        throw new DataflowException(e.getMessage(), e);
+    }
+
+    private void startWorkerThreadIfNeeded() {
+        if (workerThread != null) {
+            return;
+        }
+        workerThread = new Thread(this::runWorker,
+                "texera-pipeline-" + inputOperator.getClass().getSimpleName());
+        workerThread.setDaemon(true);
+        workerThread.start();
+    }
+
+    /*
+     * Stops the worker thread and waits for it to finish.
+     *
+     * The worker thread is not interrupted, because interrupting a thread that is reading
+     *   a Lucene index through NIO closes the underlying file channel.
+     * Instead, it finishes its current batch and then notices the connector is closing.
+     */
+    private void stopWorkerThread() throws TexeraException {
+        if (workerThread == null) {
+            return;
+        }
+        closing = true;
+        queue.clear();
+        try {
+            workerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataflowException(e.getMessage(), e);
+        }
+        workerThread = null;
+        queue.clear();
+    }
+
+    private void runWorker() {
+        TupleBatch batch = new TupleBatch(batchSize);
+        try {
+            while (! closing && inputOperator.getNextBatch(batch)) {
+                if (! putTupleList(batch.toList())) {
+                    return;
+                }
+            }
+        } catch (Throwable e) {
+            workerException = e;
+        }
+        putTupleList(END_OF_INPUT);
+    }
+
+    /*
+     * Puts a list of tuples into the queue, waits if the queue is full.
+     * Returns false if the connector is closing.
+     */
+    private boolean putTupleList(List<Tuple> tupleList) {
+        try {
+            while (! closing) {
+                if (queue.offer(tupleList, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+
+    public class PipelineOutputOperator implements IOperator {
+
+        private OneToOnePipelineConnector ownerConnector;
+
+        private PipelineOutputOperator(OneToOnePipelineConnector ownerConnector) {
+            this.ownerConnector = ownerConnector;
+        }
+
+        @Override
+        public void open() throws TexeraException {
+            ownerConnector.open();
+        }
+
+        @Override
+        public Tuple getNextTuple() throws TexeraException {
+            return ownerConnector.getNextTuple();
+        }
+
+        @Override
+        public boolean getNextBatch(TupleBatch batch) throws TexeraException {
+            return ownerConnector.getNextBatch(batch);
+        }
+
+        @Override
+        public void close() throws TexeraException {
+            ownerConnector.close();
+        }
+
+        @Override
+        public Schema getOutputSchema() {
+            return ownerConnector.getInputOperator().getOutputSchema();
+        }
+
+        public OneToOnePipelineConnector getOwnerConnector() {
+            return this.ownerConnector;
+        }
+
+        public Schema transformToOutputSchema(Schema... inputSchema) throws DataflowException {
+            if (inputSchema.length != 1)
+                throw new TexeraException(String.format(ErrorMessages.NUMBER_OF_ARGUMENTS_DOES_NOT_MATCH, 1, inputSchema.length));
+            return inputSchema[0];
+        }
+    }
+
+}
@@ -0,0 +1,359 @@
+package edu.uci.ics.texera.dataflow.connector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import edu.uci.ics.texera.api.constants.ErrorMessages;
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
+import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
+
+/**
+ * ParallelOperator runs N replicas of a stateless single input operator on N worker threads.
+ *
+ * A stateless operator computes the result of each input tuple only from the tuple itself,
+ *   using processOneInputTuple(). (for example, the matchers and the projection operator)
+ *
+ * A splitter thread reads the input tuples in chunks, and sends the chunks to the replicas in round-robin order.
+ * Each replica processes its chunks and puts the results into its output queue.
+ * The results are merged in one of the two ways:
+ *   if "preserveOrder" is true, the result chunks are taken from the replicas in the same round-robin order,
+ *     so the output order is the same as running one operator.
+ *   if "preserveOrder" is false, the result chunks are taken as soon as any replica produces them.
+ *
+ * The replicas' limit and offset are ignored. The limit and offset of the ParallelOperator itself are applied.
+ *
+ */
+public class ParallelOperator extends AbstractSingleInputOperator {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+    public static final int DEFAULT_QUEUE_DEPTH = 4;
+
+    // the threads check if the operator is closed at this interval when a queue is full
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    // an empty list in a queue indicates there are no more chunks
+    private static final List<Tuple> END_OF_INPUT = new ArrayList<>();
+
+    private final List<AbstractSingleInputOperator> replicas;
+    private final boolean preserveOrder;
+    private final int chunkSize;
+    private final int queueDepth;
+
+    private List<BlockingQueue<List<Tuple>>> replicaInputQueues;
+    private List<BlockingQueue<List<Tuple>>> replicaOutputQueues;
+    private List<Thread> workerThreads;
+    private volatile boolean closing = false;
+    private volatile Throwable workerException = null;
+
+    // the following fields are only accessed by the thread of the caller
+    private long nextChunkIndex = 0;
+    private int finishedReplicaCount = 0;
+    private boolean resultAllConsumed = false;
+    private List<Tuple> currentResultList = new ArrayList<>();
+    private int currentResultCursor = 0;
+
+    /**
+     * Constructs a ParallelOperator with the default chunk size and queue depth.
+     *
+     * @param replicas, the replicas of the operator, each of them is a separate instance
+     * @param preserveOrder, whether the output order should be the same as the input order
+     */
+    public ParallelOperator(List<? extends AbstractSingleInputOperator> replicas, boolean preserveOrder) {
+        this(replicas, preserveOrder, DEFAULT_CHUNK_SIZE, DEFAULT_QUEUE_DEPTH);
+    }
+
+    /**
+     * Constructs a ParallelOperator.
+     *
+     * @param replicas, the replicas of the operator, each of them is a separate instance
+     * @param preserveOrder, whether the output order should be the same as the input order
+     * @param chunkSize, the number of input tuples sent to a replica at a time
+     * @param queueDepth, the maximum number of chunks buffered in the input and output queue of each replica
+     */
+    public ParallelOperator(List<? extends AbstractSingleInputOperator> replicas, boolean preserveOrder,
+            int chunkSize, int queueDepth) {
+        if (replicas == null || replicas.isEmpty()) {
+            throw new DataflowException("ParallelOperator needs at least one replica");
+        }
+        if (chunkSize <= 0 || queueDepth <= 0) {
+            throw new DataflowException("chunk size and queue depth of a parallel operator must be positive");
+        }
+        this.replicas = new ArrayList<>(replicas);
+        this.preserveOrder = preserveOrder;
+        this.chunkSize = chunkSize;
+        this.queueDepth = queueDepth;
+
+        // the replicas read the input schema from a placeholder input operator,
+        //   their input tuples are given by processOneInputTuple()
+        for (AbstractSingleInputOperator replica : this.replicas) {
+            replica.setInputOperator(new ReplicaInputOperator());
+        }
+    }
+
+    public List<AbstractSingleInputOperator> getReplicas() {
+        return new ArrayList<>(replicas);
+    }
+
+    public int getParallelism() {
+        return replicas.size();
+    }
+
+    public boolean isPreserveOrder() {
+        return preserveOrder;
+    }
+
+    @Override
+    protected void setUp() throws TexeraException {
+        for (AbstractSingleInputOperator replica : replicas) {
+            replica.open();
+        }
+        outputSchema = replicas.get(0).getOutputSchema();
+
+        replicaInputQueues = new ArrayList<>();
+        replicaOutputQueues = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaInputQueues.add(new ArrayBlockingQueue<>(queueDepth));
+            // in unordered mode, all the replicas share one output queue
+            if (preserveOrder || i == 0) {
+                replicaOutputQueues.add(new ArrayBlockingQueue<>(queueDepth * (preserveOrder ? 1 : replicas.size())));
+            }
+        }
+        workerThreads = null;
+        closing = false;
+        workerException = null;
+        nextChunkIndex = 0;
+        finishedReplicaCount = 0;
+        resultAllConsumed = false;
+        currentResultList = new ArrayList<>();
+        currentResultCursor = 0;
+    }
+
+    @Override
+    protected Tuple computeNextMatchingTuple() throws TexeraException {
+        if (currentResultCursor >= currentResultList.size() && ! takeNextResultList()) {
+            return null;
+        }
+        return currentResultList.get(currentResultCursor++);
+    }
+
+    /**
+     * ParallelOperator doesn't process tuples on the caller's thread.
+     */
+    @Override
+    public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
+        throw new DataflowException("ParallelOperator processes the input tuples in its replicas");
+    }
+
+    /*
+     * Takes the next non-empty list of results.
+     * Returns false if all the results are consumed.
+     */
+    private boolean takeNextResultList() throws TexeraException {
+        startWorkerThreadsIfNeeded();
+        while (! resultAllConsumed) {
+            BlockingQueue<List<Tuple>> outputQueue = preserveOrder ?
+                    replicaOutputQueues.get((int) (nextChunkIndex % replicas.size())) : replicaOutputQueues.get(0);
+            List<Tuple> resultList;
+            try {
+                resultList = outputQueue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataflowException(e.getMessage(), e);
+            }
+            if (resultList == END_OF_INPUT) {
+                rethrowWorkerException();
+                finishedReplicaCount++;
+                // in ordered mode, the replica of the next chunk has finished, so there are no more chunks
+                resultAllConsumed = preserveOrder || finishedReplicaCount == replicas.size();
+                continue;
+            }
+            nextChunkIndex++;
+            if (! resultList.isEmpty()) {
+                currentResultList = resultList;
+                currentResultCursor = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void rethrowWorkerException() throws TexeraException {
+        Throwable e = workerException;
+        if (e == null) {
+            return;
+        }
+        if (e instanceof TexeraException) {
+            throw (TexeraException) e;
+        }
+        throw new DataflowException(e.getMessage(), e);
+    }
+
+    private void startWorkerThreadsIfNeeded() {
+        if (workerThreads != null) {
+            return;
+        }
+        String threadName = "texera-parallel-" + replicas.get(0).getClass().getSimpleName();
+        workerThreads = new ArrayList<>();
+        workerThreads.add(new Thread(this::runSplitter, threadName + "-splitter"));
+        for (int i = 0; i < replicas.size(); i++) {
+            final int replicaIndex = i;
+            workerThreads.add(new Thread(() -> runReplica(replicaIndex), threadName + "-" + i));
+        }
+        for (Thread thread : workerThreads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /*
+     * Stops the threads and waits for them to finish.
+     *
+     * The threads are not interrupted, because interrupting a thread that is reading
+     *   a Lucene index through NIO closes the underlying file channel.
+     */
+    private void stopWorkerThreads() throws TexeraException {
+        if (workerThreads == null) {
+            return;
+        }
+        closing = true;
+        try {
+            for (Thread thread : workerThreads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataflowException(e.getMessage(), e);
+        }
+        workerThreads = null;
+        replicaInputQueues.forEach(queue -> queue.clear());
+        replicaOutputQueues.forEach(queue -> queue.clear());
+    }
+
+    private void runSplitter() {
+        TupleBatch batch = new TupleBatch(chunkSize);
+        long chunkIndex = 0;
+        try {
+            while (! closing && inputOperator.getNextBatch(batch)) {
+                BlockingQueue<List<Tuple>> inputQueue = replicaInputQueues.get((int) (chunkIndex % replicas.size()));
+                if (! putChunk(inputQueue, batch.toList())) {
+                    return;
+                }
+                chunkIndex++;
+            }
+        } catch (Throwable e) {
+            workerException = e;
+        }
+        for (BlockingQueue<List<Tuple>> inputQueue : replicaInputQueues) {
+            putChunk(inputQueue, END_OF_INPUT);
+        }
+    }
+
+    private void runReplica(int replicaIndex) {
+        AbstractSingleInputOperator replica = replicas.get(replicaIndex);
+        BlockingQueue<List<Tuple>> inputQueue = replicaInputQueues.get(replicaIndex);
+        BlockingQueue<List<Tuple>> outputQueue = replicaOutputQueues.get(preserveOrder ? replicaIndex : 0);
+        try {
+            while (! closing) {
+                List<Tuple> inputList = inputQueue.poll(OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (inputList == null) {
+                    continue;
+                }
+                if (inputList == END_OF_INPUT) {
+                    break;
+                }
+                // one result list is produced for each input chunk (possibly empty) to keep the order
+                List<Tuple> resultList = new ArrayList<>();
+                for (Tuple inputTuple : inputList) {
+                    Tuple resultTuple = replica.processOneInputTuple(inputTuple);
+                    if (resultTuple != null) {
+                        resultList.add(resultTuple);
+                    }
+                }
+                if (! putChunk(outputQueue, resultList)) {
+                    return;
+                }
+            }
+        } catch (Throwable e) {
+            workerException = e;
+        }
+        putChunk(outputQueue, END_OF_INPUT);
+    }
+
+    /*
+     * Puts a chunk into the queue, waits if the queue is full.
+     * Returns false if the operator is closing.
+     */
+    private boolean putChunk(BlockingQueue<List<Tuple>> queue, List<Tuple> chunk) {
+        try {
+            while (! closing) {
+                if (queue.offer(chunk, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    protected void closeInputOperator() throws TexeraException {
+        // the splitter thread must stop reading from the input operator before it is closed
+        stopWorkerThreads();
+        super.closeInputOperator();
+    }
+
+    @Override
+    protected void cleanUp() throws TexeraException {
+        currentResultList = new ArrayList<>();
+        for (AbstractSingleInputOperator replica : replicas) {
+            replica.close();
+        }
+    }
+
+    @Override
+    public Schema transformToOutputSchema(Schema... inputSchema) throws DataflowException {
+        return replicas.get(0).transformToOutputSchema(inputSchema);
+    }
+
+    /*
+     * The placeholder input operator of the replicas.
+     * It only provides the input schema, the input tuples are given through processOneInputTuple().
+     */
+    private class ReplicaInputOperator implements IOperator {
+
+        @Override
+        public void open() throws TexeraException {
+        }
+
+        @Override
+        public Tuple getNextTuple() throws TexeraException {
+            throw new DataflowException("the input of a replica is given by its ParallelOperator");
+        }
+
+        @Override
+        public void close() throws TexeraException {
+        }
+
+        @Override
+        public Schema getOutputSchema() {
+            return inputOperator.getOutputSchema();
+        }
+
+        @Override
+        public Schema transformToOutputSchema(Schema... inputSchema) {
+            if (inputSchema.length != 1)
+                throw new TexeraException(String.format(ErrorMessages.NUMBER_OF_ARGUMENTS_DOES_NOT_MATCH, 1, inputSchema.length));
+            return inputSchema[0];
+        }
+    }
+
+}
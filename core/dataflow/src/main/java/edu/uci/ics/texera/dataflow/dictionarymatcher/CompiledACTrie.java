@@ -0,0 +1,425 @@
+package edu.uci.ics.texera.dataflow.dictionarymatcher;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import edu.uci.ics.texera.api.exception.DataflowException;
+
+/**
+ * CompiledACTrie is an immutable aho-corasick automaton compiled from a list of keywords.
+ * It matches the same keywords as {@link ACTrie}, but keeps the whole automaton in primitive arrays:
+ *
+ *   - the goto transitions are stored in a compressed sparse row layout (one sorted char range per state),
+ *     the transitions of the root are additionally stored in a dense table indexed by char,
+ *     and the ASCII transitions of the other states with many transitions in dense tables of 128 chars,
+ *   - the failure links and the output links (the nearest state on the failure chain with keywords) are int arrays,
+ *   - the keywords of each state are int ranges of the keyword array.
+ *
+ * The text is case folded char by char while it's traversed, so it's not copied,
+ *   and the matches are reported to a {@link MatchHandler}, so no object is allocated per match.
+ *
+ * The keywords are sorted before the trie is built, so that the states can be created
+ *   without any hash map from chars to states.
+ *
+ * ACTrie remains the incremental, object based implementation of the same algorithm.
+ *
+ */
+public final class CompiledACTrie implements Serializable {
+
+    private static final long serialVersionUID = 3298871623437004817L;
+
+    private static final int ROOT = 0;
+    private static final int NO_STATE = -1;
+
+    // the states with at least this many transitions also get a dense table of their ASCII transitions
+    private static final int DENSE_TRANSITION_THRESHOLD = 8;
+    private static final int DENSE_TABLE_SIZE = 128;
+
+    /**
+     * MatchHandler receives the matches of {@link CompiledACTrie#parseText(String, MatchHandler)}.
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+        /**
+         * Called for every match of a keyword in the text.
+         *
+         * @param start, the start offset of the match in the text (inclusive)
+         * @param end, the end offset of the match in the text (exclusive)
+         * @param keywordIndex, the index of the matched keyword, see {@link CompiledACTrie#getKeyword(int)}
+         */
+        void onMatch(int start, int end, int keywordIndex);
+    }
+
+    private final boolean caseInsensitive;
+
+    // the distinct keywords, the keywords of each state are a range of this array
+    private final String[] keywords;
+    private final int[] keywordLengths;
+
+    // transitions of state s are transitionChars/transitionTargets[transitionOffsets[s], transitionOffsets[s + 1])
+    private final int[] transitionOffsets;
+    private final char[] transitionChars;
+    private final int[] transitionTargets;
+    // the transitions of the root state, indexed by char, NO_STATE if there is no transition
+    private final int[] rootTransitions;
+    // the ASCII transitions of state s are denseTransitions[denseTableOffsets[s] + c] if denseTableOffsets[s] >= 0
+    private final int[] denseTableOffsets;
+    private final int[] denseTransitions;
+
+    private final int[] failureLinks;
+    // the nearest state on the failure chain that has keywords, NO_STATE if there is none
+    private final int[] outputLinks;
+    // keywords of state s are keywords[keywordOffsets[s], keywordOffsets[s + 1])
+    private final int[] keywordOffsets;
+
+    private CompiledACTrie(boolean caseInsensitive, String[] keywords, int[] transitionOffsets,
+            char[] transitionChars, int[] transitionTargets, int[] rootTransitions, int[] denseTableOffsets,
+            int[] denseTransitions, int[] failureLinks, int[] outputLinks, int[] keywordOffsets) {
+        this.caseInsensitive = caseInsensitive;
+        this.keywords = keywords;
+        this.keywordLengths = new int[keywords.length];
+        for (int i = 0; i < keywords.length; i++) {
+            keywordLengths[i] = keywords[i].length();
+        }
+        this.transitionOffsets = transitionOffsets;
+        this.transitionChars = transitionChars;
+        this.transitionTargets = transitionTargets;
+        this.rootTransitions = rootTransitions;
+        this.denseTableOffsets = denseTableOffsets;
+        this.denseTransitions = denseTransitions;
+        this.failureLinks = failureLinks;
+        this.outputLinks = outputLinks;
+        this.keywordOffsets = keywordOffsets;
+    }
+
+    /**
+     * Compiles the automaton of the keywords. Null and empty keywords are ignored,
+     *   and a keyword that appears more than once is matched once.
+     *
+     * @param keywordList
+     * @param caseInsensitive, if true, both the keywords and the text are case folded char by char
+     * @return the compiled automaton
+     */
+    public static CompiledACTrie compile(List<String> keywordList, boolean caseInsensitive) {
+        if (keywordList == null) {
+            keywordList = Collections.emptyList();
+        }
+
+        // sort the distinct keywords by their folded form, so that the keywords sharing a prefix are adjacent
+        List<String> keywordsByFoldedForm = new ArrayList<>(keywordList.size());
+        for (String keyword : keywordList) {
+            if (keyword != null && !keyword.isEmpty()) {
+                keywordsByFoldedForm.add(keyword);
+            }
+        }
+        Comparator<String> foldedComparator = (keyword1, keyword2) -> compareFolded(keyword1, keyword2, caseInsensitive);
+        keywordsByFoldedForm.sort(foldedComparator.thenComparing(Comparator.naturalOrder()));
+
+        List<String> distinctKeywords = new ArrayList<>(keywordsByFoldedForm.size());
+        for (String keyword : keywordsByFoldedForm) {
+            if (distinctKeywords.isEmpty() || !distinctKeywords.get(distinctKeywords.size() - 1).equals(keyword)) {
+                distinctKeywords.add(keyword);
+            }
+        }
+        String[] keywords = distinctKeywords.toArray(new String[distinctKeywords.size()]);
+
+        long maxStateCount = 1;
+        for (String keyword : keywords) {
+            maxStateCount += keyword.length();
+        }
+        if (maxStateCount > Integer.MAX_VALUE - 8) {
+            throw new DataflowException("the dictionary is too large to be compiled: " + maxStateCount + " chars");
+        }
+
+        // build the trie from the sorted keywords,
+        //   the states on the path of the previous keyword are reused for the common prefix
+        IntArrayBuilder parentStates = new IntArrayBuilder();
+        CharArrayBuilder parentChars = new CharArrayBuilder();
+        parentStates.add(NO_STATE);
+        parentChars.add((char) 0);
+        int[] keywordStates = new int[keywords.length];
+        int[] path = new int[16];
+        path[0] = ROOT;
+        String previousKeyword = "";
+        for (int i = 0; i < keywords.length; i++) {
+            String keyword = keywords[i];
+            if (path.length <= keyword.length()) {
+                path = Arrays.copyOf(path, Math.max(path.length * 2, keyword.length() + 1));
+            }
+            int prefixLength = commonFoldedPrefixLength(previousKeyword, keyword, caseInsensitive);
+            for (int j = prefixLength; j < keyword.length(); j++) {
+                path[j + 1] = parentStates.size();
+                parentStates.add(path[j]);
+                parentChars.add(fold(keyword.charAt(j), caseInsensitive));
+            }
+            keywordStates[i] = path[keyword.length()];
+            previousKeyword = keyword;
+        }
+        int stateCount = parentStates.size();
+        int[] parents = parentStates.toArray();
+        char[] chars = parentChars.toArray();
+
+        // the children of a state are created in the order of their chars,
+        //   so a stable counting sort by the parent state keeps every transition range sorted
+        int[] transitionOffsets = new int[stateCount + 1];
+        for (int state = 1; state < stateCount; state++) {
+            transitionOffsets[parents[state] + 1]++;
+        }
+        for (int state = 0; state < stateCount; state++) {
+            transitionOffsets[state + 1] += transitionOffsets[state];
+        }
+        char[] transitionChars = new char[stateCount - 1];
+        int[] transitionTargets = new int[stateCount - 1];
+        int[] nextTransition = Arrays.copyOf(transitionOffsets, stateCount);
+        for (int state = 1; state < stateCount; state++) {
+            int transition = nextTransition[parents[state]]++;
+            transitionChars[transition] = chars[state];
+            transitionTargets[transition] = state;
+        }
+        int[] rootTransitions = new int[Character.MAX_VALUE + 1];
+        Arrays.fill(rootTransitions, NO_STATE);
+        for (int transition = transitionOffsets[ROOT]; transition < transitionOffsets[ROOT + 1]; transition++) {
+            rootTransitions[transitionChars[transition]] = transitionTargets[transition];
+        }
+        int[] denseTableOffsets = new int[stateCount];
+        int denseTableCount = 0;
+        for (int state = 1; state < stateCount; state++) {
+            boolean isDense = transitionOffsets[state + 1] - transitionOffsets[state] >= DENSE_TRANSITION_THRESHOLD;
+            denseTableOffsets[state] = isDense ? (denseTableCount++) * DENSE_TABLE_SIZE : NO_STATE;
+        }
+        denseTableOffsets[ROOT] = NO_STATE;
+        int[] denseTransitions = new int[denseTableCount * DENSE_TABLE_SIZE];
+        Arrays.fill(denseTransitions, NO_STATE);
+        for (int state = 1; state < stateCount; state++) {
+            if (denseTableOffsets[state] == NO_STATE) {
+                continue;
+            }
+            for (int transition = transitionOffsets[state]; transition < transitionOffsets[state + 1]; transition++) {
+                if (transitionChars[transition] < DENSE_TABLE_SIZE) {
+                    denseTransitions[denseTableOffsets[state] + transitionChars[transition]] = transitionTargets[transition];
+                }
+            }
+        }
+
+        // the keywords are sorted by their states, which are not decreasing in the sorted keyword order
+        int[] keywordOffsets = new int[stateCount + 1];
+        for (int i = 0; i < keywords.length; i++) {
+            keywordOffsets[keywordStates[i] + 1]++;
+        }
+        for (int state = 0; state < stateCount; state++) {
+            keywordOffsets[state + 1] += keywordOffsets[state];
+        }
+
+        CompiledACTrie trie = new CompiledACTrie(caseInsensitive, keywords, transitionOffsets, transitionChars,
+                transitionTargets, rootTransitions, denseTableOffsets, denseTransitions,
+                new int[stateCount], new int[stateCount], keywordOffsets);
+        trie.constructFailureTransactions();
+        return trie;
+    }
+
+    /**
+     * Run a BFS on the trie to setup the failure link of every state to its longest proper suffix in the trie,
+     *   and the output link to the nearest state on the failure chain that has keywords.
+     */
+    private void constructFailureTransactions() {
+        int[] queue = new int[failureLinks.length];
+        int head = 0;
+        int tail = 0;
+        failureLinks[ROOT] = ROOT;
+        outputLinks[ROOT] = NO_STATE;
+        queue[tail++] = ROOT;
+        while (head < tail) {
+            int state = queue[head++];
+            for (int transition = transitionOffsets[state]; transition < transitionOffsets[state + 1]; transition++) {
+                char c = transitionChars[transition];
+                int nextState = transitionTargets[transition];
+                int failureState = ROOT;
+                if (state != ROOT) {
+                    failureState = getNextTransition(failureLinks[state], c);
+                }
+                failureLinks[nextState] = failureState;
+                outputLinks[nextState] = hasKeywords(failureState) ? failureState : outputLinks[failureState];
+                queue[tail++] = nextState;
+            }
+        }
+    }
+
+    /**
+     * Traverses the text and reports every keyword that ends at each position to the handler,
+     *   the matches are reported in the order of their end positions.
+     *
+     * @param text
+     * @param handler
+     */
+    public void parseText(String text, MatchHandler handler) {
+        if (text == null || keywords.length == 0) {
+            return;
+        }
+        int state = ROOT;
+        int textLength = text.length();
+        for (int i = 0; i < textLength; i++) {
+            state = getNextTransition(state, fold(text.charAt(i), caseInsensitive));
+            int outputState = hasKeywords(state) ? state : outputLinks[state];
+            while (outputState != NO_STATE) {
+                for (int k = keywordOffsets[outputState]; k < keywordOffsets[outputState + 1]; k++) {
+                    handler.onMatch(i + 1 - keywordLengths[k], i + 1, k);
+                }
+                outputState = outputLinks[outputState];
+            }
+        }
+    }
+
+    /**
+     * Traverses the text and returns the matches as a list, same as {@link ACTrie#parseText(String)}.
+     *
+     * @param text
+     * @return
+     */
+    public List<ACTrie.Emit> parseText(String text) {
+        List<ACTrie.Emit> resultList = new ArrayList<>();
+        parseText(text, (start, end, keywordIndex) -> resultList.add(new ACTrie.Emit(start, end, keywords[keywordIndex])));
+        return resultList;
+    }
+
+    /**
+     * Gets the keyword reported to the {@link MatchHandler} by its index.
+     */
+    public String getKeyword(int keywordIndex) {
+        return keywords[keywordIndex];
+    }
+
+    public int getKeywordCount() {
+        return keywords.length;
+    }
+
+    public int getStateCount() {
+        return failureLinks.length;
+    }
+
+    public boolean isCaseInsensitive() {
+        return caseInsensitive;
+    }
+
+    /**
+     * Gets the approximate number of bytes used by the arrays of the automaton, excluding the keyword strings.
+     */
+    public long getMemoryUsageBytes() {
+        return 4L * (transitionOffsets.length + transitionTargets.length + rootTransitions.length
+                + denseTableOffsets.length + denseTransitions.length
+                + failureLinks.length + outputLinks.length + keywordOffsets.length + keywordLengths.length)
+                + 2L * transitionChars.length
+                + 8L * keywords.length;
+    }
+
+    private boolean hasKeywords(int state) {
+        return keywordOffsets[state] < keywordOffsets[state + 1];
+    }
+
+    private int getNextTransition(int state, char c) {
+        while (true) {
+            int nextState = getTransition(state, c);
+            if (nextState != NO_STATE) {
+                return nextState;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = failureLinks[state];
+        }
+    }
+
+    private int getTransition(int state, char c) {
+        if (state == ROOT) {
+            return rootTransitions[c];
+        }
+        if (c < DENSE_TABLE_SIZE && denseTableOffsets[state] != NO_STATE) {
+            return denseTransitions[denseTableOffsets[state] + c];
+        }
+        int low = transitionOffsets[state];
+        int high = transitionOffsets[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = transitionChars[mid];
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return transitionTargets[mid];
+            }
+        }
+        return NO_STATE;
+    }
+
+    static char fold(char c, boolean caseInsensitive) {
+        if (!caseInsensitive) {
+            return c;
+        }
+        if (c < 128) {
+            return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static int compareFolded(String keyword1, String keyword2, boolean caseInsensitive) {
+        int length = Math.min(keyword1.length(), keyword2.length());
+        for (int i = 0; i < length; i++) {
+            char c1 = fold(keyword1.charAt(i), caseInsensitive);
+            char c2 = fold(keyword2.charAt(i), caseInsensitive);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return keyword1.length() - keyword2.length();
+    }
+
+    private static int commonFoldedPrefixLength(String keyword1, String keyword2, boolean caseInsensitive) {
+        int length = Math.min(keyword1.length(), keyword2.length());
+        int i = 0;
+        while (i < length && fold(keyword1.charAt(i), caseInsensitive) == fold(keyword2.charAt(i), caseInsensitive)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static class IntArrayBuilder {
+        private int[] array = new int[64];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == array.length) {
+                array = Arrays.copyOf(array, array.length * 2);
+            }
+            array[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(array, size);
+        }
+    }
+
+    private static class CharArrayBuilder {
+        private char[] array = new char[64];
+        private int size = 0;
+
+        void add(char value) {
+            if (size == array.length) {
+                array = Arrays.copyOf(array, array.length * 2);
+            }
+            array[size++] = value;
+        }
+
+        char[] toArray() {
+            return Arrays.copyOf(array, size);
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+package edu.uci.ics.texera.dataflow.dictionarymatcher;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordMatchingType;
+import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+
+/**
+ * CompiledDictionary contains the artifacts compiled from the entries of a dictionary
+ *   for one lucene analyzer and one keyword matching type, which DictionaryMatcher uses to match the dictionary:
+ *
+ *   - CONJUNCTION_INDEXBASED: the token index of the entries,
+ *   - PHRASE_INDEXBASED: the token index, and the token lists of the entries with and without stopwords,
+ *   - SUBSTRING_SCANBASED: the aho-corasick automaton of the entries,
+ *   - REGEX: the compiled patterns of the entries.
+ *
+ * A compiled dictionary is immutable, so it can be cached (see DictionaryManager) and shared by several operators.
+ *
+ */
+public class CompiledDictionary implements Serializable {
+
+    private static final long serialVersionUID = -6307917287520155384L;
+
+    private final ArrayList<String> dictionaryEntries;
+    private final String luceneAnalyzerString;
+    private final KeywordMatchingType keywordMatchingType;
+
+    private final ArrayList<List<String>> tokenListsNoStopwords;
+    private final ArrayList<List<String>> tokenListsWithStopwords;
+    private final DictionaryTokenIndex tokenIndex;
+    private final CompiledACTrie trie;
+    private final MultiPatternRegexMatcher regexMatcher;
+    private final long memoryUsageBytes;
+
+    private CompiledDictionary(List<String> dictionaryEntries, String luceneAnalyzerString,
+            KeywordMatchingType keywordMatchingType, ArrayList<List<String>> tokenListsNoStopwords,
+            ArrayList<List<String>> tokenListsWithStopwords, DictionaryTokenIndex tokenIndex, CompiledACTrie trie,
+            MultiPatternRegexMatcher regexMatcher) {
+        this.dictionaryEntries = new ArrayList<>(dictionaryEntries);
+        this.luceneAnalyzerString = luceneAnalyzerString;
+        this.keywordMatchingType = keywordMatchingType;
+        this.tokenListsNoStopwords = tokenListsNoStopwords;
+        this.tokenListsWithStopwords = tokenListsWithStopwords;
+        this.tokenIndex = tokenIndex;
+        this.trie = trie;
+        this.regexMatcher = regexMatcher;
+        this.memoryUsageBytes = computeMemoryUsageBytes();
+    }
+
+    /**
+     * Compiles the dictionary entries for the analyzer and the matching type.
+     *
+     * @param dictionaryEntries
+     * @param luceneAnalyzerString
+     * @param keywordMatchingType
+     * @return
+     */
+    public static CompiledDictionary compile(List<String> dictionaryEntries, String luceneAnalyzerString,
+            KeywordMatchingType keywordMatchingType) {
+        ArrayList<List<String>> tokenListsNoStopwords = null;
+        ArrayList<List<String>> tokenListsWithStopwords = null;
+        DictionaryTokenIndex tokenIndex = null;
+        CompiledACTrie trie = null;
+        MultiPatternRegexMatcher regexMatcher = null;
+
+        if (keywordMatchingType == KeywordMatchingType.CONJUNCTION_INDEXBASED
+                || keywordMatchingType == KeywordMatchingType.PHRASE_INDEXBASED) {
+            List<Set<String>> tokenSetsNoStopwords = new ArrayList<>();
+            for (String entry : dictionaryEntries) {
+                tokenSetsNoStopwords.add(new HashSet<>(DataflowUtils.tokenizeQuery(luceneAnalyzerString, entry)));
+            }
+            tokenIndex = new DictionaryTokenIndex(dictionaryEntries, tokenSetsNoStopwords);
+        }
+        if (keywordMatchingType == KeywordMatchingType.PHRASE_INDEXBASED) {
+            tokenListsNoStopwords = new ArrayList<>();
+            tokenListsWithStopwords = new ArrayList<>();
+            for (String entry : dictionaryEntries) {
+                tokenListsNoStopwords.add(DataflowUtils.tokenizeQuery(luceneAnalyzerString, entry));
+                tokenListsWithStopwords.add(DataflowUtils.tokenizeQueryWithStopwords(luceneAnalyzerString, entry));
+            }
+        }
+        if (keywordMatchingType == KeywordMatchingType.SUBSTRING_SCANBASED) {
+            trie = CompiledACTrie.compile(dictionaryEntries, true);
+        }
+        if (keywordMatchingType == KeywordMatchingType.REGEX) {
+            regexMatcher = new MultiPatternRegexMatcher(dictionaryEntries);
+        }
+
+        return new CompiledDictionary(dictionaryEntries, luceneAnalyzerString, keywordMatchingType,
+                tokenListsNoStopwords, tokenListsWithStopwords, tokenIndex, trie, regexMatcher);
+    }
+
+    public ArrayList<String> getDictionaryEntries() {
+        return dictionaryEntries;
+    }
+
+    public String getLuceneAnalyzerString() {
+        return luceneAnalyzerString;
+    }
+
+    public KeywordMatchingType getKeywordMatchingType() {
+        return keywordMatchingType;
+    }
+
+    public ArrayList<List<String>> getTokenListsNoStopwords() {
+        return tokenListsNoStopwords;
+    }
+
+    public ArrayList<List<String>> getTokenListsWithStopwords() {
+        return tokenListsWithStopwords;
+    }
+
+    public DictionaryTokenIndex getTokenIndex() {
+        return tokenIndex;
+    }
+
+    public CompiledACTrie getTrie() {
+        return trie;
+    }
+
+    public MultiPatternRegexMatcher getRegexMatcher() {
+        return regexMatcher;
+    }
+
+    /**
+     * Gets the approximate number of bytes used by the compiled dictionary, used to bound the size of the cache.
+     */
+    public long getMemoryUsageBytes() {
+        return memoryUsageBytes;
+    }
+
+    private long computeMemoryUsageBytes() {
+        long bytes = 0;
+        for (String entry : dictionaryEntries) {
+            bytes += 48 + 2L * entry.length();
+        }
+        bytes += getTokenListsMemoryUsageBytes(tokenListsNoStopwords);
+        bytes += getTokenListsMemoryUsageBytes(tokenListsWithStopwords);
+        if (tokenIndex != null) {
+            bytes += tokenIndex.getMemoryUsageBytes();
+        }
+        if (trie != null) {
+            bytes += trie.getMemoryUsageBytes();
+        }
+        if (regexMatcher != null) {
+            bytes += regexMatcher.getMemoryUsageBytes();
+        }
+        return bytes;
+    }
+
+    private static long getTokenListsMemoryUsageBytes(List<List<String>> tokenLists) {
+        long bytes = 0;
+        if (tokenLists != null) {
+            for (List<String> tokenList : tokenLists) {
+                bytes += 32;
+                for (String token : tokenList) {
+                    bytes += 48 + 2L * token.length();
+                }
+            }
+        }
+        return bytes;
+    }
+
+}
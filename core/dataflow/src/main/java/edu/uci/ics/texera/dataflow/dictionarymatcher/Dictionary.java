@@ -22,6 +22,8 @@ import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
 public class Dictionary {
 
     private final ArrayList<String> dictionaryEntries;
+    // the name of the dictionary stored by DictionaryManager, optional
+    private final String dictionaryName;
     private Iterator<String> dictionaryIterator;
     /**
      * These three arraylists are used to prepare the tokens of each dictionary entry
@@ -43,27 +45,47 @@ public class Dictionary {
      *
      * @param dictionaryEntries, a collection of dictionary entries
      */
+    public Dictionary(Collection<String> dictionaryEntries) {
+        this(dictionaryEntries, null);
+    }
+
+    /**
+     * Create a dictionary using a collection of entries.
+     *
+     * @param dictionaryEntries, a collection of dictionary entries, 
+     *          optional if the dictionary name is given, then the entries of the stored dictionary are used
+     * @param dictionaryName, optional, the name of the dictionary stored by DictionaryManager that has these entries,
+     *          the compiled dictionary cached by DictionaryManager is used if it has the same entries
+     */
     @JsonCreator
     public Dictionary(
-            @JsonProperty(value = PropertyNameConstants.DICTIONARY_ENTRIES, required = true)
-                    Collection<String> dictionaryEntries) {
+            @JsonProperty(value = PropertyNameConstants.DICTIONARY_ENTRIES, required = false)
+                    Collection<String> dictionaryEntries,
+            @JsonProperty(value = PropertyNameConstants.DICTIONARY_NAME, required = false)
+                    String dictionaryName) {
         
-        checkNotNull(dictionaryEntries);
+        if (dictionaryEntries == null) {
+            dictionaryEntries = Collections.emptyList();
+        }
         dictionaryEntries.forEach(entry -> checkNotNull(entry));
-        if (dictionaryEntries.isEmpty()) {
+        if (dictionaryEntries.isEmpty() && (dictionaryName == null || dictionaryName.trim().isEmpty())) {
             throw new TexeraException("Dictionary is empty");
         }
 
-        this.dictionaryEntries = new ArrayList<>();
+        // the entries are deduplicated with a set, a linear scan of the list is too slow for large dictionaries
+        Set<String> distinctEntries = new LinkedHashSet<>();
         for (String entry : dictionaryEntries) {
             String entryTrimed = entry.trim();
             if (!entryTrimed.equals("")) {
-                if (!this.dictionaryEntries.isEmpty() && this.dictionaryEntries.contains(entryTrimed)) {
-                    continue;
-                }
-                this.dictionaryEntries.add(entryTrimed);
+                distinctEntries.add(entryTrimed);
             }
         }
+        this.dictionaryEntries = new ArrayList<>(distinctEntries);
+        if (dictionaryName == null || dictionaryName.trim().isEmpty()) {
+            this.dictionaryName = null;
+        } else {
+            this.dictionaryName = dictionaryName.trim();
+        }
         this.dictionaryIterator = this.dictionaryEntries.iterator();
         this.tokenSetsNoStopwords = null;
         this.tokenListsNoStopwords = null;
@@ -76,6 +98,11 @@ public class Dictionary {
         return this.dictionaryEntries;
     }
 
+    @JsonProperty(value = PropertyNameConstants.DICTIONARY_NAME)
+    public String getDictionaryName() {
+        return this.dictionaryName;
+    }
+
     /**
      * Gets next dictionary entry from the dictionary
      */
@@ -92,6 +119,15 @@ public class Dictionary {
         return (dictionaryEntries == null || dictionaryEntries.isEmpty());
     }
 
+    /**
+     * Returns true if the dictionary only has the name of a stored dictionary, without the entries,
+     *   the entries are then read from DictionaryManager when the dictionary is matched.
+     */
+    @JsonIgnore
+    public boolean isNameOnly() {
+        return dictionaryName != null && dictionaryEntries.isEmpty();
+    }
+
     /***
      * To generate a set of tokens for each dictionary entry with removal
      * of duplicate tokens in the setup() of DictionaryMather for conjunction matching type.
@@ -166,7 +202,8 @@ public class Dictionary {
         if (that == null) return false;
         if (! (that instanceof Dictionary)) return false;
         
-        return Objects.equals(this.dictionaryEntries, ((Dictionary) that).dictionaryEntries);
+        return Objects.equals(this.dictionaryEntries, ((Dictionary) that).dictionaryEntries)
+                && Objects.equals(this.dictionaryName, ((Dictionary) that).dictionaryName);
     }
     
     @Override
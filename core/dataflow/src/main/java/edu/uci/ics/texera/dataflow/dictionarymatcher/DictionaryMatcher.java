@@ -4,20 +4,24 @@ import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.dataflow.IOperator;
 import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.field.ListField;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.FieldAccessor;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordMatchingType;
+import edu.uci.ics.texera.dataflow.resource.dictionary.DictionaryManager;
 import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+
+import org.apache.lucene.analysis.Analyzer;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 
 /**
@@ -35,7 +39,18 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
     }
 
     private Schema inputSchema;
-    private ACTrie dictionaryTrie;
+    private CompiledDictionary compiledDictionary;
+    private CompiledACTrie dictionaryTrie;
+    private DictionaryTokenIndex dictionaryTokenIndex;
+    private DictionaryTokenIndex.MatchBuffer tokenMatchBuffer;
+    private MultiPatternRegexMatcher dictionaryRegexMatcher;
+    private FSTDictionary fstDictionary;
+    private Analyzer luceneAnalyzer;
+
+    private Tuple.Appender payloadAppender;
+    private Tuple.Appender resultAppender;
+    private FieldAccessor payloadAccessor;
+    private List<FieldAccessor> attributeAccessors;
 
     @Override
     protected void setUp() throws TexeraException {
@@ -57,23 +72,64 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
 
         outputSchema = transformToOutputSchema(inputOperator.getOutputSchema());
 
-        if (predicate.getKeywordMatchingType() == KeywordMatchingType.CONJUNCTION_INDEXBASED) {
-            predicate.getDictionary().setDictionaryTokenSetList(predicate.getAnalyzerString());
-        } else if (predicate.getKeywordMatchingType() == KeywordMatchingType.PHRASE_INDEXBASED) {
-            predicate.getDictionary().setDictionaryTokenListWithStopwords(predicate.getAnalyzerString());
-            predicate.getDictionary().setDictionaryTokenSetList(predicate.getAnalyzerString());
-        } else if (predicate.getKeywordMatchingType() == KeywordMatchingType.REGEX) {
-            predicate.getDictionary().setPatternList();
-        } else {
-            preprocessDictionaryTrie();
+        // the fields are appended and accessed by their indexes, which are resolved once instead of once per tuple
+        Schema payloadSchema = inputSchema;
+        if (addPayload) {
+            payloadAppender = new Tuple.Appender(inputSchema, SchemaConstants.PAYLOAD_ATTRIBUTE);
+            payloadSchema = payloadAppender.getOutputSchema();
+        }
+        if (addResultAttribute) {
+            resultAppender = new Tuple.Appender(payloadSchema, outputSchema);
+        }
+        payloadAccessor = new FieldAccessor(payloadSchema, SchemaConstants.PAYLOAD);
+        attributeAccessors = new ArrayList<>();
+        for (String attributeName : predicate.getAttributeNames()) {
+            attributeAccessors.add(new FieldAccessor(payloadSchema, attributeName));
+        }
+
+        // the shared analyzer is resolved once instead of once per tuple
+        luceneAnalyzer = LuceneAnalyzerConstants.getLuceneAnalyzer(predicate.getAnalyzerString());
+
+        // a stored dictionary given only by its name is matched by substring against its FST,
+        //   so that the entries of a very large dictionary are never loaded on the heap
+        if (predicate.getDictionary().isNameOnly()
+                && predicate.getKeywordMatchingType() == KeywordMatchingType.SUBSTRING_SCANBASED) {
+            fstDictionary = DictionaryManager.getInstance().getFSTDictionary(predicate.getDictionary().getDictionaryName());
+            return;
         }
+
+        compiledDictionary = getCompiledDictionary();
+        dictionaryTrie = compiledDictionary.getTrie();
+        dictionaryTokenIndex = compiledDictionary.getTokenIndex();
+        if (dictionaryTokenIndex != null) {
+            tokenMatchBuffer = dictionaryTokenIndex.newMatchBuffer();
+        }
+        dictionaryRegexMatcher = compiledDictionary.getRegexMatcher();
     }
 
-    private void  preprocessDictionaryTrie(){
-        dictionaryTrie = new ACTrie();
-        dictionaryTrie.setCaseInsensitive(true);
-        dictionaryTrie.addKeywords(predicate.getDictionary().getDictionaryEntries());
-        dictionaryTrie.constructFailureTransactions();
+    /*
+     * Gets the compiled dictionary cached by DictionaryManager if the dictionary is a stored dictionary
+     *   and its entries are not changed, otherwise compiles the entries in the predicate.
+     */
+    private CompiledDictionary getCompiledDictionary() {
+        Dictionary dictionary = predicate.getDictionary();
+        if (dictionary.isNameOnly()) {
+            return DictionaryManager.getInstance().getCompiledDictionary(
+                    dictionary.getDictionaryName(), predicate.getAnalyzerString(), predicate.getKeywordMatchingType());
+        }
+        if (dictionary.getDictionaryName() != null) {
+            try {
+                CompiledDictionary cachedDictionary = DictionaryManager.getInstance().getCompiledDictionary(
+                        dictionary.getDictionaryName(), predicate.getAnalyzerString(), predicate.getKeywordMatchingType());
+                if (cachedDictionary.getDictionaryEntries().equals(dictionary.getDictionaryEntries())) {
+                    return cachedDictionary;
+                }
+            } catch (StorageException e) {
+                // the stored dictionary doesn't exist anymore, the entries in the predicate are still valid
+            }
+        }
+        return CompiledDictionary.compile(dictionary.getDictionaryEntries(), predicate.getAnalyzerString(),
+                predicate.getKeywordMatchingType());
     }
 
     @Override
@@ -91,6 +147,11 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
 
     }
 
+    @Override
+    protected boolean computeNextMatchingBatch(TupleBatch batch) throws TexeraException {
+        return computeNextMatchingBatchFromInput(batch);
+    }
+
     @Override
     public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
         if (inputTuple == null) {
@@ -99,73 +160,81 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
         
         // add payload if needed before passing it to the matching functions
         if (addPayload) {
-            Tuple.Builder tupleBuilderPayload = new Tuple.Builder(inputTuple);
-            tupleBuilderPayload.add(SchemaConstants.PAYLOAD_ATTRIBUTE, new ListField<Span>(
-                    DataflowUtils.generatePayloadFromTuple(inputTuple, predicate.getAnalyzerString())));
-            inputTuple = tupleBuilderPayload.build();
+            inputTuple = payloadAppender.append(inputTuple, new ListField<Span>(
+                    DataflowUtils.generatePayloadFromTuple(inputTuple, luceneAnalyzer)));
         }
 
         List<Span> matchingResults = null;
         if (predicate.getKeywordMatchingType() == KeywordMatchingType.CONJUNCTION_INDEXBASED) {
 
-            ArrayList<String> dictionaryEntries = predicate.getDictionary().getDictionaryEntries();
-            ArrayList<Set<String>> tokenSetsNoStopwords = predicate.getDictionary().getTokenSetsNoStopwords();
-
-            matchingResults = appendConjunctionMatchingSpans4Dictionary(inputTuple, predicate.getAttributeNames(), tokenSetsNoStopwords, dictionaryEntries);
+            matchingResults = appendConjunctionMatchingSpans4Dictionary(inputTuple);
 
         } else if (predicate.getKeywordMatchingType() == KeywordMatchingType.PHRASE_INDEXBASED) {
 
-            ArrayList<String> dictionaryEntries = predicate.getDictionary().getDictionaryEntries();
-            ArrayList<List<String>> tokenListsNoStopwords = predicate.getDictionary().getTokenListsNoStopwords();
-            ArrayList<List<String>> tokenListsWithStopwords = predicate.getDictionary().getTokenListsWithStopwords();
-            ArrayList<Set<String>> tokenSetsNoStopwords = predicate.getDictionary().getTokenSetsNoStopwords();
+            ArrayList<String> dictionaryEntries = compiledDictionary.getDictionaryEntries();
+            ArrayList<List<String>> tokenListsNoStopwords = compiledDictionary.getTokenListsNoStopwords();
+            ArrayList<List<String>> tokenListsWithStopwords = compiledDictionary.getTokenListsWithStopwords();
 
-            matchingResults = appendPhraseMatchingSpans4Dictionary(inputTuple, predicate.getAttributeNames(), tokenListsNoStopwords, tokenSetsNoStopwords, tokenListsWithStopwords, dictionaryEntries);
+            matchingResults = appendPhraseMatchingSpans4Dictionary(inputTuple, tokenListsNoStopwords, tokenListsWithStopwords, dictionaryEntries);
 
         } else if (predicate.getKeywordMatchingType() == KeywordMatchingType.SUBSTRING_SCANBASED) {
-            matchingResults = new ArrayList<Span>();
-            for (String attributeName : predicate.getAttributeNames()) {
-                AttributeType attributeType = inputTuple.getSchema().getAttribute(attributeName).getType();
-                String fieldValue = inputTuple.getField(attributeName).getValue().toString();
+            List<Span> substringResults = new ArrayList<Span>();
+            for (FieldAccessor attributeAccessor : attributeAccessors) {
+                String attributeName = attributeAccessor.getAttributeName();
+                String fieldValue = attributeAccessor.getField(inputTuple).getValue().toString();
+                AttributeType attributeType = attributeAccessor.getAttribute().getType();
 
                 // types other than TEXT and STRING: throw Exception for now
                 if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
                     throw new DataflowException("KeywordMatcher: Fields other than STRING and TEXT are not supported yet");
                 }
-                List<ACTrie.Emit> matchingEmits = dictionaryTrie.parseText(fieldValue);
-
-                if (!matchingEmits.isEmpty()) {
-                    for(ACTrie.Emit emit : matchingEmits){
-                        matchingResults.add(new Span(attributeName, emit.getStart(), emit.getEnd(), emit.getKeyword(), fieldValue.substring(emit.getStart(), emit.getEnd())));
-                    }
+                if (fstDictionary != null) {
+                    fstDictionary.parseText(fieldValue, (start, end, entry) -> substringResults.add(
+                            new Span(attributeName, start, end, entry, fieldValue.substring(start, end))));
+                } else {
+                    dictionaryTrie.parseText(fieldValue, (start, end, keywordIndex) -> substringResults.add(
+                            new Span(attributeName, start, end, dictionaryTrie.getKeyword(keywordIndex), fieldValue.substring(start, end))));
                 }
             }
+            matchingResults = substringResults;
 
         } else if (predicate.getKeywordMatchingType() == KeywordMatchingType.REGEX) {
 
-            ArrayList<Pattern> patternList = predicate.getDictionary().getPatternList();
-            ArrayList<String> dictionaryEntries = predicate.getDictionary().getDictionaryEntries();
-            matchingResults = new ArrayList<>();
+            ArrayList<String> dictionaryEntries = compiledDictionary.getDictionaryEntries();
+            List<String> attributeNames = predicate.getAttributeNames();
+            List<Span> regexResults = new ArrayList<>();
 
-            for (int i = 0; i < dictionaryEntries.size(); i++) {
-                for (String attributeName : predicate.getAttributeNames()) {
-                    AttributeType attributeType = inputTuple.getSchema().getAttribute(attributeName).getType();
-                    String fieldValue = inputTuple.getField(attributeName).getValue().toString();
+            // every field is scanned by the alternations of the entries to find the entries matching it
+            String[] fieldValues = new String[attributeNames.size()];
+            BitSet[] matchingEntries = new BitSet[attributeNames.size()];
+            BitSet anyMatchingEntries = new BitSet(dictionaryEntries.size());
+            for (int j = 0; j < attributeNames.size(); j++) {
+                FieldAccessor attributeAccessor = attributeAccessors.get(j);
+                fieldValues[j] = attributeAccessor.getField(inputTuple).getValue().toString();
+                AttributeType attributeType = attributeAccessor.getAttribute().getType();
 
-                    // types other than TEXT and STRING: throw Exception for now
-                    if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
-                        throw new DataflowException("KeywordMatcher: Fields other than STRING and TEXT are not supported yet");
-                    }
+                // types other than TEXT and STRING: throw Exception for now
+                if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
+                    throw new DataflowException("KeywordMatcher: Fields other than STRING and TEXT are not supported yet");
+                }
+                matchingEntries[j] = dictionaryRegexMatcher.findMatchingRegexes(fieldValues[j]);
+                anyMatchingEntries.or(matchingEntries[j]);
+            }
 
-                    Matcher javaMatcher = patternList.get(i).matcher(fieldValue);
-                    while (javaMatcher.find()) {
-                        int start = javaMatcher.start();
-                        int end = javaMatcher.end();
-                        matchingResults.add(
-                                new Span(attributeName, start, end, dictionaryEntries.get(i), fieldValue.substring(start, end)));
+            // only the matching entries are run to get their spans, in the same order as matching every entry
+            for (int i = anyMatchingEntries.nextSetBit(0); i >= 0; i = anyMatchingEntries.nextSetBit(i + 1)) {
+                String dictionaryEntry = dictionaryEntries.get(i);
+                for (int j = 0; j < attributeNames.size(); j++) {
+                    if (! matchingEntries[j].get(i)) {
+                        continue;
                     }
+                    String attributeName = attributeNames.get(j);
+                    String fieldValue = fieldValues[j];
+                    dictionaryRegexMatcher.findMatches(i, fieldValue, (start, end) -> regexResults.add(
+                            new Span(attributeName, start, end, dictionaryEntry, fieldValue.substring(start, end))));
                 }
             }
+            matchingResults = regexResults;
 
         }
 
@@ -173,22 +242,21 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
             return null;
         }
         
-        Tuple.Builder tupleBuilder = new Tuple.Builder(inputTuple);
         if (addResultAttribute) {
-            tupleBuilder.add(predicate.getSpanListName(), AttributeType.LIST, new ListField<Span>(matchingResults));
+            return resultAppender.append(inputTuple, new ListField<Span>(matchingResults));
         }
         
-        return tupleBuilder.build();
+        return inputTuple;
     }
 
-    private List<Span> appendConjunctionMatchingSpans4Dictionary(Tuple inputTuple, List<String> attributeNames, List<Set<String>> queryTokenSetList, List<String> queryList) throws DataflowException {
+    private List<Span> appendConjunctionMatchingSpans4Dictionary(Tuple inputTuple) throws DataflowException {
         List<Span> matchingResults = new ArrayList<>();
-        ListField<Span> payloadField = inputTuple.getField(SchemaConstants.PAYLOAD);
-        List<Span> payload = payloadField.getValue();
-        Map<Integer, List<Span>> relevantSpansMap = filterRelevantSpans(payload, queryTokenSetList);
-        for (String attributeName : attributeNames) {
-            AttributeType attributeType = inputTuple.getSchema().getAttribute(attributeName).getType();
-            String fieldValue = inputTuple.getField(attributeName).getValue().toString();
+        ListField<Span> payloadField = payloadAccessor.getField(inputTuple);
+        Map<String, List<Span>> attributePayloadMap = groupPayloadByAttribute(payloadField.getValue(), predicate.getAttributeNames());
+        for (FieldAccessor attributeAccessor : attributeAccessors) {
+            String attributeName = attributeAccessor.getAttributeName();
+            String fieldValue = attributeAccessor.getField(inputTuple).getValue().toString();
+            AttributeType attributeType = attributeAccessor.getAttribute().getType();
 
             // types other than TEXT and STRING: throw Exception for now
             if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
@@ -197,7 +265,7 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
 
             // for STRING type, check if the dictionary entries contains the complete fieldValue
             if (attributeType == AttributeType.STRING) {
-                if (queryList.contains(fieldValue)) {
+                if (dictionaryTokenIndex.containsEntry(fieldValue)) {
                     Span span = new Span(attributeName, 0, fieldValue.length(), fieldValue, fieldValue);
                     matchingResults.add(span);
                 }
@@ -205,26 +273,24 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
 
             // for TEXT type, every token in the query should be present in span
             if (attributeType == AttributeType.TEXT) {
-                for (int index : relevantSpansMap.keySet()) {
-                    List<Span> fieldSpanList = relevantSpansMap.get(index).stream().filter(span -> span.getAttributeName().equals(attributeName))
-                            .collect(Collectors.toList());
-                    if (DataflowUtils.isAllQueryTokensPresent(fieldSpanList, queryTokenSetList.get(index))) {
-                        matchingResults.addAll(fieldSpanList);
-                    }
+                Map<Integer, List<Span>> entrySpanMap = dictionaryTokenIndex.getMatchingEntrySpans(
+                        attributePayloadMap.get(attributeName), tokenMatchBuffer);
+                for (List<Span> fieldSpanList : entrySpanMap.values()) {
+                    matchingResults.addAll(fieldSpanList);
                 }
             }
         }
         return matchingResults;
     }
 
-    public List<Span> appendPhraseMatchingSpans4Dictionary(Tuple inputTuple, List<String> attributeNames, List<List<String>> queryTokenList, List<Set<String>> queryTokenSetList, List<List<String>> queryTokenListWithStopwords, List<String> queryList) throws DataflowException {
+    public List<Span> appendPhraseMatchingSpans4Dictionary(Tuple inputTuple, List<List<String>> queryTokenList, List<List<String>> queryTokenListWithStopwords, List<String> queryList) throws DataflowException {
         List<Span> matchingResults = new ArrayList<>();
-        ListField<Span> payloadField = inputTuple.getField(SchemaConstants.PAYLOAD);
-        List<Span> payload = payloadField.getValue();
-        Map<Integer, List<Span>> relevantSpansMap = filterRelevantSpans(payload, queryTokenSetList);
-        for (String attributeName : attributeNames) {
-            AttributeType attributeType = inputTuple.getSchema().getAttribute(attributeName).getType();
-            String fieldValue = inputTuple.getField(attributeName).getValue().toString();
+        ListField<Span> payloadField = payloadAccessor.getField(inputTuple);
+        Map<String, List<Span>> attributePayloadMap = groupPayloadByAttribute(payloadField.getValue(), predicate.getAttributeNames());
+        for (FieldAccessor attributeAccessor : attributeAccessors) {
+            String attributeName = attributeAccessor.getAttributeName();
+            String fieldValue = attributeAccessor.getField(inputTuple).getValue().toString();
+            AttributeType attributeType = attributeAccessor.getAttribute().getType();
 
             // types other than TEXT and STRING: throw Exception for now
             if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
@@ -233,7 +299,7 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
 
             // for STRING type, the query should match the fieldValue completely
             if (attributeType == AttributeType.STRING) {
-                if (queryList.contains(fieldValue)) {
+                if (dictionaryTokenIndex.containsEntry(fieldValue)) {
                     Span span = new Span(attributeName, 0, fieldValue.length(), fieldValue, fieldValue);
                     matchingResults.add(span);
                 }
@@ -241,45 +307,32 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
 
             // for TEXT type, spans need to be reconstructed according to the phrase query.
             if (attributeType == AttributeType.TEXT) {
-                for (int index : relevantSpansMap.keySet()) {
-                    List<Span> fieldSpanList = relevantSpansMap.get(index).stream().filter(span -> span.getAttributeName().equals(attributeName))
-                            .collect(Collectors.toList());
-                    if (fieldSpanList.isEmpty() || !DataflowUtils.isAllQueryTokensPresent(fieldSpanList, queryTokenSetList.get(index))) {
-                        continue;
-                    }
-                    matchingResults.addAll(DataflowUtils.constructPhraseMatchingSpans(attributeName, fieldValue, queryList.get(index), fieldSpanList, queryTokenListWithStopwords.get(index), queryTokenList.get(index)));
+                Map<Integer, List<Span>> entrySpanMap = dictionaryTokenIndex.getMatchingEntrySpans(
+                        attributePayloadMap.get(attributeName), tokenMatchBuffer);
+                for (Map.Entry<Integer, List<Span>> entrySpans : entrySpanMap.entrySet()) {
+                    int index = entrySpans.getKey();
+                    matchingResults.addAll(DataflowUtils.constructPhraseMatchingSpans(attributeName, fieldValue, queryList.get(index), entrySpans.getValue(), queryTokenListWithStopwords.get(index), queryTokenList.get(index)));
                 }
             }
         }
         return matchingResults;
     }
 
-    private Map<Integer, List<Span>> filterRelevantSpans(List<Span> spanList, List<Set<String>> queryTokenSet) {
-        Map<Integer, List<Span>> resultMap = new HashMap<>();
-        Map<String, List<Integer>> tokenMap = new HashMap<>();
-        for (int i = 0; i < queryTokenSet.size(); i++) {
-            for (String s : queryTokenSet.get(i)) {
-                if (!tokenMap.containsKey(s)) {
-                    tokenMap.put(s, new ArrayList<>());
-                }
-                tokenMap.get(s).add(i);
-            }
+    /*
+     * Groups the payload spans by the attribute name in one pass, for the given attributes.
+     */
+    private static Map<String, List<Span>> groupPayloadByAttribute(List<Span> payload, List<String> attributeNames) {
+        Map<String, List<Span>> attributePayloadMap = new HashMap<>();
+        for (String attributeName : attributeNames) {
+            attributePayloadMap.put(attributeName, new ArrayList<>());
         }
-        Iterator<Span> iterator = spanList.iterator();
-        while (iterator.hasNext()) {
-            Span span = iterator.next();
-            if (tokenMap.keySet().contains(span.getKey())) {
-                List<Integer> tokensetIndex = tokenMap.get(span.getKey());
-                for (Integer index : tokensetIndex) {
-                    if (!resultMap.containsKey(index)) {
-                        resultMap.put(index, new ArrayList<>());
-                    }
-                    resultMap.get(index).add(span);
-                }
-
+        for (Span span : payload) {
+            List<Span> attributePayload = attributePayloadMap.get(span.getAttributeName());
+            if (attributePayload != null) {
+                attributePayload.add(span);
             }
         }
-        return resultMap;
+        return attributePayloadMap;
     }
 
     @Override
@@ -6,10 +6,19 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.TermsQuery;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
 
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
+import edu.uci.ics.texera.api.dataflow.IOperator;
 import edu.uci.ics.texera.api.dataflow.ISourceOperator;
 import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.TexeraException;
@@ -23,6 +32,10 @@ import edu.uci.ics.texera.dataflow.source.scan.ScanBasedSourceOperator;
 import edu.uci.ics.texera.dataflow.source.scan.ScanSourcePredicate;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordMatcherSourceOperator;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordMatchingType;
+import edu.uci.ics.texera.dataflow.resource.dictionary.DictionaryManager;
+import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.storage.DataReader;
+import edu.uci.ics.texera.storage.RelationManager;
 
 
 /**
@@ -33,7 +46,7 @@ import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordMatchingType;
  */
 public class DictionaryMatcherSourceOperator implements ISourceOperator {
 
-    private ISourceOperator indexSource;
+    private IOperator indexSource;
     
     private KeywordMatcherSourceOperator keywordSource;
     private DictionaryMatcher dictionaryMatcher;
@@ -41,6 +54,7 @@ public class DictionaryMatcherSourceOperator implements ISourceOperator {
     private Schema outputSchema;
 
     private String currentDictionaryEntry;
+    private Dictionary dictionary;
 
     private final DictionarySourcePredicate predicate;
 
@@ -65,6 +79,8 @@ public class DictionaryMatcherSourceOperator implements ISourceOperator {
      * Scan the tuples using ScanSourceOperator followed by a Dictionary Matcher. <br>
      * For each tuple, loop through the dictionary entries and generate results from
      * DictionaryMatcher. <br>
+     * If the attributes are indexed by 3-grams (see RelationManager.getTrigramFieldNames()), 
+     * only the tuples containing all the 3-grams of an entry are read instead of all the tuples. <br>
      *
      * DictionaryOperatorType.PHRASE_INDEX, CONJUNCTION_INDEX: <br>
      * Loop through the dictionary entries.
@@ -81,6 +97,11 @@ public class DictionaryMatcherSourceOperator implements ISourceOperator {
      * tokenized. The order of the tokens does matter. Stopwords are
      * treated as placeholders to indicate an arbitary token. <br>
      * 
+     * If the predicate is single pass, PHRASE_INDEX and CONJUNCTION_INDEX don't search each entry separately. <br>
+     * One disjunctive query over the tokens of all the entries is searched, 
+     * and each matching tuple is read once and verified against all the entries 
+     * by a DictionaryMatcher on its payload. The results are streamed without being buffered. <br>
+     * 
      * @param predicate
      * 
      */
@@ -99,15 +120,57 @@ public class DictionaryMatcherSourceOperator implements ISourceOperator {
             return;
         }
 
-        currentDictionaryEntry = predicate.getDictionary().getNextEntry();
+        dictionary = predicate.getDictionary();
+        // the index based matching types search the entries one by one or by their tokens,
+        //   so the entries of a stored dictionary given only by its name are read here
+        if (dictionary.isNameOnly() && (predicate.getKeywordMatchingType() == KeywordMatchingType.CONJUNCTION_INDEXBASED
+                || predicate.getKeywordMatchingType() == KeywordMatchingType.PHRASE_INDEXBASED)) {
+            dictionary = new Dictionary(DictionaryManager.getInstance().getDictionaryEntries(dictionary.getDictionaryName()),
+                    dictionary.getDictionaryName());
+        }
+        currentDictionaryEntry = dictionary.getNextEntry();
 
         if (predicate.getKeywordMatchingType() == KeywordMatchingType.SUBSTRING_SCANBASED
                 || predicate.getKeywordMatchingType() == KeywordMatchingType.REGEX) {
 
             // For Substring matching and Regex matching, create a scan source operator followed by a dictionary matcher.
-            indexSource = new ScanBasedSourceOperator(new ScanSourcePredicate(predicate.getTableName()));
+            // If the attributes are indexed by 3-grams, Substring matching only reads the tuples containing 
+            //   all the 3-grams of any entry.
+            Query trigramQuery = null;
+            if (predicate.getKeywordMatchingType() == KeywordMatchingType.SUBSTRING_SCANBASED) {
+                List<String> gramFieldNames = RelationManager.getInstance().getTrigramFieldNames(
+                        predicate.getTableName(), predicate.getAttributeNames());
+                if (gramFieldNames != null) {
+                    trigramQuery = buildDictionaryTrigramQuery(gramFieldNames);
+                }
+            }
+            if (trigramQuery != null) {
+                DataReader dataReader = RelationManager.getInstance().getTableDataReader(
+                        predicate.getTableName(), trigramQuery);
+                dataReader.setPayloadAdded(true);
+                dataReader.setStreaming(true);
+                indexSource = dataReader;
+            } else {
+                indexSource = new ScanBasedSourceOperator(new ScanSourcePredicate(predicate.getTableName()));
+            }
+
+            dictionaryMatcher = new DictionaryMatcher(new DictionaryPredicate(dictionary, predicate.getAttributeNames(),
+                    predicate.getAnalyzerString(), predicate.getKeywordMatchingType(), predicate.getSpanListName()));
+
+            dictionaryMatcher.setInputOperator(indexSource);
+            dictionaryMatcher.open();
+            outputSchema = dictionaryMatcher.getOutputSchema();
+
+        } else if (predicate.isSinglePass()) {
+            // For CONJUNCTION and PHRASE in a single pass, create a data reader with a query over all the entries
+            // followed by a dictionary matcher.
+            DataReader dataReader = RelationManager.getInstance().getTableDataReader(
+                    predicate.getTableName(), buildDictionaryQuery());
+            dataReader.setPayloadAdded(true);
+            dataReader.setStreaming(true);
+            indexSource = dataReader;
 
-            dictionaryMatcher = new DictionaryMatcher(new DictionaryPredicate(predicate.getDictionary(), predicate.getAttributeNames(),
+            dictionaryMatcher = new DictionaryMatcher(new DictionaryPredicate(dictionary, predicate.getAttributeNames(),
                     predicate.getAnalyzerString(), predicate.getKeywordMatchingType(), predicate.getSpanListName()));
 
             dictionaryMatcher.setInputOperator(indexSource);
@@ -140,8 +203,7 @@ public class DictionaryMatcherSourceOperator implements ISourceOperator {
             return null;
         }
         
-        if (predicate.getKeywordMatchingType() == KeywordMatchingType.PHRASE_INDEXBASED
-                || predicate.getKeywordMatchingType() == KeywordMatchingType.CONJUNCTION_INDEXBASED) {
+        if (keywordSource != null) {
             // For each dictionary entry, get all results from KeywordMatcher.
             if(! resultMapPopulated){
                 computeMatchingResults();
@@ -166,7 +228,7 @@ public class DictionaryMatcherSourceOperator implements ISourceOperator {
             }
         }
 
-        // Substring matching or regex matching (scan based)
+        // Substring matching, regex matching (scan based), or single pass matching
         else {
             while(true) {
                 Tuple inputTuple;
@@ -200,6 +262,86 @@ public class DictionaryMatcherSourceOperator implements ISourceOperator {
         return this.offset;
     }
 
+    /*
+     * Builds a query that matches a superset of the tuples matched by any dictionary entry.
+     * 
+     * For a STRING attribute, the value must be one of the entries.
+     * For a TEXT attribute, the value must contain at least one token of the entries,
+     *   the tuples are verified by the DictionaryMatcher afterwards.
+     * TermsQuery is used instead of BooleanQuery, so that the number of terms is not limited by the max clause count.
+     */
+    private Query buildDictionaryQuery() throws DataflowException {
+        Schema inputSchema = RelationManager.getInstance().getTableDataStore(predicate.getTableName()).getSchema();
+        List<String> dictionaryEntries = dictionary.getDictionaryEntries();
+        
+        Set<String> dictionaryTokens = new LinkedHashSet<>();
+        for (String entry : dictionaryEntries) {
+            for (String token : DataflowUtils.tokenizeQuery(predicate.getAnalyzerString(), entry)) {
+                dictionaryTokens.add(token.toLowerCase());
+            }
+        }
+        
+        BooleanQuery.Builder booleanQueryBuilder = new BooleanQuery.Builder();
+        for (String attributeName : predicate.getAttributeNames()) {
+            AttributeType attributeType = inputSchema.getAttribute(attributeName).getType();
+            
+            // types other than TEXT and STRING: throw Exception for now
+            if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
+                throw new DataflowException(
+                        "DictionaryMatcher: Fields other than STRING and TEXT are not supported yet");
+            }
+            
+            List<Term> terms = new ArrayList<>();
+            if (attributeType == AttributeType.STRING) {
+                dictionaryEntries.forEach(entry -> terms.add(new Term(attributeName, entry)));
+            }
+            if (attributeType == AttributeType.TEXT) {
+                dictionaryTokens.forEach(token -> terms.add(new Term(attributeName, token)));
+            }
+            booleanQueryBuilder.add(new TermsQuery(terms), BooleanClause.Occur.SHOULD);
+        }
+        
+        return booleanQueryBuilder.build();
+    }
+
+    /*
+     * Builds a query that matches a superset of the tuples containing any dictionary entry as a substring,
+     *   in the index fields containing the 3-grams of the attributes.
+     * 
+     * Returns null if an entry is shorter than 3 characters (it can be in any tuple),
+     *   or if there are more entries than the max clause count of a BooleanQuery,
+     *   in which case the table is scanned.
+     * 
+     * The entries of a stored dictionary given only by its name are counted by its FST first,
+     *   and only read if the query can be built. The dictionary matcher still gets the dictionary by its name.
+     */
+    private Query buildDictionaryTrigramQuery(List<String> gramFieldNames) {
+        long entryCount = dictionary.isNameOnly() ?
+                DictionaryManager.getInstance().getFSTDictionary(dictionary.getDictionaryName()).getEntryCount() :
+                dictionary.getDictionaryEntries().size();
+        if (entryCount > BooleanQuery.getMaxClauseCount()) {
+            return null;
+        }
+        
+        // duplicate entries have the same query
+        Set<String> dictionaryEntries = new LinkedHashSet<>(dictionary.isNameOnly() ?
+                DictionaryManager.getInstance().getDictionaryEntries(dictionary.getDictionaryName()) :
+                dictionary.getDictionaryEntries());
+        if (dictionaryEntries.size() > BooleanQuery.getMaxClauseCount()) {
+            return null;
+        }
+        
+        BooleanQuery.Builder booleanQueryBuilder = new BooleanQuery.Builder();
+        for (String entry : dictionaryEntries) {
+            Query entryQuery = DataflowUtils.buildTrigramQuery(gramFieldNames, entry);
+            if (entryQuery == null) {
+                return null;
+            }
+            booleanQueryBuilder.add(entryQuery, BooleanClause.Occur.SHOULD);
+        }
+        return booleanQueryBuilder.build();
+    }
+
     /***
      *  Maintain a HashMap </Tuple_ID, Tuple> to compute all the keyword
      *  matching results for each tuple.
@@ -224,7 +366,7 @@ public class DictionaryMatcherSourceOperator implements ISourceOperator {
                 }
             }
 
-            if ((currentDictionaryEntry = predicate.getDictionary().getNextEntry()) == null) {
+            if ((currentDictionaryEntry = dictionary.getNextEntry()) == null) {
                  return;
             }
 
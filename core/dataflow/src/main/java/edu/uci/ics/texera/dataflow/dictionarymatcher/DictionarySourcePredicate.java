@@ -18,6 +18,20 @@ import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 public class DictionarySourcePredicate extends DictionaryPredicate {
     
     private final String tableName;
+    private final Boolean singlePass;
+    
+    /*
+     * This constructor is for internal use. It's not a JSON entry point.
+     */
+    public DictionarySourcePredicate(
+            Dictionary dictionary, 
+            List<String> attributeNames, 
+            String luceneAnalyzerStr,
+            KeywordMatchingType keywordMatchingType,
+            String tableName,
+            String spanListName) {
+        this(dictionary, attributeNames, luceneAnalyzerStr, keywordMatchingType, tableName, spanListName, null);
+    }
 
     /**
      * DictionarySourcePredicate is used to create a DictionarySourceOperator.
@@ -27,6 +41,10 @@ public class DictionarySourcePredicate extends DictionaryPredicate {
      * @param luceneAnalyzerStr, the lucene analyzer to tokenize the dictionary entries
      * @param keywordMatchingType, the keyword matching type ({@code KeywordMatchingType}
      * @param tableName, the name of the source table
+     * @param spanListName, the name of the attribute where the results will be put in
+     * @param singlePass, optional, whether the CONJUNCTION and PHRASE matching types search all the entries 
+     *   in a single pass instead of one index search for each entry (see {@link DictionaryMatcherSourceOperator}), 
+     *   default false
      */
     @JsonCreator
     public DictionarySourcePredicate(
@@ -50,7 +68,12 @@ public class DictionarySourcePredicate extends DictionaryPredicate {
             String tableName,
             
             @JsonProperty(value = PropertyNameConstants.SPAN_LIST_NAME, required = false)
-            String spanListName) {
+            String spanListName,
+            
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.SINGLE_PASS, required = false, 
+                    defaultValue = "false")
+            Boolean singlePass) {
 
         super(dictionary, attributeNames, luceneAnalyzerStr, keywordMatchingType, spanListName);
 
@@ -58,6 +81,11 @@ public class DictionarySourcePredicate extends DictionaryPredicate {
             throw new TexeraException(PropertyNameConstants.EMPTY_NAME_EXCEPTION);
         }
         this.tableName = tableName;
+        if (singlePass == null) {
+            this.singlePass = false;
+        } else {
+            this.singlePass = singlePass;
+        }
     }
     
     @JsonProperty(value = PropertyNameConstants.TABLE_NAME)
@@ -65,6 +93,11 @@ public class DictionarySourcePredicate extends DictionaryPredicate {
         return this.tableName;
     }
     
+    @JsonProperty(PropertyNameConstants.SINGLE_PASS)
+    public Boolean isSinglePass() {
+        return this.singlePass;
+    }
+    
     @Override
     public DictionaryMatcherSourceOperator newOperator() {
         return new DictionaryMatcherSourceOperator(this);
@@ -0,0 +1,161 @@
+package edu.uci.ics.texera.dataflow.dictionarymatcher;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.uci.ics.texera.api.span.Span;
+
+/**
+ * DictionaryTokenIndex is an inverted index from the tokens of the dictionary entries to the entries,
+ *   it's compiled once from the token sets of a dictionary, so that the entries whose tokens appear in a payload
+ *   are found in one pass over the payload, independent of the dictionary size.
+ *
+ * It also contains the set of the dictionary entries, to match a STRING field with the entries in constant time.
+ *
+ * The index is immutable, it can be shared by the operators using the same compiled dictionary.
+ * The counters used to match a payload are kept in a {@link MatchBuffer} owned by each operator,
+ *   so that they are allocated once instead of once for every tuple.
+ *
+ */
+public class DictionaryTokenIndex implements Serializable {
+
+    private static final long serialVersionUID = -2514853371452530386L;
+
+    private final Set<String> dictionaryEntrySet;
+    // token -> the indexes of the entries containing the token
+    private final Map<String, int[]> tokenEntryMap;
+    // the number of distinct tokens of every entry
+    private final int[] entryTokenCounts;
+    // the distinct tokens of every entry
+    private final String[][] entryTokens;
+
+    /**
+     * MatchBuffer holds the number of matched tokens of every entry, and the entries with a matched token.
+     * It's reused by getMatchingEntrySpans() for every payload, and must not be shared by multiple threads.
+     */
+    public static class MatchBuffer {
+        private final int[] matchedTokenCounts;
+        private final int[] touchedEntries;
+
+        private MatchBuffer(int entryCount) {
+            this.matchedTokenCounts = new int[entryCount];
+            this.touchedEntries = new int[entryCount];
+        }
+    }
+
+    public DictionaryTokenIndex(List<String> dictionaryEntries, List<Set<String>> entryTokenSetList) {
+        this.dictionaryEntrySet = new HashSet<>(dictionaryEntries);
+
+        Map<String, List<Integer>> tokenEntryListMap = new HashMap<>();
+        this.entryTokenCounts = new int[entryTokenSetList.size()];
+        this.entryTokens = new String[entryTokenSetList.size()][];
+        for (int i = 0; i < entryTokenSetList.size(); i++) {
+            entryTokenCounts[i] = entryTokenSetList.get(i).size();
+            entryTokens[i] = entryTokenSetList.get(i).toArray(new String[0]);
+            for (String token : entryTokenSetList.get(i)) {
+                tokenEntryListMap.computeIfAbsent(token, key -> new ArrayList<>()).add(i);
+            }
+        }
+        this.tokenEntryMap = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> tokenEntryList : tokenEntryListMap.entrySet()) {
+            tokenEntryMap.put(tokenEntryList.getKey(),
+                    tokenEntryList.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    public boolean containsEntry(String value) {
+        return dictionaryEntrySet.contains(value);
+    }
+
+    /**
+     * Creates the buffer to be passed to getMatchingEntrySpans(), one for each operator (thread).
+     */
+    public MatchBuffer newMatchBuffer() {
+        return new MatchBuffer(entryTokenCounts.length);
+    }
+
+    /**
+     * Finds the entries whose tokens are all present in the spans.
+     *
+     * The spans are grouped by their tokens first, so each distinct token adds to the counts of its entries once,
+     *   no matter how many times it appears. The spans are only collected for the entries with all their tokens.
+     *
+     * @param spanList, the payload spans of one attribute
+     * @param matchBuffer, the buffer created by newMatchBuffer(), all its counts are 0 again when this returns
+     * @return a map from the index of every matching entry (in ascending order)
+     *   to the spans of its tokens (in the order of spanList)
+     */
+    public Map<Integer, List<Span>> getMatchingEntrySpans(List<Span> spanList, MatchBuffer matchBuffer) {
+        // the positions in spanList of the spans of every token in the dictionary
+        Map<String, List<Integer>> tokenSpanPositionMap = new HashMap<>();
+        for (int i = 0; i < spanList.size(); i++) {
+            String token = spanList.get(i).getKey();
+            if (tokenEntryMap.containsKey(token)) {
+                tokenSpanPositionMap.computeIfAbsent(token, key -> new ArrayList<>()).add(i);
+            }
+        }
+
+        int[] matchedTokenCounts = matchBuffer.matchedTokenCounts;
+        int[] touchedEntries = matchBuffer.touchedEntries;
+        int touchedEntryCount = 0;
+        for (String token : tokenSpanPositionMap.keySet()) {
+            for (int entryIndex : tokenEntryMap.get(token)) {
+                if (matchedTokenCounts[entryIndex]++ == 0) {
+                    touchedEntries[touchedEntryCount++] = entryIndex;
+                }
+            }
+        }
+
+        int[] matchingEntries = new int[touchedEntryCount];
+        int matchingEntryCount = 0;
+        for (int i = 0; i < touchedEntryCount; i++) {
+            int entryIndex = touchedEntries[i];
+            if (matchedTokenCounts[entryIndex] == entryTokenCounts[entryIndex]) {
+                matchingEntries[matchingEntryCount++] = entryIndex;
+            }
+            matchedTokenCounts[entryIndex] = 0;
+        }
+        Arrays.sort(matchingEntries, 0, matchingEntryCount);
+
+        Map<Integer, List<Span>> entrySpanMap = new LinkedHashMap<>();
+        for (int i = 0; i < matchingEntryCount; i++) {
+            int entryIndex = matchingEntries[i];
+            List<Integer> spanPositions = new ArrayList<>();
+            for (String token : entryTokens[entryIndex]) {
+                spanPositions.addAll(tokenSpanPositionMap.get(token));
+            }
+            spanPositions.sort(null);
+            List<Span> entrySpanList = new ArrayList<>(spanPositions.size());
+            for (int spanPosition : spanPositions) {
+                entrySpanList.add(spanList.get(spanPosition));
+            }
+            entrySpanMap.put(entryIndex, entrySpanList);
+        }
+        return entrySpanMap;
+    }
+
+    /**
+     * Gets the approximate number of bytes used by the index.
+     */
+    public long getMemoryUsageBytes() {
+        long bytes = 4L * entryTokenCounts.length;
+        for (String[] tokens : entryTokens) {
+            bytes += 16 + 8L * tokens.length;
+        }
+        for (Map.Entry<String, int[]> tokenEntries : tokenEntryMap.entrySet()) {
+            bytes += 64 + 2L * tokenEntries.getKey().length() + 4L * tokenEntries.getValue().length;
+        }
+        for (String entry : dictionaryEntrySet) {
+            bytes += 48 + 2L * entry.length();
+        }
+        return bytes;
+    }
+
+}
@@ -0,0 +1,203 @@
+package edu.uci.ics.texera.dataflow.dictionarymatcher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.CharsRef;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.fst.Builder;
+import org.apache.lucene.util.fst.CharSequenceOutputs;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.Util;
+
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.exception.StorageException;
+
+/**
+ * FSTDictionary stores the entries of a very large dictionary in a lucene FST (finite state transducer),
+ *   which shares both the prefixes and the suffixes of the entries, so it's much smaller than a list of strings
+ *   or an aho-corasick automaton of the same entries.
+ *
+ * The FST is written to a file once when a dictionary is uploaded (see DictionaryManager),
+ *   and read through a memory mapped input when it's opened, only the compressed FST bytes are kept on the heap.
+ *
+ * The keys of the FST are the entries case folded char by char (the same as {@link CompiledACTrie}).
+ *   The output of a key is empty if the key is the only entry with this folded form,
+ *   otherwise it's all the entries with this folded form, separated by '\n'
+ *   (an entry never contains a line break, because the lines of a dictionary file are its entries).
+ *
+ * The dictionary is matched against a text case-insensitively by walking the FST from every position of the text,
+ *   the same matches as a case-insensitive {@link CompiledACTrie} are found without building the whole automaton.
+ *
+ */
+public class FSTDictionary {
+
+    /**
+     * MatchHandler receives the matches of {@link FSTDictionary#parseText(String, MatchHandler)}.
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+        void onMatch(int start, int end, String entry);
+    }
+
+    private static final String CODEC_NAME = "TexeraFSTDictionary";
+    private static final int VERSION = 0;
+    private static final char ENTRY_SEPARATOR = '\n';
+
+    private static final CharSequenceOutputs OUTPUTS = CharSequenceOutputs.getSingleton();
+    private static final CharsRef NO_OUTPUT = OUTPUTS.getNoOutput();
+
+    private final FST<CharsRef> fst;
+    private final long entryCount;
+
+    private FSTDictionary(FST<CharsRef> fst, long entryCount) {
+        this.fst = fst;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Writes the entries to a FST dictionary file, the file is replaced if it exists.
+     *
+     * @param dictionaryEntries
+     * @param path
+     * @throws StorageException
+     */
+    public static void write(Collection<String> dictionaryEntries, Path path) throws StorageException {
+        // the FST builder requires the keys in sorted order
+        Map<String, Set<String>> foldedEntryMap = new TreeMap<>();
+        for (String entry : dictionaryEntries) {
+            if (! entry.isEmpty()) {
+                foldedEntryMap.computeIfAbsent(fold(entry), key -> new LinkedHashSet<>()).add(entry);
+            }
+        }
+
+        try {
+            Builder<CharsRef> builder = new Builder<>(FST.INPUT_TYPE.BYTE2, OUTPUTS);
+            IntsRefBuilder scratch = new IntsRefBuilder();
+            long entryCount = 0;
+            for (Map.Entry<String, Set<String>> foldedEntries : foldedEntryMap.entrySet()) {
+                String key = foldedEntries.getKey();
+                Set<String> entries = foldedEntries.getValue();
+                entryCount += entries.size();
+                CharsRef output = NO_OUTPUT;
+                if (entries.size() > 1 || ! entries.contains(key)) {
+                    output = new CharsRef(String.join(String.valueOf(ENTRY_SEPARATOR), entries));
+                }
+                builder.add(Util.toUTF16(key, scratch), output);
+            }
+            FST<CharsRef> fst = builder.finish();
+            if (fst == null) {
+                throw new StorageException("Dictionary is empty");
+            }
+
+            Files.createDirectories(path.getParent());
+            Files.deleteIfExists(path);
+            try (Directory directory = FSDirectory.open(path.getParent());
+                    IndexOutput output = directory.createOutput(path.getFileName().toString(), IOContext.DEFAULT)) {
+                CodecUtil.writeHeader(output, CODEC_NAME, VERSION);
+                output.writeVLong(entryCount);
+                fst.save(output);
+                CodecUtil.writeFooter(output);
+            }
+        } catch (IOException e) {
+            throw new StorageException("Error occurred while writing FST dictionary " + path, e);
+        }
+    }
+
+    /**
+     * Opens a FST dictionary file written by {@link #write(Collection, Path)}.
+     *
+     * @param path
+     * @return
+     * @throws StorageException, if the file doesn't exist or it's corrupted
+     */
+    public static FSTDictionary open(Path path) throws StorageException {
+        try (Directory directory = new MMapDirectory(path.getParent());
+                ChecksumIndexInput input = directory.openChecksumInput(path.getFileName().toString(), IOContext.READONCE)) {
+            CodecUtil.checkHeader(input, CODEC_NAME, VERSION, VERSION);
+            long entryCount = input.readVLong();
+            FST<CharsRef> fst = new FST<>(input, OUTPUTS);
+            CodecUtil.checkFooter(input);
+            return new FSTDictionary(fst, entryCount);
+        } catch (IOException e) {
+            throw new StorageException("Error occurred while reading FST dictionary " + path, e);
+        }
+    }
+
+    /**
+     * Finds all the entries in the text, case-insensitively.
+     *
+     * @param text
+     * @param handler
+     */
+    public void parseText(String text, MatchHandler handler) {
+        try {
+            FST.BytesReader reader = fst.getBytesReader();
+            FST.Arc<CharsRef> rootArc = fst.getFirstArc(new FST.Arc<>());
+            FST.Arc<CharsRef> arc = new FST.Arc<>();
+            for (int start = 0; start < text.length(); start++) {
+                arc.copyFrom(rootArc);
+                CharsRef output = NO_OUTPUT;
+                for (int i = start; i < text.length(); i++) {
+                    if (fst.findTargetArc(CompiledACTrie.fold(text.charAt(i), true), arc, arc, reader) == null) {
+                        break;
+                    }
+                    output = OUTPUTS.add(output, arc.output);
+                    if (arc.isFinal()) {
+                        reportMatch(text, start, i + 1, OUTPUTS.add(output, arc.nextFinalOutput), handler);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new DataflowException(e);
+        }
+    }
+
+    private static void reportMatch(String text, int start, int end, CharsRef output, MatchHandler handler) {
+        if (output.length == 0) {
+            handler.onMatch(start, end, fold(text.substring(start, end)));
+            return;
+        }
+        String entries = output.toString();
+        int entryStart = 0;
+        int separator;
+        while ((separator = entries.indexOf(ENTRY_SEPARATOR, entryStart)) != -1) {
+            handler.onMatch(start, end, entries.substring(entryStart, separator));
+            entryStart = separator + 1;
+        }
+        handler.onMatch(start, end, entries.substring(entryStart));
+    }
+
+    private static String fold(String entry) {
+        char[] folded = new char[entry.length()];
+        for (int i = 0; i < entry.length(); i++) {
+            folded[i] = CompiledACTrie.fold(entry.charAt(i), true);
+        }
+        return new String(folded);
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Gets the number of bytes used by the FST on the heap.
+     */
+    public long getMemoryUsageBytes() {
+        return fst.ramBytesUsed();
+    }
+
+}
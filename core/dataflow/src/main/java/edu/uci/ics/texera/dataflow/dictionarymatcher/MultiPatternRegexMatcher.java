@@ -0,0 +1,265 @@
+package edu.uci.ics.texera.dataflow.dictionarymatcher;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import com.google.re2j.Matcher;
+import com.google.re2j.Pattern;
+import com.google.re2j.PatternSyntaxException;
+
+/**
+ * MultiPatternRegexMatcher matches the regexes of a dictionary (case-insensitively) with RE2J,
+ *   which runs in linear time of the text instead of backtracking.
+ *
+ * RE2J always folds the case of all the Unicode letters, for example "café" matches "CAFÉ",
+ *   while java.util.regex with only CASE_INSENSITIVE (used by the dictionary matcher before) folds ASCII letters only.
+ * The fallback regexes use UNICODE_CASE as well, so all the regexes are matched in the same way.
+ *
+ * The regexes supported by RE2J are compiled into a binary tree of alternations "(r1)|(r2)|...",
+ *   the root has all of them, and each child has half of the regexes of its parent.
+ * Each regex has its own capturing group in an alternation, so a scan of a field reports which regexes matched.
+ * {@link #findMatchingRegexes(String)} scans a field with the root once:
+ *   if nothing matches, no regex is run on the field at all,
+ *   and if every regex is reported, the regexes are known without any other scan.
+ * A regex can be hidden by another regex matching at the same place (an alternation only reports
+ *   non-overlapping leftmost matches), so only the children with a regex not reported yet are scanned again.
+ * The regexes found by {@link #findMatchingRegexes(String)} are then run by {@link #findMatches}
+ *   to report all their matches. A field matching k of n regexes costs about k * log(n) scans instead of n.
+ *
+ * The regexes using constructs that RE2J doesn't support (such as backreferences and lookarounds)
+ *   fall back to java.util.regex, and are always run on the whole field.
+ *
+ */
+public class MultiPatternRegexMatcher implements Serializable {
+
+    private static final long serialVersionUID = -2968314519245216620L;
+
+    /**
+     * MatchHandler receives the matches of one regex on a field.
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+        void onMatch(int start, int end);
+    }
+
+    /*
+     * A node of the tree of alternations, which has the RE2J regexes re2jRegexIndexes[from, to).
+     */
+    private static class AlternationNode implements Serializable {
+
+        private static final long serialVersionUID = 4286615035981546193L;
+
+        private final int from;
+        private final int to;
+        // the alternation of the regexes, or the regex itself in a leaf, null if RE2J can't compile the alternation
+        private final Pattern pattern;
+        // the capturing group of each regex in the alternation, null in a leaf
+        private final int[] regexGroups;
+        private final AlternationNode left;
+        private final AlternationNode right;
+
+        private AlternationNode(int from, int to, Pattern pattern, int[] regexGroups,
+                AlternationNode left, AlternationNode right) {
+            this.from = from;
+            this.to = to;
+            this.pattern = pattern;
+            this.regexGroups = regexGroups;
+            this.left = left;
+            this.right = right;
+        }
+
+        private boolean isLeaf() {
+            return left == null;
+        }
+    }
+
+    private final List<String> regexList;
+    // the RE2J pattern of each regex, null if it's not supported by RE2J
+    private final List<Pattern> re2jPatternList;
+    // the java.util.regex pattern of each regex not supported by RE2J, null otherwise
+    private final List<java.util.regex.Pattern> fallbackPatternList;
+    // the indexes of the regexes supported by RE2J, in the order of the leaves of the tree
+    private final int[] re2jRegexIndexes;
+    // the root of the tree of alternations, null if no regex is supported by RE2J
+    private final AlternationNode root;
+    // the total length of the alternations in the tree
+    private long alternationLength;
+
+    /**
+     * @param regexList
+     * @throws java.util.regex.PatternSyntaxException, if a regex is supported by neither RE2J nor java.util.regex
+     */
+    public MultiPatternRegexMatcher(List<String> regexList) {
+        this.regexList = new ArrayList<>(regexList);
+        this.re2jPatternList = new ArrayList<>();
+        this.fallbackPatternList = new ArrayList<>();
+
+        List<Integer> re2jRegexIndexList = new ArrayList<>();
+        for (int i = 0; i < regexList.size(); i++) {
+            String regex = regexList.get(i);
+            Pattern re2jPattern = compileRe2j(regex);
+            re2jPatternList.add(re2jPattern);
+            if (re2jPattern == null) {
+                fallbackPatternList.add(java.util.regex.Pattern.compile(regex,
+                        java.util.regex.Pattern.CASE_INSENSITIVE | java.util.regex.Pattern.UNICODE_CASE));
+            } else {
+                fallbackPatternList.add(null);
+                re2jRegexIndexList.add(i);
+            }
+        }
+
+        this.re2jRegexIndexes = re2jRegexIndexList.stream().mapToInt(Integer::intValue).toArray();
+        this.root = re2jRegexIndexes.length == 0 ? null : buildAlternationNode(0, re2jRegexIndexes.length);
+    }
+
+    private static Pattern compileRe2j(String regex) {
+        try {
+            return Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Builds the node of the RE2J regexes re2jRegexIndexes[from, to) and its children.
+     */
+    private AlternationNode buildAlternationNode(int from, int to) {
+        if (to - from == 1) {
+            return new AlternationNode(from, to, re2jPatternList.get(re2jRegexIndexes[from]), null, null, null);
+        }
+
+        // the groups of a regex itself are numbered after the group of the regex
+        StringBuilder alternation = new StringBuilder();
+        int[] regexGroups = new int[to - from];
+        int group = 1;
+        for (int i = from; i < to; i++) {
+            int regexIndex = re2jRegexIndexes[i];
+            if (i > from) {
+                alternation.append('|');
+            }
+            alternation.append('(').append(regexList.get(regexIndex)).append(')');
+            regexGroups[i - from] = group;
+            group += 1 + re2jPatternList.get(regexIndex).matcher("").groupCount();
+        }
+        alternationLength += alternation.length();
+
+        int middle = (from + to) / 2;
+        return new AlternationNode(from, to, compileRe2j(alternation.toString()), regexGroups,
+                buildAlternationNode(from, middle), buildAlternationNode(middle, to));
+    }
+
+    public int getRegexCount() {
+        return regexList.size();
+    }
+
+    /**
+     * Returns true if the regex falls back to java.util.regex because RE2J doesn't support it.
+     */
+    public boolean isFallbackRegex(int regexIndex) {
+        return fallbackPatternList.get(regexIndex) != null;
+    }
+
+    /**
+     * Gets the approximate number of bytes used by the compiled patterns, estimated by the length of the regexes.
+     */
+    public long getMemoryUsageBytes() {
+        long bytes = 0;
+        for (String regex : regexList) {
+            // the compiled program of a regex is roughly proportional to its length
+            bytes += 256 + 64L * regex.length();
+        }
+        return bytes + 64L * alternationLength;
+    }
+
+    /**
+     * Finds the regexes that match the field, by scanning it with the tree of alternations.
+     * The fallback regexes are always included, since they are not in the alternations.
+     *
+     * @param fieldValue
+     * @return the indexes of the regexes that match the field
+     */
+    public BitSet findMatchingRegexes(String fieldValue) {
+        BitSet matchingRegexes = new BitSet(regexList.size());
+        for (int i = 0; i < fallbackPatternList.size(); i++) {
+            if (fallbackPatternList.get(i) != null) {
+                matchingRegexes.set(i);
+            }
+        }
+        if (root == null) {
+            return matchingRegexes;
+        }
+
+        // the positions (in the leaves of the tree) of the RE2J regexes reported by a scan
+        BitSet reportedRegexes = new BitSet(re2jRegexIndexes.length);
+        findMatchingRegexes(root, fieldValue, reportedRegexes);
+        for (int i = reportedRegexes.nextSetBit(0); i >= 0; i = reportedRegexes.nextSetBit(i + 1)) {
+            matchingRegexes.set(re2jRegexIndexes[i]);
+        }
+        return matchingRegexes;
+    }
+
+    private void findMatchingRegexes(AlternationNode node, String fieldValue, BitSet reportedRegexes) {
+        // all the regexes of the node are already reported by the scan of its parent
+        if (reportedRegexes.nextClearBit(node.from) >= node.to) {
+            return;
+        }
+        if (node.pattern == null) {
+            findMatchingRegexes(node.left, fieldValue, reportedRegexes);
+            findMatchingRegexes(node.right, fieldValue, reportedRegexes);
+            return;
+        }
+
+        Matcher matcher = node.pattern.matcher(fieldValue);
+        if (node.isLeaf()) {
+            if (matcher.find()) {
+                reportedRegexes.set(node.from);
+            }
+            return;
+        }
+
+        boolean matched = false;
+        while (matcher.find()) {
+            matched = true;
+            for (int i = 0; i < node.regexGroups.length; i++) {
+                if (matcher.start(node.regexGroups[i]) >= 0) {
+                    reportedRegexes.set(node.from + i);
+                    break;
+                }
+            }
+            if (reportedRegexes.nextClearBit(node.from) >= node.to) {
+                return;
+            }
+        }
+        // none of the regexes matches if the alternation doesn't match,
+        //   otherwise the regexes not reported may be hidden by the reported ones
+        if (matched) {
+            findMatchingRegexes(node.left, fieldValue, reportedRegexes);
+            findMatchingRegexes(node.right, fieldValue, reportedRegexes);
+        }
+    }
+
+    /**
+     * Finds all the matches of one regex in the field.
+     *
+     * @param regexIndex
+     * @param fieldValue
+     * @param handler
+     */
+    public void findMatches(int regexIndex, String fieldValue, MatchHandler handler) {
+        java.util.regex.Pattern fallbackPattern = fallbackPatternList.get(regexIndex);
+        if (fallbackPattern != null) {
+            java.util.regex.Matcher javaMatcher = fallbackPattern.matcher(fieldValue);
+            while (javaMatcher.find()) {
+                handler.onMatch(javaMatcher.start(), javaMatcher.end());
+            }
+            return;
+        }
+        Matcher matcher = re2jPatternList.get(regexIndex).matcher(fieldValue);
+        while (matcher.find()) {
+            handler.onMatch(matcher.start(), matcher.end());
+        }
+    }
+
+}
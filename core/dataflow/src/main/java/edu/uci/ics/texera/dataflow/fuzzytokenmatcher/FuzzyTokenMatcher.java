@@ -5,6 +5,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.apache.lucene.analysis.Analyzer;
+
+
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.exception.DataflowException;
@@ -13,9 +16,12 @@ import edu.uci.ics.texera.api.field.ListField;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.FieldAccessor;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 
 /**
  *  @author Zuozhi Wang (zuozhiw)
@@ -29,10 +35,15 @@ public class FuzzyTokenMatcher extends AbstractSingleInputOperator {
     private final FuzzyTokenPredicate predicate;
     
     private Schema inputSchema;
+    private Analyzer luceneAnalyzer;
     
     private boolean addPayload = false;
     private boolean addResultAttribute = false;
     
+    private Tuple.Appender payloadAppender;
+    private Tuple.Appender resultAppender;
+    private FieldAccessor payloadAccessor;
+    
     public FuzzyTokenMatcher(FuzzyTokenPredicate predicate) {
         this.predicate = predicate;
     }
@@ -50,6 +61,20 @@ public class FuzzyTokenMatcher extends AbstractSingleInputOperator {
         }
 
         outputSchema = transformToOutputSchema(inputOperator.getOutputSchema());
+        
+        // the fields are appended and accessed by their indexes, which are resolved once instead of once per tuple
+        Schema payloadSchema = inputSchema;
+        if (addPayload) {
+            payloadAppender = new Tuple.Appender(inputSchema, SchemaConstants.PAYLOAD_ATTRIBUTE);
+            payloadSchema = payloadAppender.getOutputSchema();
+        }
+        if (addResultAttribute) {
+            resultAppender = new Tuple.Appender(payloadSchema, outputSchema);
+        }
+        payloadAccessor = new FieldAccessor(payloadSchema, SchemaConstants.PAYLOAD);
+        
+        // the shared analyzer is resolved once instead of once per tuple
+        luceneAnalyzer = LuceneAnalyzerConstants.getLuceneAnalyzer(predicate.getLuceneAnalyzerStr());
     }
 
     @Override
@@ -66,17 +91,20 @@ public class FuzzyTokenMatcher extends AbstractSingleInputOperator {
         return resultTuple;
     }
 
+    @Override
+    protected boolean computeNextMatchingBatch(TupleBatch batch) throws TexeraException {
+        return computeNextMatchingBatchFromInput(batch);
+    }
+
     @Override
     public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
         // add payload if needed before passing it to the matching functions
         if (addPayload) {
-            Tuple.Builder tupleBuilderPayload = new Tuple.Builder(inputTuple);
-            tupleBuilderPayload.add(SchemaConstants.PAYLOAD_ATTRIBUTE, new ListField<Span>(
-                    DataflowUtils.generatePayloadFromTuple(inputTuple, predicate.getLuceneAnalyzerStr())));
-            inputTuple = tupleBuilderPayload.build();
+            inputTuple = payloadAppender.append(inputTuple, new ListField<Span>(
+                    DataflowUtils.generatePayloadFromTuple(inputTuple, luceneAnalyzer)));
         }
         
-        ListField<Span> payloadField = inputTuple.getField(SchemaConstants.PAYLOAD);
+        ListField<Span> payloadField = payloadAccessor.getField(inputTuple);
         List<Span> relevantSpans = filterRelevantSpans(payloadField.getValue());
         List<Span> matchingResults = new ArrayList<>();
 
@@ -109,12 +137,11 @@ public class FuzzyTokenMatcher extends AbstractSingleInputOperator {
             return null;
         }
         
-        Tuple.Builder tupleBuilder = new Tuple.Builder(inputTuple);
         if (addResultAttribute) {
-            tupleBuilder.add(predicate.getSpanListName(), AttributeType.LIST, new ListField<Span>(matchingResults));
+            return resultAppender.append(inputTuple, new ListField<Span>(matchingResults));
         }
 
-        return tupleBuilder.build();
+        return inputTuple;
     }
     
     private List<Span> filterRelevantSpans(List<Span> spanList) {
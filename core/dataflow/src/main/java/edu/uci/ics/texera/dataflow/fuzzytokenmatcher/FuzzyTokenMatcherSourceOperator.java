@@ -13,6 +13,7 @@ import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.storage.DataReader;
 import edu.uci.ics.texera.storage.RelationManager;
@@ -52,6 +53,11 @@ public class FuzzyTokenMatcherSourceOperator extends AbstractSingleInputOperator
         return this.fuzzyTokenMatcher.getNextTuple();
     }
 
+    @Override
+    protected boolean computeNextMatchingBatch(TupleBatch batch) throws TexeraException {
+        return this.fuzzyTokenMatcher.getNextBatch(batch);
+    }
+
     @Override
     public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
         return this.fuzzyTokenMatcher.processOneInputTuple(inputTuple);
@@ -3,6 +3,8 @@ package edu.uci.ics.texera.dataflow.keywordmatcher;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import org.apache.lucene.analysis.Analyzer;
+
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.exception.DataflowException;
@@ -11,9 +13,12 @@ import edu.uci.ics.texera.api.field.ListField;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.FieldAccessor;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 
 public class KeywordMatcher extends AbstractSingleInputOperator {
 
@@ -23,9 +28,15 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
     private Set<String> queryTokenSet;
     private ArrayList<String> queryTokenList;
     private ArrayList<String> queryTokenWithStopwordsList;
+    private Analyzer luceneAnalyzer;
     
     private boolean addPayload = false;
     private boolean addResultAttribute = false;
+    
+    private Tuple.Appender payloadAppender;
+    private Tuple.Appender resultAppender;
+    private FieldAccessor payloadAccessor;
+    private List<FieldAccessor> attributeAccessors;
 
     public KeywordMatcher(KeywordPredicate predicate) {
         this.predicate = predicate;
@@ -49,6 +60,24 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
 
         outputSchema = transformToOutputSchema(inputOperator.getOutputSchema());
         
+        // the fields are appended and accessed by their indexes, which are resolved once instead of once per tuple
+        Schema payloadSchema = inputSchema;
+        if (addPayload) {
+            payloadAppender = new Tuple.Appender(inputSchema, SchemaConstants.PAYLOAD_ATTRIBUTE);
+            payloadSchema = payloadAppender.getOutputSchema();
+        }
+        if (addResultAttribute) {
+            resultAppender = new Tuple.Appender(payloadSchema, outputSchema);
+        }
+        payloadAccessor = new FieldAccessor(payloadSchema, SchemaConstants.PAYLOAD);
+        attributeAccessors = new ArrayList<>();
+        for (String attributeName : predicate.getAttributeNames()) {
+            attributeAccessors.add(new FieldAccessor(payloadSchema, attributeName));
+        }
+        
+        // the shared analyzer is resolved once instead of once per tuple
+        luceneAnalyzer = LuceneAnalyzerConstants.getLuceneAnalyzer(predicate.getLuceneAnalyzerString());
+        
         if (this.predicate.getMatchingType() == KeywordMatchingType.CONJUNCTION_INDEXBASED) {
             preProcessKeywordTokens();
         } else if (this.predicate.getMatchingType() == KeywordMatchingType.PHRASE_INDEXBASED) {
@@ -57,11 +86,11 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
     }
 
     private void preProcessKeywordTokens() {
-        queryTokenSet = new HashSet<>(DataflowUtils.tokenizeQuery(predicate.getLuceneAnalyzerString(), predicate.getQuery()));
+        queryTokenSet = new HashSet<>(DataflowUtils.tokenizeQuery(luceneAnalyzer, predicate.getQuery()));
     }
 
     private void preProcessKeywordTokensWithStopwords() {
-        queryTokenList = DataflowUtils.tokenizeQuery(predicate.getLuceneAnalyzerString(), predicate.getQuery());
+        queryTokenList = DataflowUtils.tokenizeQuery(luceneAnalyzer, predicate.getQuery());
         queryTokenWithStopwordsList = DataflowUtils.tokenizeQueryWithStopwords(
                 predicate.getLuceneAnalyzerString(), predicate.getQuery());
     }
@@ -81,50 +110,53 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
         return resultTuple;
     }
 
+    @Override
+    protected boolean computeNextMatchingBatch(TupleBatch batch) throws TexeraException {
+        return computeNextMatchingBatchFromInput(batch);
+    }
+
     @Override
     public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
         // add payload if needed before passing it to the matching functions
         if (addPayload) {
-            Tuple.Builder tupleBuilderPayload = new Tuple.Builder(inputTuple);
-            tupleBuilderPayload.add(SchemaConstants.PAYLOAD_ATTRIBUTE, new ListField<Span>(
-                    DataflowUtils.generatePayloadFromTuple(inputTuple, predicate.getLuceneAnalyzerString())));
-            inputTuple = tupleBuilderPayload.build();
+            inputTuple = payloadAppender.append(inputTuple, new ListField<Span>(
+                    DataflowUtils.generatePayloadFromTuple(inputTuple, luceneAnalyzer)));
         }
         
         // compute the keyword matching results
         List<Span> matchingResults = null;
         if (this.predicate.getMatchingType() == KeywordMatchingType.CONJUNCTION_INDEXBASED) {
-           matchingResults =  appendConjunctionMatchingSpans(inputTuple, predicate.getAttributeNames(), queryTokenSet, predicate.getQuery());
+           matchingResults =  appendConjunctionMatchingSpans(inputTuple, queryTokenSet, predicate.getQuery());
         }
         if (this.predicate.getMatchingType() == KeywordMatchingType.PHRASE_INDEXBASED) {
-            matchingResults = appendPhraseMatchingSpans(inputTuple, predicate.getAttributeNames(), queryTokenList, queryTokenWithStopwordsList, predicate.getQuery());
+            matchingResults = appendPhraseMatchingSpans(inputTuple, queryTokenList, queryTokenWithStopwordsList, predicate.getQuery());
         }
         if (this.predicate.getMatchingType() == KeywordMatchingType.SUBSTRING_SCANBASED) {
-            matchingResults = appendSubstringMatchingSpans(inputTuple, predicate.getAttributeNames(), predicate.getQuery());
+            matchingResults = appendSubstringMatchingSpans(inputTuple, predicate.getQuery());
         }
         
         if (matchingResults.isEmpty()) {
             return null;
         }
         
-        Tuple.Builder tupleBuilder = new Tuple.Builder(inputTuple);
         if (addResultAttribute) {
-            tupleBuilder.add(predicate.getSpanListName(), AttributeType.LIST, new ListField<Span>(matchingResults));
+            return resultAppender.append(inputTuple, new ListField<Span>(matchingResults));
         }
-        return tupleBuilder.build();
+        return inputTuple;
     }
 
     @Override
     protected void cleanUp() {
     }
 
-    private List<Span> appendPhraseMatchingSpans(Tuple inputTuple, List<String> attributeNames, List<String> queryTokenList, List<String> queryTokenListWithStopwords, String queryKeyword) throws DataflowException {
-        ListField<Span> payloadField = inputTuple.getField(SchemaConstants.PAYLOAD);
+    private List<Span> appendPhraseMatchingSpans(Tuple inputTuple, List<String> queryTokenList, List<String> queryTokenListWithStopwords, String queryKeyword) throws DataflowException {
+        ListField<Span> payloadField = payloadAccessor.getField(inputTuple);
         List<Span> payload = payloadField.getValue();
         List<Span> matchingResults = new ArrayList<>();
-        for (String attributeName : attributeNames) {
-            AttributeType attributeType = inputTuple.getSchema().getAttribute(attributeName).getType();
-            String fieldValue = inputTuple.getField(attributeName).getValue().toString();
+        for (FieldAccessor attributeAccessor : attributeAccessors) {
+            String attributeName = attributeAccessor.getAttributeName();
+            String fieldValue = attributeAccessor.getField(inputTuple).getValue().toString();
+            AttributeType attributeType = attributeAccessor.getAttribute().getType();
 
             // types other than TEXT and STRING: throw Exception for now
             if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
@@ -158,13 +190,14 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
         return matchingResults;
     }
 
-    private List<Span> appendConjunctionMatchingSpans(Tuple inputTuple, List<String> attributeNames, Set<String> queryTokenSet, String queryKeyword) throws DataflowException {
-        ListField<Span> payloadField = inputTuple.getField(SchemaConstants.PAYLOAD);
+    private List<Span> appendConjunctionMatchingSpans(Tuple inputTuple, Set<String> queryTokenSet, String queryKeyword) throws DataflowException {
+        ListField<Span> payloadField = payloadAccessor.getField(inputTuple);
         List<Span> payload = payloadField.getValue();
         List<Span> matchingResults = new ArrayList<>();
-        for (String attributeName : attributeNames) {
-            AttributeType attributeType = inputTuple.getSchema().getAttribute(attributeName).getType();
-            String fieldValue = inputTuple.getField(attributeName).getValue().toString();
+        for (FieldAccessor attributeAccessor : attributeAccessors) {
+            String attributeName = attributeAccessor.getAttributeName();
+            String fieldValue = attributeAccessor.getField(inputTuple).getValue().toString();
+            AttributeType attributeType = attributeAccessor.getAttribute().getType();
 
             // types other than TEXT and STRING: throw Exception for now
             if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
@@ -194,12 +227,12 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
         return matchingResults;
     }
 
-    private List<Span> appendSubstringMatchingSpans(Tuple inputTuple, List<String> attributeNames, String queryKeyword) throws DataflowException {
+    private List<Span> appendSubstringMatchingSpans(Tuple inputTuple, String queryKeyword) throws DataflowException {
         List<Span> matchingResults = new ArrayList<>();
-        for (String attributeName : attributeNames) {
-            //  AttributeType attributeType = this.inputSchema.getAttribute(attributeName).getAttributeType();
-            String fieldValue = inputTuple.getField(attributeName).getValue().toString();
-            AttributeType attributeType = inputTuple.getSchema().getAttribute(attributeName).getType();
+        for (FieldAccessor attributeAccessor : attributeAccessors) {
+            String attributeName = attributeAccessor.getAttributeName();
+            String fieldValue = attributeAccessor.getField(inputTuple).getValue().toString();
+            AttributeType attributeType = attributeAccessor.getAttribute().getType();
             // types other than TEXT and STRING: throw Exception for now
             if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
                 throw new DataflowException("KeywordMatcher: Fields other than STRING and TEXT are not supported yet");
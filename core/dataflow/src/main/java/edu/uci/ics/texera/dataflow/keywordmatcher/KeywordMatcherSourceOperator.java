@@ -2,6 +2,7 @@ package edu.uci.ics.texera.dataflow.keywordmatcher;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
@@ -22,6 +23,7 @@ import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
 import edu.uci.ics.texera.storage.DataReader;
@@ -37,6 +39,7 @@ import edu.uci.ics.texera.storage.RelationManager;
 public class KeywordMatcherSourceOperator extends AbstractSingleInputOperator implements ISourceOperator {
 
     private final KeywordPredicate predicate;
+    private final String tableName;
 
     private final DataReader dataReader;
     private final KeywordMatcher keywordMatcher;
@@ -51,6 +54,7 @@ public class KeywordMatcherSourceOperator extends AbstractSingleInputOperator im
     public KeywordMatcherSourceOperator(KeywordSourcePredicate predicate) 
             throws DataflowException, StorageException {
         this.predicate = predicate;
+        this.tableName = predicate.getTableName();
         
         this.queryTokenList = DataflowUtils.tokenizeQuery(predicate.getLuceneAnalyzerString(), predicate.getQuery());
         this.queryTokenSet = new HashSet<>(this.queryTokenList);
@@ -90,6 +94,11 @@ public class KeywordMatcherSourceOperator extends AbstractSingleInputOperator im
         return this.keywordMatcher.getNextTuple();
     }
 
+    @Override
+    protected boolean computeNextMatchingBatch(TupleBatch batch) throws TexeraException {
+        return this.keywordMatcher.getNextBatch(batch);
+    }
+
     @Override
     public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
         return this.keywordMatcher.processOneInputTuple(inputTuple);
@@ -205,6 +214,10 @@ public class KeywordMatcherSourceOperator extends AbstractSingleInputOperator im
         return booleanQueryBuilder.build();
     }
 
+    /*
+     * The substring matching scans the table, unless the 3-grams of all the attributes are indexed,
+     *   in which case only the tuples containing all the 3-grams of the keyword are read.
+     */
     private Query buildScanQuery() throws DataflowException {
         for (String attributeName : this.predicate.getAttributeNames()) {
             AttributeType attributeType = this.inputSchema.getAttribute(attributeName).getType();
@@ -216,6 +229,14 @@ public class KeywordMatcherSourceOperator extends AbstractSingleInputOperator im
             }
         }
 
+        List<String> gramFieldNames = RelationManager.getInstance().getTrigramFieldNames(
+                this.tableName, this.predicate.getAttributeNames());
+        if (gramFieldNames != null) {
+            Query trigramQuery = DataflowUtils.buildTrigramQuery(gramFieldNames, this.predicate.getQuery());
+            if (trigramQuery != null) {
+                return trigramQuery;
+            }
+        }
         return new MatchAllDocsQuery();
     }
 
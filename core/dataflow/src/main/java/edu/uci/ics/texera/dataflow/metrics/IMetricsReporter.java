@@ -0,0 +1,15 @@
+package edu.uci.ics.texera.dataflow.metrics;
+
+/**
+ * IMetricsReporter is implemented by the operators that record their own counters
+ *   (for example, the number of tuples skipped by a matcher) into their {@link OperatorMetrics}.
+ *
+ * LogicalPlan gives the metrics to the operator when the plan is instrumented.
+ * If the plan is not instrumented, the operator is never given any metrics.
+ *
+ */
+public interface IMetricsReporter {
+
+    void setOperatorMetrics(OperatorMetrics operatorMetrics);
+
+}
@@ -0,0 +1,87 @@
+package edu.uci.ics.texera.dataflow.metrics;
+
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
+
+/**
+ * InstrumentedOperator wraps the output of an operator, and records the runtime metrics of the operator
+ *   (see {@link OperatorMetrics}) on every call made by the next operator.
+ *
+ * The wrapper is transparent: every call is delegated to the wrapped operator.
+ * It is added by LogicalPlan when instrumentation is enabled.
+ *
+ */
+public class InstrumentedOperator implements IOperator {
+
+    private final IOperator operator;
+    private final OperatorMetrics operatorMetrics;
+
+    public InstrumentedOperator(IOperator operator, OperatorMetrics operatorMetrics) {
+        this.operator = operator;
+        this.operatorMetrics = operatorMetrics;
+    }
+
+    public IOperator getOperator() {
+        return operator;
+    }
+
+    public OperatorMetrics getOperatorMetrics() {
+        return operatorMetrics;
+    }
+
+    @Override
+    public void open() throws TexeraException {
+        long startNanos = System.nanoTime();
+        long startAllocatedBytes = OperatorMetrics.getCurrentThreadAllocatedBytes();
+        try {
+            operator.open();
+        } finally {
+            operatorMetrics.recordOpen(startNanos, startAllocatedBytes);
+        }
+    }
+
+    @Override
+    public Tuple getNextTuple() throws TexeraException {
+        long startNanos = System.nanoTime();
+        long startAllocatedBytes = OperatorMetrics.getCurrentThreadAllocatedBytes();
+        Tuple tuple = null;
+        try {
+            tuple = operator.getNextTuple();
+        } finally {
+            operatorMetrics.recordNext(startNanos, startAllocatedBytes, tuple == null ? 0 : 1);
+        }
+        return tuple;
+    }
+
+    @Override
+    public boolean getNextBatch(TupleBatch batch) throws TexeraException {
+        long startNanos = System.nanoTime();
+        long startAllocatedBytes = OperatorMetrics.getCurrentThreadAllocatedBytes();
+        boolean hasNext = false;
+        try {
+            hasNext = operator.getNextBatch(batch);
+        } finally {
+            operatorMetrics.recordNext(startNanos, startAllocatedBytes, hasNext ? batch.size() : 0);
+        }
+        return hasNext;
+    }
+
+    @Override
+    public void close() throws TexeraException {
+        operator.close();
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return operator.getOutputSchema();
+    }
+
+    @Override
+    public Schema transformToOutputSchema(Schema... inputSchema) {
+        return operator.transformToOutputSchema(inputSchema);
+    }
+
+}
@@ -0,0 +1,208 @@
+package edu.uci.ics.texera.dataflow.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+
+/**
+ * OperatorMetrics records the runtime metrics of one operator in a query plan:
+ *   the time spent in open() and in getNextTuple() / getNextBatch(),
+ *   the number of output tuples, and the bytes allocated on the executing thread.
+ *
+ * The times and allocated bytes are recorded inclusively (they include the work done by the input operators
+ *   called on the same thread). The self values subtract the inclusive values of the inputs on the same thread,
+ *   they are approximate if an input is shared by several operators.
+ *
+ * The metrics are recorded by an {@link InstrumentedOperator}, the sink records its own metrics by the caller
+ *   that executes it. An operator implementing {@link IMetricsReporter} can also add its own counters and details.
+ *
+ */
+@JsonPropertyOrder({ PropertyNameConstants.OPERATOR_ID, "operatorClass", "inputOperatorIDs" })
+public class OperatorMetrics {
+
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private final String operatorID;
+    private final String operatorClass;
+
+    // all the inputs, used to count the input tuples
+    private final List<OperatorMetrics> inputMetricsList = new ArrayList<>();
+    // the inputs executed on the same thread, their inclusive values are subtracted from the self values
+    private final List<OperatorMetrics> sameThreadInputMetricsList = new ArrayList<>();
+
+    private long openTimeNanos = 0;
+    private long nextTimeNanos = 0;
+    private long outputTupleCount = 0;
+    private long allocatedBytes = 0;
+    // the counters added by the operator itself, in the order they are first added
+    private final Map<String, Long> counters = new LinkedHashMap<>();
+    // the details reported by the operator itself, such as the plan it has chosen
+    private final Map<String, Object> details = new LinkedHashMap<>();
+
+    public OperatorMetrics(String operatorID, String operatorClass) {
+        this.operatorID = operatorID;
+        this.operatorClass = operatorClass;
+    }
+
+    /**
+     * Adds the metrics of an input operator.
+     *
+     * @param inputMetrics
+     * @param sameThread, true if the input operator is called on the same thread as this operator
+     */
+    public void addInputMetrics(OperatorMetrics inputMetrics, boolean sameThread) {
+        inputMetricsList.add(inputMetrics);
+        if (sameThread) {
+            sameThreadInputMetricsList.add(inputMetrics);
+        }
+    }
+
+    /**
+     * Gets the number of bytes allocated by the current thread so far,
+     *   or 0 if the JVM doesn't support measuring the thread allocation.
+     */
+    public static long getCurrentThreadAllocatedBytes() {
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (sunThreadMXBean.isThreadAllocatedMemorySupported() && sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+                return sunThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Records a call to open(), started at startNanos with startAllocatedBytes allocated by the current thread.
+     */
+    public synchronized void recordOpen(long startNanos, long startAllocatedBytes) {
+        openTimeNanos += System.nanoTime() - startNanos;
+        allocatedBytes += getCurrentThreadAllocatedBytes() - startAllocatedBytes;
+    }
+
+    /**
+     * Records a call to getNextTuple() or getNextBatch() that produced tupleCount tuples,
+     *   started at startNanos with startAllocatedBytes allocated by the current thread.
+     */
+    public synchronized void recordNext(long startNanos, long startAllocatedBytes, int tupleCount) {
+        nextTimeNanos += System.nanoTime() - startNanos;
+        allocatedBytes += getCurrentThreadAllocatedBytes() - startAllocatedBytes;
+        outputTupleCount += tupleCount;
+    }
+
+    /**
+     * Adds delta to a counter of the operator, the counter starts from 0.
+     */
+    public synchronized void addCounter(String counterName, long delta) {
+        counters.merge(counterName, delta, Long::sum);
+    }
+
+    /**
+     * Sets a detail of the operator, the value should be serializable to JSON.
+     */
+    public synchronized void setDetail(String detailName, Object value) {
+        details.put(detailName, value);
+    }
+
+    @JsonProperty(PropertyNameConstants.OPERATOR_ID)
+    public String getOperatorID() {
+        return operatorID;
+    }
+
+    @JsonProperty("operatorClass")
+    public String getOperatorClass() {
+        return operatorClass;
+    }
+
+    @JsonProperty("inputOperatorIDs")
+    public List<String> getInputOperatorIDs() {
+        return inputMetricsList.stream().map(metrics -> metrics.getOperatorID()).collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the time spent in open(), excluding the time spent by the inputs on the same thread.
+     */
+    @JsonProperty("openTimeNanos")
+    public synchronized long getOpenTimeNanos() {
+        long inputOpenTimeNanos = sameThreadInputMetricsList.stream()
+                .mapToLong(metrics -> metrics.getInclusiveOpenTimeNanos()).sum();
+        return Math.max(0, openTimeNanos - inputOpenTimeNanos);
+    }
+
+    @JsonProperty("inclusiveOpenTimeNanos")
+    public synchronized long getInclusiveOpenTimeNanos() {
+        return openTimeNanos;
+    }
+
+    /**
+     * Gets the cumulative time spent in getNextTuple() and getNextBatch(), including the time spent by the inputs.
+     */
+    @JsonProperty("inclusiveTimeNanos")
+    public synchronized long getInclusiveTimeNanos() {
+        return nextTimeNanos;
+    }
+
+    /**
+     * Gets the cumulative time spent in getNextTuple() and getNextBatch(),
+     *   excluding the time spent by the inputs on the same thread.
+     */
+    @JsonProperty("selfTimeNanos")
+    public synchronized long getSelfTimeNanos() {
+        long inputTimeNanos = sameThreadInputMetricsList.stream()
+                .mapToLong(metrics -> metrics.getInclusiveTimeNanos()).sum();
+        return Math.max(0, nextTimeNanos - inputTimeNanos);
+    }
+
+    @JsonProperty("inputTupleCount")
+    public long getInputTupleCount() {
+        return inputMetricsList.stream().mapToLong(metrics -> metrics.getOutputTupleCount()).sum();
+    }
+
+    @JsonProperty("outputTupleCount")
+    public synchronized long getOutputTupleCount() {
+        return outputTupleCount;
+    }
+
+    /**
+     * Gets the ratio of output tuples to input tuples, or 1 if the operator has no input tuples.
+     */
+    @JsonProperty("selectivity")
+    public double getSelectivity() {
+        long inputTupleCount = getInputTupleCount();
+        if (inputTupleCount == 0) {
+            return 1.0;
+        }
+        return (double) getOutputTupleCount() / inputTupleCount;
+    }
+
+    @JsonProperty("inclusiveAllocatedBytes")
+    public synchronized long getInclusiveAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @JsonProperty("selfAllocatedBytes")
+    public synchronized long getSelfAllocatedBytes() {
+        long inputAllocatedBytes = sameThreadInputMetricsList.stream()
+                .mapToLong(metrics -> metrics.getInclusiveAllocatedBytes()).sum();
+        return Math.max(0, allocatedBytes - inputAllocatedBytes);
+    }
+
+    @JsonProperty("counters")
+    public synchronized Map<String, Long> getCounters() {
+        return new LinkedHashMap<>(counters);
+    }
+
+    @JsonProperty("details")
+    public synchronized Map<String, Object> getDetails() {
+        return new LinkedHashMap<>(details);
+    }
+
+}
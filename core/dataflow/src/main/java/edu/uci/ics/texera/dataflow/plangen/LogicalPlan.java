@@ -7,18 +7,30 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import edu.uci.ics.texera.api.dataflow.IOperator;
 import edu.uci.ics.texera.api.dataflow.ISink;
 import edu.uci.ics.texera.api.engine.Plan;
 import edu.uci.ics.texera.api.exception.PlanGenException;
+import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.dataflow.common.PredicateBase;
 import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
 import edu.uci.ics.texera.dataflow.connector.OneToNBroadcastConnector;
+import edu.uci.ics.texera.dataflow.connector.OneToOnePipelineConnector;
+import edu.uci.ics.texera.dataflow.connector.ParallelOperator;
 import edu.uci.ics.texera.dataflow.join.Join;
+import edu.uci.ics.texera.dataflow.metrics.IMetricsReporter;
+import edu.uci.ics.texera.dataflow.metrics.InstrumentedOperator;
+import edu.uci.ics.texera.dataflow.metrics.OperatorMetrics;
+import edu.uci.ics.texera.dataflow.sink.excel.ExcelSinkPredicate;
+import edu.uci.ics.texera.dataflow.sink.mysql.MysqlSinkPredicate;
+import edu.uci.ics.texera.dataflow.sink.tuple.TupleSinkPredicate;
+import edu.uci.ics.texera.dataflow.source.scan.ScanBasedSourceOperator;
 import edu.uci.ics.texera.api.schema.Schema;
 
 /**
@@ -37,6 +49,14 @@ public class LogicalPlan {
     private LinkedHashMap<String, PredicateBase> operatorPredicateMap;
     // a map of an operator ID to operator's outputs (a set of operator IDs)
     private LinkedHashMap<String, LinkedHashSet<String>> adjacencyList;
+    // whether each operator runs on its own thread, connected by bounded queues
+    private boolean pipelinedExecution = false;
+    // a map from operatorID to the queue depth between the operator and its outputs
+    private HashMap<String, Integer> queueDepthMap = new HashMap<>();
+    // whether the runtime metrics of each operator are recorded
+    private boolean instrumented = false;
+    // a map from operatorID to its runtime metrics, in the same order as the adjacency list
+    private LinkedHashMap<String, OperatorMetrics> operatorMetricsMap = new LinkedHashMap<>();
 
     /**
      * Create an empty logical plan.
@@ -54,12 +74,30 @@ public class LogicalPlan {
      * @param predicateList, a list of operator predicates
      * @param operatorLinkList, a list of operator links
      */
+    public LogicalPlan(List<PredicateBase> predicateList, List<OperatorLink> operatorLinkList) {
+        this(predicateList, operatorLinkList, null, null);
+    }
+    
+    /**
+     * Create a LogicalPlan from an existing plan (represented by a list of operators and a list of links),
+     *   and the optional execution properties of the plan.
+     * 
+     * @param predicateList, a list of operator predicates
+     * @param operatorLinkList, a list of operator links
+     * @param pipelinedExecution, whether the plan runs in pipelined execution, false by default
+     * @param queueDepthMap, a map from operatorID to the queue depth after the operator in pipelined execution,
+     *   the operators not in the map use the default queue depth
+     */
     @JsonCreator
     public LogicalPlan(
             @JsonProperty(value = PropertyNameConstants.OPERATOR_LIST, required = true)
             List<PredicateBase> predicateList,
             @JsonProperty(value = PropertyNameConstants.OPERATOR_LINK_LIST, required = true)
-            List<OperatorLink> operatorLinkList
+            List<OperatorLink> operatorLinkList,
+            @JsonProperty(value = PropertyNameConstants.PIPELINED_EXECUTION, required = false)
+            Boolean pipelinedExecution,
+            @JsonProperty(value = PropertyNameConstants.QUEUE_DEPTHS, required = false)
+            Map<String, Integer> queueDepthMap
             ) {
         // initialize private variables
         this();
@@ -70,6 +108,17 @@ public class LogicalPlan {
         for (OperatorLink link : operatorLinkList) {
             addLink(link);
         }
+        // set the execution properties
+        if (pipelinedExecution != null) {
+            setPipelinedExecution(pipelinedExecution);
+        }
+        if (queueDepthMap != null) {
+            for (Map.Entry<String, Integer> entry : queueDepthMap.entrySet()) {
+                PlanGenUtils.planGenAssert(entry.getValue() != null, 
+                        String.format("queue depth of operator %s must not be null", entry.getKey()));
+                setQueueDepth(entry.getKey(), entry.getValue());
+            }
+        }
     }
     
     /**
@@ -161,6 +210,115 @@ public class LogicalPlan {
         return adjacencyList.containsKey(operatorID);
     }
     
+    /**
+     * Enables or disables pipelined execution.
+     * 
+     * In pipelined execution, every operator (except the sink) runs on its own worker thread,
+     *   and passes its output tuples to the next operator through a bounded queue.
+     *   (see {@link OneToOnePipelineConnector})
+     * 
+     * @param pipelinedExecution
+     */
+    public void setPipelinedExecution(boolean pipelinedExecution) {
+        UPDATED = true;
+        this.pipelinedExecution = pipelinedExecution;
+    }
+    
+    @JsonProperty(value = PropertyNameConstants.PIPELINED_EXECUTION)
+    public boolean isPipelinedExecution() {
+        return pipelinedExecution;
+    }
+    
+    /**
+     * Sets the depth (number of tuple batches) of the queue after an operator in pipelined execution.
+     * 
+     * A depth of 0 fuses the operator with its output operators: 
+     *   no queue is added and they run on the same thread.
+     * Operators without a configured depth use {@link OneToOnePipelineConnector#DEFAULT_QUEUE_DEPTH}.
+     * 
+     * @param operatorID, the ID of an operator
+     * @param queueDepth, the queue depth, must not be negative
+     */
+    public void setQueueDepth(String operatorID, int queueDepth) throws PlanGenException {
+        PlanGenUtils.planGenAssert(hasOperator(operatorID), 
+                String.format("operator id: %s is not found", operatorID));
+        PlanGenUtils.planGenAssert(queueDepth >= 0, 
+                String.format("queue depth of operator %s must not be negative, got %d", operatorID, queueDepth));
+        UPDATED = true;
+        queueDepthMap.put(operatorID, queueDepth);
+    }
+    
+    @JsonIgnore
+    public int getQueueDepth(String operatorID) {
+        return queueDepthMap.getOrDefault(operatorID, OneToOnePipelineConnector.DEFAULT_QUEUE_DEPTH);
+    }
+    
+    /**
+     * Gets the queue depths set by setQueueDepth(), the other operators use the default queue depth.
+     * @return a map from operatorID to the queue depth after the operator
+     */
+    @JsonProperty(value = PropertyNameConstants.QUEUE_DEPTHS)
+    public Map<String, Integer> getQueueDepthMap() {
+        return new HashMap<>(queueDepthMap);
+    }
+    
+    /**
+     * Enables or disables the instrumentation of the operators.
+     * 
+     * If it's enabled, the output of every operator (except the sink) is wrapped by an {@link InstrumentedOperator},
+     *   which records the runtime metrics of the operator. The sink doesn't have an output,
+     *   its metrics should be recorded by the caller that executes it.
+     * 
+     * @param instrumented
+     */
+    public void setInstrumented(boolean instrumented) {
+        UPDATED = true;
+        this.instrumented = instrumented;
+    }
+    
+    @JsonIgnore
+    public boolean isInstrumented() {
+        return instrumented;
+    }
+    
+    /**
+     * Gets the runtime metrics of the operators of the last built plan, in the order the operators are added.
+     * It's empty if the plan is not instrumented.
+     * 
+     * @return a list of operator metrics
+     */
+    @JsonIgnore
+    public List<OperatorMetrics> getOperatorMetricsList() {
+        return new ArrayList<>(operatorMetricsMap.values());
+    }
+    
+    /**
+     * Gets the runtime metrics of an operator of the last built plan, 
+     *   or null if the plan is not instrumented.
+     * 
+     * @param operatorID, the ID of an operator
+     * @return the metrics of the operator
+     */
+    @JsonIgnore
+    public OperatorMetrics getOperatorMetrics(String operatorID) {
+        return operatorMetricsMap.get(operatorID);
+    }
+    
+    /**
+     * Gets the runtime metrics of the sink of the last built plan,
+     *   or null if the plan is not instrumented.
+     * 
+     * @return the metrics of the sink
+     */
+    @JsonIgnore
+    public OperatorMetrics getSinkOperatorMetrics() {
+        String sinkOperatorID = adjacencyList.keySet().stream()
+                .filter(operator -> operatorPredicateMap.get(operator)
+                        .getClass().toString().toLowerCase().contains("sink"))
+                .findFirst().orElse(null);
+        return sinkOperatorID == null ? null : operatorMetricsMap.get(sinkOperatorID);
+    }
+    
     /**
      * Builds and returns the query plan from the operator graph.
      * 
@@ -172,6 +330,7 @@ public class LogicalPlan {
             buildOperators();
             validateOperatorGraph();
             connectOperators(operatorObjectMap);
+            pushDownLimit(operatorObjectMap);
         }
         ISink sink = findSinkOperator(operatorObjectMap);
         
@@ -185,11 +344,41 @@ public class LogicalPlan {
     private void buildOperators() throws PlanGenException {
         operatorObjectMap = new HashMap<>();
         for (String operatorID : operatorPredicateMap.keySet()) {
-            IOperator operator = operatorPredicateMap.get(operatorID).newOperator();
+            IOperator operator = buildOperator(operatorPredicateMap.get(operatorID));
             operatorObjectMap.put(operatorID, operator);
         }
         UPDATED = false;
     }
+    
+    /*
+     * Build the operator object of a predicate.
+     * 
+     * If the parallelism of the predicate is larger than 1, 
+     *   a ParallelOperator with "parallelism" replicas of the operator is built,
+     *   except for a parallel source, which reads its table with "parallelism" threads itself.
+     */
+    private IOperator buildOperator(PredicateBase predicate) throws PlanGenException {
+        int parallelism = predicate.getParallelism();
+        PlanGenUtils.planGenAssert(parallelism >= 1, 
+                String.format("parallelism of operator %s must be at least 1, got %d", predicate.getID(), parallelism));
+        if (parallelism == 1) {
+            return predicate.newOperator();
+        }
+        if (OperatorArityConstants.isParallelSource(predicate.getClass())) {
+            PlanGenUtils.planGenAssert(! predicate.isPreserveOrder(), 
+                    String.format("operator %s can not preserve the order with more than one reader thread, "
+                            + "set %s to false", predicate.getID(), PropertyNameConstants.PRESERVE_ORDER));
+            return predicate.newOperator();
+        }
+        PlanGenUtils.planGenAssert(OperatorArityConstants.isParallelizable(predicate.getClass()), 
+                String.format("operator %s can not have more than one replica", predicate.getID()));
+        
+        List<AbstractSingleInputOperator> replicas = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            replicas.add((AbstractSingleInputOperator) predicate.newOperator());
+        }
+        return new ParallelOperator(replicas, predicate.isPreserveOrder());
+    }
 
     /*
      * Validates the operator graph.
@@ -381,12 +570,51 @@ public class LogicalPlan {
      * This function assumes that the operator graph is valid.
      * It goes through every link, and invokes
      * the corresponding "setInputOperator" function to connect operators.
+     * 
+     * In pipelined execution, the output of every operator (except the sink) is 
+     *   passed through a OneToOnePipelineConnector, unless its queue depth is 0.
+     * 
+     * If the plan is instrumented, the output of every operator (except the sink) is
+     *   wrapped by an InstrumentedOperator, before the connectors.
      */
     private void connectOperators(HashMap<String, IOperator> operatorObjectMap) throws PlanGenException { 
+        operatorMetricsMap = new LinkedHashMap<>();
+        if (instrumented) {
+            for (String vertex : adjacencyList.keySet()) {
+                OperatorMetrics operatorMetrics = 
+                        new OperatorMetrics(vertex, operatorObjectMap.get(vertex).getClass().getSimpleName());
+                operatorMetricsMap.put(vertex, operatorMetrics);
+                setOperatorMetrics(operatorObjectMap.get(vertex), operatorMetrics);
+            }
+        }
+        
         for (String vertex : adjacencyList.keySet()) {
             IOperator currentOperator = operatorObjectMap.get(vertex);
             int outputArity = adjacencyList.get(vertex).size();
             
+            if (instrumented && outputArity > 0) {
+                currentOperator = new InstrumentedOperator(currentOperator, operatorMetricsMap.get(vertex));
+            }
+            
+            boolean sameThread = true;
+            if (pipelinedExecution && outputArity > 0 && getQueueDepth(vertex) > 0) {
+                OneToOnePipelineConnector pipelineConnector = new OneToOnePipelineConnector(
+                        getQueueDepth(vertex), OneToOnePipelineConnector.DEFAULT_BATCH_SIZE);
+                pipelineConnector.setInputOperator(currentOperator);
+                currentOperator = pipelineConnector.getOutputOperator(0);
+                sameThread = false;
+            }
+            
+            if (instrumented) {
+                for (String adjacentVertex : adjacencyList.get(vertex)) {
+                    // a parallel operator consumes its input on its own splitter thread
+                    boolean adjacentSameThread = sameThread 
+                            && ! (operatorObjectMap.get(adjacentVertex) instanceof ParallelOperator);
+                    operatorMetricsMap.get(adjacentVertex).addInputMetrics(
+                            operatorMetricsMap.get(vertex), adjacentSameThread);
+                }
+            }
+            
             // automatically adds a OneToNBroadcastConnector if the output arity > 1
             if (outputArity > 1) {
                 OneToNBroadcastConnector oneToNConnector = new OneToNBroadcastConnector(outputArity);
@@ -406,6 +634,92 @@ public class LogicalPlan {
         }
     }
 
+    /*
+     * Gives the metrics to the operator if it records its own counters.
+     * The replicas of a parallel operator share the metrics of the operator.
+     */
+    private static void setOperatorMetrics(IOperator operator, OperatorMetrics operatorMetrics) {
+        if (operator instanceof ParallelOperator) {
+            for (IOperator replica : ((ParallelOperator) operator).getReplicas()) {
+                setOperatorMetrics(replica, operatorMetrics);
+            }
+        } else if (operator instanceof IMetricsReporter) {
+            ((IMetricsReporter) operator).setOperatorMetrics(operatorMetrics);
+        }
+    }
+
+    /*
+     * Pushes the limit of the sink down the operator graph.
+     * 
+     * The sink only consumes "limit + offset" tuples, so the operator before it never needs to produce more.
+     * Starting from the sink, the limit is set on each operator of the chain. It is carried on to the input 
+     *   of an operator only if the operator is limit preserving (see OperatorArityConstants), 
+     *   and the input has no other outputs.
+     * If the chain reaches a scan source, the limit is pushed into its lucene search.
+     * 
+     * This function assumes that the operator graph is valid.
+     */
+    private void pushDownLimit(HashMap<String, IOperator> operatorObjectMap) {
+        String vertex = adjacencyList.keySet().stream()
+                .filter(operator -> operatorPredicateMap.get(operator)
+                        .getClass().toString().toLowerCase().contains("sink"))
+                .findFirst().orElse(null);
+        long limit = getSinkLimit(operatorPredicateMap.get(vertex));
+        
+        while (limit < Integer.MAX_VALUE) {
+            String currentVertex = vertex;
+            List<String> inputVertices = new ArrayList<>();
+            for (String vertexOrigin : adjacencyList.keySet()) {
+                if (adjacencyList.get(vertexOrigin).contains(currentVertex)) {
+                    inputVertices.add(vertexOrigin);
+                }
+            }
+            if (inputVertices.size() != 1 || adjacencyList.get(inputVertices.get(0)).size() != 1) {
+                return;
+            }
+            vertex = inputVertices.get(0);
+            IOperator operator = operatorObjectMap.get(vertex);
+            
+            if (operator instanceof ScanBasedSourceOperator) {
+                ((ScanBasedSourceOperator) operator).setLimit((int) limit);
+                return;
+            }
+            if (operator instanceof Join) {
+                Join join = (Join) operator;
+                join.setLimit((int) Math.min(join.getLimit(), limit));
+                return;
+            }
+            if (operator instanceof AbstractSingleInputOperator) {
+                AbstractSingleInputOperator singleInputOperator = (AbstractSingleInputOperator) operator;
+                singleInputOperator.setLimit((int) Math.min(singleInputOperator.getLimit(), limit));
+                limit = (long) singleInputOperator.getLimit() + singleInputOperator.getOffset();
+            }
+            if (! OperatorArityConstants.isLimitPreserving(operatorPredicateMap.get(vertex).getClass())) {
+                return;
+            }
+        }
+    }
+    
+    /*
+     * Gets the number of tuples consumed by a sink (limit + offset), 
+     *   or Integer.MAX_VALUE if the sink has no limit.
+     */
+    private static long getSinkLimit(PredicateBase sinkPredicate) {
+        if (sinkPredicate instanceof TupleSinkPredicate) {
+            TupleSinkPredicate tupleSinkPredicate = (TupleSinkPredicate) sinkPredicate;
+            return (long) tupleSinkPredicate.getLimit() + tupleSinkPredicate.getOffset();
+        }
+        if (sinkPredicate instanceof ExcelSinkPredicate) {
+            ExcelSinkPredicate excelSinkPredicate = (ExcelSinkPredicate) sinkPredicate;
+            return (long) excelSinkPredicate.getLimit() + excelSinkPredicate.getOffset();
+        }
+        if (sinkPredicate instanceof MysqlSinkPredicate) {
+            MysqlSinkPredicate mysqlSinkPredicate = (MysqlSinkPredicate) sinkPredicate;
+            return (long) mysqlSinkPredicate.getLimit() + mysqlSinkPredicate.getOffset();
+        }
+        return Integer.MAX_VALUE;
+    }
+
     /*
      * Invoke the corresponding "setInputOperator" method of the dest operator.
      */
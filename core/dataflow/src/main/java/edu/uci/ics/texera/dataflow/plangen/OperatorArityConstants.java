@@ -1,7 +1,9 @@
 package edu.uci.ics.texera.dataflow.plangen;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import edu.uci.ics.texera.api.exception.PlanGenException;
 import edu.uci.ics.texera.dataflow.common.PredicateBase;
@@ -123,6 +125,40 @@ public class OperatorArityConstants {
         
     }
     
+    /*
+     * The operators that compute the result of each input tuple only from the tuple itself.
+     * They can be run as multiple replicas by a ParallelOperator.
+     */
+    public static Set<Class<? extends PredicateBase>> parallelizablePredicateSet = new HashSet<>();
+    static {
+        parallelizablePredicateSet.add(KeywordPredicate.class);
+        parallelizablePredicateSet.add(RegexPredicate.class);
+        parallelizablePredicateSet.add(DictionaryPredicate.class);
+        parallelizablePredicateSet.add(FuzzyTokenPredicate.class);
+        parallelizablePredicateSet.add(ComparablePredicate.class);
+        parallelizablePredicateSet.add(ProjectionPredicate.class);
+    }
+    
+    /*
+     * The source operators that read their table with "parallelism" threads themselves, 
+     *   instead of being replicated. Their output is not in the order of the table.
+     */
+    public static Set<Class<? extends PredicateBase>> parallelSourcePredicateSet = new HashSet<>();
+    static {
+        parallelSourcePredicateSet.add(ScanSourcePredicate.class);
+    }
+    
+    /*
+     * The operators that produce exactly one output tuple for each input tuple.
+     * A limit on their output can be pushed down to their input.
+     */
+    public static Set<Class<? extends PredicateBase>> limitPreservingPredicateSet = new HashSet<>();
+    static {
+        limitPreservingPredicateSet.add(ProjectionPredicate.class);
+        limitPreservingPredicateSet.add(NlpSentimentPredicate.class);
+        limitPreservingPredicateSet.add(EmojiSentimentPredicate.class);
+    }
+    
     /**
      * Gets the input arity of an operator type.
      * 
@@ -149,4 +185,34 @@ public class OperatorArityConstants {
         return fixedOutputArityMap.get(predicateClass);
     }
     
+    /**
+     * Returns true if the operator type can have more than one replica.
+     * 
+     * @param predicateClass
+     * @return
+     */
+    public static boolean isParallelizable(Class<? extends PredicateBase> predicateClass) {
+        return parallelizablePredicateSet.contains(predicateClass);
+    }
+    
+    /**
+     * Returns true if the source operator type reads its table with multiple threads when its parallelism is larger than 1.
+     * 
+     * @param predicateClass
+     * @return
+     */
+    public static boolean isParallelSource(Class<? extends PredicateBase> predicateClass) {
+        return parallelSourcePredicateSet.contains(predicateClass);
+    }
+    
+    /**
+     * Returns true if the operator type produces exactly one output tuple for each input tuple.
+     * 
+     * @param predicateClass
+     * @return
+     */
+    public static boolean isLimitPreserving(Class<? extends PredicateBase> predicateClass) {
+        return limitPreservingPredicateSet.contains(predicateClass);
+    }
+    
 }
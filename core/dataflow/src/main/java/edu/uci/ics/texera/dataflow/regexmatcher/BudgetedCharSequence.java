@@ -0,0 +1,83 @@
+package edu.uci.ics.texera.dataflow.regexmatcher;
+
+/**
+ * BudgetedCharSequence wraps a text, and stops the regex matching on it when a deadline has passed.
+ *
+ * Neither java.util.regex nor RE2J can be interrupted, but both of them read the text through charAt().
+ * The wrapper counts the calls to charAt(), checks the clock once every CHECK_INTERVAL calls,
+ *   and throws a {@link RegexBudgetExceededException} after the deadline, which aborts the matching.
+ *
+ * The deadline is shared by the texts wrapped with the same budget (such as the fields of one tuple).
+ *
+ */
+public class BudgetedCharSequence implements CharSequence {
+
+    // the number of charAt() calls between two checks of the clock
+    private static final int CHECK_INTERVAL = 4096;
+
+    /**
+     * Budget is the time left for matching on one tuple.
+     */
+    public static class Budget {
+        private final long budgetNanos;
+        private final long deadlineNanos;
+        private int countdown = CHECK_INTERVAL;
+
+        public Budget(long budgetNanos) {
+            this.budgetNanos = budgetNanos;
+            this.deadlineNanos = System.nanoTime() + budgetNanos;
+        }
+
+        private void step() {
+            if (--countdown > 0) {
+                return;
+            }
+            countdown = CHECK_INTERVAL;
+            if (System.nanoTime() - deadlineNanos > 0) {
+                throw new RegexBudgetExceededException(String.format(
+                        "regex matching exceeded the budget of %d ms", budgetNanos / 1000000));
+            }
+        }
+    }
+
+    private final String text;
+    private final int offset;
+    private final int length;
+    private final Budget budget;
+
+    public BudgetedCharSequence(String text, Budget budget) {
+        this(text, 0, text.length(), budget);
+    }
+
+    private BudgetedCharSequence(String text, int offset, int length, Budget budget) {
+        this.text = text;
+        this.offset = offset;
+        this.length = length;
+        this.budget = budget;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        budget.step();
+        return text.charAt(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException(String.format("start %d, end %d, length %d", start, end, length));
+        }
+        return new BudgetedCharSequence(text, offset + start, end - start, budget);
+    }
+
+    @Override
+    public String toString() {
+        return text.substring(offset, offset + length);
+    }
+
+}
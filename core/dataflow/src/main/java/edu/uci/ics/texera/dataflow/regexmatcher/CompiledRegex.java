@@ -0,0 +1,100 @@
+package edu.uci.ics.texera.dataflow.regexmatcher;
+
+import java.util.regex.Pattern;
+
+import com.google.re2j.PatternSyntaxException;
+
+/**
+ * CompiledRegex is a regex compiled by one of the engines in {@link RegexEngine}.
+ *
+ * If RE2J is chosen but it doesn't support the regex (for example "(a)\\1" or "a(?=b)"),
+ *   the regex is compiled by java.util.regex instead, and {@link #getEngine()} returns JAVA.
+ *
+ * The two engines have the same syntax for the common constructs.
+ * One difference is that RE2J ignores the case of all Unicode letters,
+ *   while java.util.regex only ignores the case of US-ASCII letters.
+ *
+ */
+public class CompiledRegex {
+
+    /**
+     * MatchHandler receives the matches of the regex in a text.
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+        void onMatch(int start, int end);
+    }
+
+    private final String regex;
+    // exactly one of the patterns is not null
+    private final Pattern javaPattern;
+    private final com.google.re2j.Pattern re2jPattern;
+
+    public CompiledRegex(Pattern javaPattern) {
+        this.regex = javaPattern.pattern();
+        this.javaPattern = javaPattern;
+        this.re2jPattern = null;
+    }
+
+    private CompiledRegex(com.google.re2j.Pattern re2jPattern) {
+        this.regex = re2jPattern.pattern();
+        this.javaPattern = null;
+        this.re2jPattern = re2jPattern;
+    }
+
+    /**
+     * Compiles the regex with the engine.
+     *
+     * @param regex
+     * @param ignoreCase
+     * @param engine
+     * @return the compiled regex
+     * @throws java.util.regex.PatternSyntaxException, if the regex is invalid
+     */
+    public static CompiledRegex compile(String regex, boolean ignoreCase, RegexEngine engine) {
+        if (engine == RegexEngine.RE2J) {
+            try {
+                return new CompiledRegex(ignoreCase ?
+                        com.google.re2j.Pattern.compile(regex, com.google.re2j.Pattern.CASE_INSENSITIVE)
+                        : com.google.re2j.Pattern.compile(regex));
+            } catch (PatternSyntaxException e) {
+                // not supported by RE2J, fall back to java.util.regex
+            }
+        }
+        return new CompiledRegex(ignoreCase ?
+                Pattern.compile(regex, Pattern.CASE_INSENSITIVE)
+                : Pattern.compile(regex));
+    }
+
+    public String getRegex() {
+        return this.regex;
+    }
+
+    /**
+     * Gets the engine which actually matches the regex.
+     */
+    public RegexEngine getEngine() {
+        return re2jPattern == null ? RegexEngine.JAVA : RegexEngine.RE2J;
+    }
+
+    /**
+     * Finds all the non-overlapping matches of the regex in the text, from left to right.
+     *
+     * @param text
+     * @param handler
+     */
+    public void findMatches(CharSequence text, MatchHandler handler) {
+        if (javaPattern != null) {
+            java.util.regex.Matcher javaMatcher = javaPattern.matcher(text);
+            while (javaMatcher.find()) {
+                handler.onMatch(javaMatcher.start(), javaMatcher.end());
+            }
+        } else {
+            com.google.re2j.Matcher re2jMatcher = re2jPattern.matcher(text);
+            while (re2jMatcher.find()) {
+                handler.onMatch(re2jMatcher.start(), re2jMatcher.end());
+            }
+        }
+    }
+
+}
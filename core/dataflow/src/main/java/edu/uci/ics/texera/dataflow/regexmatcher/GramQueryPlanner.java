@@ -0,0 +1,289 @@
+package edu.uci.ics.texera.dataflow.regexmatcher;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.uci.ics.texera.dataflow.regexmatcher.GramBooleanQuery.QueryOp;
+
+/**
+ * GramQueryPlanner chooses how RegexMatcherSourceOperator gets the candidate documents of a regex from a gram index:
+ *   by the gram query of RegexToGramQueryTranslator (INDEX), by a pruned subset of its grams (PRUNED_INDEX),
+ *   or by scanning the whole table (SCAN).
+ *
+ * The cost of a plan is estimated in the unit of reading one posting from the index:
+ *   reading the postings of a gram costs its document frequency,
+ *   and verifying a candidate document (reading it and matching the regex on it) costs VERIFY_COST.
+ * The number of candidates is estimated by the selectivity of the gram query, assuming the grams are independent:
+ *   the selectivity of a gram is its document frequency divided by the number of documents,
+ *   an AND multiplies the selectivities of its children, and an OR gets 1 - (1 - s1) * (1 - s2) * ...
+ *
+ * The children of an AND are pruned greedily: they are sorted by their selectivity,
+ *   and only the prefix with the lowest cost is kept. A common gram is dropped if reading its postings
+ *   costs more than verifying the candidates it filters out. Pruning only adds candidates, never loses a result.
+ *
+ * Operator NONE adds no condition to the lucene query string of GramBooleanQuery, so it's estimated in the same way as ANY.
+ *
+ */
+public class GramQueryPlanner {
+
+    public enum PlanType {
+        INDEX, PRUNED_INDEX, SCAN
+    }
+
+    // the cost of verifying one candidate document, relative to reading one posting
+    public static final double VERIFY_COST = 100.0;
+
+    /**
+     * IndexPlan is the plan chosen for a regex, with its estimates.
+     */
+    public static class IndexPlan {
+        private final PlanType planType;
+        private final GramBooleanQuery gramQuery;
+        private final double estimatedCandidates;
+        private final double estimatedCost;
+        private final double scanCost;
+        private final String reason;
+
+        IndexPlan(PlanType planType, GramBooleanQuery gramQuery, double estimatedCandidates, double estimatedCost,
+                double scanCost, String reason) {
+            this.planType = planType;
+            this.gramQuery = gramQuery;
+            this.estimatedCandidates = estimatedCandidates;
+            this.estimatedCost = estimatedCost;
+            this.scanCost = scanCost;
+            this.reason = reason;
+        }
+
+        public PlanType getPlanType() {
+            return planType;
+        }
+
+        /**
+         * Gets the gram query to run on the index, or null if the plan is a scan.
+         */
+        public GramBooleanQuery getGramQuery() {
+            return gramQuery;
+        }
+
+        public double getEstimatedCandidates() {
+            return estimatedCandidates;
+        }
+
+        public double getEstimatedCost() {
+            return estimatedCost;
+        }
+
+        public double getScanCost() {
+            return scanCost;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (estimated candidates %.1f, cost %.1f, scan cost %.1f): %s",
+                    planType, estimatedCandidates, estimatedCost, scanCost, reason);
+        }
+    }
+
+    /*
+     * The estimate of a (pruned) query node.
+     */
+    private static class Estimate {
+        private final GramBooleanQuery query;
+        private final double selectivity;
+        private final double postingCost;
+        private final int prunedGramCount;
+
+        private Estimate(GramBooleanQuery query, double selectivity, double postingCost, int prunedGramCount) {
+            this.query = query;
+            this.selectivity = selectivity;
+            this.postingCost = postingCost;
+            this.prunedGramCount = prunedGramCount;
+        }
+
+        private boolean isAny() {
+            return query.operator == QueryOp.ANY;
+        }
+    }
+
+    private final Map<String, Integer> gramDocumentFrequencies;
+    private final int documentCount;
+
+    /**
+     * @param gramDocumentFrequencies, the number of documents containing each gram (the leaves of the gram query)
+     * @param documentCount, the number of documents in the table
+     */
+    public GramQueryPlanner(Map<String, Integer> gramDocumentFrequencies, int documentCount) {
+        this.gramDocumentFrequencies = gramDocumentFrequencies;
+        this.documentCount = documentCount;
+    }
+
+    /**
+     * Creates a scan plan, which is used when the gram index can't be used at all.
+     */
+    public static IndexPlan scanPlan(int documentCount, String reason) {
+        double scanCost = documentCount * VERIFY_COST;
+        return new IndexPlan(PlanType.SCAN, null, documentCount, scanCost, scanCost, reason);
+    }
+
+    /**
+     * Gets all the grams (the leaves) of a gram query, as they appear in the query.
+     */
+    public static Set<String> getGrams(GramBooleanQuery gramQuery) {
+        Set<String> grams = new LinkedHashSet<>();
+        collectGrams(gramQuery, grams);
+        return grams;
+    }
+
+    private static void collectGrams(GramBooleanQuery gramQuery, Set<String> grams) {
+        if (gramQuery.operator == QueryOp.LEAF) {
+            grams.add(gramQuery.leaf);
+        } else {
+            for (GramBooleanQuery subQuery : gramQuery.subQuerySet) {
+                collectGrams(subQuery, grams);
+            }
+        }
+    }
+
+    /**
+     * Gets the index term of a gram, which is escaped for the lucene query parser in the gram query.
+     */
+    public static String getGramTerm(String gram) {
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < gram.length(); i++) {
+            if (gram.charAt(i) == '\\' && i + 1 < gram.length()) {
+                i++;
+            }
+            term.append(gram.charAt(i));
+        }
+        return term.toString();
+    }
+
+    /**
+     * Chooses the cheapest plan for the gram query.
+     *
+     * @param gramQuery, the query translated by RegexToGramQueryTranslator
+     * @return the chosen plan
+     */
+    public IndexPlan choosePlan(GramBooleanQuery gramQuery) {
+        double scanCost = documentCount * VERIFY_COST;
+        Estimate estimate = estimate(gramQuery);
+        if (estimate.isAny()) {
+            return new IndexPlan(PlanType.SCAN, null, documentCount, scanCost, scanCost,
+                    "the gram query doesn't filter any document");
+        }
+
+        double estimatedCandidates = estimate.selectivity * documentCount;
+        double indexCost = estimate.postingCost + estimatedCandidates * VERIFY_COST;
+        if (indexCost >= scanCost) {
+            return new IndexPlan(PlanType.SCAN, null, documentCount, scanCost, scanCost,
+                    String.format("the cheapest gram query costs %.1f", indexCost));
+        }
+        if (estimate.prunedGramCount > 0) {
+            return new IndexPlan(PlanType.PRUNED_INDEX, estimate.query, estimatedCandidates, indexCost, scanCost,
+                    String.format("%d common grams are not read", estimate.prunedGramCount));
+        }
+        return new IndexPlan(PlanType.INDEX, estimate.query, estimatedCandidates, indexCost, scanCost,
+                "all the grams are read");
+    }
+
+    private Estimate estimate(GramBooleanQuery query) {
+        switch (query.operator) {
+        case LEAF:
+            int documentFrequency = Math.min(documentCount, gramDocumentFrequencies.getOrDefault(query.leaf, 0));
+            double selectivity = documentCount == 0 ? 0.0 : (double) documentFrequency / documentCount;
+            return new Estimate(GramBooleanQuery.newLeafNode(query.leaf), selectivity, documentFrequency, 0);
+        case AND:
+            return estimateConjunction(query);
+        case OR:
+            return estimateDisjunction(query);
+        default:
+            return new Estimate(new GramBooleanQuery(QueryOp.ANY), 1.0, 0, 0);
+        }
+    }
+
+    /*
+     * Keeps the prefix of the children (sorted by selectivity) with the lowest cost.
+     */
+    private Estimate estimateConjunction(GramBooleanQuery query) {
+        List<Estimate> subEstimates = new ArrayList<>();
+        int prunedGramCount = 0;
+        for (GramBooleanQuery subQuery : query.subQuerySet) {
+            Estimate subEstimate = estimate(subQuery);
+            prunedGramCount += subEstimate.prunedGramCount;
+            if (! subEstimate.isAny()) {
+                subEstimates.add(subEstimate);
+            }
+        }
+        subEstimates.sort(Comparator.<Estimate>comparingDouble(estimate -> estimate.selectivity)
+                .thenComparingDouble(estimate -> estimate.postingCost));
+
+        int bestPrefixLength = 0;
+        double bestCost = documentCount * VERIFY_COST;
+        double selectivity = 1.0;
+        double postingCost = 0;
+        for (int i = 0; i < subEstimates.size(); i++) {
+            selectivity *= subEstimates.get(i).selectivity;
+            postingCost += subEstimates.get(i).postingCost;
+            double cost = postingCost + selectivity * documentCount * VERIFY_COST;
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestPrefixLength = i + 1;
+            }
+        }
+
+        if (bestPrefixLength == 0) {
+            return new Estimate(new GramBooleanQuery(QueryOp.ANY), 1.0, 0,
+                    prunedGramCount + countGrams(subEstimates));
+        }
+        List<Estimate> keptEstimates = subEstimates.subList(0, bestPrefixLength);
+        prunedGramCount += countGrams(subEstimates.subList(bestPrefixLength, subEstimates.size()));
+        if (keptEstimates.size() == 1) {
+            Estimate keptEstimate = keptEstimates.get(0);
+            return new Estimate(keptEstimate.query, keptEstimate.selectivity, keptEstimate.postingCost, prunedGramCount);
+        }
+
+        GramBooleanQuery prunedQuery = new GramBooleanQuery(QueryOp.AND);
+        selectivity = 1.0;
+        postingCost = 0;
+        for (Estimate keptEstimate : keptEstimates) {
+            prunedQuery.subQuerySet.add(keptEstimate.query);
+            selectivity *= keptEstimate.selectivity;
+            postingCost += keptEstimate.postingCost;
+        }
+        return new Estimate(prunedQuery, selectivity, postingCost, prunedGramCount);
+    }
+
+    /*
+     * A document is a candidate if it's a candidate of any child, a child without any condition removes the whole OR.
+     */
+    private Estimate estimateDisjunction(GramBooleanQuery query) {
+        GramBooleanQuery prunedQuery = new GramBooleanQuery(QueryOp.OR);
+        double unselectivity = 1.0;
+        double postingCost = 0;
+        int prunedGramCount = 0;
+        for (GramBooleanQuery subQuery : query.subQuerySet) {
+            Estimate subEstimate = estimate(subQuery);
+            if (subEstimate.isAny()) {
+                return new Estimate(new GramBooleanQuery(QueryOp.ANY), 1.0, 0, getGrams(query).size());
+            }
+            prunedQuery.subQuerySet.add(subEstimate.query);
+            unselectivity *= 1.0 - subEstimate.selectivity;
+            postingCost += subEstimate.postingCost;
+            prunedGramCount += subEstimate.prunedGramCount;
+        }
+        return new Estimate(prunedQuery, 1.0 - unselectivity, postingCost, prunedGramCount);
+    }
+
+    private static int countGrams(List<Estimate> estimates) {
+        return estimates.stream().mapToInt(estimate -> getGrams(estimate.query).size()).sum();
+    }
+
+}
@@ -0,0 +1,16 @@
+package edu.uci.ics.texera.dataflow.regexmatcher;
+
+import edu.uci.ics.texera.api.exception.DataflowException;
+
+/**
+ * Thrown by {@link BudgetedCharSequence} when matching a regex on a tuple takes longer than its budget.
+ */
+public class RegexBudgetExceededException extends DataflowException {
+
+    private static final long serialVersionUID = 2617420734585204651L;
+
+    public RegexBudgetExceededException(String errorMessage) {
+        super(errorMessage);
+    }
+
+}
@@ -0,0 +1,46 @@
+package edu.uci.ics.texera.dataflow.regexmatcher;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * RegexEngine: the engine used to match a regex. <br>
+ * 
+ * JAVA: <br>
+ * Uses java.util.regex, which supports all the constructs of Java regex,
+ *   but backtracks and can take exponential time on patterns such as "(a+)+b". <br>
+ * 
+ * RE2J: <br>
+ * Uses RE2J, which matches in linear time of the text. 
+ * A regex using constructs that RE2J doesn't support (such as backreferences and lookarounds)
+ *   falls back to java.util.regex. <br>
+ * 
+ */
+public enum RegexEngine {
+    
+    JAVA(RegexEngineName.JAVA),
+    
+    RE2J(RegexEngineName.RE2J);
+    
+    private final String name;
+    
+    private RegexEngine(String name) {
+        this.name = name;
+    }
+    
+    // use the name string instead of enum string in JSON
+    @JsonValue
+    public String getName() {
+        return this.name;
+    }
+    
+    @Override
+    public String toString() {
+        return this.name;
+    }
+    
+    public class RegexEngineName {
+        public static final String JAVA = "java";
+        public static final String RE2J = "re2j";
+    }
+
+}
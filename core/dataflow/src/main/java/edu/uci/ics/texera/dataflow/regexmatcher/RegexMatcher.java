@@ -13,17 +13,23 @@ import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
+import edu.uci.ics.texera.dataflow.metrics.IMetricsReporter;
+import edu.uci.ics.texera.dataflow.metrics.OperatorMetrics;
 import edu.uci.ics.texera.dataflow.regexmatcher.label.LabeledRegexProcessor;
 import edu.uci.ics.texera.dataflow.regexmatcher.label.LabledRegexNoQualifierProcessor;
 
 /**
  * Created by chenli on 3/25/16.
  * 
+ * If the predicate has a tuple budget, a tuple whose matching takes longer than the budget is skipped,
+ *   and counted in the BUDGET_EXCEEDED_COUNTER of the operator metrics.
+ * 
  * @author Shuying Lai (laisycs)
  * @author Zuozhi Wang (zuozhiw)
  */
-public class RegexMatcher extends AbstractSingleInputOperator {
+public class RegexMatcher extends AbstractSingleInputOperator implements IMetricsReporter {
     
     public enum RegexType {
         NO_LABELS, LABELED_WITHOUT_QUALIFIER, LABELED_WITH_QUALIFIERS
@@ -57,15 +63,22 @@ public class RegexMatcher extends AbstractSingleInputOperator {
      */
     public static final String CHECK_REGEX_QUALIFIER = "[^a-zA-Z0-9<> ]";
     
+    // the counter of the tuples skipped because their matching exceeded the tuple budget
+    public static final String BUDGET_EXCEEDED_COUNTER = "regexBudgetExceededTuples";
+    
     
     private final RegexPredicate predicate;
     private RegexType regexType;
         
-    private Pattern regexPattern;
+    private CompiledRegex compiledRegex;
     LabeledRegexProcessor labeledRegexProcessor;
     LabledRegexNoQualifierProcessor labledRegexNoQualifierProcessor;
     
     private boolean addResultAttribute = false;
+    private Tuple.Appender resultAppender;
+    
+    private OperatorMetrics operatorMetrics;
+    private long budgetExceededCount = 0;
 
     public RegexMatcher(RegexPredicate predicate) {
         this.predicate = predicate;
@@ -86,13 +99,14 @@ public class RegexMatcher extends AbstractSingleInputOperator {
         }
 
         outputSchema = transformToOutputSchema(inputOperator.getOutputSchema());
+        if (addResultAttribute) {
+            resultAppender = new Tuple.Appender(inputSchema, outputSchema);
+        }
 
         findRegexType();
         // Check if labeled or unlabeled
         if (this.regexType == RegexType.NO_LABELS) {
-            regexPattern = predicate.isIgnoreCase() ? 
-                    Pattern.compile(predicate.getRegex(), Pattern.CASE_INSENSITIVE)
-                    : Pattern.compile(predicate.getRegex());
+            compiledRegex = CompiledRegex.compile(predicate.getRegex(), predicate.isIgnoreCase(), predicate.getRegexEngine());
         } else if (this.regexType == RegexType.LABELED_WITH_QUALIFIERS) {
             labeledRegexProcessor = new LabeledRegexProcessor(predicate);
         } else {
@@ -132,6 +146,11 @@ public class RegexMatcher extends AbstractSingleInputOperator {
         return resultTuple;
     }
 
+    @Override
+    protected boolean computeNextMatchingBatch(TupleBatch batch) throws TexeraException {
+        return computeNextMatchingBatchFromInput(batch);
+    }
+
     /**
      * This function returns a list of spans in the given tuple that match the
      * regex For example, given tuple ("george watson", "graduate student", 23,
@@ -152,29 +171,46 @@ public class RegexMatcher extends AbstractSingleInputOperator {
         }
 
         List<Span> matchingResults = null;
-        if (this.regexType == RegexType.NO_LABELS) {
-            matchingResults = computeMatchingResultsWithPattern(inputTuple, predicate, regexPattern);
-        } else if (this.regexType == RegexType.LABELED_WITH_QUALIFIERS) {
-            matchingResults = labeledRegexProcessor.computeMatchingResults(inputTuple);
-        } else {
-            matchingResults = labledRegexNoQualifierProcessor.computeMatchingResults(inputTuple);
+        try {
+            if (this.regexType == RegexType.NO_LABELS) {
+                matchingResults = computeMatchingResultsWithPattern(inputTuple, predicate, compiledRegex);
+            } else if (this.regexType == RegexType.LABELED_WITH_QUALIFIERS) {
+                matchingResults = labeledRegexProcessor.computeMatchingResults(inputTuple);
+            } else {
+                matchingResults = labledRegexNoQualifierProcessor.computeMatchingResults(inputTuple);
+            }
+        } catch (RegexBudgetExceededException e) {
+            budgetExceededCount++;
+            if (operatorMetrics != null) {
+                operatorMetrics.addCounter(BUDGET_EXCEEDED_COUNTER, 1);
+            }
+            return null;
         }
         
         if (matchingResults.isEmpty()) {
             return null;
         }
         
-        Tuple.Builder tupleBuilder = new Tuple.Builder(inputTuple);
-
         if (addResultAttribute) {
-            tupleBuilder.add(predicate.getSpanListName(), AttributeType.LIST, new ListField<Span>(matchingResults));
+            return resultAppender.append(inputTuple, new ListField<Span>(matchingResults));
         }
 
-        return tupleBuilder.build();
+        return inputTuple;
     }
 
     public static List<Span> computeMatchingResultsWithPattern(Tuple inputTuple, RegexPredicate predicate, Pattern pattern) {
+        return computeMatchingResultsWithPattern(inputTuple, predicate, new CompiledRegex(pattern));
+    }
+
+    /**
+     * Finds the spans of the compiled regex in the attributes of the predicate.
+     * 
+     * @throws RegexBudgetExceededException, if the predicate has a tuple budget, and the matching exceeds it
+     */
+    public static List<Span> computeMatchingResultsWithPattern(Tuple inputTuple, RegexPredicate predicate, CompiledRegex compiledRegex) {
         List<Span> matchingResults = new ArrayList<>();
+        BudgetedCharSequence.Budget budget = predicate.getTupleBudgetMillis() > 0 ?
+                new BudgetedCharSequence.Budget(predicate.getTupleBudgetMillis() * 1000000) : null;
 
         for (String attributeName : predicate.getAttributeNames()) {
             AttributeType attributeType = inputTuple.getSchema().getAttribute(attributeName).getType();
@@ -185,13 +221,9 @@ public class RegexMatcher extends AbstractSingleInputOperator {
                 throw new DataflowException("KeywordMatcher: Fields other than STRING and TEXT are not supported yet");
             }
             
-            Matcher javaMatcher = pattern.matcher(fieldValue);
-            while (javaMatcher.find()) {
-                int start = javaMatcher.start();
-                int end = javaMatcher.end();
-                matchingResults.add(
-                        new Span(attributeName, start, end, predicate.getRegex(), fieldValue.substring(start, end)));
-            }
+            CharSequence text = budget == null ? fieldValue : new BudgetedCharSequence(fieldValue, budget);
+            compiledRegex.findMatches(text, (start, end) -> matchingResults.add(
+                    new Span(attributeName, start, end, predicate.getRegex(), fieldValue.substring(start, end))));
         }
         
         return matchingResults;
@@ -204,6 +236,18 @@ public class RegexMatcher extends AbstractSingleInputOperator {
     public RegexPredicate getPredicate() {
         return this.predicate;
     }
+    
+    @Override
+    public void setOperatorMetrics(OperatorMetrics operatorMetrics) {
+        this.operatorMetrics = operatorMetrics;
+    }
+    
+    /**
+     * Gets the number of tuples skipped by this operator because their matching exceeded the tuple budget.
+     */
+    public long getBudgetExceededCount() {
+        return this.budgetExceededCount;
+    }
 
     public Schema transformToOutputSchema(Schema... inputSchema) {
         if (inputSchema.length != 1)
@@ -2,6 +2,13 @@ package edu.uci.ics.texera.dataflow.regexmatcher;
 
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.schema.Schema;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.search.MatchAllDocsQuery;
@@ -12,25 +19,37 @@ import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
-import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.dataflow.metrics.IMetricsReporter;
+import edu.uci.ics.texera.dataflow.metrics.OperatorMetrics;
+import edu.uci.ics.texera.dataflow.regexmatcher.GramQueryPlanner.IndexPlan;
+import edu.uci.ics.texera.dataflow.regexmatcher.GramQueryPlanner.PlanType;
 import edu.uci.ics.texera.storage.DataReader;
 import edu.uci.ics.texera.storage.RelationManager;
 
-public class RegexMatcherSourceOperator extends AbstractSingleInputOperator implements ISourceOperator {
+public class RegexMatcherSourceOperator extends AbstractSingleInputOperator implements ISourceOperator, IMetricsReporter {
+    
+    public static final String INDEX_PLAN_DETAIL = "indexPlan";
+    public static final String INDEX_PLAN_REASON_DETAIL = "indexPlanReason";
+    public static final String ESTIMATED_CANDIDATES_DETAIL = "estimatedCandidates";
     
     private final RegexSourcePredicate predicate;
 
     private final DataReader dataReader;
     private final RegexMatcher regexMatcher;
+    // the plan of reading the candidate documents from the gram index, null if the index is not used
+    private final IndexPlan indexPlan;
     
     public RegexMatcherSourceOperator(RegexSourcePredicate predicate) throws StorageException, DataflowException {
         this.predicate = predicate;
         
         if (this.predicate.isUseIndex()) {
+            this.indexPlan = createIndexPlan(this.predicate);
             this.dataReader = RelationManager.getInstance().getTableDataReader(this.predicate.getTableName(), 
-                    createLuceneQuery(this.predicate));
+                    createLuceneQuery(this.predicate, this.indexPlan));
         } else {
+            this.indexPlan = null;
             this.dataReader = RelationManager.getInstance().getTableDataReader(this.predicate.getTableName(), 
                     new MatchAllDocsQuery());
         }
@@ -51,6 +70,11 @@ public class RegexMatcherSourceOperator extends AbstractSingleInputOperator impl
         return this.regexMatcher.getNextTuple();
     }
 
+    @Override
+    protected boolean computeNextMatchingBatch(TupleBatch batch) throws TexeraException {
+        return this.regexMatcher.getNextBatch(batch);
+    }
+
     @Override
     public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
         return this.regexMatcher.processOneInputTuple(inputTuple);
@@ -60,28 +84,94 @@ public class RegexMatcherSourceOperator extends AbstractSingleInputOperator impl
     protected void cleanUp() throws TexeraException {
     }
     
-    public static Query createLuceneQuery(RegexSourcePredicate predicate) throws StorageException {
-        Query luceneQuery;
-        String queryString;
+    @Override
+    public void setOperatorMetrics(OperatorMetrics operatorMetrics) {
+        this.regexMatcher.setOperatorMetrics(operatorMetrics);
+        if (this.indexPlan != null) {
+            operatorMetrics.setDetail(INDEX_PLAN_DETAIL, this.indexPlan.getPlanType().toString());
+            operatorMetrics.setDetail(INDEX_PLAN_REASON_DETAIL, this.indexPlan.getReason());
+            operatorMetrics.setDetail(ESTIMATED_CANDIDATES_DETAIL, this.indexPlan.getEstimatedCandidates());
+        }
+    }
+    
+    public IndexPlan getIndexPlan() {
+        return this.indexPlan;
+    }
+    
+    /**
+     * Chooses how to read the candidate documents of the regex from the gram index of the table,
+     *   by estimating the cost of the gram query with the document frequencies of its grams.
+     * 
+     * The grams are read from the attributes if the table's analyzer is the 3-gram analyzer,
+     *   or from their 3-gram sub-fields if they are trigram attributes of the table.
+     * The table is scanned if the regex can't be translated to a gram query,
+     *   or if the 3-grams of the attributes are not indexed.
+     * 
+     * @param predicate
+     * @return the chosen plan
+     * @throws StorageException
+     */
+    public static IndexPlan createIndexPlan(RegexSourcePredicate predicate) throws StorageException {
+        RelationManager relationManager = RelationManager.getInstance();
+        int documentCount = relationManager.getTableDocumentCount(predicate.getTableName());
+        
+        List<String> gramFieldNames = relationManager.getTrigramFieldNames(
+                predicate.getTableName(), predicate.getAttributeNames());
+        if (gramFieldNames == null) {
+            return GramQueryPlanner.scanPlan(documentCount, "the attributes are not indexed by 3-grams");
+        }
         
-        // Try to apply translator. If it fails, use scan query.
+        GramBooleanQuery gramQuery;
         try {
-            queryString = RegexToGramQueryTranslator.translate(predicate.getRegex()).getLuceneQueryString();
+            gramQuery = RegexToGramQueryTranslator.translate(predicate.getRegex());
         } catch (com.google.re2j.PatternSyntaxException e) {
-            queryString = DataflowUtils.LUCENE_SCAN_QUERY;
+            return GramQueryPlanner.scanPlan(documentCount, "the regex can't be translated to a gram query");
         }
-
+        
+        // the document frequency of a gram is summed over the attributes, since any of them can match
+        List<String> grams = new ArrayList<>(GramQueryPlanner.getGrams(gramQuery));
+        List<Term> terms = new ArrayList<>();
+        for (String gram : grams) {
+            for (String gramFieldName : gramFieldNames) {
+                terms.add(new Term(gramFieldName, GramQueryPlanner.getGramTerm(gram)));
+            }
+        }
+        int[] termDocumentFrequencies = relationManager.getTermDocumentFrequencies(predicate.getTableName(), terms);
+        
+        Map<String, Integer> gramDocumentFrequencies = new HashMap<>();
+        int attributeCount = gramFieldNames.size();
+        for (int i = 0; i < grams.size(); i++) {
+            int documentFrequency = 0;
+            for (int j = 0; j < attributeCount; j++) {
+                documentFrequency += termDocumentFrequencies[i * attributeCount + j];
+            }
+            gramDocumentFrequencies.put(grams.get(i), documentFrequency);
+        }
+        
+        return new GramQueryPlanner(gramDocumentFrequencies, documentCount).choosePlan(gramQuery);
+    }
+    
+    public static Query createLuceneQuery(RegexSourcePredicate predicate) throws StorageException {
+        return createLuceneQuery(predicate, createIndexPlan(predicate));
+    }
+    
+    public static Query createLuceneQuery(RegexSourcePredicate predicate, IndexPlan indexPlan) throws StorageException {
+        if (indexPlan.getPlanType() == PlanType.SCAN) {
+            return new MatchAllDocsQuery();
+        }
+        
+        List<String> gramFieldNames = RelationManager.getInstance().getTrigramFieldNames(
+                predicate.getTableName(), predicate.getAttributeNames());
+        
         // Try to parse the query string. It if fails, raise an exception.
         try {
-            luceneQuery = new MultiFieldQueryParser(
-                    predicate.getAttributeNames().stream().toArray(String[]::new), 
+            return new MultiFieldQueryParser(
+                    gramFieldNames.stream().toArray(String[]::new), 
                     RelationManager.getInstance().getTableAnalyzer(predicate.getTableName()))
-                    .parse(queryString);
+                    .parse(indexPlan.getGramQuery().getLuceneQueryString());
         } catch (ParseException e) {
             throw new StorageException (e);
         }
-        
-        return luceneQuery;
     }
 
     public Schema transformToOutputSchema(Schema... inputSchema) {
@@ -29,12 +29,14 @@ public class RegexPredicate extends PredicateBase {
     private final List<String> attributeNames;
     private final String spanListName;
     private final Boolean ignoreCase;
+    private final RegexEngine regexEngine;
+    private final Long tupleBudgetMillis;
     
     /*
      * This constructor is only for internal use.
      */
     public RegexPredicate(String regex, List<String> attributeNames, String spanListName) {
-        this(regex, attributeNames, null, spanListName);
+        this(regex, attributeNames, null, spanListName, null, null);
     }
 
     /**
@@ -44,6 +46,9 @@ public class RegexPredicate extends PredicateBase {
      * @param attributeNames, a list of attribute names to match regex on
      * @param ignoreCase, optional, ignores regex case, default false
      * @param spanListName, the name of the attribute where the results will be put in
+     * @param regexEngine, optional, the engine used to match the regex (see {@link RegexEngine}), default JAVA
+     * @param tupleBudgetMillis, optional, the time budget of matching the regex on one tuple, in milliseconds,
+     *   a tuple exceeding the budget is skipped (see {@link RegexMatcher}), default 0 (no budget)
      */
     @JsonCreator
     public RegexPredicate(
@@ -59,7 +64,17 @@ public class RegexPredicate extends PredicateBase {
             Boolean ignoreCase,
             
             @JsonProperty(value = PropertyNameConstants.SPAN_LIST_NAME, required = false)
-            String spanListName) {
+            String spanListName,
+            
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.REGEX_ENGINE, required = false,
+                    defaultValue = RegexEngine.RegexEngineName.JAVA)
+            RegexEngine regexEngine,
+            
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.REGEX_TUPLE_BUDGET_MILLIS, required = false,
+                    defaultValue = "0")
+            Long tupleBudgetMillis) {
         
         if (regex.trim().isEmpty()) {
             throw new TexeraException(PropertyNameConstants.EMPTY_REGEX_EXCEPTION);
@@ -77,6 +92,18 @@ public class RegexPredicate extends PredicateBase {
         } else {
             this.spanListName = spanListName.trim();
         }
+        if (regexEngine == null) {
+            this.regexEngine = RegexEngine.JAVA;
+        } else {
+            this.regexEngine = regexEngine;
+        }
+        if (tupleBudgetMillis == null) {
+            this.tupleBudgetMillis = 0L;
+        } else if (tupleBudgetMillis < 0) {
+            throw new TexeraException("regex tuple budget must not be negative, got " + tupleBudgetMillis);
+        } else {
+            this.tupleBudgetMillis = tupleBudgetMillis;
+        }
     }
 
     @JsonProperty(PropertyNameConstants.REGEX)
@@ -99,6 +126,16 @@ public class RegexPredicate extends PredicateBase {
         return this.ignoreCase;
     }
     
+    @JsonProperty(PropertyNameConstants.REGEX_ENGINE)
+    public RegexEngine getRegexEngine() {
+        return this.regexEngine;
+    }
+    
+    @JsonProperty(PropertyNameConstants.REGEX_TUPLE_BUDGET_MILLIS)
+    public Long getTupleBudgetMillis() {
+        return this.tupleBudgetMillis;
+    }
+    
     @Override
     public IOperator newOperator() {
         return new RegexMatcher(this);
@@ -25,7 +25,7 @@ public class RegexSourcePredicate extends RegexPredicate {
             List<String> attributeNames, 
             String tableName,
             String spanListName) {
-        this(regex, attributeNames, null, tableName, null, spanListName);
+        this(regex, attributeNames, null, tableName, null, spanListName, null, null);
     }
 
     /**
@@ -37,6 +37,9 @@ public class RegexSourcePredicate extends RegexPredicate {
      * @param tableName, the name of the source table
      * @param useIndex, optional, use the gram-based regex index query, default true
      * @param spanListName, the name of the attribute where the results will be put in
+     * @param regexEngine, optional, the engine used to match the regex (see {@link RegexEngine}), default JAVA
+     * @param tupleBudgetMillis, optional, the time budget of matching the regex on one tuple, in milliseconds,
+     *   a tuple exceeding the budget is skipped (see {@link RegexMatcher}), default 0 (no budget)
      */
     @JsonCreator
     public RegexSourcePredicate(
@@ -60,8 +63,18 @@ public class RegexSourcePredicate extends RegexPredicate {
             Boolean useIndex,
             
             @JsonProperty(value = PropertyNameConstants.SPAN_LIST_NAME, required = true)
-            String spanListName) {
-        super(regex, attributeNames, ignoreCase, spanListName);
+            String spanListName,
+            
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.REGEX_ENGINE, required = false,
+                    defaultValue = RegexEngine.RegexEngineName.JAVA)
+            RegexEngine regexEngine,
+            
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.REGEX_TUPLE_BUDGET_MILLIS, required = false,
+                    defaultValue = "0")
+            Long tupleBudgetMillis) {
+        super(regex, attributeNames, ignoreCase, spanListName, regexEngine, tupleBudgetMillis);
 
         if (tableName == null || tableName.isEmpty()) {
             throw new TexeraException(PropertyNameConstants.EMPTY_NAME_EXCEPTION);
@@ -1,10 +1,13 @@
 package edu.uci.ics.texera.dataflow.regexmatcher.label;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -13,12 +16,21 @@ import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.field.ListField;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.regexmatcher.CompiledRegex;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexMatcher;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexPredicate;
 
 /**
  * Helper class for processing labeled regex.
- * 
+ *
+ * The regex is split by its labels once. For each tuple, a label is replaced by the alternation of its values,
+ *   but only the values which occur in the text of the tuple are kept, because the other values can't be matched.
+ * The occurring values are found by scanning the text with a trie of all the label values of the tuple.
+ *
+ * The tuples usually have the same few occurring values (often none at all),
+ *   so the compiled patterns are cached by the occurring values of the labels,
+ *   and a pattern is only compiled for the label values which are not in the cache.
+ *
  * @author Bhushan Pagariya (bhushanpagariya)
  * @author Harshini Shah
  * @author Yashaswini Amaresh
@@ -26,90 +38,216 @@ import edu.uci.ics.texera.dataflow.regexmatcher.RegexPredicate;
  *
  */
 public class LabeledRegexProcessor {
-    
+
+    // the maximum number of compiled patterns kept in the cache, the least recently used ones are removed first
+    public static final int MAX_CACHED_PATTERNS = 256;
+
+    // the longer values are tried first, so that "new york city" is preferred over "new york"
+    private static final Comparator<String> LABEL_VALUE_ORDER =
+            Comparator.comparing(String::length).reversed().thenComparing(Comparator.naturalOrder());
+
     private RegexPredicate predicate;
-    private String cleanedRegex;
+
+    // the distinct labels in the regex
     private ArrayList<String> labelList = new ArrayList<>();
-    
+    // the regex without the labels: the label labelList.get(labelSlots[i]) is between regexSegments[i] and regexSegments[i + 1]
+    private ArrayList<String> regexSegments = new ArrayList<>();
+    private int[] labelSlots;
+
+    private final Map<List<List<String>>, CompiledRegex> patternCache =
+            new LinkedHashMap<List<List<String>>, CompiledRegex>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<List<String>>, CompiledRegex> eldest) {
+            return size() > MAX_CACHED_PATTERNS;
+        }
+    };
+
     public LabeledRegexProcessor(RegexPredicate predicate) {
         this.predicate = predicate;
         preprocessRegex();
     }
-    
+
     private void preprocessRegex() {
-        Matcher labelMatcher = Pattern.compile(RegexMatcher.CHECK_REGEX_LABEL).matcher(predicate.getRegex());
-        cleanedRegex = predicate.getRegex();
+        String regex = predicate.getRegex();
+        Matcher labelMatcher = Pattern.compile(RegexMatcher.CHECK_REGEX_LABEL).matcher(regex);
+        List<Integer> slots = new ArrayList<>();
+        int previousEnd = 0;
         while (labelMatcher.find()) {
-            String labelStr = predicate.getRegex().substring(
-                    labelMatcher.start() + 1, labelMatcher.end() - 1);
-            String substrTrimmed = labelStr.trim();
-            labelList.add(substrTrimmed);
-            cleanedRegex = cleanedRegex.replace("<" + labelStr + ">", "<" + substrTrimmed + ">");
+            String label = regex.substring(labelMatcher.start() + 1, labelMatcher.end() - 1).trim();
+            if (! labelList.contains(label)) {
+                labelList.add(label);
+            }
+            slots.add(labelList.indexOf(label));
+            regexSegments.add(regex.substring(previousEnd, labelMatcher.start()));
+            previousEnd = labelMatcher.end();
         }
+        regexSegments.add(regex.substring(previousEnd));
+        labelSlots = slots.stream().mapToInt(Integer::intValue).toArray();
+
+        // compile the skeleton of the regex (every label without values), so that an invalid regex fails early
+        List<List<String>> noLabelValues = new ArrayList<>(Collections.nCopies(labelList.size(), null));
+        patternCache.put(noLabelValues, compilePattern(noLabelValues));
     }
-    
+
     /**
      * Process regex pattern
      * @param inputTuple
      * @return tuple with matching entries
      */
     public List<Span> computeMatchingResults(Tuple inputTuple) {
-        Map<String, Set<String>> labelValues = fetchLabelValues(inputTuple);
-        String regexWithVal = rewriteRegexWithLabelValues(labelValues);
-        Pattern regexPattern = predicate.isIgnoreCase() ? 
-                Pattern.compile(regexWithVal, Pattern.CASE_INSENSITIVE)
-                : Pattern.compile(regexWithVal);
-                
-        return RegexMatcher.computeMatchingResultsWithPattern(inputTuple, predicate, regexPattern);
+        List<List<String>> labelValues = fetchLabelValues(inputTuple);
+        CompiledRegex compiledRegex = patternCache.get(labelValues);
+        if (compiledRegex == null) {
+            compiledRegex = compilePattern(labelValues);
+            patternCache.put(labelValues, compiledRegex);
+        }
+        return RegexMatcher.computeMatchingResultsWithPattern(inputTuple, predicate, compiledRegex);
     }
-    
+
     /**
-     * Create Map of label id and corresponding attribute values
+     * Gets the values of each label which occur in the text of the tuple.
+     * The values of a label are null if the label doesn't have any span.
      * @param inputTuple
-     * @return map of label id and corresponding attribute values
+     * @return the list of the occurring values of each label, sorted by LABEL_VALUE_ORDER
      */
-    private Map<String, Set<String>> fetchLabelValues(Tuple inputTuple) throws DataflowException {
-        Map<String, Set<String>> labelSpanList = new HashMap<>();
-        for (String label : this.labelList) {
+    private List<List<String>> fetchLabelValues(Tuple inputTuple) throws DataflowException {
+        LabelValueTrie labelValueTrie = new LabelValueTrie(predicate.isIgnoreCase());
+        List<TreeSet<String>> occurringValues = new ArrayList<>();
+        for (int i = 0; i < labelList.size(); i++) {
+            String label = labelList.get(i);
             if (! inputTuple.getSchema().containsAttribute(label)) {
                 throw new DataflowException("label " + label + " does not exist");
             }
             ListField<Span> spanListField = inputTuple.getField(label);
-            Set<String> labelValues = spanListField.getValue().stream()
-                    .map(span -> span.getValue())
-                    .map(value -> escapeString(value))
-                    .collect(Collectors.toSet());
-            labelSpanList.put(label, labelValues);
+            if (spanListField.getValue().isEmpty()) {
+                occurringValues.add(null);
+                continue;
+            }
+            TreeSet<String> values = new TreeSet<>(LABEL_VALUE_ORDER);
+            occurringValues.add(values);
+            for (Span span : spanListField.getValue()) {
+                if (span.getValue() != null) {
+                    labelValueTrie.add(span.getValue(), values);
+                }
+            }
+        }
+
+        if (! labelValueTrie.isEmpty()) {
+            for (String attributeName : predicate.getAttributeNames()) {
+                labelValueTrie.scan(inputTuple.getField(attributeName).getValue().toString());
+            }
         }
-        return labelSpanList;
+
+        return occurringValues.stream()
+                .map(values -> values == null ? null : new ArrayList<>(values))
+                .collect(Collectors.toList());
     }
-    
-    /*
-     * Try to escape all special characters in a string
-     *   by escape all non-letter and non-digit character.
-     * 
-     * If the character is not a special character in regex,
-     *   then escaping it will still be itself.
+
+    /**
+     * Replace labels with the alternation of the values in labeled regex.
+     * A label without any span is replaced by an empty group,
+     *   and a label whose values don't occur is replaced by a group which never matches.
+     * The labels are replaced by groups in both cases, so that the group numbers in the regex stay the same.
+     * @param labelValues
+     * @return the compiled regex with actual span values
      */
-    private static String escapeString(String str) {
-        return str.chars()
-            .mapToObj(ch -> (Character.isLetterOrDigit(ch) ? "" : "\\") + String.valueOf((char) ch))
-            .collect(Collectors.joining());
+    private CompiledRegex compilePattern(List<List<String>> labelValues) {
+        StringBuilder regexWithValues = new StringBuilder(regexSegments.get(0));
+        for (int i = 0; i < labelSlots.length; i++) {
+            List<String> values = labelValues.get(labelSlots[i]);
+            regexWithValues.append('(');
+            if (values != null && values.isEmpty()) {
+                // an empty character class, which is supported by both java.util.regex and RE2J
+                regexWithValues.append("[^\\s\\S]");
+            } else if (values != null) {
+                regexWithValues.append(values.stream().map(Pattern::quote).collect(Collectors.joining("|")));
+            }
+            regexWithValues.append(')');
+            regexWithValues.append(regexSegments.get(i + 1));
+        }
+        return CompiledRegex.compile(regexWithValues.toString(), predicate.isIgnoreCase(), predicate.getRegexEngine());
     }
-    
-    /**
-     * Replace labels with actual values in labeled regex
-     * @param cleanedRegex
-     * @param labelValueList
-     * @return regex with actual span values
+
+    /*
+     * A trie of the label values of one tuple, which finds the values occurring in a text in one pass.
+     *
+     * If the case is ignored, all the letters are compared in lower case, as RE2J does.
+     * java regex only ignores the case of ASCII letters, so a few more values may be found than it can match,
+     *   which is harmless because they are only alternatives in the regex.
      */
-    private String rewriteRegexWithLabelValues(Map<String, Set<String>> labelValues) {
-        String regexWithValue = cleanedRegex;
-        for(Map.Entry<String, Set<String>> entry : labelValues.entrySet()){
-            String repVal = "(" + entry.getValue().stream().collect(Collectors.joining("|")) + ")";
-            regexWithValue = regexWithValue.replaceAll("<"+entry.getKey()+">", repVal);
+    private static class LabelValueTrie {
+
+        private static class Node {
+            private final Map<Character, Node> children = new HashMap<>();
+            // the value ending at this node, and the sets of values of the labels it belongs to (null if it's found)
+            private String value;
+            private List<TreeSet<String>> labelValueSets;
+        }
+
+        private final boolean ignoreCase;
+        private final Node root = new Node();
+        private int remainingValueCount = 0;
+
+        public LabelValueTrie(boolean ignoreCase) {
+            this.ignoreCase = ignoreCase;
+        }
+
+        public boolean isEmpty() {
+            return remainingValueCount == 0;
+        }
+
+        public void add(String value, TreeSet<String> labelValueSet) {
+            // the empty value occurs in every text
+            if (value.isEmpty()) {
+                labelValueSet.add(value);
+                return;
+            }
+            Node node = root;
+            for (int i = 0; i < value.length(); i++) {
+                node = node.children.computeIfAbsent(foldCase(value.charAt(i)), key -> new Node());
+            }
+            if (node.labelValueSets == null) {
+                node.value = value;
+                node.labelValueSets = new ArrayList<>();
+                remainingValueCount++;
+            }
+            // the sets are compared by reference, because the sets of different labels can be equal
+            if (node.labelValueSets.stream().noneMatch(set -> set == labelValueSet)) {
+                node.labelValueSets.add(labelValueSet);
+            }
+        }
+
+        /*
+         * Adds the values occurring in the text to the sets of values of their labels.
+         */
+        public void scan(String text) {
+            for (int start = 0; start < text.length() && remainingValueCount > 0; start++) {
+                Node node = root;
+                for (int i = start; i < text.length(); i++) {
+                    node = node.children.get(foldCase(text.charAt(i)));
+                    if (node == null) {
+                        break;
+                    }
+                    if (node.labelValueSets != null) {
+                        found(node);
+                    }
+                }
+            }
+        }
+
+        private void found(Node node) {
+            for (TreeSet<String> labelValueSet : node.labelValueSets) {
+                labelValueSet.add(node.value);
+            }
+            // a value is reported once
+            node.labelValueSets = null;
+            remainingValueCount--;
+        }
+
+        private char foldCase(char ch) {
+            return ignoreCase ? Character.toLowerCase(Character.toUpperCase(ch)) : ch;
         }
-        return regexWithValue;
     }
 
 }
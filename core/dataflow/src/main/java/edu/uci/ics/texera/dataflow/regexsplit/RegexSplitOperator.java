@@ -14,13 +14,12 @@ import edu.uci.ics.texera.api.tuple.Tuple;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.dataflow.ISourceOperator;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+import edu.uci.ics.texera.dataflow.regexmatcher.CompiledRegex;
 
 /**
  * @author Qinhua Huang
@@ -48,6 +47,7 @@ import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
 public class RegexSplitOperator extends AbstractSingleInputOperator implements ISourceOperator{
 
     private RegexSplitPredicate predicate;
+    private CompiledRegex compiledRegex;
     Tuple currentTuple;
     
     private List<Span> currentSentenceList = new ArrayList<Span>();
@@ -75,6 +75,7 @@ public class RegexSplitOperator extends AbstractSingleInputOperator implements I
                     inputAttributeType));
         }
         
+        this.compiledRegex = CompiledRegex.compile(predicate.getRegex(), false, predicate.getRegexEngine());
 
     }
 
@@ -122,45 +123,41 @@ public class RegexSplitOperator extends AbstractSingleInputOperator implements I
         
         String attributeName = predicate.getInputAttributeName();
         
-        //Create a pattern using regex.
-        Pattern pattern = Pattern.compile(predicate.getRegex());
-        
         // Match the pattern in the text.
-        Matcher regexMatcher = pattern.matcher(inputText);
         List<Integer> splitIndex = new ArrayList<Integer>();
         splitIndex.add(0);
-        int endSplit;
-        int startSplit;
-        while(regexMatcher.find()) {
+        compiledRegex.findMatches(inputText, (matchStart, matchEnd) -> {
+            int endSplit;
+            int startSplit;
             if (predicate.getSplitType() == RegexSplitPredicate.SplitType.GROUP_RIGHT) {
-                endSplit = regexMatcher.start();
+                endSplit = matchStart;
                 startSplit = endSplit;
                 if (startSplit != 0) {
                     splitIndex.add(endSplit);
                     splitIndex.add(startSplit);
                 }
             } else if (predicate.getSplitType() == RegexSplitPredicate.SplitType.GROUP_LEFT) {
-                endSplit = regexMatcher.end();
+                endSplit = matchEnd;
                 startSplit = endSplit;
                 
                 splitIndex.add(endSplit);
                 splitIndex.add(startSplit);
                 
             } else if (predicate.getSplitType() == RegexSplitPredicate.SplitType.STANDALONE) {
-                endSplit = regexMatcher.start();
+                endSplit = matchStart;
                 startSplit = endSplit;
                 if (endSplit != 0) {
                     splitIndex.add(endSplit);
                     splitIndex.add(startSplit);
                 }
                 
-                endSplit = regexMatcher.end();
+                endSplit = matchEnd;
                 startSplit = endSplit;
                 if (endSplit < inputText.length() ) {
                     splitIndex.add(endSplit); splitIndex.add(startSplit);
                 }
             }
-        }
+        });
         splitIndex.add(inputText.length());
         
         //Make span list
@@ -7,9 +7,11 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.google.common.collect.ImmutableMap;
 
+import edu.uci.ics.texera.dataflow.annotation.AdvancedOption;
 import edu.uci.ics.texera.dataflow.common.OperatorGroupConstants;
 import edu.uci.ics.texera.dataflow.common.PredicateBase;
 import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexEngine;
 
 /**
  * @author Qinhua Huang
@@ -43,6 +45,19 @@ public class RegexSplitPredicate extends PredicateBase {
 
     private final SplitType splitType;
     private final RegexOutputType outputType;
+    private final RegexEngine regexEngine;
+    
+    /*
+     * This constructor is for internal use. It's not a JSON entry point.
+     */
+    public RegexSplitPredicate(
+            String splitRegex,
+            String splitAttribute,
+            RegexOutputType outputType,
+            SplitType splitType,
+            String resultAttributeName) {
+        this(splitRegex, splitAttribute, outputType, splitType, resultAttributeName, null);
+    }
     
     /**
      * Construct a RegexSplitPredicate.
@@ -50,6 +65,7 @@ public class RegexSplitPredicate extends PredicateBase {
      * @param regex, the regex query
      * @param attributeToSplit, the attribute name to perform split operation on
      * @param splitType, a type to indicate where the regex pattern merge into. 
+     * @param regexEngine, optional, the engine used to match the split regex (see {@link RegexEngine}), default JAVA
      */
     @JsonCreator
     public RegexSplitPredicate(
@@ -67,7 +83,12 @@ public class RegexSplitPredicate extends PredicateBase {
             SplitType splitType,
             
             @JsonProperty(value = PropertyNameConstants.RESULT_ATTRIBUTE_NAME, required = true)
-            String resultAttributeName) {
+            String resultAttributeName,
+            
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.REGEX_ENGINE, required = false,
+                    defaultValue = RegexEngine.RegexEngineName.JAVA)
+            RegexEngine regexEngine) {
         
         this.outputType = outputType;
         this.splitRegex = splitRegex;
@@ -75,6 +96,11 @@ public class RegexSplitPredicate extends PredicateBase {
         
         this.splitType = splitType;
         this.resultAttributeName = resultAttributeName;
+        if (regexEngine == null) {
+            this.regexEngine = RegexEngine.JAVA;
+        } else {
+            this.regexEngine = regexEngine;
+        }
     }
     @JsonProperty(PropertyNameConstants.REGEX_OUTPUT_TYPE)
     public RegexOutputType getOutputType() {
@@ -101,6 +127,11 @@ public class RegexSplitPredicate extends PredicateBase {
         return this.resultAttributeName;
     }
     
+    @JsonProperty(PropertyNameConstants.REGEX_ENGINE)
+    public RegexEngine getRegexEngine() {
+        return this.regexEngine;
+    }
+    
     @Override
     public RegexSplitOperator newOperator() {
         return new RegexSplitOperator(this);
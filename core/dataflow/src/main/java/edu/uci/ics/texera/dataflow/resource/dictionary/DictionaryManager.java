@@ -1,20 +1,41 @@
 package edu.uci.ics.texera.dataflow.resource.dictionary;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.TermQuery;
 
+import com.google.common.hash.Hashing;
+
 import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.field.StringField;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.CompiledDictionary;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.Dictionary;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.FSTDictionary;
+import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordMatchingType;
 import edu.uci.ics.texera.storage.DataReader;
 import edu.uci.ics.texera.storage.DataWriter;
 import edu.uci.ics.texera.storage.RelationManager;
@@ -26,6 +47,26 @@ public class DictionaryManager {
     private static DictionaryManager instance = null;
     private RelationManager relationManager = null;
 
+    /*
+     * The cache of the compiled dictionaries, in the least recently used order.
+     * The key contains the version of the dictionary (the hash of its content),
+     *   and the cached dictionaries of a name are removed when the dictionary is overwritten by addDictionary.
+     */
+    private final LinkedHashMap<CompiledDictionaryKey, CompiledDictionary> compiledDictionaryCache =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private long compiledDictionaryCacheBytes = 0;
+    private long compiledDictionaryCacheMaxBytes = DictionaryManagerConstants.COMPILED_DICTIONARY_CACHE_MAX_BYTES;
+    private boolean persistCompiledDictionaries = false;
+    // the dictionaries being compiled, the other callers asking for the same key wait for the same compilation
+    private final Map<CompiledDictionaryKey, CompletableFuture<CompiledDictionary>> pendingCompilations = new HashMap<>();
+    
+    // the versions of the dictionaries, computed from their files when they are first used
+    private final Map<String, String> dictionaryVersions = new HashMap<>();
+    
+    // the opened FST dictionaries and the versions of the dictionaries they are opened for
+    private final Map<String, FSTDictionary> fstDictionaries = new HashMap<>();
+    private final Map<String, String> fstDictionaryVersions = new HashMap<>();
+
     private DictionaryManager() throws StorageException {
         relationManager = RelationManager.getInstance();
     }
@@ -68,6 +109,9 @@ public class DictionaryManager {
     public void destroyDictionaryManager() throws TexeraException {
         relationManager.deleteTable(DictionaryManagerConstants.TABLE_NAME);
         StorageUtils.deleteDirectory(DictionaryManagerConstants.DICTIONARY_DIR);
+        clearCompiledDictionaryCache();
+        StorageUtils.deleteDirectory(DictionaryManagerConstants.COMPILED_DICTIONARY_DIR);
+        StorageUtils.deleteDirectory(DictionaryManagerConstants.FST_DICTIONARY_DIR);
     }
     
     public List<String> addDictionary(String fileName, String dictionaryContent) throws StorageException {
@@ -86,6 +130,12 @@ public class DictionaryManager {
         // write actual dictionary file
         writeToFile(fileName, dictionaryContent);
         
+        // the compiled versions of the old dictionary are stale
+        invalidateCompiledDictionary(fileName);
+        
+        // the FST is written once at upload time, so that it's only read when the dictionary is matched
+        writeFSTDictionary(fileName);
+        
         return null;
     }
     
@@ -139,4 +189,349 @@ public class DictionaryManager {
         }
     }
     
+    /**
+     * Gets the entries of a stored dictionary, the same as the entries of
+     *   a Dictionary created from the comma separated content returned by {@link #getDictionary(String)}.
+     *
+     * @param dictionaryName
+     * @return
+     * @throws StorageException
+     */
+    public List<String> getDictionaryEntries(String dictionaryName) throws StorageException {
+        return new Dictionary(Arrays.asList(getDictionary(dictionaryName).split(","))).getDictionaryEntries();
+    }
+    
+    /**
+     * Gets the compiled dictionary of a stored dictionary for the analyzer and the matching type.
+     * 
+     * The compiled dictionary is taken from the cache if the dictionary hasn't changed since it was compiled,
+     *   otherwise it's read from disk (if persisting is enabled), or compiled and added to the cache.
+     * The least recently used compiled dictionaries are evicted to keep the (approximate) memory used by the cache
+     *   under {@link #setCompiledDictionaryCacheMaxBytes(long)}.
+     * 
+     * A dictionary is compiled outside the lock of the manager, so that a long compilation 
+     *   doesn't block the other dictionaries. The callers asking for a dictionary being compiled wait for it.
+     *
+     * @param dictionaryName
+     * @param luceneAnalyzerString
+     * @param keywordMatchingType
+     * @return
+     * @throws StorageException
+     */
+    public CompiledDictionary getCompiledDictionary(String dictionaryName, String luceneAnalyzerString,
+            KeywordMatchingType keywordMatchingType) throws StorageException {
+        CompiledDictionaryKey key = new CompiledDictionaryKey(dictionaryName, luceneAnalyzerString, keywordMatchingType,
+                getDictionaryVersion(dictionaryName));
+        
+        CompletableFuture<CompiledDictionary> compilation;
+        boolean compiledByOtherCaller;
+        boolean persist;
+        synchronized (this) {
+            CompiledDictionary compiledDictionary = compiledDictionaryCache.get(key);
+            if (compiledDictionary != null) {
+                return compiledDictionary;
+            }
+            compilation = pendingCompilations.get(key);
+            compiledByOtherCaller = compilation != null;
+            if (! compiledByOtherCaller) {
+                compilation = new CompletableFuture<>();
+                pendingCompilations.put(key, compilation);
+            }
+            persist = persistCompiledDictionaries;
+        }
+        if (compiledByOtherCaller) {
+            return awaitCompilation(compilation);
+        }
+        
+        try {
+            CompiledDictionary compiledDictionary = null;
+            boolean compiled = false;
+            if (persist) {
+                compiledDictionary = readCompiledDictionary(key);
+            }
+            if (compiledDictionary == null) {
+                compiledDictionary = CompiledDictionary.compile(getDictionaryEntries(dictionaryName), 
+                        luceneAnalyzerString, keywordMatchingType);
+                compiled = true;
+            }
+            
+            boolean current;
+            synchronized (this) {
+                // the compilation is neither cached nor persisted if the dictionary is invalidated in the meantime
+                current = pendingCompilations.remove(key, compilation);
+                if (current) {
+                    addToCompiledDictionaryCache(key, compiledDictionary);
+                }
+            }
+            compilation.complete(compiledDictionary);
+            if (persist && compiled && current) {
+                writeCompiledDictionary(key, compiledDictionary);
+            }
+            return compiledDictionary;
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingCompilations.remove(key, compilation);
+            }
+            compilation.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    /*
+     * Waits for a compilation started by another caller, it must be called outside the lock of the manager.
+     */
+    private static CompiledDictionary awaitCompilation(CompletableFuture<CompiledDictionary> compilation)
+            throws StorageException {
+        try {
+            return compilation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new StorageException(e.getCause());
+        }
+    }
+    
+    /**
+     * Gets the FST of a stored dictionary, to match a very large dictionary with a small heap footprint.
+     * 
+     * The FST is written when the dictionary is uploaded, it's written again here 
+     *   if it's missing for the version of the dictionary (for example, the dictionary was uploaded by an older version).
+     *
+     * @param dictionaryName
+     * @return
+     * @throws StorageException
+     */
+    public synchronized FSTDictionary getFSTDictionary(String dictionaryName) throws StorageException {
+        String version = getDictionaryVersion(dictionaryName);
+        FSTDictionary fstDictionary = fstDictionaries.get(dictionaryName);
+        if (fstDictionary != null && version.equals(fstDictionaryVersions.get(dictionaryName))) {
+            return fstDictionary;
+        }
+        
+        Path fstPath = getFSTDictionaryPath(dictionaryName, version);
+        if (! Files.exists(fstPath)) {
+            writeFSTDictionary(dictionaryName);
+        }
+        
+        fstDictionary = FSTDictionary.open(fstPath);
+        fstDictionaries.put(dictionaryName, fstDictionary);
+        fstDictionaryVersions.put(dictionaryName, version);
+        return fstDictionary;
+    }
+    
+    private void writeFSTDictionary(String dictionaryName) throws StorageException {
+        String version = getDictionaryVersion(dictionaryName);
+        Path fstPath = getFSTDictionaryPath(dictionaryName, version);
+        deleteOtherVersions(fstPath.getParent(), version);
+        FSTDictionary.write(getDictionaryEntries(dictionaryName), fstPath);
+    }
+    
+    /*
+     * The FSTs of a dictionary are in one directory, the file name is the version of the dictionary.
+     */
+    private static Path getFSTDictionaryPath(String dictionaryName, String version) throws StorageException {
+        return DictionaryManagerConstants.FST_DICTIONARY_DIR_PATH.resolve(encodeFileName(dictionaryName))
+                .resolve(version + ".fst");
+    }
+    
+    /**
+     * Removes all the compiled versions of a dictionary, from the cache and from disk.
+     *
+     * @param dictionaryName
+     * @throws StorageException
+     */
+    public synchronized void invalidateCompiledDictionary(String dictionaryName) throws StorageException {
+        Iterator<Map.Entry<CompiledDictionaryKey, CompiledDictionary>> iterator = compiledDictionaryCache.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CompiledDictionaryKey, CompiledDictionary> cacheEntry = iterator.next();
+            if (cacheEntry.getKey().dictionaryName.equals(dictionaryName)) {
+                compiledDictionaryCacheBytes -= cacheEntry.getValue().getMemoryUsageBytes();
+                iterator.remove();
+            }
+        }
+        pendingCompilations.keySet().removeIf(key -> key.dictionaryName.equals(dictionaryName));
+        StorageUtils.deleteDirectory(getCompiledDictionaryDirectory(dictionaryName).toString());
+        fstDictionaries.remove(dictionaryName);
+        fstDictionaryVersions.remove(dictionaryName);
+        dictionaryVersions.remove(dictionaryName);
+    }
+    
+    public synchronized void clearCompiledDictionaryCache() {
+        compiledDictionaryCache.clear();
+        compiledDictionaryCacheBytes = 0;
+        pendingCompilations.clear();
+    }
+    
+    public synchronized int getCompiledDictionaryCacheSize() {
+        return compiledDictionaryCache.size();
+    }
+    
+    public synchronized long getCompiledDictionaryCacheBytes() {
+        return compiledDictionaryCacheBytes;
+    }
+    
+    public synchronized void setCompiledDictionaryCacheMaxBytes(long compiledDictionaryCacheMaxBytes) {
+        this.compiledDictionaryCacheMaxBytes = compiledDictionaryCacheMaxBytes;
+        evictCompiledDictionaries();
+    }
+    
+    /**
+     * Enables or disables persisting the compiled dictionaries to disk, 
+     *   so that they don't need to be compiled again after a restart. It's disabled by default.
+     *
+     * @param persistCompiledDictionaries
+     */
+    public synchronized void setPersistCompiledDictionaries(boolean persistCompiledDictionaries) {
+        this.persistCompiledDictionaries = persistCompiledDictionaries;
+    }
+    
+    private void addToCompiledDictionaryCache(CompiledDictionaryKey key, CompiledDictionary compiledDictionary) {
+        long bytes = compiledDictionary.getMemoryUsageBytes();
+        // a dictionary larger than the whole cache is not cached
+        if (bytes > compiledDictionaryCacheMaxBytes) {
+            return;
+        }
+        CompiledDictionary previous = compiledDictionaryCache.put(key, compiledDictionary);
+        if (previous != null) {
+            compiledDictionaryCacheBytes -= previous.getMemoryUsageBytes();
+        }
+        compiledDictionaryCacheBytes += bytes;
+        evictCompiledDictionaries();
+    }
+    
+    private void evictCompiledDictionaries() {
+        Iterator<CompiledDictionary> iterator = compiledDictionaryCache.values().iterator();
+        while (compiledDictionaryCacheBytes > compiledDictionaryCacheMaxBytes && iterator.hasNext()) {
+            compiledDictionaryCacheBytes -= iterator.next().getMemoryUsageBytes();
+            iterator.remove();
+        }
+    }
+    
+    /*
+     * The version of a dictionary is the SHA-256 hash of its file, 
+     *   so that it changes whenever the content changes, and it stays the same after a restart.
+     * It's computed once, and removed by invalidateCompiledDictionary when the dictionary is overwritten.
+     */
+    private synchronized String getDictionaryVersion(String dictionaryName) throws StorageException {
+        String version = dictionaryVersions.get(dictionaryName);
+        if (version == null) {
+            try {
+                version = Hashing.sha256().hashBytes(
+                        Files.readAllBytes(DictionaryManagerConstants.DICTIONARY_DIR_PATH.resolve(dictionaryName))).toString();
+            } catch (IOException e) {
+                throw new StorageException("Dictionary " + dictionaryName + " does not exist", e);
+            }
+            dictionaryVersions.put(dictionaryName, version);
+        }
+        return version;
+    }
+    
+    private static Path getCompiledDictionaryDirectory(String dictionaryName) throws StorageException {
+        return DictionaryManagerConstants.COMPILED_DICTIONARY_DIR_PATH.resolve(encodeFileName(dictionaryName));
+    }
+    
+    /*
+     * The compiled dictionaries of a dictionary are in one directory, 
+     *   the file name starts with the version, so that the files of the other versions can be removed.
+     */
+    private static Path getCompiledDictionaryPath(CompiledDictionaryKey key) throws StorageException {
+        return getCompiledDictionaryDirectory(key.dictionaryName).resolve(key.version + "-" 
+                + key.keywordMatchingType.name() + "-" + encodeFileName(key.luceneAnalyzerString) + ".ser");
+    }
+    
+    private static String encodeFileName(String name) throws StorageException {
+        try {
+            return URLEncoder.encode(name, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new StorageException(e);
+        }
+    }
+    
+    /*
+     * Reads a persisted compiled dictionary, returns null if it doesn't exist or it can't be read,
+     *   an unreadable file (for example, written by an incompatible version) is deleted.
+     */
+    private static CompiledDictionary readCompiledDictionary(CompiledDictionaryKey key) throws StorageException {
+        Path path = getCompiledDictionaryPath(key);
+        if (! Files.exists(path)) {
+            return null;
+        }
+        try (InputStream inputStream = Files.newInputStream(path);
+                ObjectInputStream objectInputStream = new ObjectInputStream(inputStream)) {
+            return (CompiledDictionary) objectInputStream.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException deleteException) {
+                throw new StorageException(deleteException);
+            }
+            return null;
+        }
+    }
+    
+    private static void writeCompiledDictionary(CompiledDictionaryKey key, CompiledDictionary compiledDictionary) 
+            throws StorageException {
+        Path path = getCompiledDictionaryPath(key);
+        deleteOtherVersions(path.getParent(), key.version);
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(path);
+                    ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+                objectOutputStream.writeObject(compiledDictionary);
+            }
+        } catch (IOException e) {
+            throw new StorageException("Error occurred while persisting compiled dictionary " + key.dictionaryName, e);
+        }
+    }
+    
+    /*
+     * Creates the directory of the files of a dictionary (named by its version),
+     *   and removes the files of the other versions in it.
+     */
+    private static void deleteOtherVersions(Path directory, String version) throws StorageException {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+                for (Path file : directoryStream) {
+                    if (! file.getFileName().toString().startsWith(version)) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+    
+    private static class CompiledDictionaryKey {
+        private final String dictionaryName;
+        private final String luceneAnalyzerString;
+        private final KeywordMatchingType keywordMatchingType;
+        private final String version;
+        
+        private CompiledDictionaryKey(String dictionaryName, String luceneAnalyzerString,
+                KeywordMatchingType keywordMatchingType, String version) {
+            this.dictionaryName = dictionaryName;
+            this.luceneAnalyzerString = luceneAnalyzerString;
+            this.keywordMatchingType = keywordMatchingType;
+            this.version = version;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(dictionaryName, luceneAnalyzerString, keywordMatchingType, version);
+        }
+        
+        @Override
+        public boolean equals(Object that) {
+            if (this == that) return true;
+            if (! (that instanceof CompiledDictionaryKey)) return false;
+            CompiledDictionaryKey key = (CompiledDictionaryKey) that;
+            return dictionaryName.equals(key.dictionaryName) 
+                    && Objects.equals(luceneAnalyzerString, key.luceneAnalyzerString)
+                    && keywordMatchingType == key.keywordMatchingType 
+                    && version.equals(key.version);
+        }
+    }
+    
 }
@@ -16,6 +16,17 @@ public class DictionaryManagerConstants {
     public static final Path DICTIONARY_DIR_PATH = Utils.getTexeraHomePath().resolve("user-resources").resolve("dictionaries");
     public static final String DICTIONARY_DIR = DICTIONARY_DIR_PATH.toString();
 
+    // the compiled dictionaries persisted to disk, if it's enabled in DictionaryManager
+    public static final Path COMPILED_DICTIONARY_DIR_PATH = Utils.getTexeraHomePath().resolve("user-resources").resolve("compiled-dictionaries");
+    public static final String COMPILED_DICTIONARY_DIR = COMPILED_DICTIONARY_DIR_PATH.toString();
+
+    // the FST files of the dictionaries, written when a dictionary is uploaded
+    public static final Path FST_DICTIONARY_DIR_PATH = Utils.getTexeraHomePath().resolve("user-resources").resolve("dictionary-fsts");
+    public static final String FST_DICTIONARY_DIR = FST_DICTIONARY_DIR_PATH.toString();
+
+    // the default bound of the (approximate) memory used by the compiled dictionary cache
+    public static final long COMPILED_DICTIONARY_CACHE_MAX_BYTES = 256L * 1024 * 1024;
+
     public static final String NAME = "name";
     public static final Attribute NAME_ATTR = new Attribute(NAME, AttributeType.STRING);
     
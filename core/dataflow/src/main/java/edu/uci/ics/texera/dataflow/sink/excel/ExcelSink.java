@@ -50,6 +50,7 @@ public class ExcelSink implements ISink {
     private FileOutputStream fileOut;
     private Sheet sheet;
     private int cursor = CLOSED;
+    private boolean inputOperatorClosed = false;
     
     private Path excelIndexDirectory = Utils.getDefaultIndexDirectory().resolve("excel");
     private String fileName;
@@ -78,6 +79,7 @@ public class ExcelSink implements ISink {
             return;
         }
         inputOperator.open();
+        inputOperatorClosed = false;
         inputSchema = inputOperator.getOutputSchema();
         outputSchema = new Schema(inputSchema.getAttributes().stream()
                 .filter(attr -> ! attr.getName().equalsIgnoreCase(SchemaConstants._ID))
@@ -135,6 +137,7 @@ public class ExcelSink implements ISink {
                 break;
             }
         }
+        closeInputIfLimitReached();
         
         Tuple resultTuple = new Tuple.Builder(inputTuple).removeIfExists(SchemaConstants._ID, SchemaConstants.PAYLOAD).build();
         	Row row = sheet.createRow(cursor-predicate.getOffset());
@@ -146,12 +149,26 @@ public class ExcelSink implements ISink {
         return resultTuple;
     }
 
+    /*
+     * Closes the input operator as soon as the limit is reached,
+     *   so that the upstream operators stop and release their resources before close() is called.
+     */
+    private void closeInputIfLimitReached() throws TexeraException {
+        // use long to avoid overflow when limit is Integer.MAX_VALUE
+        if (! inputOperatorClosed && cursor >= (long) predicate.getLimit() + predicate.getOffset()) {
+            inputOperator.close();
+            inputOperatorClosed = true;
+        }
+    }
+
     @Override
     public void close() throws TexeraException {
         if (cursor == CLOSED) {
             return;
         }
-    	inputOperator.close();
+        if (! inputOperatorClosed) {
+            inputOperator.close();
+        }
         try {
             wb.write(fileOut);
 			fileOut.close();
@@ -29,6 +29,7 @@ public class MysqlSink implements ISink {
     private final MysqlSinkPredicate predicate;
     private IOperator inputOperator;
     private int cursor = CLOSED;
+    private boolean inputOperatorClosed = false;
     private Schema outputSchema;
     private Connection connection;
     private Statement statement;
@@ -58,6 +59,7 @@ public class MysqlSink implements ISink {
             return;
         }
         inputOperator.open();
+        inputOperatorClosed = false;
         Schema inputSchema = inputOperator.getOutputSchema();
         outputSchema = new Schema(inputSchema.getAttributes().stream()
                 .filter(attr -> !attr.getName().equalsIgnoreCase(SchemaConstants._ID))
@@ -97,11 +99,24 @@ public class MysqlSink implements ISink {
                 break;
             }
         }
+        closeInputIfLimitReached();
         Tuple resultTuple = new Tuple.Builder(inputTuple).removeIfExists(SchemaConstants._ID, SchemaConstants.PAYLOAD).build();
 
         return resultTuple;
     }
 
+    /*
+     * Closes the input operator as soon as the limit is reached,
+     *   so that the upstream operators stop and release their resources before close() is called.
+     */
+    private void closeInputIfLimitReached() throws TexeraException {
+        // use long to avoid overflow when limit is Integer.MAX_VALUE
+        if (! inputOperatorClosed && cursor >= (long) predicate.getLimit() + predicate.getOffset()) {
+            inputOperator.close();
+            inputOperatorClosed = true;
+        }
+    }
+
     /**
      * Insert tuples into mysql database using prepared statement. No output
      */
@@ -133,7 +148,9 @@ public class MysqlSink implements ISink {
         if (cursor == CLOSED) {
             return;
         }
-        inputOperator.close();
+        if (! inputOperatorClosed) {
+            inputOperator.close();
+        }
         try {
             if (statement != null)
                 statement.close();
@@ -9,8 +9,10 @@ import edu.uci.ics.texera.api.dataflow.IOperator;
 import edu.uci.ics.texera.api.dataflow.ISink;
 import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.field.IField;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
 import edu.uci.ics.texera.dataflow.source.asterix.AsterixSource;
 
 /**
@@ -29,6 +31,17 @@ public class TupleSink implements ISink {
     private Schema outputSchema;
     
     private int cursor = CLOSED;
+    
+    private boolean inputOperatorClosed = false;
+    
+    // reusable batch used to pull tuples from the input operator in getNextBatch()
+    private TupleBatch inputBatch;
+    
+    // the schema of the last input tuple, and the indexes of its fields which are kept in the result tuple,
+    //   so that the result schema is derived once instead of once per tuple
+    private Schema lastTupleSchema;
+    private Schema lastResultSchema;
+    private int[] resultFieldIndexes;
 
     /**
      * TupleStreamSink is a sink that can be used to
@@ -71,6 +84,7 @@ public class TupleSink implements ISink {
             throw new TexeraException(ErrorMessages.INPUT_OPERATOR_NOT_SPECIFIED);
         }
         inputOperator.open();
+        inputOperatorClosed = false;
         inputSchema = inputOperator.getOutputSchema();
         outputSchema = new Schema.Builder(inputSchema)
                 .removeIfExists(SchemaConstants.PAYLOAD, AsterixSource.RAW_DATA).build();
@@ -101,17 +115,82 @@ public class TupleSink implements ISink {
                 break;
             }
         }
-        return new Tuple.Builder(resultTuple)
-                .removeIfExists(SchemaConstants.PAYLOAD, AsterixSource.RAW_DATA).build();
+        closeInputIfLimitReached();
+        return removePayload(resultTuple);
 
     }
 
+    /**
+     * Gets the next batch of result tuples, with the payload attribute removed.
+     * The input tuples are pulled in batches as well.
+     */
     @Override
-    public void close() throws TexeraException {
+    public boolean getNextBatch(TupleBatch batch) throws TexeraException {
+        batch.clear();
         if (cursor == CLOSED) {
+            return false;
+        }
+        if (inputBatch == null || inputBatch.capacity() != batch.capacity()) {
+            inputBatch = new TupleBatch(batch.capacity());
         }
-        if (inputOperator != null) {
+        // use long to avoid overflow when limit is Integer.MAX_VALUE
+        long end = (long) predicate.getLimit() + predicate.getOffset();
+        while (batch.isEmpty() && cursor < end) {
+            if (! inputOperator.getNextBatch(inputBatch)) {
+                break;
+            }
+            for (int i = 0; i < inputBatch.size() && cursor < end; i++) {
+                cursor++;
+                if (cursor > predicate.getOffset()) {
+                    batch.add(removePayload(inputBatch.get(i)));
+                }
+            }
+        }
+        closeInputIfLimitReached();
+        return ! batch.isEmpty();
+    }
+
+    /*
+     * Removes the payload (and the raw data) attribute from the tuple.
+     */
+    private Tuple removePayload(Tuple tuple) {
+        if (tuple.getSchema() != lastTupleSchema) {
+            lastTupleSchema = tuple.getSchema();
+            lastResultSchema = new Schema.Builder(lastTupleSchema)
+                    .removeIfExists(SchemaConstants.PAYLOAD, AsterixSource.RAW_DATA).build();
+            resultFieldIndexes = lastResultSchema.getAttributes().stream()
+                    .mapToInt(attr -> lastTupleSchema.getIndex(attr.getName())).toArray();
+        }
+        if (resultFieldIndexes.length == tuple.getFields().size()) {
+            return tuple;
+        }
+        IField[] resultFields = new IField[resultFieldIndexes.length];
+        for (int i = 0; i < resultFieldIndexes.length; i++) {
+            resultFields[i] = tuple.getField(resultFieldIndexes[i]);
+        }
+        return new Tuple(lastResultSchema, resultFields);
+    }
+
+    /*
+     * Closes the input operator as soon as the limit is reached,
+     *   so that the upstream operators stop and release their resources before close() is called.
+     */
+    private void closeInputIfLimitReached() throws TexeraException {
+        // use long to avoid overflow when limit is Integer.MAX_VALUE
+        if (! inputOperatorClosed && cursor >= (long) predicate.getLimit() + predicate.getOffset()) {
+            inputOperator.close();
+            inputOperatorClosed = true;
+        }
+    }
+
+    @Override
+    public void close() throws TexeraException {
+        if (inputOperator != null && ! inputOperatorClosed) {
             inputOperator.close();
+            inputOperatorClosed = true;
+        }
+        if (inputBatch != null) {
+            inputBatch.clear();
         }
         cursor = CLOSED;
     }
@@ -125,9 +204,11 @@ public class TupleSink implements ISink {
     public List<Tuple> collectAllTuples() throws TexeraException {
         this.open();
         ArrayList<Tuple> results = new ArrayList<>();
-        Tuple tuple;
-        while ((tuple = this.getNextTuple()) != null) {
-            results.add(tuple);
+        TupleBatch batch = new TupleBatch();
+        while (this.getNextBatch(batch)) {
+            for (int i = 0; i < batch.size(); i++) {
+                results.add(batch.get(i));
+            }
         }
         this.close();
         return results;
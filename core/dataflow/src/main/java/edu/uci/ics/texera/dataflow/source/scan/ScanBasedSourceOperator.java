@@ -1,90 +1,141 @@
-package edu.uci.ics.texera.dataflow.source.scan;
-
-import edu.uci.ics.texera.api.exception.DataflowException;
-import edu.uci.ics.texera.api.exception.StorageException;
-import edu.uci.ics.texera.api.exception.TexeraException;
-import edu.uci.ics.texera.api.schema.Schema;
-import edu.uci.ics.texera.api.tuple.Tuple;
-
-import org.apache.lucene.search.MatchAllDocsQuery;
-
-import edu.uci.ics.texera.api.constants.ErrorMessages;
-import edu.uci.ics.texera.api.dataflow.ISourceOperator;
-import edu.uci.ics.texera.storage.DataReader;
-import edu.uci.ics.texera.storage.RelationManager;
-
-/**
- * Created by chenli on 3/28/16.
- */
-public class ScanBasedSourceOperator implements ISourceOperator {
-
-    private DataReader dataReader;
-    
-    private boolean isOpen = false;
-
-    public ScanBasedSourceOperator(ScanSourcePredicate predicate) throws DataflowException {
-        try {
-            this.dataReader = RelationManager.getInstance().getTableDataReader(
-                    predicate.getTableName(), new MatchAllDocsQuery());
-            // TODO add an option to set if payload is added in the future.
-            this.dataReader.setPayloadAdded(true);
-        } catch (StorageException e) {
-            throw new DataflowException(e);
-        }
-    }
-
-    @Override
-    public void open() throws TexeraException {
-        if (isOpen) {
-            return;
-        }
-        try {
-            dataReader.open();
-            isOpen = true;
-        } catch (Exception e) {
-            throw new DataflowException(e.getMessage(), e);
-        }
-    }
-
-    @Override
-    public Tuple getNextTuple() throws TexeraException {
-        if (! isOpen) {
-            throw new DataflowException(ErrorMessages.OPERATOR_NOT_OPENED);
-        }
-        try {
-            return dataReader.getNextTuple();
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new DataflowException(e.getMessage(), e);
-        }
-    }
-
-    @Override
-    public void close() throws TexeraException {
-        if (! isOpen) {
-            return;
-        }
-        try {
-            dataReader.close();
-            isOpen = false;
-        } catch (Exception e) {
-            throw new DataflowException(e.getMessage(), e);
-        }
-    }
-
-    @Override
-    public Schema getOutputSchema() {
-        return dataReader.getOutputSchema();
-    }
-
-    public Schema transformToOutputSchema(Schema... inputSchema) throws DataflowException {
-        if (inputSchema == null || inputSchema.length == 0) {
-            if (getOutputSchema() == null) {
-                open();
-                close();
-            }
-            return getOutputSchema();
-        }
-        throw new TexeraException(ErrorMessages.INVALID_INPUT_SCHEMA_FOR_SOURCE);
-    }
-}
+package edu.uci.ics.texera.dataflow.source.scan;
+
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.exception.StorageException;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+
+import edu.uci.ics.texera.api.constants.ErrorMessages;
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.dataflow.ISourceOperator;
+import edu.uci.ics.texera.storage.DataReader;
+import edu.uci.ics.texera.storage.ParallelDataReader;
+import edu.uci.ics.texera.storage.RelationManager;
+
+/**
+ * Created by chenli on 3/28/16.
+ * 
+ * If the parallelism of the predicate is larger than 1, 
+ *   the table is read by a ParallelDataReader with "parallelism" threads, 
+ *   and the tuples are NOT in the doc ID order.
+ */
+public class ScanBasedSourceOperator implements ISourceOperator {
+
+    private DataReader dataReader;
+    // the reader used instead of dataReader if the table is read with more than one thread
+    private ParallelDataReader parallelDataReader;
+    
+    private boolean isOpen = false;
+
+    public ScanBasedSourceOperator(ScanSourcePredicate predicate) throws DataflowException {
+        try {
+            if (predicate.getParallelism() > 1) {
+                this.parallelDataReader = RelationManager.getInstance().getTableParallelDataReader(
+                        predicate.getTableName(), new MatchAllDocsQuery(), predicate.getParallelism());
+                this.parallelDataReader.setPayloadAdded(true);
+                return;
+            }
+            this.dataReader = RelationManager.getInstance().getTableDataReader(
+                    predicate.getTableName(), new MatchAllDocsQuery());
+            // TODO add an option to set if payload is added in the future.
+            this.dataReader.setPayloadAdded(true);
+            // a scan doesn't need relevance, read the documents lazily in the doc ID order
+            this.dataReader.setStreaming(true);
+        } catch (StorageException e) {
+            throw new DataflowException(e);
+        }
+    }
+    
+    private IOperator getReader() {
+        return dataReader != null ? dataReader : parallelDataReader;
+    }
+
+    @Override
+    public void open() throws TexeraException {
+        if (isOpen) {
+            return;
+        }
+        try {
+            getReader().open();
+            isOpen = true;
+        } catch (Exception e) {
+            throw new DataflowException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Tuple getNextTuple() throws TexeraException {
+        if (! isOpen) {
+            throw new DataflowException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        try {
+            return getReader().getNextTuple();
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new DataflowException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean getNextBatch(TupleBatch batch) throws TexeraException {
+        if (! isOpen) {
+            throw new DataflowException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        try {
+            return getReader().getNextBatch(batch);
+        } catch (Exception e) {
+            throw new DataflowException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws TexeraException {
+        if (! isOpen) {
+            return;
+        }
+        try {
+            getReader().close();
+            isOpen = false;
+        } catch (Exception e) {
+            throw new DataflowException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return getReader().getOutputSchema();
+    }
+    
+    public int getLimit() {
+        return dataReader != null ? dataReader.getLimit() : parallelDataReader.getLimit();
+    }
+    
+    /**
+     * Sets the maximum number of tuples read from the table.
+     * The scan stops after "limit" tuples instead of reading the whole table.
+     * 
+     * @param limit
+     */
+    public void setLimit(int limit) {
+        if (dataReader != null) {
+            dataReader.setLimit(limit);
+        } else {
+            parallelDataReader.setLimit(limit);
+        }
+    }
+
+    public Schema transformToOutputSchema(Schema... inputSchema) throws DataflowException {
+        if (inputSchema == null || inputSchema.length == 0) {
+            if (getOutputSchema() == null) {
+                open();
+                close();
+            }
+            return getOutputSchema();
+        }
+        throw new TexeraException(ErrorMessages.INVALID_INPUT_SCHEMA_FOR_SOURCE);
+    }
+}
@@ -12,10 +12,17 @@ import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
 import org.apache.lucene.analysis.util.CharArraySet;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
 
 import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.span.CompactSpanList;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.*;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
@@ -23,6 +30,9 @@ import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 public class DataflowUtils {
     
     public static final String LUCENE_SCAN_QUERY = "*:*";
+    
+    // the standard analyzer with an empty stop word list, used to tokenize a query with the stop words
+    private static final Analyzer STANDARD_ANALYZER_WITH_STOPWORDS = new StandardAnalyzer(new CharArraySet(1, true));
 
     public static ArrayList<String> tokenizeQuery(String luceneAnalyzerStr, String query) {
         return tokenizeQuery(LuceneAnalyzerConstants.getLuceneAnalyzer(luceneAnalyzerStr), query);
@@ -56,8 +66,7 @@ public class DataflowUtils {
         
         if (luceneAnalyzerStr.equals(LuceneAnalyzerConstants.standardAnalyzerString())) {
             // use an empty stop word list for standard analyzer
-            CharArraySet emptyStopwords = new CharArraySet(1, true);
-            luceneAnalyzer = new StandardAnalyzer(emptyStopwords);
+            luceneAnalyzer = STANDARD_ANALYZER_WITH_STOPWORDS;
         } else if (luceneAnalyzerStr.equals(LuceneAnalyzerConstants.chineseAnalyzerString())) {
             // use the default smart chinese analyzer
             // because the smart chinese analyzer's default stopword list is simply a list of punctuations
@@ -66,7 +75,19 @@ public class DataflowUtils {
         } else {
             throw new TexeraException("tokenizeQueryWithStopwords: analyzer " + luceneAnalyzerStr + " not recgonized");
         }
-
+        
+        return tokenizeQueryWithStopwords(luceneAnalyzer, query);
+    }
+    
+    /**
+     * Tokenizes the query string using the given analyser, and returns the tokens as they are in the query.
+     * The analyzer should keep the stop words in the query.
+     * 
+     * @param luceneAnalyzer
+     * @param query
+     * @return ArrayList<String> list of results
+     */
+    public static ArrayList<String> tokenizeQueryWithStopwords(Analyzer luceneAnalyzer, String query) {
         ArrayList<String> result = new ArrayList<String>();
         TokenStream tokenStream = luceneAnalyzer.tokenStream(null, new StringReader(query));
         CharTermAttribute term = tokenStream.addAttribute(CharTermAttribute.class);
@@ -84,32 +105,68 @@ public class DataflowUtils {
             tokenStream.close();
         } catch (IOException e) {
             throw new DataflowException(e);
-        } finally {
-            luceneAnalyzer.close();
         }
         
         return result;
     }
 
+    /**
+     * Builds a query that matches a superset of the tuples containing the keyword as a substring,
+     *   in the index fields that contain the 3-grams of the attributes (see RelationManager.getTrigramFieldNames()).
+     * A tuple containing the keyword in an attribute contains all the 3-grams of the keyword in its 3-gram field.
+     * 
+     * Returns null if the keyword is shorter than 3 characters, in which case the table must be scanned.
+     *
+     * @param gramFieldNames, the index fields containing the 3-grams, one for each attribute
+     * @param keyword
+     * @return the query, or null if the keyword has no 3-gram
+     */
+    public static Query buildTrigramQuery(List<String> gramFieldNames, String keyword) {
+        // the grams are lower case, the same as the 3-gram analyzer indexes them
+        List<String> grams = tokenizeQuery(LuceneAnalyzerConstants.nGramAnalyzerString(3), keyword).stream()
+                .distinct().limit(BooleanQuery.getMaxClauseCount()).collect(Collectors.toList());
+        if (grams.isEmpty()) {
+            return null;
+        }
+        
+        BooleanQuery.Builder booleanQueryBuilder = new BooleanQuery.Builder();
+        for (String gramFieldName : gramFieldNames) {
+            BooleanQuery.Builder fieldQueryBuilder = new BooleanQuery.Builder();
+            for (String gram : grams) {
+                fieldQueryBuilder.add(new TermQuery(new Term(gramFieldName, gram)), BooleanClause.Occur.MUST);
+            }
+            booleanQueryBuilder.add(fieldQueryBuilder.build(), BooleanClause.Occur.SHOULD);
+        }
+        return booleanQueryBuilder.build();
+    }
+
     public static List<Span> generatePayloadFromTuple(Tuple tuple, String luceneAnalyzer) throws DataflowException {
         return generatePayloadFromTuple(tuple, LuceneAnalyzerConstants.getLuceneAnalyzer(luceneAnalyzer));
     }
 
+    /**
+     * Generates the payload of all the TEXT fields of the tuple, as a compact span list.
+     */
     public static List<Span> generatePayloadFromTuple(Tuple tuple, Analyzer luceneAnalyzer) {
-        List<Span> tuplePayload = tuple.getSchema().getAttributes().stream()
-                .filter(attr -> (attr.getType() == AttributeType.TEXT)) // generate payload only for TEXT field
-                .map(attr -> attr.getName())
-                .map(attributeName -> generatePayload(attributeName, tuple.getField(attributeName).getValue().toString(),
-                        luceneAnalyzer))
-                .flatMap(payload -> payload.stream()) // flatten a list of lists to a list
-                .collect(Collectors.toList());
-
-        return tuplePayload;
+        CompactSpanList.Builder payloadBuilder = new CompactSpanList.Builder();
+        for (Attribute attr : tuple.getSchema().getAttributes()) {
+            // generate payload only for TEXT field
+            if (attr.getType() == AttributeType.TEXT) {
+                addPayload(payloadBuilder, attr.getName(), tuple.getField(attr.getName()).getValue().toString(),
+                        luceneAnalyzer);
+            }
+        }
+        return payloadBuilder.build();
     }
 
     public static List<Span> generatePayload(String attributeName, String fieldValue, Analyzer luceneAnalyzer) {
-        List<Span> payload = new ArrayList<>();
+        CompactSpanList.Builder payloadBuilder = new CompactSpanList.Builder();
+        addPayload(payloadBuilder, attributeName, fieldValue, luceneAnalyzer);
+        return payloadBuilder.build();
+    }
 
+    private static void addPayload(CompactSpanList.Builder payloadBuilder, String attributeName, String fieldValue,
+            Analyzer luceneAnalyzer) {
         try {
             TokenStream tokenStream = luceneAnalyzer.tokenStream(null, new StringReader(fieldValue));
             OffsetAttribute offsetAttribute = tokenStream.addAttribute(OffsetAttribute.class);
@@ -126,16 +183,13 @@ public class DataflowUtils {
                 int charStart = offsetAttribute.startOffset();
                 int charEnd = offsetAttribute.endOffset();
                 String analyzedTermStr = charTermAttribute.toString();
-                String originalTermStr = fieldValue.substring(charStart, charEnd);
 
-                payload.add(new Span(attributeName, charStart, charEnd, analyzedTermStr, originalTermStr, tokenPosition));
+                payloadBuilder.add(attributeName, fieldValue, charStart, charEnd, analyzedTermStr, tokenPosition);
             }
             tokenStream.close();
         } catch (IOException e) {
             throw new DataflowException(e);
         }
-
-        return payload;
     }
 
 
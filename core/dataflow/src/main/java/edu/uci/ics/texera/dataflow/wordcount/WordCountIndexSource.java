@@ -106,7 +106,7 @@ public class WordCountIndexSource implements ISourceOperator {
                 }
             }
             
-            luceneIndexReader.close();
+            // the index reader is shared with other readers, it's released by the DataReader
             dataReader.close();
             
             sortedWordCountMap = wordCountMap.entrySet().stream()
@@ -7,6 +7,8 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
+import org.apache.lucene.analysis.Analyzer;
+
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.dataflow.ISourceOperator;
@@ -24,6 +26,7 @@ import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 
 /**
  * @author Qinhua Huang
@@ -42,6 +45,7 @@ public class WordCountOperator extends AbstractSingleInputOperator implements IS
     private Iterator<Entry<String, Integer>> wordCountIterator;
 
     private boolean addPayload = false;
+    private Analyzer luceneAnalyzer;
     
     public WordCountOperator(WordCountOperatorPredicate predicate) {
         this.predicate = predicate;
@@ -51,6 +55,7 @@ public class WordCountOperator extends AbstractSingleInputOperator implements IS
     protected void setUp() throws DataflowException {
         this.outputSchema = SCHEMA_WORD_COUNT;
         this.addPayload = ! inputOperator.getOutputSchema().containsAttribute(SchemaConstants.PAYLOAD);
+        this.luceneAnalyzer = LuceneAnalyzerConstants.getLuceneAnalyzer(predicate.getLuceneAnalyzerString());
     }
     
     @Override
@@ -80,7 +85,7 @@ public class WordCountOperator extends AbstractSingleInputOperator implements IS
         while ((tuple = this.inputOperator.getNextTuple()) != null) {
             if (addPayload) {
                 tuple = new Tuple.Builder(tuple).add(SchemaConstants.PAYLOAD_ATTRIBUTE,new ListField<Span>(
-                                DataflowUtils.generatePayloadFromTuple(tuple, predicate.getLuceneAnalyzerString()))).build();
+                                DataflowUtils.generatePayloadFromTuple(tuple, luceneAnalyzer))).build();
             }
             
             ListField<Span> payloadField = tuple.getField("payload");
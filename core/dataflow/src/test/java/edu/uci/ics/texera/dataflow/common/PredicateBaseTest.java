@@ -34,6 +34,7 @@ import edu.uci.ics.texera.dataflow.nlp.sentiment.NlpSentimentPredicate;
 import edu.uci.ics.texera.dataflow.nlp.splitter.NLPOutputType;
 import edu.uci.ics.texera.dataflow.nlp.splitter.NlpSplitPredicate;
 import edu.uci.ics.texera.dataflow.projection.ProjectionPredicate;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexEngine;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexPredicate;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexSourcePredicate;
 import edu.uci.ics.texera.dataflow.regexsplit.RegexOutputType;
@@ -206,6 +207,17 @@ public class PredicateBaseTest {
                 "tableName",
                 "spanListName");
         testPredicate(regexSourcePredicate);
+        
+        RegexSourcePredicate re2jRegexSourcePredicate = new RegexSourcePredicate(
+                "regex",
+                attributeNames,
+                true,
+                "tableName",
+                true,
+                "spanListName",
+                RegexEngine.RE2J,
+                1000L);
+        testPredicate(re2jRegexSourcePredicate);
     }
     
     @Test
@@ -217,6 +229,15 @@ public class PredicateBaseTest {
                 SplitType.STANDALONE,
                 "resultAttr");
         testPredicate(regexSplitPredicate);
+        
+        RegexSplitPredicate re2jRegexSplitPredicate = new RegexSplitPredicate(
+                "regex",
+                "attr1",
+                RegexOutputType.ONE_TO_MANY,
+                SplitType.STANDALONE,
+                "resultAttr",
+                RegexEngine.RE2J);
+        testPredicate(re2jRegexSplitPredicate);
     }
     
     @Test
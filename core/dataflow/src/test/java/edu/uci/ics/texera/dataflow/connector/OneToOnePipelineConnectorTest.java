@@ -0,0 +1,169 @@
+package edu.uci.ics.texera.dataflow.connector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
+import edu.uci.ics.texera.api.utils.TestUtils;
+import edu.uci.ics.texera.dataflow.projection.ProjectionOperator;
+import edu.uci.ics.texera.dataflow.projection.ProjectionPredicate;
+import edu.uci.ics.texera.dataflow.source.scan.ScanBasedSourceOperator;
+import edu.uci.ics.texera.dataflow.source.scan.ScanSourcePredicate;
+import edu.uci.ics.texera.storage.DataWriter;
+import edu.uci.ics.texera.storage.RelationManager;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+import junit.framework.Assert;
+
+public class OneToOnePipelineConnectorTest {
+
+    public static final String PEOPLE_TABLE = "one_to_one_pipeline_connector_test_people";
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        RelationManager relationManager = RelationManager.getInstance();
+
+        // create the people table and write tuples
+        relationManager.createTable(PEOPLE_TABLE, TestUtils.getDefaultTestIndex().resolve(PEOPLE_TABLE),
+                TestConstants.SCHEMA_PEOPLE, LuceneAnalyzerConstants.standardAnalyzerString());
+
+        DataWriter peopleDataWriter = relationManager.getTableDataWriter(PEOPLE_TABLE);
+        peopleDataWriter.open();
+        for (Tuple tuple : TestConstants.getSamplePeopleTuples()) {
+            peopleDataWriter.insertTuple(tuple);
+        }
+        peopleDataWriter.close();
+    }
+
+    @AfterClass
+    public static void cleanUp() throws Exception {
+        RelationManager relationManager = RelationManager.getInstance();
+        relationManager.deleteTable(PEOPLE_TABLE);
+    }
+
+    private static List<Tuple> getProjectionResults(boolean pipelined) throws TexeraException {
+        IOperator sourceOperator = new ScanBasedSourceOperator(new ScanSourcePredicate(PEOPLE_TABLE));
+        ProjectionOperator projection = new ProjectionOperator(
+                new ProjectionPredicate(Arrays.asList(TestConstants.DESCRIPTION)));
+
+        if (pipelined) {
+            // a small queue and small batches to exercise the backpressure
+            OneToOnePipelineConnector connector = new OneToOnePipelineConnector(1, 2);
+            connector.setInputOperator(sourceOperator);
+            projection.setInputOperator(connector.getOutputOperator(0));
+        } else {
+            projection.setInputOperator(sourceOperator);
+        }
+
+        projection.open();
+        List<Tuple> results = new ArrayList<>();
+        Tuple nextTuple;
+        while ((nextTuple = projection.getNextTuple()) != null) {
+            results.add(nextTuple);
+        }
+        projection.close();
+        return results;
+    }
+
+    /*
+     * The results of a pipelined plan should be the same as the results of the plan without the connector.
+     */
+    @Test
+    public void testPipelinedProjection() throws TexeraException {
+        List<Tuple> expectedResults = getProjectionResults(false);
+        List<Tuple> pipelinedResults = getProjectionResults(true);
+
+        Assert.assertEquals(TestConstants.getSamplePeopleTuples().size(), pipelinedResults.size());
+        Assert.assertTrue(TestUtils.equals(expectedResults, pipelinedResults));
+    }
+
+    /*
+     * Tests getting the tuples in batches, and opening the connector again after closing it.
+     */
+    @Test
+    public void testGetNextBatchAndReopen() throws TexeraException {
+        IOperator sourceOperator = new ScanBasedSourceOperator(new ScanSourcePredicate(PEOPLE_TABLE));
+        OneToOnePipelineConnector connector = new OneToOnePipelineConnector(2, 1);
+        connector.setInputOperator(sourceOperator);
+        IOperator outputOperator = connector.getOutputOperator(0);
+
+        for (int i = 0; i < 2; i++) {
+            outputOperator.open();
+            List<Tuple> results = new ArrayList<>();
+            TupleBatch batch = new TupleBatch(4);
+            while (outputOperator.getNextBatch(batch)) {
+                results.addAll(batch.toList());
+            }
+            outputOperator.close();
+
+            Assert.assertTrue(TestUtils.equals(TestConstants.getSamplePeopleTuples(), results));
+        }
+    }
+
+    /*
+     * Closing the connector before all the tuples are consumed should stop the worker thread.
+     */
+    @Test
+    public void testCloseBeforeFinish() throws TexeraException {
+        IOperator sourceOperator = new ScanBasedSourceOperator(new ScanSourcePredicate(PEOPLE_TABLE));
+        OneToOnePipelineConnector connector = new OneToOnePipelineConnector(1, 1);
+        connector.setInputOperator(sourceOperator);
+        IOperator outputOperator = connector.getOutputOperator(0);
+
+        outputOperator.open();
+        Assert.assertNotNull(outputOperator.getNextTuple());
+        outputOperator.close();
+
+        Assert.assertEquals(sourceOperator.getOutputSchema(), outputOperator.getOutputSchema());
+    }
+
+    /*
+     * An exception thrown by the input operator in the worker thread
+     *   should be thrown to the caller of the output operator.
+     */
+    @Test(expected = DataflowException.class)
+    public void testInputOperatorException() throws TexeraException {
+        IOperator failingOperator = new IOperator() {
+            @Override
+            public void open() throws TexeraException {
+            }
+            @Override
+            public Tuple getNextTuple() throws TexeraException {
+                throw new DataflowException("input operator failed");
+            }
+            @Override
+            public void close() throws TexeraException {
+            }
+            @Override
+            public Schema getOutputSchema() {
+                return TestConstants.SCHEMA_PEOPLE;
+            }
+            @Override
+            public Schema transformToOutputSchema(Schema... inputSchema) {
+                return TestConstants.SCHEMA_PEOPLE;
+            }
+        };
+
+        OneToOnePipelineConnector connector = new OneToOnePipelineConnector();
+        connector.setInputOperator(failingOperator);
+        IOperator outputOperator = connector.getOutputOperator(0);
+
+        outputOperator.open();
+        try {
+            outputOperator.getNextTuple();
+        } finally {
+            outputOperator.close();
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+package edu.uci.ics.texera.dataflow.connector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.utils.TestUtils;
+import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexMatcher;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexPredicate;
+import edu.uci.ics.texera.dataflow.source.tuple.TupleSourceOperator;
+import junit.framework.Assert;
+
+public class ParallelOperatorTest {
+
+    private static final RegexPredicate REGEX_PREDICATE = new RegexPredicate(
+            "[Aa]ngry", Arrays.asList(TestConstants.DESCRIPTION), "regexResults");
+
+    private static TupleSourceOperator getSourceOperator() {
+        List<Tuple> inputTuples = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            inputTuples.addAll(TestConstants.getSamplePeopleTuples());
+        }
+        return new TupleSourceOperator(inputTuples, TestConstants.SCHEMA_PEOPLE);
+    }
+
+    private static ParallelOperator getParallelRegexMatcher(int parallelism, boolean preserveOrder) {
+        List<RegexMatcher> replicas = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            replicas.add(new RegexMatcher(REGEX_PREDICATE));
+        }
+        // small chunks and queues to exercise the round-robin splitting and the backpressure
+        return new ParallelOperator(replicas, preserveOrder, 4, 2);
+    }
+
+    private static List<Tuple> getResults(IOperator operator) throws TexeraException {
+        operator.open();
+        List<Tuple> results = new ArrayList<>();
+        Tuple nextTuple;
+        while ((nextTuple = operator.getNextTuple()) != null) {
+            results.add(nextTuple);
+        }
+        operator.close();
+        return results;
+    }
+
+    /*
+     * The results of the ordered parallel operator should be exactly the same as one operator, in the same order.
+     */
+    @Test
+    public void testOrderPreserving() throws TexeraException {
+        TupleSourceOperator sourceOperator = getSourceOperator();
+
+        RegexMatcher regexMatcher = new RegexMatcher(REGEX_PREDICATE);
+        regexMatcher.setInputOperator(sourceOperator);
+        List<Tuple> expectedResults = getResults(regexMatcher);
+
+        ParallelOperator parallelOperator = getParallelRegexMatcher(3, true);
+        parallelOperator.setInputOperator(sourceOperator);
+        List<Tuple> parallelResults = getResults(parallelOperator);
+
+        Assert.assertEquals(800, expectedResults.size());
+        Assert.assertEquals(expectedResults, parallelResults);
+        Assert.assertEquals(regexMatcher.getOutputSchema(), parallelOperator.getOutputSchema());
+    }
+
+    /*
+     * The results of the unordered parallel operator should be the same set of tuples as one operator.
+     */
+    @Test
+    public void testUnordered() throws TexeraException {
+        TupleSourceOperator sourceOperator = getSourceOperator();
+
+        RegexMatcher regexMatcher = new RegexMatcher(REGEX_PREDICATE);
+        regexMatcher.setInputOperator(sourceOperator);
+        List<Tuple> expectedResults = getResults(regexMatcher);
+
+        ParallelOperator parallelOperator = getParallelRegexMatcher(4, false);
+        parallelOperator.setInputOperator(sourceOperator);
+        List<Tuple> parallelResults = getResults(parallelOperator);
+
+        Assert.assertTrue(TestUtils.equals(expectedResults, parallelResults));
+    }
+
+    /*
+     * The limit and offset of the parallel operator should be applied on the merged results.
+     */
+    @Test
+    public void testLimitOffset() throws TexeraException {
+        TupleSourceOperator sourceOperator = getSourceOperator();
+
+        RegexMatcher regexMatcher = new RegexMatcher(REGEX_PREDICATE);
+        regexMatcher.setInputOperator(sourceOperator);
+        List<Tuple> expectedResults = getResults(regexMatcher).subList(5, 15);
+
+        ParallelOperator parallelOperator = getParallelRegexMatcher(2, true);
+        parallelOperator.setInputOperator(sourceOperator);
+        parallelOperator.setOffset(5);
+        parallelOperator.setLimit(10);
+        List<Tuple> parallelResults = getResults(parallelOperator);
+
+        Assert.assertEquals(expectedResults, parallelResults);
+    }
+
+    /*
+     * An exception thrown by a replica should be thrown to the caller.
+     */
+    @Test(expected = DataflowException.class)
+    public void testReplicaException() throws TexeraException {
+        List<AbstractSingleInputOperator> replicas = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            replicas.add(new RegexMatcher(REGEX_PREDICATE) {
+                @Override
+                public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
+                    throw new DataflowException("replica failed");
+                }
+            });
+        }
+        ParallelOperator parallelOperator = new ParallelOperator(replicas, true);
+        parallelOperator.setInputOperator(getSourceOperator());
+
+        parallelOperator.open();
+        try {
+            parallelOperator.getNextTuple();
+        } finally {
+            parallelOperator.close();
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+package edu.uci.ics.texera.dataflow.dictionarymatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledACTrieTest {
+
+    /**
+     * Test substring matching in the middle of one word.
+     */
+    @Test
+    public void testCompiledTrieSinglePath() throws Exception {
+        CompiledACTrie trie = CompiledACTrie.compile(Arrays.asList("hers"), false);
+        List<ACTrie.Emit> exactResults = trie.parseText("h, he, her, hers, herself");
+        Assert.assertEquals(2, exactResults.size());
+        Assert.assertEquals(12, exactResults.get(0).getStart());
+        Assert.assertEquals(16, exactResults.get(0).getEnd());
+    }
+
+    /**
+     * Test dense trie failure transitions.
+     */
+    @Test
+    public void testCompiledTrieMultiple() throws Exception {
+        CompiledACTrie trie = CompiledACTrie.compile(Arrays.asList("he", "hers", "his", "she"), false);
+        List<ACTrie.Emit> exactResults = trie.parseText("ahishers");
+        Assert.assertEquals(4, exactResults.size());
+    }
+
+    /**
+     * Test matching case-insensitively, the original keyword is reported.
+     */
+    @Test
+    public void testCompiledTrieCaseInsensitive() throws Exception {
+        CompiledACTrie trie = CompiledACTrie.compile(Arrays.asList("Beta"), true);
+        List<ACTrie.Emit> exactResults = trie.parseText("Alpha Beta beta BETA Gamma");
+        Assert.assertEquals(3, exactResults.size());
+        for (ACTrie.Emit emit : exactResults) {
+            Assert.assertEquals("Beta", emit.getKeyword());
+        }
+    }
+
+    /**
+     * Test matching chinese characters through failure transitions.
+     */
+    @Test
+    public void testCompiledTrieChineseMultiple() throws Exception {
+        CompiledACTrie trie = CompiledACTrie.compile(Arrays.asList("太阳", "阳光", "光照", "照射", "树枝", "枝叶", "叶子"), false);
+        Assert.assertEquals(7, trie.parseText("太阳光照射树枝叶子").size());
+    }
+
+    /**
+     * Test that null, empty and duplicate keywords are ignored, and an empty trie matches nothing.
+     */
+    @Test
+    public void testCompiledTrieDuplicateAndEmptyKeywords() throws Exception {
+        CompiledACTrie trie = CompiledACTrie.compile(Arrays.asList("dark", "", null, "dark", "Dark"), true);
+        Assert.assertEquals(2, trie.getKeywordCount());
+        Assert.assertEquals(2, trie.parseText("darkness").size());
+
+        CompiledACTrie emptyTrie = CompiledACTrie.compile(new ArrayList<>(), true);
+        Assert.assertEquals(1, emptyTrie.getStateCount());
+        Assert.assertTrue(emptyTrie.parseText("darkness").isEmpty());
+    }
+
+    /**
+     * Test that the compiled trie returns the same matches as ACTrie on random keywords and texts.
+     */
+    @Test
+    public void testCompiledTrieSameAsACTrie() throws Exception {
+        Random random = new Random(2017);
+        for (int round = 0; round < 50; round++) {
+            List<String> keywords = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                keywords.add(randomString(random, 1 + random.nextInt(5)));
+            }
+            String text = randomString(random, 200);
+
+            ACTrie trie = new ACTrie();
+            trie.setCaseInsensitive(true);
+            trie.addKeywords(keywords);
+            trie.constructFailureTransactions();
+            CompiledACTrie compiledTrie = CompiledACTrie.compile(keywords, true);
+
+            Assert.assertEquals(toSortedStrings(trie.parseText(text)), toSortedStrings(compiledTrie.parseText(text)));
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        // a small alphabet with both cases, so that the keywords overlap a lot
+        String alphabet = "abcAB";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    private static List<String> toSortedStrings(List<ACTrie.Emit> emits) {
+        List<String> results = new ArrayList<>();
+        for (ACTrie.Emit emit : emits) {
+            results.add(emit.getStart() + "-" + emit.getEnd() + "-" + emit.getKeyword());
+        }
+        results.sort(null);
+        return results;
+    }
+
+}
@@ -1236,5 +1236,35 @@ public class DictionaryMatcherTest {
         Assert.assertTrue(contains);
     }
 
+    /*
+     * A single pass search with more entries than the max clause count of a lucene boolean query
+     *   should return the same results as a scan followed by a DictionaryMatcher.
+     */
+    @Test
+    public void testSinglePassWithLargeDictionary() throws Exception {
+        ArrayList<String> entries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            entries.add("entry" + i + " missing" + i);
+        }
+        entries.add("angry");
+        entries.add("lin clooney");
+        Dictionary dictionary = new Dictionary(entries);
+        List<String> attributeNames = Arrays.asList(TestConstants.FIRST_NAME, TestConstants.LAST_NAME,
+                TestConstants.DESCRIPTION);
+
+        for (KeywordMatchingType matchingType : Arrays.asList(
+                KeywordMatchingType.CONJUNCTION_INDEXBASED, KeywordMatchingType.PHRASE_INDEXBASED)) {
+            List<Tuple> scanSourceResults = DictionaryMatcherTestHelper.getScanSourceResults(PEOPLE_TABLE, dictionary,
+                    attributeNames, matchingType, Integer.MAX_VALUE, 0);
+            dictionary.resetCursor();
+            List<Tuple> singlePassResults = DictionaryMatcherTestHelper.getDictionarySourceResults(PEOPLE_TABLE, dictionary,
+                    attributeNames, matchingType, Integer.MAX_VALUE, 0, true);
+            dictionary.resetCursor();
+
+            Assert.assertFalse(singlePassResults.isEmpty());
+            Assert.assertTrue(TestUtils.equals(scanSourceResults, singlePassResults));
+        }
+    }
+
 }
 
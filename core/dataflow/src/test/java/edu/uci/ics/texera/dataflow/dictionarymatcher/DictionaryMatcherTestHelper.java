@@ -73,10 +73,15 @@ public class DictionaryMatcherTestHelper {
         List<Tuple> dictionarySourceResults = getDictionarySourceResults(tableName, dictionary, attributeNames,
                 matchingType, limit, offset);
         dictionary.resetCursor();
+        // results from a single pass index-based search on the table
+        List<Tuple> singlePassResults = getDictionarySourceResults(tableName, dictionary, attributeNames,
+                matchingType, limit, offset, true);
+        dictionary.resetCursor();
         
         // if limit and offset are not relevant, the results from scan source and keyword source must be the same
         if (limit == Integer.MAX_VALUE && offset == 0) {
-            if (TestUtils.equals(scanSourceResults, dictionarySourceResults)) {
+            if (TestUtils.equals(scanSourceResults, dictionarySourceResults)
+                    && TestUtils.equals(scanSourceResults, singlePassResults)) {
                 return scanSourceResults;
             } else {
                 throw new DataflowException("results from scanSource and dictionarySource are inconsistent");
@@ -90,8 +95,10 @@ public class DictionaryMatcherTestHelper {
             dictionary.resetCursor();
             
             if (scanSourceResults.size() == dictionarySourceResults.size() &&
+                    scanSourceResults.size() == singlePassResults.size() &&
                     TestUtils.containsAll(allResults, scanSourceResults) && 
-                    TestUtils.containsAll(allResults, dictionarySourceResults)) {
+                    TestUtils.containsAll(allResults, dictionarySourceResults) &&
+                    TestUtils.containsAll(allResults, singlePassResults)) {
                 return scanSourceResults;
             } else {
                 throw new DataflowException("results from scanSource and dictionarySource are inconsistent");
@@ -156,11 +163,30 @@ public class DictionaryMatcherTestHelper {
      */
     public static List<Tuple> getDictionarySourceResults(String tableName, Dictionary dictionary, List<String> attributeNames,
             KeywordMatchingType matchingType, int limit, int offset) throws TexeraException {
+        return getDictionarySourceResults(tableName, dictionary, attributeNames, matchingType, limit, offset, false);
+    }
+    
+    /**
+     * Get the results from the DictionarySourceOperator, 
+     *   with a single pass index-based search if singlePass is true.
+     * 
+     * @param tableName
+     * @param dictionary
+     * @param attributeNames
+     * @param matchingType
+     * @param limit
+     * @param offset
+     * @param singlePass
+     * @return
+     * @throws TexeraException
+     */
+    public static List<Tuple> getDictionarySourceResults(String tableName, Dictionary dictionary, List<String> attributeNames,
+            KeywordMatchingType matchingType, int limit, int offset, boolean singlePass) throws TexeraException {
         RelationManager relationManager = RelationManager.getInstance();
         String luceneAnalyzerStr = relationManager.getTableAnalyzerString(tableName);
         
         DictionarySourcePredicate dictiaonrySourcePredicate = new DictionarySourcePredicate(
-                dictionary, attributeNames, luceneAnalyzerStr, matchingType, tableName, RESULTS);
+                dictionary, attributeNames, luceneAnalyzerStr, matchingType, tableName, RESULTS, singlePass);
         DictionaryMatcherSourceOperator dictionarySource = new DictionaryMatcherSourceOperator(
                 dictiaonrySourcePredicate);
 
@@ -0,0 +1,89 @@
+package edu.uci.ics.texera.dataflow.dictionarymatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.span.Span;
+
+public class DictionaryTokenIndexTest {
+
+    private static final List<String> DICTIONARY_ENTRIES = Arrays.asList("george lin", "lin george", "tom", "tom hanks");
+
+    private static DictionaryTokenIndex getTokenIndex() {
+        List<Set<String>> tokenSets = new ArrayList<>();
+        for (String entry : DICTIONARY_ENTRIES) {
+            tokenSets.add(new HashSet<>(Arrays.asList(entry.split(" "))));
+        }
+        return new DictionaryTokenIndex(DICTIONARY_ENTRIES, tokenSets);
+    }
+
+    private static Span tokenSpan(String token, int tokenOffset) {
+        return new Span("content", tokenOffset * 10, tokenOffset * 10 + token.length(), token, token, tokenOffset);
+    }
+
+    /**
+     * Test that only the entries whose tokens are all present are returned, with the spans of their tokens.
+     */
+    @Test
+    public void testMatchingEntrySpans() throws Exception {
+        DictionaryTokenIndex tokenIndex = getTokenIndex();
+        List<Span> payload = Arrays.asList(tokenSpan("tom", 0), tokenSpan("lin", 1), tokenSpan("george", 2),
+                tokenSpan("lin", 3), tokenSpan("bob", 4));
+
+        Map<Integer, List<Span>> entrySpanMap = tokenIndex.getMatchingEntrySpans(payload, tokenIndex.newMatchBuffer());
+        Assert.assertEquals(Arrays.asList(0, 1, 2), new ArrayList<>(entrySpanMap.keySet()));
+        Assert.assertEquals(Arrays.asList(tokenSpan("lin", 1), tokenSpan("george", 2), tokenSpan("lin", 3)), 
+                entrySpanMap.get(0));
+        Assert.assertEquals(Arrays.asList(tokenSpan("tom", 0)), entrySpanMap.get(2));
+    }
+
+    /**
+     * Test that the token counts of one payload are not carried over to the next payload.
+     */
+    @Test
+    public void testMatchingEntrySpansAreIndependent() throws Exception {
+        DictionaryTokenIndex tokenIndex = getTokenIndex();
+        DictionaryTokenIndex.MatchBuffer matchBuffer = tokenIndex.newMatchBuffer();
+        Assert.assertTrue(tokenIndex.getMatchingEntrySpans(Arrays.asList(tokenSpan("george", 0)), matchBuffer).isEmpty());
+        Assert.assertTrue(tokenIndex.getMatchingEntrySpans(Arrays.asList(tokenSpan("lin", 0)), matchBuffer).isEmpty());
+        Map<Integer, List<Span>> entrySpanMap = tokenIndex.getMatchingEntrySpans(
+                Arrays.asList(tokenSpan("hanks", 0), tokenSpan("tom", 1)), matchBuffer);
+        Assert.assertEquals(Arrays.asList(2, 3), new ArrayList<>(entrySpanMap.keySet()));
+    }
+
+    /**
+     * Test that a token shared by many entries and repeated in the payload is counted once for each entry,
+     *   and only the entries with all their tokens get spans.
+     */
+    @Test
+    public void testCommonToken() throws Exception {
+        List<String> dictionaryEntries = new ArrayList<>();
+        List<Set<String>> tokenSets = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            dictionaryEntries.add("the w" + i);
+            tokenSets.add(new HashSet<>(Arrays.asList("the", "w" + i)));
+        }
+        DictionaryTokenIndex tokenIndex = new DictionaryTokenIndex(dictionaryEntries, tokenSets);
+        List<Span> payload = Arrays.asList(tokenSpan("the", 0), tokenSpan("w7", 1), tokenSpan("the", 2),
+                tokenSpan("the", 3));
+
+        Map<Integer, List<Span>> entrySpanMap = tokenIndex.getMatchingEntrySpans(payload, tokenIndex.newMatchBuffer());
+        Assert.assertEquals(Arrays.asList(7), new ArrayList<>(entrySpanMap.keySet()));
+        Assert.assertEquals(payload, entrySpanMap.get(7));
+    }
+
+    @Test
+    public void testContainsEntry() throws Exception {
+        DictionaryTokenIndex tokenIndex = getTokenIndex();
+        Assert.assertTrue(tokenIndex.containsEntry("tom hanks"));
+        Assert.assertFalse(tokenIndex.containsEntry("hanks"));
+    }
+
+}
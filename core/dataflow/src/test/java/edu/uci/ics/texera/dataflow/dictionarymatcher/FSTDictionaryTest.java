@@ -0,0 +1,104 @@
+package edu.uci.ics.texera.dataflow.dictionarymatcher;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.exception.StorageException;
+
+public class FSTDictionaryTest {
+
+    private Path tempDirectory;
+    private Path fstPath;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDirectory = Files.createTempDirectory("fst-dictionary-test");
+        fstPath = tempDirectory.resolve("dictionary.fst");
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        Files.deleteIfExists(fstPath);
+        Files.deleteIfExists(tempDirectory);
+    }
+
+    private static List<String> getMatches(FSTDictionary fstDictionary, String text) {
+        List<String> matches = new ArrayList<>();
+        fstDictionary.parseText(text, (start, end, entry) -> matches.add(start + "-" + end + ":" + entry));
+        Collections.sort(matches);
+        return matches;
+    }
+
+    private static List<String> getMatches(CompiledACTrie trie, String text) {
+        List<String> matches = new ArrayList<>();
+        trie.parseText(text, (start, end, keywordIndex) -> matches.add(start + "-" + end + ":" + trie.getKeyword(keywordIndex)));
+        Collections.sort(matches);
+        return matches;
+    }
+
+    /**
+     * Test matching case-insensitively, all the entries with the same folded form are reported.
+     */
+    @Test
+    public void testFSTDictionaryCaseInsensitive() throws Exception {
+        FSTDictionary.write(Arrays.asList("Beta", "beta", "he", "hers", "His"), fstPath);
+        FSTDictionary fstDictionary = FSTDictionary.open(fstPath);
+        Assert.assertEquals(5, fstDictionary.getEntryCount());
+
+        Assert.assertEquals(Arrays.asList("0-2:he", "0-4:hers", "11-15:Beta", "11-15:beta", "5-8:His"),
+                getMatches(fstDictionary, "HERS his x BETA"));
+    }
+
+    /**
+     * Test that the matches are the same as a case-insensitive CompiledACTrie of the same entries.
+     */
+    @Test
+    public void testSameAsCompiledACTrie() throws Exception {
+        Random random = new Random(7);
+        String alphabet = "abAB太阳 ";
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            StringBuilder entry = new StringBuilder();
+            int length = 1 + random.nextInt(5);
+            for (int j = 0; j < length; j++) {
+                entry.append(alphabet.charAt(random.nextInt(alphabet.length() - 1)));
+            }
+            entries.add(entry.toString());
+        }
+        FSTDictionary.write(entries, fstPath);
+        FSTDictionary fstDictionary = FSTDictionary.open(fstPath);
+        CompiledACTrie trie = CompiledACTrie.compile(entries, true);
+
+        for (int i = 0; i < 20; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < 200; j++) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            Assert.assertEquals(getMatches(trie, text.toString()), getMatches(fstDictionary, text.toString()));
+        }
+    }
+
+    /**
+     * Test that a corrupted file is rejected by its checksum.
+     */
+    @Test(expected = StorageException.class)
+    public void testCorruptedFSTDictionary() throws Exception {
+        FSTDictionary.write(Arrays.asList("tom hanks", "angry"), fstPath);
+        byte[] bytes = Files.readAllBytes(fstPath);
+        // flip a byte of the FST, before the 16 bytes of the footer
+        bytes[bytes.length - 20] ^= 0xFF;
+        Files.write(fstPath, bytes);
+        FSTDictionary.open(fstPath);
+    }
+
+}
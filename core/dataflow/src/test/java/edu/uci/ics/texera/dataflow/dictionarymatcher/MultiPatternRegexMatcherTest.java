@@ -0,0 +1,145 @@
+package edu.uci.ics.texera.dataflow.dictionarymatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MultiPatternRegexMatcherTest {
+
+    private static final List<String> TEXTS = Arrays.asList(
+            "Lin Clooney is a short angry man, he is angry about everything",
+            "Tom Hanks is tall, george lin is tall too",
+            "nothing to see here",
+            "");
+
+    /*
+     * Gets the matches of every regex in every text, with the regex index, the start and the end.
+     */
+    private static List<String> getMatches(MultiPatternRegexMatcher regexMatcher) {
+        List<String> results = new ArrayList<>();
+        for (String text : TEXTS) {
+            results.addAll(getMatches(regexMatcher, text));
+        }
+        return results;
+    }
+
+    /*
+     * Gets the matches of the regexes found by findMatchingRegexes() in a text.
+     */
+    private static List<String> getMatches(MultiPatternRegexMatcher regexMatcher, String text) {
+        List<String> results = new ArrayList<>();
+        BitSet matchingRegexes = regexMatcher.findMatchingRegexes(text);
+        for (int i = matchingRegexes.nextSetBit(0); i >= 0; i = matchingRegexes.nextSetBit(i + 1)) {
+            int regexIndex = i;
+            regexMatcher.findMatches(i, text, (start, end) -> results.add(regexIndex + ":" + start + "-" + end));
+        }
+        return results;
+    }
+
+    private static List<String> getJavaRegexMatches(List<String> regexList) {
+        List<String> results = new ArrayList<>();
+        for (String text : TEXTS) {
+            for (int i = 0; i < regexList.size(); i++) {
+                Matcher matcher = Pattern.compile(regexList.get(i), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)
+                        .matcher(text);
+                while (matcher.find()) {
+                    results.add(i + ":" + matcher.start() + "-" + matcher.end());
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Test that the matches are the same as matching every regex separately with java.util.regex,
+     *   including the anchors and word boundaries that depend on the text before the leftmost match.
+     */
+    @Test
+    public void testSameAsJavaRegex() throws Exception {
+        List<String> regexList = Arrays.asList("angry", "^lin", "\\btall\\b", "g[a-z]+e", "is a.*?man", "x*", "[Tt]om");
+        MultiPatternRegexMatcher regexMatcher = new MultiPatternRegexMatcher(regexList);
+        for (int i = 0; i < regexList.size(); i++) {
+            Assert.assertFalse(regexMatcher.isFallbackRegex(i));
+        }
+        Assert.assertEquals(getJavaRegexMatches(regexList), getMatches(regexMatcher));
+    }
+
+    /**
+     * Test that the regexes not supported by RE2J fall back to java.util.regex.
+     */
+    @Test
+    public void testFallbackRegex() throws Exception {
+        List<String> regexList = Arrays.asList("(is) \\1", "tall(?= too)", "hanks");
+        MultiPatternRegexMatcher regexMatcher = new MultiPatternRegexMatcher(regexList);
+        Assert.assertTrue(regexMatcher.isFallbackRegex(0));
+        Assert.assertTrue(regexMatcher.isFallbackRegex(1));
+        Assert.assertFalse(regexMatcher.isFallbackRegex(2));
+        Assert.assertEquals(getJavaRegexMatches(regexList), getMatches(regexMatcher));
+    }
+
+    /**
+     * Test that the case of non-ASCII letters is folded, by both RE2J and the fallback regexes,
+     *   which java.util.regex with only CASE_INSENSITIVE doesn't do.
+     */
+    @Test
+    public void testUnicodeCaseFolding() throws Exception {
+        String text = "CAFÉ au lait, É é";
+        MultiPatternRegexMatcher regexMatcher = new MultiPatternRegexMatcher(Arrays.asList("café", "(é) \\1"));
+        Assert.assertFalse(regexMatcher.isFallbackRegex(0));
+        Assert.assertTrue(regexMatcher.isFallbackRegex(1));
+
+        Assert.assertEquals(Arrays.asList("0:0-4", "1:14-17"), getMatches(regexMatcher, text));
+        Assert.assertFalse(Pattern.compile("café", Pattern.CASE_INSENSITIVE).matcher(text).find());
+    }
+
+    /**
+     * Test that only the regexes matching a field are found, and none for a field without any match.
+     */
+    @Test
+    public void testMatchingRegexes() throws Exception {
+        MultiPatternRegexMatcher regexMatcher = new MultiPatternRegexMatcher(
+                Arrays.asList("angry", "tall", "clooney", "(to)(m)", "hanks"));
+        Assert.assertTrue(regexMatcher.findMatchingRegexes("nothing to see here").isEmpty());
+        Assert.assertEquals(BitSet.valueOf(new long[] { 0b00110 }), 
+                regexMatcher.findMatchingRegexes("Lin Clooney is tall"));
+        Assert.assertEquals(BitSet.valueOf(new long[] { 0b11010 }), 
+                regexMatcher.findMatchingRegexes("Tom Hanks is tall"));
+    }
+
+    /**
+     * Test that a regex hidden by another regex matching at the same place is still found,
+     *   both inside a longer match and at the same start.
+     */
+    @Test
+    public void testHiddenRegexes() throws Exception {
+        List<String> regexList = Arrays.asList("angry man", "gry", "an", "a", "short angry", "ry m", "x");
+        MultiPatternRegexMatcher regexMatcher = new MultiPatternRegexMatcher(regexList);
+        Assert.assertEquals(BitSet.valueOf(new long[] { 0b0111111 }), 
+                regexMatcher.findMatchingRegexes("a short angry man"));
+        Assert.assertEquals(getJavaRegexMatches(regexList), getMatches(regexMatcher));
+    }
+
+    /**
+     * Test the regexes of a large dictionary, which are found by the alternations of many levels.
+     */
+    @Test
+    public void testManyRegexes() throws Exception {
+        List<String> regexList = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            regexList.add("w" + i + "\\b");
+        }
+        MultiPatternRegexMatcher regexMatcher = new MultiPatternRegexMatcher(regexList);
+        BitSet expected = new BitSet();
+        expected.set(7);
+        expected.set(17);
+        expected.set(199);
+        Assert.assertEquals(expected, regexMatcher.findMatchingRegexes("w7 w17 w199 w1999"));
+    }
+
+}
@@ -0,0 +1,88 @@
+package edu.uci.ics.texera.dataflow.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexMatcher;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexPredicate;
+import edu.uci.ics.texera.dataflow.sink.tuple.TupleSink;
+import edu.uci.ics.texera.dataflow.source.tuple.TupleSourceOperator;
+import junit.framework.Assert;
+
+public class InstrumentedOperatorTest {
+
+    private static final RegexPredicate REGEX_PREDICATE = new RegexPredicate(
+            "[Aa]ngry", Arrays.asList(TestConstants.DESCRIPTION), "regexResults");
+
+    private static TupleSourceOperator getSourceOperator() {
+        List<Tuple> inputTuples = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            inputTuples.addAll(TestConstants.getSamplePeopleTuples());
+        }
+        return new TupleSourceOperator(inputTuples, TestConstants.SCHEMA_PEOPLE);
+    }
+
+    /*
+     * The metrics should count the tuples produced by each operator,
+     *   and the self time should exclude the time of the input operator.
+     *
+     * TupleSource --> RegexMatcher --> TupleSink
+     */
+    @Test
+    public void testTupleMetrics() throws TexeraException {
+        OperatorMetrics sourceMetrics = new OperatorMetrics("source", "TupleSourceOperator");
+        OperatorMetrics regexMetrics = new OperatorMetrics("regex", "RegexMatcher");
+        regexMetrics.addInputMetrics(sourceMetrics, true);
+
+        RegexMatcher regexMatcher = new RegexMatcher(REGEX_PREDICATE);
+        regexMatcher.setInputOperator(new InstrumentedOperator(getSourceOperator(), sourceMetrics));
+        TupleSink tupleSink = new TupleSink();
+        tupleSink.setInputOperator(new InstrumentedOperator(regexMatcher, regexMetrics));
+
+        tupleSink.open();
+        List<Tuple> results = tupleSink.collectAllTuples();
+        tupleSink.close();
+
+        Assert.assertEquals(40, results.size());
+        Assert.assertEquals(60, sourceMetrics.getOutputTupleCount());
+        Assert.assertEquals(60, regexMetrics.getInputTupleCount());
+        Assert.assertEquals(40, regexMetrics.getOutputTupleCount());
+        Assert.assertEquals(40.0 / 60, regexMetrics.getSelectivity(), 1e-9);
+        Assert.assertEquals(Arrays.asList("source"), regexMetrics.getInputOperatorIDs());
+
+        Assert.assertTrue(regexMetrics.getInclusiveTimeNanos() > 0);
+        Assert.assertTrue(regexMetrics.getInclusiveTimeNanos() >= sourceMetrics.getInclusiveTimeNanos());
+        Assert.assertEquals(regexMetrics.getInclusiveTimeNanos() - sourceMetrics.getInclusiveTimeNanos(),
+                regexMetrics.getSelfTimeNanos());
+        Assert.assertTrue(regexMetrics.getSelfAllocatedBytes() <= regexMetrics.getInclusiveAllocatedBytes());
+    }
+
+    /*
+     * The tuples produced by getNextBatch() should be counted as well.
+     */
+    @Test
+    public void testBatchMetrics() throws TexeraException {
+        OperatorMetrics sourceMetrics = new OperatorMetrics("source", "TupleSourceOperator");
+        InstrumentedOperator instrumentedSource = new InstrumentedOperator(getSourceOperator(), sourceMetrics);
+
+        instrumentedSource.open();
+        TupleBatch batch = new TupleBatch(7);
+        int tupleCount = 0;
+        while (instrumentedSource.getNextBatch(batch)) {
+            tupleCount += batch.size();
+        }
+        instrumentedSource.close();
+
+        Assert.assertEquals(60, tupleCount);
+        Assert.assertEquals(60, sourceMetrics.getOutputTupleCount());
+        Assert.assertEquals(1.0, sourceMetrics.getSelectivity(), 1e-9);
+    }
+
+}
@@ -1,8 +1,15 @@
 package edu.uci.ics.texera.dataflow.plangen;
 
+import org.junit.Assert;
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 import edu.uci.ics.texera.api.utils.TestUtils;
+import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+import edu.uci.ics.texera.dataflow.connector.OneToOnePipelineConnector;
 
 public class LogicalPlanJsonSerializationTest {
     
@@ -12,6 +19,36 @@ public class LogicalPlanJsonSerializationTest {
         TestUtils.testJsonSerialization(logicalPlan);
     }
     
+    @Test
+    public void testPipelinedLogicalPlan() throws Exception {
+        LogicalPlan logicalPlan = LogicalPlanTest.getLogicalPlan1();
+        logicalPlan.setPipelinedExecution(true);
+        logicalPlan.setQueueDepth(LogicalPlanTest.KEYWORD_SOURCE_ID, 4);
+        logicalPlan.setQueueDepth(LogicalPlanTest.REGEX_ID, 0);
+        JsonNode jsonNode = TestUtils.testJsonSerialization(logicalPlan);
+        
+        LogicalPlan resultPlan = new ObjectMapper().treeToValue(jsonNode, LogicalPlan.class);
+        Assert.assertTrue(resultPlan.isPipelinedExecution());
+        Assert.assertEquals(4, resultPlan.getQueueDepth(LogicalPlanTest.KEYWORD_SOURCE_ID));
+        Assert.assertEquals(0, resultPlan.getQueueDepth(LogicalPlanTest.REGEX_ID));
+    }
+    
+    /*
+     * The execution properties are optional, a plan without them is not pipelined.
+     */
+    @Test
+    public void testLogicalPlanWithoutExecutionProperties() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode jsonNode = objectMapper.valueToTree(LogicalPlanTest.getLogicalPlan1());
+        jsonNode.remove(PropertyNameConstants.PIPELINED_EXECUTION);
+        jsonNode.remove(PropertyNameConstants.QUEUE_DEPTHS);
+        
+        LogicalPlan resultPlan = objectMapper.treeToValue(jsonNode, LogicalPlan.class);
+        Assert.assertFalse(resultPlan.isPipelinedExecution());
+        Assert.assertEquals(OneToOnePipelineConnector.DEFAULT_QUEUE_DEPTH, 
+                resultPlan.getQueueDepth(LogicalPlanTest.REGEX_ID));
+    }
+    
     @Test
     public void testOperatorLink() throws Exception {
         OperatorLink operatorLink = new OperatorLink("origin", "destination");
@@ -19,6 +19,9 @@ import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.utils.Utils;
 import edu.uci.ics.texera.dataflow.connector.OneToNBroadcastConnector;
 import edu.uci.ics.texera.dataflow.connector.OneToNBroadcastConnector.ConnectorOutputOperator;
+import edu.uci.ics.texera.dataflow.connector.OneToOnePipelineConnector;
+import edu.uci.ics.texera.dataflow.connector.OneToOnePipelineConnector.PipelineOutputOperator;
+import edu.uci.ics.texera.dataflow.connector.ParallelOperator;
 import edu.uci.ics.texera.dataflow.fuzzytokenmatcher.FuzzyTokenMatcher;
 import edu.uci.ics.texera.dataflow.fuzzytokenmatcher.FuzzyTokenPredicate;
 import edu.uci.ics.texera.dataflow.join.Join;
@@ -26,13 +29,18 @@ import edu.uci.ics.texera.dataflow.join.JoinDistancePredicate;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordMatcherSourceOperator;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordMatchingType;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordSourcePredicate;
+import edu.uci.ics.texera.dataflow.metrics.InstrumentedOperator;
 import edu.uci.ics.texera.dataflow.nlp.entity.NlpEntityOperator;
 import edu.uci.ics.texera.dataflow.nlp.entity.NlpEntityPredicate;
 import edu.uci.ics.texera.dataflow.nlp.entity.NlpEntityType;
+import edu.uci.ics.texera.dataflow.projection.ProjectionOperator;
+import edu.uci.ics.texera.dataflow.projection.ProjectionPredicate;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexMatcher;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexPredicate;
 import edu.uci.ics.texera.dataflow.sink.tuple.TupleSink;
 import edu.uci.ics.texera.dataflow.sink.tuple.TupleSinkPredicate;
+import edu.uci.ics.texera.dataflow.source.scan.ScanBasedSourceOperator;
+import edu.uci.ics.texera.dataflow.source.scan.ScanSourcePredicate;
 import edu.uci.ics.texera.storage.RelationManager;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 import junit.framework.Assert;
@@ -211,6 +219,185 @@ public class LogicalPlanTest {
         Assert.assertTrue(keywordSource instanceof KeywordMatcherSourceOperator);
     }
 
+    /*
+     * Test a valid operator graph with pipelined execution.
+     * The queue depth of RegexMatcher is set to 0, so it's fused with TupleSink.
+     * 
+     * KeywordSource --> PipelineConnector --> RegexMatcher --> TupleSink
+     * 
+     */
+    @Test
+    public void testPipelinedLogicalPlan1() throws Exception {
+        LogicalPlan logicalPlan = getLogicalPlan1();
+        logicalPlan.setPipelinedExecution(true);
+        logicalPlan.setQueueDepth(KEYWORD_SOURCE_ID, 4);
+        logicalPlan.setQueueDepth(REGEX_ID, 0);
+
+        Plan queryPlan = logicalPlan.buildQueryPlan();
+
+        ISink tupleSink = queryPlan.getRoot();
+        Assert.assertTrue(tupleSink instanceof TupleSink);
+
+        IOperator regexMatcher = ((TupleSink) tupleSink).getInputOperator();
+        Assert.assertTrue(regexMatcher instanceof RegexMatcher);
+
+        IOperator pipelineOutput = ((RegexMatcher) regexMatcher).getInputOperator();
+        Assert.assertTrue(pipelineOutput instanceof PipelineOutputOperator);
+
+        OneToOnePipelineConnector connector = ((PipelineOutputOperator) pipelineOutput).getOwnerConnector();
+        Assert.assertEquals(4, connector.getQueueDepth());
+
+        IOperator keywordSource = connector.getInputOperator();
+        Assert.assertTrue(keywordSource instanceof KeywordMatcherSourceOperator);
+    }
+
+    /*
+     * Test a valid operator graph with a parallel RegexMatcher.
+     * 
+     * KeywordSource --> ParallelOperator (3 RegexMatchers) --> TupleSink
+     * 
+     */
+    @Test
+    public void testParallelLogicalPlan1() throws Exception {
+        setDefaultID();
+        RegexPredicate parallelRegexPredicate = new RegexPredicate(
+                "ca(lifornia)?", Arrays.asList("location", "content"), "regexResults");
+        parallelRegexPredicate.setID(REGEX_ID);
+        parallelRegexPredicate.setParallelism(3);
+        parallelRegexPredicate.setPreserveOrder(false);
+        
+        LogicalPlan logicalPlan = new LogicalPlan();
+        logicalPlan.addOperator(keywordSourcePredicate);
+        logicalPlan.addOperator(parallelRegexPredicate);
+        logicalPlan.addOperator(tupleSinkPredicate);
+        logicalPlan.addLink(new OperatorLink(KEYWORD_SOURCE_ID, REGEX_ID));
+        logicalPlan.addLink(new OperatorLink(REGEX_ID, TUPLE_SINK_ID));
+
+        Plan queryPlan = logicalPlan.buildQueryPlan();
+
+        IOperator parallelOperator = ((TupleSink) queryPlan.getRoot()).getInputOperator();
+        Assert.assertTrue(parallelOperator instanceof ParallelOperator);
+        Assert.assertEquals(3, ((ParallelOperator) parallelOperator).getParallelism());
+        Assert.assertFalse(((ParallelOperator) parallelOperator).isPreserveOrder());
+        for (IOperator replica : ((ParallelOperator) parallelOperator).getReplicas()) {
+            Assert.assertTrue(replica instanceof RegexMatcher);
+        }
+
+        IOperator keywordSource = ((ParallelOperator) parallelOperator).getInputOperator();
+        Assert.assertTrue(keywordSource instanceof KeywordMatcherSourceOperator);
+    }
+
+    /*
+     * Test an operator graph with a parallel operator that is not stateless.
+     * 
+     * KeywordSource (parallelism 2) --> RegexMatcher --> TupleSink
+     * 
+     */
+    @Test(expected = TexeraException.class)
+    public void testInvalidParallelLogicalPlan() throws Exception {
+        setDefaultID();
+        KeywordSourcePredicate parallelKeywordSourcePredicate = new KeywordSourcePredicate(
+                "irvine",
+                Arrays.asList("city", "location", "content"),
+                LuceneAnalyzerConstants.standardAnalyzerString(),
+                KeywordMatchingType.PHRASE_INDEXBASED,
+                TEST_TABLE,
+                "keywordSourceResults");
+        parallelKeywordSourcePredicate.setID(KEYWORD_SOURCE_ID);
+        parallelKeywordSourcePredicate.setParallelism(2);
+
+        LogicalPlan logicalPlan = new LogicalPlan();
+        logicalPlan.addOperator(parallelKeywordSourcePredicate);
+        logicalPlan.addOperator(regexPredicate);
+        logicalPlan.addOperator(tupleSinkPredicate);
+        logicalPlan.addLink(new OperatorLink(KEYWORD_SOURCE_ID, REGEX_ID));
+        logicalPlan.addLink(new OperatorLink(REGEX_ID, TUPLE_SINK_ID));
+
+        logicalPlan.buildQueryPlan();
+    }
+
+    /*
+     * Test pushing down the limit of the sink.
+     * The limit is pushed through the projection into the scan source, but not through the regex matcher.
+     * 
+     * ScanSource --> Projection --> TupleSink (limit 5, offset 2)
+     * ScanSource --> RegexMatcher --> TupleSink (limit 5, offset 2)
+     * 
+     */
+    @Test
+    public void testLimitPushDown() throws Exception {
+        ScanSourcePredicate scanSourcePredicate = new ScanSourcePredicate(TEST_TABLE);
+        scanSourcePredicate.setID("scan source");
+        ProjectionPredicate projectionPredicate = new ProjectionPredicate(Arrays.asList("city", "content"));
+        projectionPredicate.setID("projection");
+        TupleSinkPredicate limitedSinkPredicate = new TupleSinkPredicate(5, 2);
+        limitedSinkPredicate.setID(TUPLE_SINK_ID);
+        
+        LogicalPlan logicalPlan = new LogicalPlan();
+        logicalPlan.addOperator(scanSourcePredicate);
+        logicalPlan.addOperator(projectionPredicate);
+        logicalPlan.addOperator(limitedSinkPredicate);
+        logicalPlan.addLink(new OperatorLink("scan source", "projection"));
+        logicalPlan.addLink(new OperatorLink("projection", TUPLE_SINK_ID));
+
+        Plan queryPlan = logicalPlan.buildQueryPlan();
+        
+        IOperator projection = ((TupleSink) queryPlan.getRoot()).getInputOperator();
+        Assert.assertEquals(7, ((ProjectionOperator) projection).getLimit());
+        IOperator scanSource = ((ProjectionOperator) projection).getInputOperator();
+        Assert.assertEquals(7, ((ScanBasedSourceOperator) scanSource).getLimit());
+        
+        logicalPlan = new LogicalPlan();
+        logicalPlan.addOperator(scanSourcePredicate);
+        logicalPlan.addOperator(regexPredicate);
+        logicalPlan.addOperator(limitedSinkPredicate);
+        logicalPlan.addLink(new OperatorLink("scan source", REGEX_ID));
+        logicalPlan.addLink(new OperatorLink(REGEX_ID, TUPLE_SINK_ID));
+        
+        queryPlan = logicalPlan.buildQueryPlan();
+        
+        IOperator regexMatcher = ((TupleSink) queryPlan.getRoot()).getInputOperator();
+        Assert.assertEquals(7, ((RegexMatcher) regexMatcher).getLimit());
+        scanSource = ((RegexMatcher) regexMatcher).getInputOperator();
+        Assert.assertEquals(Integer.MAX_VALUE, ((ScanBasedSourceOperator) scanSource).getLimit());
+    }
+
+    /*
+     * Test an instrumented plan: the output of every operator (except the sink) is wrapped by an InstrumentedOperator,
+     *   and the metrics of each operator link to the metrics of its inputs.
+     * 
+     * KeywordSource --> RegexMatcher --> TupleSink
+     * 
+     */
+    @Test
+    public void testInstrumentedPlan() throws Exception {
+        LogicalPlan logicalPlan = getLogicalPlan1();
+        logicalPlan.setInstrumented(true);
+
+        Plan queryPlan = logicalPlan.buildQueryPlan();
+
+        IOperator regexMatcher = ((TupleSink) queryPlan.getRoot()).getInputOperator();
+        Assert.assertTrue(regexMatcher instanceof InstrumentedOperator);
+        Assert.assertTrue(((InstrumentedOperator) regexMatcher).getOperator() instanceof RegexMatcher);
+        
+        IOperator keywordSource = ((RegexMatcher) ((InstrumentedOperator) regexMatcher).getOperator()).getInputOperator();
+        Assert.assertTrue(keywordSource instanceof InstrumentedOperator);
+        Assert.assertTrue(((InstrumentedOperator) keywordSource).getOperator() instanceof KeywordMatcherSourceOperator);
+        
+        Assert.assertEquals(3, logicalPlan.getOperatorMetricsList().size());
+        Assert.assertEquals(Arrays.asList(KEYWORD_SOURCE_ID), logicalPlan.getOperatorMetrics(REGEX_ID).getInputOperatorIDs());
+        Assert.assertEquals(Arrays.asList(REGEX_ID), logicalPlan.getSinkOperatorMetrics().getInputOperatorIDs());
+        
+        TupleSink tupleSink = (TupleSink) queryPlan.getRoot();
+        tupleSink.open();
+        int resultCount = tupleSink.collectAllTuples().size();
+        tupleSink.close();
+        
+        Assert.assertEquals(resultCount, logicalPlan.getOperatorMetrics(REGEX_ID).getOutputTupleCount());
+        Assert.assertEquals(logicalPlan.getOperatorMetrics(KEYWORD_SOURCE_ID).getOutputTupleCount(), 
+                logicalPlan.getOperatorMetrics(REGEX_ID).getInputTupleCount());
+    }
+
     /*
      * Test a valid operator graph.
      *                  -> RegexMatcher -->
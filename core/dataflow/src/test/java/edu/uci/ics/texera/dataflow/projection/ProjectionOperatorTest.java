@@ -10,6 +10,7 @@ import edu.uci.ics.texera.api.field.StringField;
 import edu.uci.ics.texera.api.field.TextField;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
 import edu.uci.ics.texera.api.utils.TestUtils;
 
 import org.junit.AfterClass;
@@ -120,5 +121,35 @@ public class ProjectionOperatorTest {
         
         Assert.assertTrue(TestUtils.equals(expectedResults, returnedResults));
     }
+    
+    /*
+     * The batch path should return the same results as the tuple-at-a-time path,
+     *   including when the limit and offset cut through a batch.
+     */
+    @Test
+    public void testProjectionBatch() throws Exception {
+        List<String> projectionFields = Arrays.asList(
+                TestConstants.FIRST_NAME, TestConstants.DESCRIPTION);
+        
+        List<Tuple> expectedResults = getProjectionResults(
+                new ScanBasedSourceOperator(new ScanSourcePredicate(PEOPLE_TABLE)), projectionFields)
+                .subList(1, 5);
+        
+        ProjectionOperator projection = new ProjectionOperator(new ProjectionPredicate(projectionFields));
+        projection.setInputOperator(new ScanBasedSourceOperator(new ScanSourcePredicate(PEOPLE_TABLE)));
+        projection.setOffset(1);
+        projection.setLimit(4);
+        projection.open();
+        
+        List<Tuple> returnedResults = new ArrayList<>();
+        TupleBatch batch = new TupleBatch(3);
+        while (projection.getNextBatch(batch)) {
+            Assert.assertTrue(batch.size() <= 3);
+            returnedResults.addAll(batch.toList());
+        }
+        projection.close();
+        
+        Assert.assertTrue(TestUtils.equals(expectedResults, returnedResults));
+    }
 
 }
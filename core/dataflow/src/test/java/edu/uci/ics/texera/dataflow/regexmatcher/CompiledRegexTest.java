@@ -0,0 +1,79 @@
+package edu.uci.ics.texera.dataflow.regexmatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledRegexTest {
+
+    private static final List<String> TEXTS = Arrays.asList(
+            "Lin Clooney is a short angry man, he is angry about everything",
+            "Tom Hanks is tall, george lin is tall too",
+            "http://www.texera.org/docs and (949)888-8888",
+            "");
+
+    private static List<String> getMatches(CompiledRegex compiledRegex) {
+        List<String> results = new ArrayList<>();
+        for (String text : TEXTS) {
+            compiledRegex.findMatches(text, (start, end) -> results.add(start + "-" + end));
+        }
+        return results;
+    }
+
+    /*
+     * Both engines should find the same matches for the regexes supported by RE2J.
+     */
+    @Test
+    public void testSameMatchesAsJava() {
+        List<String> regexList = Arrays.asList(
+                "g[^\\s]*", "angry", "lin", "is (tall|short)", "\\b[a-z]+\\b", "\\(\\d{3}\\)\\d{3}-\\d{4}",
+                "^(https?:\\/\\/)?([\\da-z\\.-]+)\\.([a-z\\.]{2,6})");
+        for (String regex : regexList) {
+            for (boolean ignoreCase : Arrays.asList(false, true)) {
+                CompiledRegex re2jRegex = CompiledRegex.compile(regex, ignoreCase, RegexEngine.RE2J);
+                CompiledRegex javaRegex = CompiledRegex.compile(regex, ignoreCase, RegexEngine.JAVA);
+                Assert.assertEquals(RegexEngine.RE2J, re2jRegex.getEngine());
+                Assert.assertEquals(RegexEngine.JAVA, javaRegex.getEngine());
+                Assert.assertEquals(regex, getMatches(javaRegex), getMatches(re2jRegex));
+            }
+        }
+    }
+
+    /*
+     * The regexes not supported by RE2J should fall back to java.util.regex.
+     */
+    @Test
+    public void testFallback() {
+        CompiledRegex backreference = CompiledRegex.compile("(is) .* \\1", false, RegexEngine.RE2J);
+        Assert.assertEquals(RegexEngine.JAVA, backreference.getEngine());
+        Assert.assertEquals(Arrays.asList("12-39", "10-32"), getMatches(backreference));
+
+        CompiledRegex lookahead = CompiledRegex.compile("angry(?= man)", false, RegexEngine.RE2J);
+        Assert.assertEquals(RegexEngine.JAVA, lookahead.getEngine());
+        Assert.assertEquals(Arrays.asList("23-28"), getMatches(lookahead));
+    }
+
+    @Test(expected = java.util.regex.PatternSyntaxException.class)
+    public void testInvalidRegex() {
+        CompiledRegex.compile("(abc", false, RegexEngine.RE2J);
+    }
+
+    /*
+     * A catastrophic-backtracking pattern should be matched in linear time by RE2J.
+     */
+    @Test(timeout = 10000)
+    public void testNoCatastrophicBacktracking() {
+        String text = String.join("", Collections.nCopies(100000, "a"));
+        CompiledRegex compiledRegex = CompiledRegex.compile("(a+)+b", false, RegexEngine.RE2J);
+        Assert.assertEquals(RegexEngine.RE2J, compiledRegex.getEngine());
+
+        List<String> results = new ArrayList<>();
+        compiledRegex.findMatches(text, (start, end) -> results.add(start + "-" + end));
+        Assert.assertTrue(results.isEmpty());
+    }
+
+}
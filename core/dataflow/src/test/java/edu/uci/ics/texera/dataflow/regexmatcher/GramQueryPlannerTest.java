@@ -0,0 +1,125 @@
+package edu.uci.ics.texera.dataflow.regexmatcher;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.uci.ics.texera.dataflow.regexmatcher.GramBooleanQuery.QueryOp;
+import edu.uci.ics.texera.dataflow.regexmatcher.GramQueryPlanner.IndexPlan;
+import edu.uci.ics.texera.dataflow.regexmatcher.GramQueryPlanner.PlanType;
+
+public class GramQueryPlannerTest {
+
+    private static final int DOCUMENT_COUNT = 1000;
+
+    private static GramBooleanQuery newQuery(QueryOp operator, GramBooleanQuery... subQueries) {
+        GramBooleanQuery query = new GramBooleanQuery(operator);
+        query.subQuerySet.addAll(Arrays.asList(subQueries));
+        return query;
+    }
+
+    private static GramQueryPlanner newPlanner(Object... gramsAndFrequencies) {
+        Map<String, Integer> gramDocumentFrequencies = new HashMap<>();
+        for (int i = 0; i < gramsAndFrequencies.length; i += 2) {
+            gramDocumentFrequencies.put((String) gramsAndFrequencies[i], (Integer) gramsAndFrequencies[i + 1]);
+        }
+        return new GramQueryPlanner(gramDocumentFrequencies, DOCUMENT_COUNT);
+    }
+
+    /*
+     * All the grams are rare, so all of them should be read.
+     */
+    @Test
+    public void testIndexPlan() {
+        GramBooleanQuery query = newQuery(QueryOp.AND,
+                GramBooleanQuery.newLeafNode("abc"), GramBooleanQuery.newLeafNode("bcd"));
+        IndexPlan plan = newPlanner("abc", 5, "bcd", 5).choosePlan(query);
+
+        Assert.assertEquals(PlanType.INDEX, plan.getPlanType());
+        Assert.assertEquals(query, plan.getGramQuery());
+        Assert.assertEquals(0.025, plan.getEstimatedCandidates(), 1e-9);
+        Assert.assertTrue(plan.getEstimatedCost() < plan.getScanCost());
+    }
+
+    /*
+     * Reading a common gram costs more than verifying the candidates it filters out, so it should be pruned.
+     */
+    @Test
+    public void testPrunedIndexPlan() {
+        GramBooleanQuery query = newQuery(QueryOp.AND,
+                GramBooleanQuery.newLeafNode("the"), GramBooleanQuery.newLeafNode("xyz"));
+        IndexPlan plan = newPlanner("the", 900, "xyz", 5).choosePlan(query);
+
+        Assert.assertEquals(PlanType.PRUNED_INDEX, plan.getPlanType());
+        Assert.assertEquals(GramBooleanQuery.newLeafNode("xyz"), plan.getGramQuery());
+        Assert.assertEquals(5.0, plan.getEstimatedCandidates(), 1e-9);
+    }
+
+    /*
+     * The common grams under an OR should be pruned inside each branch.
+     */
+    @Test
+    public void testPrunedDisjunction() {
+        GramBooleanQuery query = newQuery(QueryOp.OR,
+                newQuery(QueryOp.AND, GramBooleanQuery.newLeafNode("the"), GramBooleanQuery.newLeafNode("xyz")),
+                GramBooleanQuery.newLeafNode("qqq"));
+        IndexPlan plan = newPlanner("the", 900, "xyz", 5, "qqq", 10).choosePlan(query);
+
+        Assert.assertEquals(PlanType.PRUNED_INDEX, plan.getPlanType());
+        Assert.assertEquals(newQuery(QueryOp.OR, GramBooleanQuery.newLeafNode("xyz"), GramBooleanQuery.newLeafNode("qqq")),
+                plan.getGramQuery());
+    }
+
+    /*
+     * A gram in almost every document doesn't filter enough documents, so the table should be scanned.
+     */
+    @Test
+    public void testScanPlanForCommonGrams() {
+        GramBooleanQuery query = newQuery(QueryOp.AND,
+                GramBooleanQuery.newLeafNode("the"), GramBooleanQuery.newLeafNode("and"));
+        IndexPlan plan = newPlanner("the", 1000, "and", 995).choosePlan(query);
+
+        Assert.assertEquals(PlanType.SCAN, plan.getPlanType());
+        Assert.assertNull(plan.getGramQuery());
+        Assert.assertEquals(DOCUMENT_COUNT, plan.getEstimatedCandidates(), 1e-9);
+    }
+
+    /*
+     * An OR with a branch without any gram can't filter any document.
+     */
+    @Test
+    public void testScanPlanForAny() {
+        GramBooleanQuery query = newQuery(QueryOp.OR,
+                GramBooleanQuery.newLeafNode("xyz"), new GramBooleanQuery(QueryOp.ANY));
+        IndexPlan plan = newPlanner("xyz", 1).choosePlan(query);
+
+        Assert.assertEquals(PlanType.SCAN, plan.getPlanType());
+    }
+
+    /*
+     * The plan of a translated regex should only use the grams of the original query.
+     */
+    @Test
+    public void testTranslatedRegex() {
+        GramBooleanQuery query = RegexToGramQueryTranslator.translate("texera|lucene");
+        Map<String, Integer> gramDocumentFrequencies = new HashMap<>();
+        for (String gram : GramQueryPlanner.getGrams(query)) {
+            gramDocumentFrequencies.put(gram, 1);
+        }
+        IndexPlan plan = new GramQueryPlanner(gramDocumentFrequencies, DOCUMENT_COUNT).choosePlan(query);
+
+        Assert.assertTrue(plan.getPlanType() != PlanType.SCAN);
+        Assert.assertTrue(GramQueryPlanner.getGrams(query).containsAll(GramQueryPlanner.getGrams(plan.getGramQuery())));
+    }
+
+    @Test
+    public void testGramTerm() {
+        Assert.assertEquals("abc", GramQueryPlanner.getGramTerm("abc"));
+        Assert.assertEquals("a+b", GramQueryPlanner.getGramTerm("a\\+b"));
+        Assert.assertEquals("a\\b", GramQueryPlanner.getGramTerm("a\\\\b"));
+    }
+
+}
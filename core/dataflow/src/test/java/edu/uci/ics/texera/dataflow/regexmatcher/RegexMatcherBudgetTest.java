@@ -0,0 +1,98 @@
+package edu.uci.ics.texera.dataflow.regexmatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.field.TextField;
+import edu.uci.ics.texera.api.schema.Attribute;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.metrics.OperatorMetrics;
+import edu.uci.ics.texera.dataflow.source.tuple.TupleSourceOperator;
+
+public class RegexMatcherBudgetTest {
+
+    private static final String CONTENT = "content";
+    private static final Schema SCHEMA = new Schema(new Attribute(CONTENT, AttributeType.TEXT));
+
+    // java.util.regex backtracks exponentially on this regex if the text has many "a"s without a "b",
+    //   a counted repetition is used since newer JDKs memoize the backtracking of "(a+)+b"
+    private static final String CATASTROPHIC_REGEX = "(a+){1,40}b";
+
+    private static List<Tuple> getInputTuples() {
+        String pathologicalText = String.join("", Collections.nCopies(40, "a"));
+        return Arrays.asList(
+                new Tuple(SCHEMA, new TextField("aab")),
+                new Tuple(SCHEMA, new TextField(pathologicalText)),
+                new Tuple(SCHEMA, new TextField("ab ab")));
+    }
+
+    private static List<Tuple> getResults(RegexMatcher regexMatcher) {
+        regexMatcher.setInputOperator(new TupleSourceOperator(getInputTuples(), SCHEMA));
+        List<Tuple> results = new ArrayList<>();
+        regexMatcher.open();
+        Tuple tuple;
+        while ((tuple = regexMatcher.getNextTuple()) != null) {
+            results.add(tuple);
+        }
+        regexMatcher.close();
+        return results;
+    }
+
+    /*
+     * The tuple exceeding the budget should be skipped and counted,
+     *   and the other tuples should be matched as usual.
+     */
+    @Test(timeout = 30000)
+    public void testBudgetExceeded() {
+        RegexPredicate predicate = new RegexPredicate(CATASTROPHIC_REGEX, Arrays.asList(CONTENT), null, "results",
+                null, 50L);
+        RegexMatcher regexMatcher = new RegexMatcher(predicate);
+        OperatorMetrics operatorMetrics = new OperatorMetrics("regex", "RegexMatcher");
+        regexMatcher.setOperatorMetrics(operatorMetrics);
+
+        List<Tuple> results = getResults(regexMatcher);
+
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals("aab", results.get(0).getField(CONTENT).getValue());
+        Assert.assertEquals("ab ab", results.get(1).getField(CONTENT).getValue());
+        Assert.assertEquals(1, regexMatcher.getBudgetExceededCount());
+        Assert.assertEquals(Long.valueOf(1), operatorMetrics.getCounters().get(RegexMatcher.BUDGET_EXCEEDED_COUNTER));
+    }
+
+    /*
+     * RE2J matches the same regex in linear time, so no tuple should exceed the budget.
+     */
+    @Test(timeout = 30000)
+    public void testBudgetWithRe2j() {
+        RegexPredicate predicate = new RegexPredicate(CATASTROPHIC_REGEX, Arrays.asList(CONTENT), null, "results",
+                RegexEngine.RE2J, 1000L);
+        RegexMatcher regexMatcher = new RegexMatcher(predicate);
+
+        List<Tuple> results = getResults(regexMatcher);
+
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals(0, regexMatcher.getBudgetExceededCount());
+    }
+
+    /*
+     * The budgeted text should be read in the same way as the original text.
+     */
+    @Test
+    public void testBudgetedCharSequence() {
+        BudgetedCharSequence text = new BudgetedCharSequence("hello world",
+                new BudgetedCharSequence.Budget(Long.MAX_VALUE / 2));
+        Assert.assertEquals(11, text.length());
+        Assert.assertEquals('w', text.charAt(6));
+        Assert.assertEquals("world", text.subSequence(6, 11).toString());
+        Assert.assertEquals('r', text.subSequence(6, 11).charAt(2));
+        Assert.assertEquals("hello world", text.toString());
+    }
+
+}
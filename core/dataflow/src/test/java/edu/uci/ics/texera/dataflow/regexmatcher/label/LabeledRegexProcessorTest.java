@@ -0,0 +1,126 @@
+package edu.uci.ics.texera.dataflow.regexmatcher.label;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.field.TextField;
+import edu.uci.ics.texera.api.schema.Attribute;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexPredicate;
+
+public class LabeledRegexProcessorTest {
+
+    private static final String CONTENT = "content";
+
+    private static final Schema SCHEMA = new Schema(
+            new Attribute(CONTENT, AttributeType.TEXT),
+            new Attribute("lab1", AttributeType.LIST),
+            new Attribute("lab2", AttributeType.LIST));
+
+    private static Tuple getTuple(String content, List<String> lab1Values, List<String> lab2Values) {
+        return new Tuple(SCHEMA, new TextField(content), getLabelField(content, lab1Values), getLabelField(content, lab2Values));
+    }
+
+    private static ListField<Span> getLabelField(String content, List<String> values) {
+        List<Span> spans = new ArrayList<>();
+        for (String value : values) {
+            int start = Math.max(content.indexOf(value), 0);
+            spans.add(new Span(CONTENT, start, start + value.length(), value, value));
+        }
+        return new ListField<>(spans);
+    }
+
+    private static List<Span> match(String regex, boolean ignoreCase, Tuple tuple) {
+        RegexPredicate predicate = new RegexPredicate(regex, Arrays.asList(CONTENT), ignoreCase, "results", null, null);
+        return new LabeledRegexProcessor(predicate).computeMatchingResults(tuple);
+    }
+
+    /*
+     * The label values should be matched literally, even if they have special characters of regex.
+     */
+    @Test
+    public void testSpecialCharactersInValues() {
+        String content = "C++ is faster than C. C# (and Java) are safer than C++";
+        Tuple tuple = getTuple(content, Arrays.asList("C++", "C#", "C."), Arrays.asList("(and Java)"));
+
+        List<Span> results = match("<lab1> <lab2>?\\s*(is|are)", false, tuple);
+
+        String regex = "<lab1> <lab2>?\\s*(is|are)";
+        List<Span> expectedResults = Arrays.asList(
+                new Span(CONTENT, 0, 6, regex, "C++ is"),
+                new Span(CONTENT, 22, 39, regex, "C# (and Java) are"));
+        Assert.assertEquals(expectedResults, results);
+    }
+
+    /*
+     * A label whose values don't occur in the text should not match,
+     *   but a label without any span matches an empty string as before.
+     */
+    @Test
+    public void testValuesNotInText() {
+        String regex = "<lab1>.*<lab2>";
+        Tuple tuple = getTuple("aspirin reduces fever", Arrays.asList("aspirin"), Arrays.asList("headache"));
+        Assert.assertTrue(match(regex, false, tuple).isEmpty());
+
+        Tuple tupleWithoutSpans = getTuple("aspirin reduces fever", Arrays.asList("aspirin"), Arrays.asList());
+        Assert.assertEquals(Arrays.asList(new Span(CONTENT, 0, 21, regex, "aspirin reduces fever")),
+                match(regex, false, tupleWithoutSpans));
+    }
+
+    /*
+     * A value of more than one label should be kept for all of its labels.
+     */
+    @Test
+    public void testSameValueInLabels() {
+        String regex = "<lab1> and <lab2>";
+        Tuple tuple = getTuple("rock and roll", Arrays.asList("rock", "roll"), Arrays.asList("roll", "rock"));
+        Assert.assertEquals(Arrays.asList(new Span(CONTENT, 0, 13, regex, "rock and roll")), match(regex, false, tuple));
+    }
+
+    /*
+     * The values should be found in the text in the same way as the regex ignores the case.
+     */
+    @Test
+    public void testIgnoreCase() {
+        String regex = "<lab1> (causes|reduces) <lab2>";
+        Tuple tuple = getTuple("ASPIRIN reduces Fever, and aspirin causes ulcers",
+                Arrays.asList("aspirin"), Arrays.asList("fever", "ulcers"));
+
+        Assert.assertEquals(Arrays.asList(new Span(CONTENT, 27, 48, regex, "aspirin causes ulcers")),
+                match(regex, false, tuple));
+        Assert.assertEquals(Arrays.asList(
+                new Span(CONTENT, 0, 21, regex, "ASPIRIN reduces Fever"),
+                new Span(CONTENT, 27, 48, regex, "aspirin causes ulcers")),
+                match(regex, true, tuple));
+    }
+
+    /*
+     * The results of the tuples with different label values should not be mixed up by the cached patterns,
+     *   and a repeated label should be replaced by its values everywhere.
+     */
+    @Test
+    public void testManyTuples() {
+        String regex = "<lab1> is (not )?<lab2>, <lab1>!";
+        LabeledRegexProcessor processor = new LabeledRegexProcessor(
+                new RegexPredicate(regex, Arrays.asList(CONTENT), false, "results", null, null));
+
+        for (int i = 0; i < LabeledRegexProcessor.MAX_CACHED_PATTERNS * 2; i++) {
+            String name = "name" + (i % (LabeledRegexProcessor.MAX_CACHED_PATTERNS + 1));
+            String content = name + " is not tall, " + name + "! " + name + " is short.";
+            Tuple tuple = getTuple(content, Arrays.asList(name, "other"), Arrays.asList("tall", "short"));
+
+            List<Span> results = processor.computeMatchingResults(tuple);
+            String expectedValue = name + " is not tall, " + name + "!";
+            Assert.assertEquals(Arrays.asList(new Span(CONTENT, 0, expectedValue.length(), regex, expectedValue)), results);
+        }
+    }
+
+}
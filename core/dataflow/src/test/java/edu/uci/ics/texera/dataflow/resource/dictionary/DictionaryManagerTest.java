@@ -0,0 +1,236 @@
+package edu.uci.ics.texera.dataflow.resource.dictionary;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.CompiledDictionary;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.Dictionary;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.DictionaryMatcher;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.DictionaryPredicate;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.FSTDictionary;
+import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordMatchingType;
+import edu.uci.ics.texera.dataflow.sink.tuple.TupleSink;
+import edu.uci.ics.texera.dataflow.source.tuple.TupleSourceOperator;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+import edu.uci.ics.texera.storage.utils.StorageUtils;
+import junit.framework.Assert;
+
+public class DictionaryManagerTest {
+
+    private static final String DICTIONARY_NAME = "dictionary_manager_test_dictionary.txt";
+    private static final String ANALYZER = LuceneAnalyzerConstants.standardAnalyzerString();
+
+    private DictionaryManager dictionaryManager;
+
+    @Before
+    public void setUp() throws Exception {
+        dictionaryManager = DictionaryManager.getInstance();
+        dictionaryManager.clearCompiledDictionaryCache();
+        dictionaryManager.addDictionary(DICTIONARY_NAME, "tom hanks,angry,lin");
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        dictionaryManager.invalidateCompiledDictionary(DICTIONARY_NAME);
+        dictionaryManager.setPersistCompiledDictionaries(false);
+        dictionaryManager.setCompiledDictionaryCacheMaxBytes(DictionaryManagerConstants.COMPILED_DICTIONARY_CACHE_MAX_BYTES);
+        Files.deleteIfExists(DictionaryManagerConstants.DICTIONARY_DIR_PATH.resolve(DICTIONARY_NAME));
+        StorageUtils.deleteDirectory(DictionaryManagerConstants.FST_DICTIONARY_DIR_PATH.resolve(DICTIONARY_NAME).toString());
+    }
+
+    /*
+     * The compiled dictionary should be cached for each analyzer and matching type.
+     */
+    @Test
+    public void testCompiledDictionaryCache() throws Exception {
+        CompiledDictionary phraseDictionary = dictionaryManager.getCompiledDictionary(
+                DICTIONARY_NAME, ANALYZER, KeywordMatchingType.PHRASE_INDEXBASED);
+        Assert.assertEquals(Arrays.asList("tom hanks", "angry", "lin"), phraseDictionary.getDictionaryEntries());
+        Assert.assertNotNull(phraseDictionary.getTokenIndex());
+        Assert.assertNull(phraseDictionary.getTrie());
+
+        Assert.assertSame(phraseDictionary, dictionaryManager.getCompiledDictionary(
+                DICTIONARY_NAME, ANALYZER, KeywordMatchingType.PHRASE_INDEXBASED));
+
+        CompiledDictionary scanDictionary = dictionaryManager.getCompiledDictionary(
+                DICTIONARY_NAME, ANALYZER, KeywordMatchingType.SUBSTRING_SCANBASED);
+        Assert.assertNotSame(phraseDictionary, scanDictionary);
+        Assert.assertNotNull(scanDictionary.getTrie());
+        Assert.assertEquals(2, dictionaryManager.getCompiledDictionaryCacheSize());
+        Assert.assertEquals(phraseDictionary.getMemoryUsageBytes() + scanDictionary.getMemoryUsageBytes(),
+                dictionaryManager.getCompiledDictionaryCacheBytes());
+    }
+
+    /*
+     * The callers asking for the same dictionary at the same time should get the same compiled dictionary,
+     *   which is compiled and cached once.
+     */
+    @Test
+    public void testConcurrentCompilation() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<CompiledDictionary>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> dictionaryManager.getCompiledDictionary(
+                        DICTIONARY_NAME, ANALYZER, KeywordMatchingType.SUBSTRING_SCANBASED)));
+            }
+            CompiledDictionary compiledDictionary = futures.get(0).get();
+            for (Future<CompiledDictionary> future : futures) {
+                Assert.assertSame(compiledDictionary, future.get());
+            }
+            Assert.assertEquals(1, dictionaryManager.getCompiledDictionaryCacheSize());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /*
+     * Overwriting a dictionary should invalidate its compiled dictionaries.
+     */
+    @Test
+    public void testInvalidateOnOverwrite() throws Exception {
+        CompiledDictionary compiledDictionary = dictionaryManager.getCompiledDictionary(
+                DICTIONARY_NAME, ANALYZER, KeywordMatchingType.CONJUNCTION_INDEXBASED);
+
+        dictionaryManager.addDictionary(DICTIONARY_NAME, "george,happy");
+        Assert.assertEquals(0, dictionaryManager.getCompiledDictionaryCacheSize());
+
+        CompiledDictionary newCompiledDictionary = dictionaryManager.getCompiledDictionary(
+                DICTIONARY_NAME, ANALYZER, KeywordMatchingType.CONJUNCTION_INDEXBASED);
+        Assert.assertNotSame(compiledDictionary, newCompiledDictionary);
+        Assert.assertEquals(Arrays.asList("george", "happy"), newCompiledDictionary.getDictionaryEntries());
+    }
+
+    /*
+     * The least recently used compiled dictionaries should be evicted when the cache is full.
+     */
+    @Test
+    public void testCacheMemoryBound() throws Exception {
+        CompiledDictionary phraseDictionary = dictionaryManager.getCompiledDictionary(
+                DICTIONARY_NAME, ANALYZER, KeywordMatchingType.PHRASE_INDEXBASED);
+        dictionaryManager.setCompiledDictionaryCacheMaxBytes(phraseDictionary.getMemoryUsageBytes());
+
+        CompiledDictionary conjunctionDictionary = dictionaryManager.getCompiledDictionary(
+                DICTIONARY_NAME, ANALYZER, KeywordMatchingType.CONJUNCTION_INDEXBASED);
+        Assert.assertEquals(1, dictionaryManager.getCompiledDictionaryCacheSize());
+        Assert.assertEquals(conjunctionDictionary.getMemoryUsageBytes(), dictionaryManager.getCompiledDictionaryCacheBytes());
+        Assert.assertNotSame(phraseDictionary, dictionaryManager.getCompiledDictionary(
+                DICTIONARY_NAME, ANALYZER, KeywordMatchingType.PHRASE_INDEXBASED));
+
+        // a compiled dictionary larger than the cache is not cached
+        dictionaryManager.getCompiledDictionary(DICTIONARY_NAME, ANALYZER, KeywordMatchingType.REGEX);
+        Assert.assertTrue(dictionaryManager.getCompiledDictionaryCacheBytes() <= phraseDictionary.getMemoryUsageBytes());
+    }
+
+    /*
+     * A persisted compiled dictionary should be read from disk after the cache is cleared.
+     */
+    @Test
+    public void testPersistCompiledDictionary() throws Exception {
+        dictionaryManager.setPersistCompiledDictionaries(true);
+        CompiledDictionary compiledDictionary = dictionaryManager.getCompiledDictionary(
+                DICTIONARY_NAME, ANALYZER, KeywordMatchingType.SUBSTRING_SCANBASED);
+
+        dictionaryManager.clearCompiledDictionaryCache();
+        CompiledDictionary readDictionary = dictionaryManager.getCompiledDictionary(
+                DICTIONARY_NAME, ANALYZER, KeywordMatchingType.SUBSTRING_SCANBASED);
+        Assert.assertNotSame(compiledDictionary, readDictionary);
+        Assert.assertEquals(compiledDictionary.getDictionaryEntries(), readDictionary.getDictionaryEntries());
+        Assert.assertEquals(compiledDictionary.getMemoryUsageBytes(), readDictionary.getMemoryUsageBytes());
+        Assert.assertEquals(3, readDictionary.getTrie().parseText("Tom Hanks is angry, angry").size());
+    }
+
+    /*
+     * The compiled dictionary persisted for the old content should not be read after the dictionary is overwritten.
+     */
+    @Test
+    public void testPersistCompiledDictionaryOnOverwrite() throws Exception {
+        dictionaryManager.setPersistCompiledDictionaries(true);
+        dictionaryManager.getCompiledDictionary(DICTIONARY_NAME, ANALYZER, KeywordMatchingType.SUBSTRING_SCANBASED);
+
+        dictionaryManager.addDictionary(DICTIONARY_NAME, "george,happy");
+        dictionaryManager.clearCompiledDictionaryCache();
+        CompiledDictionary compiledDictionary = dictionaryManager.getCompiledDictionary(
+                DICTIONARY_NAME, ANALYZER, KeywordMatchingType.SUBSTRING_SCANBASED);
+        Assert.assertEquals(Arrays.asList("george", "happy"), compiledDictionary.getDictionaryEntries());
+    }
+
+    /*
+     * DictionaryMatcher should return the same results with the cached compiled dictionary.
+     */
+    @Test
+    public void testDictionaryMatcherWithStoredDictionary() throws Exception {
+        List<String> entries = dictionaryManager.getDictionaryEntries(DICTIONARY_NAME);
+        List<ListField<Span>> expectedResults = getDictionaryMatcherResults(new Dictionary(entries));
+        List<ListField<Span>> results = getDictionaryMatcherResults(new Dictionary(entries, DICTIONARY_NAME));
+
+        Assert.assertFalse(results.isEmpty());
+        Assert.assertEquals(expectedResults, results);
+        Assert.assertEquals(1, dictionaryManager.getCompiledDictionaryCacheSize());
+    }
+
+    /*
+     * A dictionary given only by its name should be matched by substring against its FST.
+     */
+    @Test
+    public void testDictionaryMatcherWithFSTDictionary() throws Exception {
+        FSTDictionary fstDictionary = dictionaryManager.getFSTDictionary(DICTIONARY_NAME);
+        Assert.assertEquals(3, fstDictionary.getEntryCount());
+        Assert.assertSame(fstDictionary, dictionaryManager.getFSTDictionary(DICTIONARY_NAME));
+
+        List<ListField<Span>> expectedResults = getDictionaryMatcherResults(
+                new Dictionary(dictionaryManager.getDictionaryEntries(DICTIONARY_NAME)), KeywordMatchingType.SUBSTRING_SCANBASED);
+        List<ListField<Span>> results = getDictionaryMatcherResults(
+                new Dictionary(null, DICTIONARY_NAME), KeywordMatchingType.SUBSTRING_SCANBASED);
+
+        Assert.assertFalse(results.isEmpty());
+        Assert.assertEquals(expectedResults.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            // the spans of a field are reported by start position instead of by end position
+            Assert.assertEquals(new HashSet<>(expectedResults.get(i).getValue()), new HashSet<>(results.get(i).getValue()));
+        }
+        Assert.assertEquals(0, dictionaryManager.getCompiledDictionaryCacheSize());
+
+        // the FST is written again when the dictionary is overwritten
+        dictionaryManager.addDictionary(DICTIONARY_NAME, "george,happy");
+        Assert.assertEquals(2, dictionaryManager.getFSTDictionary(DICTIONARY_NAME).getEntryCount());
+    }
+
+    private static List<ListField<Span>> getDictionaryMatcherResults(Dictionary dictionary) {
+        return getDictionaryMatcherResults(dictionary, KeywordMatchingType.PHRASE_INDEXBASED);
+    }
+
+    private static List<ListField<Span>> getDictionaryMatcherResults(Dictionary dictionary,
+            KeywordMatchingType keywordMatchingType) {
+        DictionaryPredicate predicate = new DictionaryPredicate(dictionary,
+                Arrays.asList(TestConstants.DESCRIPTION), ANALYZER, keywordMatchingType, "results");
+        DictionaryMatcher dictionaryMatcher = new DictionaryMatcher(predicate);
+        dictionaryMatcher.setInputOperator(new TupleSourceOperator(
+                new ArrayList<>(TestConstants.getSamplePeopleTuples()), TestConstants.SCHEMA_PEOPLE));
+        TupleSink tupleSink = new TupleSink();
+        tupleSink.setInputOperator(dictionaryMatcher);
+
+        tupleSink.open();
+        List<ListField<Span>> results = new ArrayList<>();
+        for (Tuple tuple : tupleSink.collectAllTuples()) {
+            results.add(tuple.getField("results"));
+        }
+        tupleSink.close();
+        return results;
+    }
+
+}
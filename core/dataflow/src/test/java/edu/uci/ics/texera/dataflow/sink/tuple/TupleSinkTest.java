@@ -16,6 +16,7 @@ import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
 import edu.uci.ics.texera.dataflow.sink.tuple.TupleSink;
 import edu.uci.ics.texera.dataflow.source.tuple.TupleSourceOperator;
 import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
@@ -101,4 +102,47 @@ public class TupleSinkTest {
         Assert.assertTrue(resultTuple2 == null);
     }
     
+    /*
+     * Test getting the tuples in batches whose capacity is smaller than the number of tuples.
+     */
+    @Test
+    public void testGetNextBatch() throws Exception {
+        TupleSink tupleSink = new TupleSink();
+        tupleSink.setInputOperator(inputOperator);
+        
+        tupleSink.open();
+        TupleBatch batch = new TupleBatch(2);
+        
+        Assert.assertTrue(tupleSink.getNextBatch(batch));
+        Assert.assertEquals(2, batch.size());
+        Assert.assertEquals("test1", batch.get(0).getField("content").getValue());
+        Assert.assertEquals("test2", batch.get(1).getField("content").getValue());
+        Assert.assertFalse(batch.get(0).getSchema().containsAttribute(SchemaConstants.PAYLOAD));
+        
+        Assert.assertTrue(tupleSink.getNextBatch(batch));
+        Assert.assertEquals(1, batch.size());
+        Assert.assertEquals("test3", batch.get(0).getField("content").getValue());
+        
+        Assert.assertFalse(tupleSink.getNextBatch(batch));
+        Assert.assertTrue(batch.isEmpty());
+        tupleSink.close();
+    }
+    
+    /*
+     * Test tuple sink predicate with limit 1 and offset 1 in the batch path.
+     */
+    @Test
+    public void testLimitOffsetBatch() throws Exception {
+        TupleSink tupleSink = new TupleSink(new TupleSinkPredicate(1, 1));
+        tupleSink.setInputOperator(inputOperator);
+        
+        tupleSink.open();
+        TupleBatch batch = new TupleBatch();
+        Assert.assertTrue(tupleSink.getNextBatch(batch));
+        Assert.assertEquals(1, batch.size());
+        Assert.assertEquals("test2", batch.get(0).getField("content").getValue());
+        Assert.assertFalse(tupleSink.getNextBatch(batch));
+        tupleSink.close();
+    }
+    
 }
@@ -0,0 +1,84 @@
+package edu.uci.ics.texera.perftest.analyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.Analyzer;
+
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.perftest.utils.PerfTestUtils;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+
+/**
+ * This is the performance test of the payload generation with a new analyzer for each tuple,
+ *   compared to the shared analyzer returned by LuceneAnalyzerConstants.getLuceneAnalyzer().
+ *
+ * Each round generates the payload of all the sample tuples REPEAT_COUNT times,
+ *   the throughput (tuples per second) of each analyzer is printed after the warm-up rounds.
+ *
+ * Passed in argument (optional): the analyzer string, "standard" by default.
+ *
+ */
+public class AnalyzerPoolingPerformanceTest {
+
+    private static final int WARM_UP_ROUNDS = 3;
+    private static final int TEST_ROUNDS = 10;
+    private static final int REPEAT_COUNT = 1000;
+
+    public static void main(String[] args) {
+        String luceneAnalyzerString = args.length > 0 ? args[0] : LuceneAnalyzerConstants.standardAnalyzerString();
+
+        List<Tuple> inputTuples = new ArrayList<>();
+        for (int i = 0; i < REPEAT_COUNT; i++) {
+            inputTuples.addAll(TestConstants.getSamplePeopleTuples());
+        }
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            runNewAnalyzer(inputTuples, luceneAnalyzerString);
+            runSharedAnalyzer(inputTuples, luceneAnalyzerString);
+        }
+
+        List<Double> newAnalyzerResults = new ArrayList<>();
+        List<Double> sharedAnalyzerResults = new ArrayList<>();
+        for (int i = 0; i < TEST_ROUNDS; i++) {
+            newAnalyzerResults.add(runNewAnalyzer(inputTuples, luceneAnalyzerString));
+            sharedAnalyzerResults.add(runSharedAnalyzer(inputTuples, luceneAnalyzerString));
+        }
+
+        PerfTestUtils.printResult("new analyzer per tuple", newAnalyzerResults);
+        PerfTestUtils.printResult("shared analyzer", sharedAnalyzerResults);
+    }
+
+    /*
+     * Generates the payload with a new analyzer for each tuple, and returns the throughput in tuples per second.
+     */
+    public static double runNewAnalyzer(List<Tuple> inputTuples, String luceneAnalyzerString) {
+        long startTime = System.nanoTime();
+        int spanCount = 0;
+        for (Tuple tuple : inputTuples) {
+            Analyzer luceneAnalyzer = LuceneAnalyzerConstants.newLuceneAnalyzer(luceneAnalyzerString);
+            List<Span> payload = DataflowUtils.generatePayloadFromTuple(tuple, luceneAnalyzer);
+            luceneAnalyzer.close();
+            spanCount += payload.size();
+        }
+        return PerfTestUtils.getThroughput(inputTuples.size(), startTime, spanCount);
+    }
+
+    /*
+     * Generates the payload with the shared analyzer, and returns the throughput in tuples per second.
+     */
+    public static double runSharedAnalyzer(List<Tuple> inputTuples, String luceneAnalyzerString) {
+        long startTime = System.nanoTime();
+        int spanCount = 0;
+        for (Tuple tuple : inputTuples) {
+            Analyzer luceneAnalyzer = LuceneAnalyzerConstants.getLuceneAnalyzer(luceneAnalyzerString);
+            List<Span> payload = DataflowUtils.generatePayloadFromTuple(tuple, luceneAnalyzer);
+            spanCount += payload.size();
+        }
+        return PerfTestUtils.getThroughput(inputTuples.size(), startTime, spanCount);
+    }
+
+}
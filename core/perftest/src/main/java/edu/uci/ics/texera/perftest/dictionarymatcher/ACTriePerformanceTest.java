@@ -0,0 +1,145 @@
+package edu.uci.ics.texera.perftest.dictionarymatcher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.ACTrie;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.CompiledACTrie;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.FSTDictionary;
+import edu.uci.ics.texera.perftest.utils.PerfTestUtils;
+
+/**
+ * This is the performance test of the object based ACTrie compared to the array based CompiledACTrie
+ *   and the FST based FSTDictionary.
+ *
+ * A dictionary of random entries is generated, and for each trie the build time, the retained heap memory
+ *   (measured as the used heap after a GC) and the matching throughput on a random text are printed.
+ * The build time of the FSTDictionary includes writing and opening its file,
+ *   and its memory is the size of the FST on the heap.
+ *
+ * Passed in argument (optional): the number of dictionary entries, 1000000 by default.
+ * The ACTrie of 1M entries needs a few GB of heap, run it with a large -Xmx.
+ *
+ */
+public class ACTriePerformanceTest {
+
+    private static final int TEST_ROUNDS = 5;
+    private static final int TEXT_LENGTH = 10_000_000;
+    private static final int MIN_ENTRY_LENGTH = 4;
+    private static final int MAX_ENTRY_LENGTH = 20;
+
+    public static void main(String[] args) throws IOException {
+        int entryCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        Random random = new Random(2017);
+        List<String> dictionaryEntries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            dictionaryEntries.add(randomString(random, MIN_ENTRY_LENGTH + random.nextInt(MAX_ENTRY_LENGTH - MIN_ENTRY_LENGTH)));
+        }
+        String text = randomString(random, TEXT_LENGTH);
+
+        List<Double> compiledBuildTimes = new ArrayList<>();
+        List<Double> compiledThroughputs = new ArrayList<>();
+        long compiledMemory = 0;
+        for (int i = 0; i < TEST_ROUNDS; i++) {
+            long usedMemoryBefore = getUsedMemory();
+            long startTime = System.nanoTime();
+            CompiledACTrie compiledTrie = CompiledACTrie.compile(dictionaryEntries, true);
+            compiledBuildTimes.add((System.nanoTime() - startTime) / 1e9);
+            // the memory is measured in the first round, when no trie of a previous round can be retained
+            if (i == 0) {
+                compiledMemory = getUsedMemory() - usedMemoryBefore;
+            }
+
+            startTime = System.nanoTime();
+            int[] matchCount = new int[1];
+            compiledTrie.parseText(text, (start, end, keywordIndex) -> matchCount[0]++);
+            compiledThroughputs.add(getThroughput(startTime, matchCount[0]));
+        }
+        printResult("CompiledACTrie", compiledBuildTimes, compiledMemory, compiledThroughputs);
+
+        Path fstPath = Files.createTempFile("fst-dictionary-performance-test", ".fst");
+        List<Double> fstBuildTimes = new ArrayList<>();
+        List<Double> fstThroughputs = new ArrayList<>();
+        long fstMemory = 0;
+        for (int i = 0; i < TEST_ROUNDS; i++) {
+            long startTime = System.nanoTime();
+            FSTDictionary.write(dictionaryEntries, fstPath);
+            FSTDictionary fstDictionary = FSTDictionary.open(fstPath);
+            fstBuildTimes.add((System.nanoTime() - startTime) / 1e9);
+            fstMemory = fstDictionary.getMemoryUsageBytes();
+
+            startTime = System.nanoTime();
+            int[] matchCount = new int[1];
+            fstDictionary.parseText(text, (start, end, entry) -> matchCount[0]++);
+            fstThroughputs.add(getThroughput(startTime, matchCount[0]));
+        }
+        Files.delete(fstPath);
+        printResult("FSTDictionary", fstBuildTimes, fstMemory, fstThroughputs);
+
+        List<Double> trieBuildTimes = new ArrayList<>();
+        List<Double> trieThroughputs = new ArrayList<>();
+        long trieMemory = 0;
+        for (int i = 0; i < TEST_ROUNDS; i++) {
+            long usedMemoryBefore = getUsedMemory();
+            long startTime = System.nanoTime();
+            ACTrie trie = new ACTrie();
+            trie.setCaseInsensitive(true);
+            trie.addKeywords(dictionaryEntries);
+            trie.constructFailureTransactions();
+            trieBuildTimes.add((System.nanoTime() - startTime) / 1e9);
+            // the memory is measured in the first round, when no trie of a previous round can be retained
+            if (i == 0) {
+                trieMemory = getUsedMemory() - usedMemoryBefore;
+            }
+
+            startTime = System.nanoTime();
+            int matchCount = trie.parseText(text).size();
+            trieThroughputs.add(getThroughput(startTime, matchCount));
+        }
+        printResult("ACTrie", trieBuildTimes, trieMemory, trieThroughputs);
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    private static long getUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /*
+     * Returns the matching throughput in chars per second.
+     */
+    private static double getThroughput(long startTime, int matchCount) {
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        // the match count is checked so that the matching can't be optimized away
+        if (matchCount < 0) {
+            throw new DataflowException("invalid match count");
+        }
+        return TEXT_LENGTH / seconds;
+    }
+
+    private static void printResult(String name, List<Double> buildTimes, long memory, List<Double> throughputs) {
+        double averageBuildTime = PerfTestUtils.calculateAverage(buildTimes);
+        double averageThroughput = PerfTestUtils.calculateAverage(throughputs);
+        System.out.println(String.format("%s: build %.3f s (std %.3f), memory %.1f MB, matching %.2f M chars/s (std %.2f)",
+                name, averageBuildTime, PerfTestUtils.calculateSTD(buildTimes, averageBuildTime),
+                memory / (1024.0 * 1024.0), averageThroughput / 1e6,
+                PerfTestUtils.calculateSTD(throughputs, averageThroughput) / 1e6));
+    }
+
+}
@@ -0,0 +1,136 @@
+package edu.uci.ics.texera.perftest.regexmatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.field.TextField;
+import edu.uci.ics.texera.api.schema.Attribute;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexMatcher;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexPredicate;
+import edu.uci.ics.texera.dataflow.regexmatcher.label.LabeledRegexProcessor;
+import edu.uci.ics.texera.perftest.utils.PerfTestUtils;
+
+/**
+ * This is the performance test of the labeled regex with qualifiers, such as "<drug> (causes|treats) <disease>".
+ *
+ * It compares LabeledRegexProcessor with compiling the regex rewritten with the label values for every tuple,
+ *   on generated tuples of different text lengths, whose labels are the drugs and diseases in the text.
+ *
+ * The throughput (tuples per second) of each method is printed after the warm-up rounds.
+ *
+ */
+public class LabeledRegexPerformanceTest {
+
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int TEST_ROUNDS = 10;
+    private static final int TUPLE_COUNT = 20000;
+    private static final int[] SENTENCE_COUNTS = { 1, 10, 100 };
+
+    private static final String TEXT = "text";
+    private static final String DRUG = "drug";
+    private static final String DISEASE = "disease";
+    private static final Schema SCHEMA = new Schema(
+            new Attribute(TEXT, AttributeType.TEXT),
+            new Attribute(DRUG, AttributeType.LIST),
+            new Attribute(DISEASE, AttributeType.LIST));
+
+    private static final String REGEX = "<drug> (causes|treats|reduces) <disease>";
+
+    private static final List<String> DRUGS = Arrays.asList(
+            "aspirin", "ibuprofen", "acetaminophen", "naproxen", "metformin", "insulin", "lisinopril", "statins");
+    private static final List<String> DISEASES = Arrays.asList(
+            "headache", "fever", "diabetes", "hypertension", "ulcers", "nausea", "inflammation", "arthritis");
+    private static final List<String> VERBS = Arrays.asList("causes", "treats", "reduces", "is unrelated to");
+
+    public static void main(String[] args) {
+        RegexPredicate predicate = new RegexPredicate(REGEX, Arrays.asList(TEXT), false, "results", null, null);
+
+        for (int sentenceCount : SENTENCE_COUNTS) {
+            List<Tuple> inputTuples = generateTuples(sentenceCount);
+            for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+                runCompilePerTuple(predicate, inputTuples);
+                runLabeledRegexProcessor(predicate, inputTuples);
+            }
+
+            List<Double> compilePerTupleResults = new ArrayList<>();
+            List<Double> processorResults = new ArrayList<>();
+            for (int i = 0; i < TEST_ROUNDS; i++) {
+                compilePerTupleResults.add(runCompilePerTuple(predicate, inputTuples));
+                processorResults.add(runLabeledRegexProcessor(predicate, inputTuples));
+            }
+
+            System.out.println(sentenceCount + " sentences per tuple:");
+            PerfTestUtils.printResult("compile per tuple", compilePerTupleResults);
+            PerfTestUtils.printResult("LabeledRegexProcessor", processorResults);
+        }
+    }
+
+    /*
+     * Generates the tuples with the sentences of random drugs, verbs and diseases,
+     *   with the spans of the drugs and diseases in the labels.
+     */
+    public static List<Tuple> generateTuples(int sentenceCount) {
+        Random random = new Random(0);
+        List<Tuple> tuples = new ArrayList<>();
+        for (int i = 0; i < TUPLE_COUNT; i++) {
+            StringBuilder text = new StringBuilder();
+            List<Span> drugSpans = new ArrayList<>();
+            List<Span> diseaseSpans = new ArrayList<>();
+            for (int j = 0; j < sentenceCount; j++) {
+                String drug = DRUGS.get(random.nextInt(DRUGS.size()));
+                drugSpans.add(new Span(TEXT, text.length(), text.length() + drug.length(), drug, drug));
+                text.append(drug).append(' ').append(VERBS.get(random.nextInt(VERBS.size()))).append(' ');
+                String disease = DISEASES.get(random.nextInt(DISEASES.size()));
+                diseaseSpans.add(new Span(TEXT, text.length(), text.length() + disease.length(), disease, disease));
+                text.append(disease).append(" in some patients. ");
+            }
+            tuples.add(new Tuple(SCHEMA, new TextField(text.toString()),
+                    new ListField<>(drugSpans), new ListField<>(diseaseSpans)));
+        }
+        return tuples;
+    }
+
+    /*
+     * Rewrites the regex with the label values and compiles it for every tuple,
+     *   and returns the throughput in tuples per second.
+     */
+    public static double runCompilePerTuple(RegexPredicate predicate, List<Tuple> inputTuples) {
+        long startTime = System.nanoTime();
+        int resultCount = 0;
+        for (Tuple tuple : inputTuples) {
+            String regex = predicate.getRegex();
+            for (String label : Arrays.asList(DRUG, DISEASE)) {
+                ListField<Span> spanListField = tuple.getField(label);
+                String values = spanListField.getValue().stream().map(span -> Pattern.quote(span.getValue()))
+                        .distinct().collect(Collectors.joining("|"));
+                regex = regex.replace("<" + label + ">", "(" + values + ")");
+            }
+            Pattern pattern = Pattern.compile(regex);
+            resultCount += RegexMatcher.computeMatchingResultsWithPattern(tuple, predicate, pattern).size();
+        }
+        return PerfTestUtils.getThroughput(inputTuples.size(), startTime, resultCount);
+    }
+
+    /*
+     * Matches the labeled regex with one LabeledRegexProcessor, and returns the throughput in tuples per second.
+     */
+    public static double runLabeledRegexProcessor(RegexPredicate predicate, List<Tuple> inputTuples) {
+        long startTime = System.nanoTime();
+        LabeledRegexProcessor processor = new LabeledRegexProcessor(predicate);
+        int resultCount = 0;
+        for (Tuple tuple : inputTuples) {
+            resultCount += processor.computeMatchingResults(tuple).size();
+        }
+        return PerfTestUtils.getThroughput(inputTuples.size(), startTime, resultCount);
+    }
+
+}
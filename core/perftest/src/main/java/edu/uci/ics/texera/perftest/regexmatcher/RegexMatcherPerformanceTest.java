@@ -13,6 +13,7 @@ import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.field.ListField;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexEngine;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexMatcherSourceOperator;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexSourcePredicate;
 
@@ -33,6 +34,7 @@ public class RegexMatcherPerformanceTest {
     private static double totalMatchingTime = 0.0;
     private static int totalRegexResultCount = 0;
     private static String csvFile  = "regex.csv";
+    private static String re2jCsvFile  = "regex_re2j.csv";
 
     /*
      * regexQueries is a list of regex queries.
@@ -40,9 +42,12 @@ public class RegexMatcherPerformanceTest {
      * This function will match the queries against all indices in
      * ./index/trigram/
      * 
+     * The queries are matched once by each regex engine.
+     * 
      * Test results includes the average runtime of all queries, the average
      * number of results. These results are written to
-     * ./perftest-files/results/regex.csv.
+     * ./perftest-files/results/regex.csv for the java engine, and
+     * ./perftest-files/results/regex_re2j.csv for the re2j engine.
      * 
      * CSV file example: 
      * Date,                dataset,      Average Time, Average Results, Commit Number
@@ -54,6 +59,12 @@ public class RegexMatcherPerformanceTest {
      * 
      */
     public static void runTest(List<String> regexQueries)
+            throws TexeraException, IOException {
+        runTest(regexQueries, RegexEngine.JAVA, csvFile);
+        runTest(regexQueries, RegexEngine.RE2J, re2jCsvFile);
+    }
+
+    public static void runTest(List<String> regexQueries, RegexEngine regexEngine, String resultFile)
             throws TexeraException, IOException {         
         // Gets the current time for naming the cvs file
         String currentTime = PerfTestUtils.formatTime(System.currentTimeMillis());
@@ -65,12 +76,14 @@ public class RegexMatcherPerformanceTest {
             if (file.getName().startsWith(".")) {
                 continue;
             }
-            System.out.println(file.getName());
+            System.out.println(file.getName() + ", regex engine: " + regexEngine);
 
-            PerfTestUtils.createFile(PerfTestUtils.getResultPath(csvFile), HEADER);
+            PerfTestUtils.createFile(PerfTestUtils.getResultPath(resultFile), HEADER);
             BufferedWriter fileWriter = Files.newBufferedWriter
-                    (PerfTestUtils.getResultPath(csvFile), StandardOpenOption.APPEND);
-            matchRegex(regexQueries, file.getName());
+                    (PerfTestUtils.getResultPath(resultFile), StandardOpenOption.APPEND);
+            totalMatchingTime = 0.0;
+            totalRegexResultCount = 0;
+            matchRegex(regexQueries, file.getName(), regexEngine);
             fileWriter.append("\n");
             fileWriter.append(currentTime + delimiter);
             fileWriter.append(file.getName() + delimiter);
@@ -86,14 +99,16 @@ public class RegexMatcherPerformanceTest {
     /*
      *         This function does match for a list of regex queries
      */
-    public static void matchRegex(List<String> regexes, String tableName) throws TexeraException, IOException {
+    public static void matchRegex(List<String> regexes, String tableName, RegexEngine regexEngine)
+            throws TexeraException, IOException {
 
         List<String> attributeNames = Arrays.asList(MedlineIndexWriter.ABSTRACT);
         
         for(String regex: regexes){
 	        // analyzer should generate grams all in lower case to build a lower
 	        // case index.
-	        RegexSourcePredicate predicate = new RegexSourcePredicate(regex, attributeNames, tableName, SchemaConstants.SPAN_LIST);
+	        RegexSourcePredicate predicate = new RegexSourcePredicate(regex, attributeNames, null, tableName, null,
+	                SchemaConstants.SPAN_LIST, regexEngine, null);
 	        RegexMatcherSourceOperator regexSource = new RegexMatcherSourceOperator(predicate);
 	
 	        long startMatchTime = System.currentTimeMillis();
@@ -0,0 +1,126 @@
+package edu.uci.ics.texera.perftest.tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.field.IntegerField;
+import edu.uci.ics.texera.api.schema.Attribute;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.tuple.FieldAccessor;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.perftest.utils.PerfTestUtils;
+
+/**
+ * This is the performance test of accessing and appending the fields of tuples,
+ *   which is done by the matchers for every input tuple.
+ *
+ * It compares:
+ *   getting the fields by their attribute names, with getting them with FieldAccessors,
+ *   adding a field with Tuple.Builder, with appending it with Tuple.Appender.
+ *
+ * Each round goes through all the sample tuples REPEAT_COUNT times,
+ *   the throughput (tuples per second) of each method is printed after the warm-up rounds.
+ *
+ */
+public class TupleAccessPerformanceTest {
+
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int TEST_ROUNDS = 10;
+    private static final int REPEAT_COUNT = 100000;
+
+    private static final Attribute COUNT_ATTRIBUTE = new Attribute("count", AttributeType.INTEGER);
+
+    public static void main(String[] args) {
+        List<Tuple> inputTuples = new ArrayList<>();
+        for (int i = 0; i < REPEAT_COUNT; i++) {
+            inputTuples.addAll(TestConstants.getSamplePeopleTuples());
+        }
+        String[] attributeNames = TestConstants.SCHEMA_PEOPLE.getAttributeNames().toArray(new String[0]);
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            runGetFieldByName(inputTuples, attributeNames);
+            runFieldAccessor(inputTuples, attributeNames);
+            runTupleBuilder(inputTuples);
+            runTupleAppender(inputTuples);
+        }
+
+        List<Double> getFieldByNameResults = new ArrayList<>();
+        List<Double> fieldAccessorResults = new ArrayList<>();
+        List<Double> tupleBuilderResults = new ArrayList<>();
+        List<Double> tupleAppenderResults = new ArrayList<>();
+        for (int i = 0; i < TEST_ROUNDS; i++) {
+            getFieldByNameResults.add(runGetFieldByName(inputTuples, attributeNames));
+            fieldAccessorResults.add(runFieldAccessor(inputTuples, attributeNames));
+            tupleBuilderResults.add(runTupleBuilder(inputTuples));
+            tupleAppenderResults.add(runTupleAppender(inputTuples));
+        }
+
+        PerfTestUtils.printResult("getField(attributeName)", getFieldByNameResults);
+        PerfTestUtils.printResult("FieldAccessor", fieldAccessorResults);
+        PerfTestUtils.printResult("Tuple.Builder", tupleBuilderResults);
+        PerfTestUtils.printResult("Tuple.Appender", tupleAppenderResults);
+    }
+
+    /*
+     * Gets all the fields of each tuple by their attribute names, and returns the throughput in tuples per second.
+     */
+    public static double runGetFieldByName(List<Tuple> inputTuples, String[] attributeNames) {
+        long startTime = System.nanoTime();
+        int checksum = 0;
+        for (Tuple tuple : inputTuples) {
+            for (String attributeName : attributeNames) {
+                checksum += tuple.getField(attributeName).hashCode();
+            }
+        }
+        return PerfTestUtils.getThroughput(inputTuples.size(), startTime, checksum);
+    }
+
+    /*
+     * Gets all the fields of each tuple with the accessors resolved before the loop,
+     *   and returns the throughput in tuples per second.
+     */
+    public static double runFieldAccessor(List<Tuple> inputTuples, String[] attributeNames) {
+        long startTime = System.nanoTime();
+        FieldAccessor[] accessors = new FieldAccessor[attributeNames.length];
+        for (int i = 0; i < attributeNames.length; i++) {
+            accessors[i] = new FieldAccessor(TestConstants.SCHEMA_PEOPLE, attributeNames[i]);
+        }
+        int checksum = 0;
+        for (Tuple tuple : inputTuples) {
+            for (FieldAccessor accessor : accessors) {
+                checksum += accessor.getField(tuple).hashCode();
+            }
+        }
+        return PerfTestUtils.getThroughput(inputTuples.size(), startTime, checksum);
+    }
+
+    /*
+     * Adds a field to each tuple with Tuple.Builder, and returns the throughput in tuples per second.
+     */
+    public static double runTupleBuilder(List<Tuple> inputTuples) {
+        long startTime = System.nanoTime();
+        int checksum = 0;
+        for (Tuple tuple : inputTuples) {
+            Tuple resultTuple = new Tuple.Builder(tuple).add(COUNT_ATTRIBUTE, new IntegerField(1)).build();
+            checksum += resultTuple.getFields().size();
+        }
+        return PerfTestUtils.getThroughput(inputTuples.size(), startTime, checksum);
+    }
+
+    /*
+     * Appends a field to each tuple with a Tuple.Appender created before the loop,
+     *   and returns the throughput in tuples per second.
+     */
+    public static double runTupleAppender(List<Tuple> inputTuples) {
+        long startTime = System.nanoTime();
+        Tuple.Appender appender = new Tuple.Appender(TestConstants.SCHEMA_PEOPLE, COUNT_ATTRIBUTE);
+        int checksum = 0;
+        for (Tuple tuple : inputTuples) {
+            Tuple resultTuple = appender.append(tuple, new IntegerField(1));
+            checksum += resultTuple.getFields().size();
+        }
+        return PerfTestUtils.getThroughput(inputTuples.size(), startTime, checksum);
+    }
+
+}
@@ -0,0 +1,118 @@
+package edu.uci.ics.texera.perftest.tuple;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.Analyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.CollectionLikeType;
+
+import edu.uci.ics.texera.api.constants.SchemaConstants;
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBinaryReader;
+import edu.uci.ics.texera.api.tuple.TupleBinaryWriter;
+import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.perftest.utils.PerfTestUtils;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+
+/**
+ * This is the performance test of serializing the query results,
+ *   which are written to files by the web server and read back when they are downloaded.
+ *
+ * It compares the JSON of the tuples with the compact binary format (TupleBinaryWriter and TupleBinaryReader),
+ *   on the sample people tuples with their payloads.
+ *
+ * The size of the serialized results is printed first,
+ *   then the throughput (tuples per second) of writing and reading in each format after the warm-up rounds.
+ *
+ */
+public class TupleSerializationPerformanceTest {
+
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int TEST_ROUNDS = 10;
+    private static final int REPEAT_COUNT = 10000;
+
+    public static void main(String[] args) throws IOException {
+        List<Tuple> inputTuples = getInputTuples();
+        ObjectMapper objectMapper = new ObjectMapper();
+        CollectionLikeType tupleListType = objectMapper.getTypeFactory().constructCollectionLikeType(ArrayList.class, Tuple.class);
+
+        byte[] jsonBytes = objectMapper.writeValueAsBytes(inputTuples);
+        byte[] binaryBytes = TupleBinaryWriter.toBytes(inputTuples);
+        System.out.println(String.format("JSON: %d bytes, %.2f bytes per tuple",
+                jsonBytes.length, (double) jsonBytes.length / inputTuples.size()));
+        System.out.println(String.format("binary: %d bytes, %.2f bytes per tuple",
+                binaryBytes.length, (double) binaryBytes.length / inputTuples.size()));
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            runJsonWrite(objectMapper, inputTuples);
+            runJsonRead(objectMapper, tupleListType, jsonBytes);
+            runBinaryWrite(inputTuples);
+            runBinaryRead(binaryBytes);
+        }
+
+        List<Double> jsonWriteResults = new ArrayList<>();
+        List<Double> jsonReadResults = new ArrayList<>();
+        List<Double> binaryWriteResults = new ArrayList<>();
+        List<Double> binaryReadResults = new ArrayList<>();
+        for (int i = 0; i < TEST_ROUNDS; i++) {
+            jsonWriteResults.add(runJsonWrite(objectMapper, inputTuples));
+            jsonReadResults.add(runJsonRead(objectMapper, tupleListType, jsonBytes));
+            binaryWriteResults.add(runBinaryWrite(inputTuples));
+            binaryReadResults.add(runBinaryRead(binaryBytes));
+        }
+
+        PerfTestUtils.printResult("JSON write", jsonWriteResults);
+        PerfTestUtils.printResult("JSON read", jsonReadResults);
+        PerfTestUtils.printResult("binary write", binaryWriteResults);
+        PerfTestUtils.printResult("binary read", binaryReadResults);
+    }
+
+    /*
+     * Gets the sample people tuples with the payload of their text fields, like the results of the matchers.
+     */
+    public static List<Tuple> getInputTuples() {
+        Analyzer luceneAnalyzer = LuceneAnalyzerConstants.getStandardAnalyzer();
+        Tuple.Appender appender = new Tuple.Appender(TestConstants.SCHEMA_PEOPLE, SchemaConstants.PAYLOAD_ATTRIBUTE);
+        List<Tuple> sampleTuples = new ArrayList<>();
+        for (Tuple tuple : TestConstants.getSamplePeopleTuples()) {
+            sampleTuples.add(appender.append(tuple,
+                    new ListField<>(DataflowUtils.generatePayloadFromTuple(tuple, luceneAnalyzer))));
+        }
+        List<Tuple> inputTuples = new ArrayList<>();
+        for (int i = 0; i < REPEAT_COUNT; i++) {
+            inputTuples.addAll(sampleTuples);
+        }
+        return inputTuples;
+    }
+
+    public static double runJsonWrite(ObjectMapper objectMapper, List<Tuple> inputTuples) throws IOException {
+        long startTime = System.nanoTime();
+        byte[] bytes = objectMapper.writeValueAsBytes(inputTuples);
+        return PerfTestUtils.getThroughput(inputTuples.size(), startTime, bytes.length);
+    }
+
+    public static double runJsonRead(ObjectMapper objectMapper, CollectionLikeType tupleListType, byte[] bytes)
+            throws IOException {
+        long startTime = System.nanoTime();
+        List<Tuple> tuples = objectMapper.readValue(bytes, tupleListType);
+        return PerfTestUtils.getThroughput(tuples.size(), startTime, tuples.size());
+    }
+
+    public static double runBinaryWrite(List<Tuple> inputTuples) {
+        long startTime = System.nanoTime();
+        byte[] bytes = TupleBinaryWriter.toBytes(inputTuples);
+        return PerfTestUtils.getThroughput(inputTuples.size(), startTime, bytes.length);
+    }
+
+    public static double runBinaryRead(byte[] bytes) {
+        long startTime = System.nanoTime();
+        List<Tuple> tuples = TupleBinaryReader.fromBytes(bytes);
+        return PerfTestUtils.getThroughput(tuples.size(), startTime, tuples.size());
+    }
+
+}
@@ -15,6 +15,7 @@ import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 
 import edu.uci.ics.texera.api.constants.DataConstants.TexeraProject;
+import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.utils.Utils;
 import edu.uci.ics.texera.perftest.medline.MedlineIndexWriter;
 import edu.uci.ics.texera.storage.RelationManager;
@@ -127,6 +128,32 @@ public class PerfTestUtils {
 
         return Double.parseDouble(String.format("%.4f", Math.sqrt(numerator / testResults.size())));
     }
+
+    /**
+     * Gets the throughput of processing the tuples since startTime, in tuples per second.
+     * 
+     * @param tupleCount, the number of tuples processed
+     * @param startTime, the start time in nanoseconds
+     * @param checksum, a count computed from the results (for example, the number of spans),
+     *            it must not be 0, so that the processing can't be optimized away
+     * @return the throughput in tuples per second
+     */
+    public static double getThroughput(int tupleCount, long startTime, int checksum) {
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        if (checksum == 0) {
+            throw new DataflowException("the checksum of the results is 0");
+        }
+        return tupleCount / seconds;
+    }
+
+    /**
+     * Prints the average and the standard deviation of the throughputs (in tuples per second) of a test.
+     */
+    public static void printResult(String name, List<Double> throughputResults) {
+        double average = calculateAverage(throughputResults);
+        double std = calculateSTD(throughputResults, average);
+        System.out.println(String.format("%s: average %.2f tuples/s, std %.2f", name, average, std));
+    }
     
     /**
      * Delete all files recursively in a directory
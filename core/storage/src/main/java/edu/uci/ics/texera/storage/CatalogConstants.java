@@ -3,6 +3,7 @@ package edu.uci.ics.texera.storage;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import edu.uci.ics.texera.api.exception.StorageException;
@@ -23,7 +24,7 @@ import edu.uci.ics.texera.api.utils.Utils;
  * 
  * Initial tuples for the table catalog:
  * 
- *  tableName    |    tableDirectory    |    luceneAnalyzer
+ *  tableName    |    tableDirectory    |    luceneAnalyzer    |    trigramAttributes
  * 
  * tableCatalog       ../catalog/table       standardLuceneAnalyzer
  * schemaCatalog      ../catalog/schema      standardLuceneAnalyzer
@@ -36,6 +37,7 @@ import edu.uci.ics.texera.api.utils.Utils;
  *   tableCatalog       tableName           string                0
  *   tableCatalog    tableDirectory         string                1
  *   tableCatalog     luceneAnalyzer        string                2
+ *   tableCatalog    trigramAttributes      string                3
  *   schemaCatalog      tableName           string                0
  *   schemaCatalog    attributeName         string                1
  *   schemaCatalog    attributeType         string                2
@@ -58,14 +60,19 @@ public class CatalogConstants {
     public static final String TABLE_NAME = "tableName";
     public static final String TABLE_DIRECTORY = "tableDirectory";
     public static final String TABLE_LUCENE_ANALYZER = "luceneAnalyzer";
+    // the TEXT attributes with a 3-gram sub-field, separated by TRIGRAM_ATTRIBUTES_DELIMITER
+    public static final String TABLE_TRIGRAM_ATTRIBUTES = "trigramAttributes";
+    public static final String TRIGRAM_ATTRIBUTES_DELIMITER = ",";
 
     public static final Attribute TABLE_NAME_ATTR = new Attribute(TABLE_NAME, AttributeType.STRING);
     public static final Attribute TABLE_DIRECTORY_ATTR = new Attribute(TABLE_DIRECTORY, AttributeType.STRING);
     public static final Attribute TABLE_LUCENE_ANALYZER_ATTR = new Attribute(TABLE_LUCENE_ANALYZER,
             AttributeType.STRING);
+    public static final Attribute TABLE_TRIGRAM_ATTRIBUTES_ATTR = new Attribute(TABLE_TRIGRAM_ATTRIBUTES,
+            AttributeType.STRING);
 
     public static final Schema TABLE_CATALOG_SCHEMA = new Schema(TABLE_NAME_ATTR, TABLE_DIRECTORY_ATTR,
-            TABLE_LUCENE_ANALYZER_ATTR);
+            TABLE_LUCENE_ANALYZER_ATTR, TABLE_TRIGRAM_ATTRIBUTES_ATTR);
     public static final Schema TABLE_CATALOG_SCHEMA_WITH_ID = Schema.Builder.getSchemaWithID(TABLE_CATALOG_SCHEMA);
 
     // Schema for "schema catalog" table
@@ -99,11 +106,26 @@ public class CatalogConstants {
      * @throws StorageException
      */
     public static Tuple getTableCatalogTuple(String tableName, Path tableDirectory, String luceneAnalyzerStr) {
+        return getTableCatalogTuple(tableName, tableDirectory, luceneAnalyzerStr, Collections.emptyList());
+    }
+    
+    /**
+     * Gets the tuple to be inserted to the table catalog, for a table with 3-gram sub-fields.
+     * 
+     * @param tableName
+     * @param tableDirectory
+     * @param luceneAnalyzerStr
+     * @param trigramAttributeNames, the TEXT attributes with a 3-gram sub-field
+     * @return
+     */
+    public static Tuple getTableCatalogTuple(String tableName, Path tableDirectory, String luceneAnalyzerStr,
+            List<String> trigramAttributeNames) {
 	    	try {
 	            return new Tuple(TABLE_CATALOG_SCHEMA, 
 	                    new StringField(tableName), 
 	                    new StringField(tableDirectory.toRealPath().toString()),
-	                    new StringField(luceneAnalyzerStr));
+	                    new StringField(luceneAnalyzerStr),
+	                    new StringField(String.join(TRIGRAM_ATTRIBUTES_DELIMITER, trigramAttributeNames)));
 	    	} catch (IOException e) {
 	    		throw new TexeraException(e);
 	    	}
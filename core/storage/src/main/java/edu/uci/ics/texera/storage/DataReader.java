@@ -11,6 +11,7 @@ import edu.uci.ics.texera.api.exception.TexeraException;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
@@ -18,9 +19,11 @@ import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.store.Directory;
+import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
 
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
@@ -31,6 +34,7 @@ import edu.uci.ics.texera.api.field.ListField;
 import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.span.CompactSpanList;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.*;
 import edu.uci.ics.texera.storage.utils.StorageUtils;
@@ -48,8 +52,20 @@ import edu.uci.ics.texera.storage.utils.StorageUtils;
  * 
  * The purpose of the "payload" field is to make subsequent keyword match, fuzzy token match, and dictionary match faster,
  * because they don't need to tokenize the tuple every time.
+ * 
+ * By default, DataReader finds all the matching documents when it's opened, and returns them in the order of relevance.
+ * In the streaming mode (see setStreaming()), the matching documents are found lazily segment by segment,
+ *   without scoring them, and returned in the doc ID order. 
+ *   It uses constant memory regardless of the number of matches, and the first tuple is returned immediately.
+ * 
+ * A limit on the number of returned tuples can be set (see setLimit()). 
+ *   By default, only the top "limit" documents are collected by lucene, 
+ *   and in the streaming mode, the iteration stops after "limit" documents.
  *   
  * 
+ * The index reader is shared with the other readers of the same table, it's acquired from IndexSearcherCache
+ *   when the DataReader is opened, and released when it's closed.
+ * 
  * DataReader for a specific table is only accessible from RelationManager.
  * 
  * 
@@ -71,6 +87,17 @@ public class DataReader implements IOperator {
     private int cursor = CLOSED;
 
     private boolean payloadAdded;
+    
+    private int limit = Integer.MAX_VALUE;
+    
+    // the following fields are only used in the streaming mode
+    private boolean streaming = false;
+    private Weight luceneWeight;
+    private List<LeafReaderContext> leafContexts;
+    private int leafIndex;
+    private LeafReaderContext currentLeaf;
+    private DocIdSetIterator currentDocIterator;
+    private Bits currentLiveDocs;
 
     /*
      * The package-only level constructor is only accessible inside the storage package.
@@ -93,12 +120,23 @@ public class DataReader implements IOperator {
             return;
         }
         try {
-            Directory indexDirectory = FSDirectory.open(this.dataStore.getDataDirectory());
-            luceneIndexReader = DirectoryReader.open(indexDirectory);
-            luceneIndexSearcher = new IndexSearcher(luceneIndexReader);
-
-            TopDocs topDocs = luceneIndexSearcher.search(query, Integer.MAX_VALUE);
-            scoreDocs = topDocs.scoreDocs;
+            luceneIndexSearcher = IndexSearcherCache.acquire(this.dataStore.getDataDirectory());
+            luceneIndexReader = luceneIndexSearcher.getIndexReader();
+
+            if (streaming) {
+                // scores are not needed, the scorers only iterate through the matching doc IDs
+                luceneWeight = luceneIndexSearcher.createNormalizedWeight(query, false);
+                leafContexts = luceneIndexReader.leaves();
+                leafIndex = 0;
+                currentLeaf = null;
+                currentDocIterator = null;
+            } else if (limit == 0) {
+                scoreDocs = new ScoreDoc[0];
+            } else {
+                // with a limit, lucene only keeps the top "limit" hits in a priority queue
+                TopDocs topDocs = luceneIndexSearcher.search(query, limit);
+                scoreDocs = topDocs.scoreDocs;
+            }
 
             inputSchema = this.dataStore.getSchema();
             if (payloadAdded) {
@@ -122,10 +160,10 @@ public class DataReader implements IOperator {
 
         Tuple resultTuple;
         try {
-            if (cursor >= scoreDocs.length) {
+            int docID = nextDocID();
+            if (docID == DocIdSetIterator.NO_MORE_DOCS) {
                 return null;
             }
-            int docID = scoreDocs[cursor].doc;
             resultTuple = constructTuple(docID);
 
         } catch (IOException | ParseException e) {
@@ -136,12 +174,78 @@ public class DataReader implements IOperator {
         return resultTuple;
     }
 
+    /**
+     * Fills the batch directly from the hits of the lucene query,
+     *   without going through getNextTuple() for each tuple.
+     */
+    @Override
+    public boolean getNextBatch(TupleBatch batch) throws StorageException {
+        if (cursor == CLOSED) {
+            throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        batch.clear();
+        try {
+            while (! batch.isFull()) {
+                int docID = nextDocID();
+                if (docID == DocIdSetIterator.NO_MORE_DOCS) {
+                    break;
+                }
+                batch.add(constructTuple(docID));
+                cursor++;
+            }
+        } catch (IOException | ParseException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+        return ! batch.isEmpty();
+    }
+    
+    /*
+     * Returns the (index-wide) doc ID of the next matching document, 
+     *   or NO_MORE_DOCS if there are no more matching documents.
+     * The cursor is not advanced.
+     */
+    private int nextDocID() throws IOException {
+        if (cursor >= limit) {
+            return DocIdSetIterator.NO_MORE_DOCS;
+        }
+        if (! streaming) {
+            return cursor < scoreDocs.length ? scoreDocs[cursor].doc : DocIdSetIterator.NO_MORE_DOCS;
+        }
+        while (true) {
+            if (currentDocIterator == null) {
+                if (leafIndex >= leafContexts.size()) {
+                    return DocIdSetIterator.NO_MORE_DOCS;
+                }
+                currentLeaf = leafContexts.get(leafIndex++);
+                Scorer scorer = luceneWeight.scorer(currentLeaf);
+                if (scorer == null) {
+                    continue;
+                }
+                currentDocIterator = scorer.iterator();
+                currentLiveDocs = currentLeaf.reader().getLiveDocs();
+            }
+            int docID = currentDocIterator.nextDoc();
+            if (docID == DocIdSetIterator.NO_MORE_DOCS) {
+                currentDocIterator = null;
+                continue;
+            }
+            // the scorers don't skip the deleted documents
+            if (currentLiveDocs != null && ! currentLiveDocs.get(docID)) {
+                continue;
+            }
+            return currentLeaf.docBase + docID;
+        }
+    }
+
     @Override
     public void close() throws StorageException {
         cursor = CLOSED;
-        if (luceneIndexReader != null) {
+        scoreDocs = null;
+        currentDocIterator = null;
+        if (luceneIndexSearcher != null) {
             try {
-                luceneIndexReader.close();
+                IndexSearcherCache.release(luceneIndexSearcher);
+                luceneIndexSearcher = null;
                 luceneIndexReader = null;
             } catch (IOException e) {
                 throw new StorageException(e.getMessage(), e);
@@ -150,11 +254,22 @@ public class DataReader implements IOperator {
     }
 
     private Tuple constructTuple(int docID) throws IOException, ParseException {
-        Document luceneDocument = luceneIndexSearcher.doc(docID);
-        ArrayList<IField> docFields = documentToFields(luceneDocument);
+        return constructTuple(luceneIndexReader, docID, inputSchema, outputSchema, payloadAdded);
+    }
+
+    /*
+     * Constructs the tuple of a document from its stored fields, and its term vectors if payload is added.
+     * 
+     * It only reads from the index reader, therefore it can be called by multiple threads 
+     *   on the same reader (see ParallelDataReader).
+     */
+    static Tuple constructTuple(IndexReader luceneIndexReader, int docID, Schema inputSchema, Schema outputSchema,
+            boolean payloadAdded) throws IOException, ParseException {
+        Document luceneDocument = luceneIndexReader.document(docID);
+        ArrayList<IField> docFields = documentToFields(luceneDocument, inputSchema);
 
         if (payloadAdded) {
-            ArrayList<Span> payloadSpanList = buildPayloadFromTermVector(docFields, docID);
+            List<Span> payloadSpanList = buildPayloadFromTermVector(luceneIndexReader, docFields, docID, inputSchema);
             ListField<Span> payloadField = new ListField<Span>(payloadSpanList);
             docFields.add(payloadField);
         }
@@ -163,7 +278,7 @@ public class DataReader implements IOperator {
         return resultTuple;
     }
 
-    private ArrayList<IField> documentToFields(Document luceneDocument) throws ParseException {
+    private static ArrayList<IField> documentToFields(Document luceneDocument, Schema inputSchema) throws ParseException {
         ArrayList<IField> fields = new ArrayList<>();
         for (Attribute attr : inputSchema.getAttributes()) {
             AttributeType attributeType = attr.getType();
@@ -173,8 +288,12 @@ public class DataReader implements IOperator {
         return fields;
     }
 
-    private ArrayList<Span> buildPayloadFromTermVector(List<IField> fields, int docID) throws IOException {
-        ArrayList<Span> payloadSpanList = new ArrayList<>();
+    /*
+     * The payload is a compact span list, the values of the spans are not copied from the field values.
+     */
+    private static List<Span> buildPayloadFromTermVector(IndexReader luceneIndexReader, List<IField> fields, int docID,
+            Schema inputSchema) throws IOException {
+        CompactSpanList.Builder payloadBuilder = new CompactSpanList.Builder();
 
         for (Attribute attr : inputSchema.getAttributes()) {
             String attributeName = attr.getName();
@@ -201,22 +320,19 @@ public class DataReader implements IOperator {
                 if (termPostings.nextDoc() == DocIdSetIterator.NO_MORE_DOCS) {
                     continue;
                 }
+                String analyzedTermStr = termsEnum.term().utf8ToString();
                 // for each term, go through its postings
                 for (int i = 0; i < termPostings.freq(); i++) {
                     int tokenPosition = termPostings.nextPosition(); // nextPosition needs to be called first
                     int charStart = termPostings.startOffset();
                     int charEnd = termPostings.endOffset();
-                    String analyzedTermStr = termsEnum.term().utf8ToString();
-                    String originalTermStr = fieldValue.substring(charStart, charEnd);
 
-                    Span span = new Span(attributeName, charStart, charEnd, analyzedTermStr, originalTermStr,
-                            tokenPosition);
-                    payloadSpanList.add(span);
+                    payloadBuilder.add(attributeName, fieldValue, charStart, charEnd, analyzedTermStr, tokenPosition);
                 }
             }
         }
 
-        return payloadSpanList;
+        return payloadBuilder.build();
     }
     
     public boolean isPayloadAdded() {
@@ -226,6 +342,43 @@ public class DataReader implements IOperator {
     public void setPayloadAdded(boolean payloadAdded) {
         this.payloadAdded = payloadAdded;
     }
+    
+    public boolean isStreaming() {
+        return this.streaming;
+    }
+    
+    /**
+     * Sets whether the DataReader is in the streaming mode. 
+     * It must be set before the DataReader is opened.
+     * 
+     * In the streaming mode, the matching documents are not scored, 
+     *   and are returned lazily in the doc ID order instead of the relevance order.
+     * 
+     * @param streaming
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public int getLimit() {
+        return this.limit;
+    }
+    
+    /**
+     * Sets the maximum number of tuples returned by the DataReader. 
+     * It must be set before the DataReader is opened.
+     * 
+     * When the consumer only needs the first few results (for example, a sink with a limit), 
+     *   the lucene search stops early instead of collecting every matching document.
+     * 
+     * @param limit, must not be negative
+     */
+    public void setLimit(int limit) {
+        if (limit < 0) {
+            throw new StorageException("limit must be greater than or equal to 0, got " + limit);
+        }
+        this.limit = limit;
+    }
 
     public Schema getOutputSchema() {
         return outputSchema;
@@ -240,6 +393,13 @@ public class DataReader implements IOperator {
         }
     }
     
+    /**
+     * Gets the index reader of the opened DataReader.
+     * The index reader is shared with other readers of the table (see IndexSearcherCache), 
+     *   it must not be closed by the caller, and must not be used after the DataReader is closed.
+     * 
+     * @return
+     */
     public IndexReader getLuceneIndexReader() {
         return this.luceneIndexReader;
     }
@@ -3,7 +3,10 @@ package edu.uci.ics.texera.storage;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -44,6 +47,9 @@ import edu.uci.ics.texera.storage.utils.StorageUtils;
  *   DataWriter can update the tuple, with the tuple's _id remaining the same.
  *   
  *   
+ * The TEXT attributes chosen when the table is created are also indexed by their 3-grams in a sub-field,
+ *   so that regex and substring queries can find their candidate tuples on a table with any analyzer.
+ *   
  * DataWriter for a specific table is only accessible from RelationManager.
  * 
  * 
@@ -56,10 +62,17 @@ public class DataWriter {
     private Schema schema;
     private DataStore dataStore;
     private Analyzer analyzer;
+    // the TEXT attributes whose 3-grams are also indexed in a sub-field
+    private Set<String> trigramAttributeNames;
 
     private IndexWriter luceneIndexWriter;
     
     private boolean isOpen = false;
+    
+    // the schema of the last tuple without _id, and the same schema with _id, 
+    //   so that the schema with _id is derived once instead of once per tuple
+    private Schema lastTupleSchema;
+    private Schema lastTupleSchemaWithID;
 
     /*
      * The package-only level constructor is only accessible inside the storage package.
@@ -67,6 +80,13 @@ public class DataWriter {
      *  while upper-level operators can't.
      */
     DataWriter(DataStore dataStore, Analyzer analyzer) {
+        this(dataStore, analyzer, Collections.emptyList());
+    }
+    
+    /*
+     * The analyzer must analyze the 3-gram sub-fields of the trigram attributes by a 3-gram analyzer.
+     */
+    DataWriter(DataStore dataStore, Analyzer analyzer, List<String> trigramAttributeNames) {
         this.indexDirectory = dataStore.getDataDirectory();
         // change the schema to a schema with _ID field
         this.schema = dataStore.getSchema();
@@ -75,6 +95,7 @@ public class DataWriter {
         }
         this.dataStore = new DataStore(indexDirectory, schema);
         this.analyzer = analyzer;
+        this.trigramAttributeNames = new HashSet<>(trigramAttributeNames);
     }
     
     public DataStore getDataStore() {
@@ -99,6 +120,8 @@ public class DataWriter {
             try {
                 this.luceneIndexWriter.close();
                 this.isOpen = false;
+                // the changes are committed, let the subsequent readers see them
+                IndexSearcherCache.refresh(this.indexDirectory);
             } catch (IOException e) {
                 throw new StorageException(e.getMessage(), e);
             }
@@ -211,9 +234,9 @@ public class DataWriter {
     }
 
     /*
-     * Converts a Texera tuple to a Lucene document
+     * Converts a Texera tuple to a Lucene document, with the 3-gram sub-fields of the trigram attributes
      */
-    private static Document getLuceneDocument(Tuple tuple) {
+    private Document getLuceneDocument(Tuple tuple) {
         List<IField> fields = tuple.getFields();
         List<Attribute> attributes = tuple.getSchema().getAttributes();
         Document doc = new Document();
@@ -222,6 +245,9 @@ public class DataWriter {
             Attribute attr = attributes.get(count);
             AttributeType attributeType = attr.getType();
             doc.add(StorageUtils.getLuceneField(attributeType, attr.getName(), field.getValue()));
+            if (attributeType == AttributeType.TEXT && trigramAttributeNames.contains(attr.getName())) {
+                doc.add(StorageUtils.getTrigramLuceneField(attr.getName(), (String) field.getValue()));
+            }
         }
         return doc;
     }
@@ -229,12 +255,16 @@ public class DataWriter {
     /*
      * Adds the _id to the front of the tuple, if the _id field doesn't exist in the tuple.
      */
-    private static Tuple getTupleWithID(Tuple tuple, IDField _id) {
+    private Tuple getTupleWithID(Tuple tuple, IDField _id) {
         Tuple tupleWithID = tuple;
         
         Schema tupleSchema = tuple.getSchema();
         if (! tupleSchema.containsAttribute(SchemaConstants._ID)) {
-            tupleSchema = Schema.Builder.getSchemaWithID(tupleSchema);
+            if (tupleSchema != lastTupleSchema) {
+                lastTupleSchema = tupleSchema;
+                lastTupleSchemaWithID = Schema.Builder.getSchemaWithID(tupleSchema);
+            }
+            tupleSchema = lastTupleSchemaWithID;
             List<IField> newTupleFields = new ArrayList<>();
             newTupleFields.add(_id);
             newTupleFields.addAll(tuple.getFields());
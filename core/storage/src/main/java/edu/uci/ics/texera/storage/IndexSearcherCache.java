@@ -0,0 +1,305 @@
+package edu.uci.ics.texera.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+
+/**
+ * IndexSearcherCache keeps one lucene SearcherManager for each index directory,
+ *   so that all the readers of a table (including the catalog tables) share the same index reader,
+ *   instead of opening and closing the index on every read.
+ *
+ * A reader acquires a searcher before reading, and releases it when it's done.
+ *   The underlying index reader is reference counted,
+ *   an outdated reader is closed after it's released by all the readers that acquired it.
+ *
+ * DataWriter refreshes the searcher of its index directory after it commits,
+ *   so that the readers opened afterwards see the changes.
+ *
+ * Each searcher counts the readers that acquired it and haven't released it yet.
+ *   When more than maxCachedSearchers directories are cached, the least recently used searchers
+ *   that no reader holds are closed (and opened again by the next acquire()),
+ *   so that the open files of the tables that are no longer read are not kept forever.
+ *   The searchers held by readers are never closed by the eviction.
+ *
+ * IndexSearcherCache is only accessible inside the storage package.
+ *
+ */
+class IndexSearcherCache {
+
+    static final int DEFAULT_MAX_CACHED_SEARCHERS = 64;
+
+    private static final ConcurrentHashMap<Path, CachedSearcher> searcherMap = new ConcurrentHashMap<>();
+
+    private static volatile int maxCachedSearchers = DEFAULT_MAX_CACHED_SEARCHERS;
+
+    private IndexSearcherCache() {
+    }
+
+    /**
+     * Acquires the current searcher of an index directory.
+     * The searcher must be released by release() after use.
+     *
+     * If the searcher is removed by remove() or evicted at the same time, its SearcherManager is already closed,
+     *   the searcher is acquired again from a new SearcherManager (or fails if the index is deleted).
+     *
+     * @param indexDirectory
+     * @return
+     * @throws IOException, if the index can't be opened
+     */
+    static IndexSearcher acquire(Path indexDirectory) throws IOException {
+        Path key = getKey(indexDirectory);
+        while (true) {
+            CachedSearcher cachedSearcher = searcherMap.get(key);
+            boolean created = false;
+            if (cachedSearcher == null) {
+                synchronized (searcherMap) {
+                    cachedSearcher = searcherMap.get(key);
+                    if (cachedSearcher == null) {
+                        cachedSearcher = new CachedSearcher(key);
+                        searcherMap.put(key, cachedSearcher);
+                        created = true;
+                    }
+                }
+            }
+            if (! cachedSearcher.incrementAcquireCount()) {
+                // evicted after it's got from the map, try again
+                continue;
+            }
+            try {
+                IndexSearcher indexSearcher = cachedSearcher.searcherManager.acquire();
+                if (created) {
+                    evictUnusedSearchers();
+                }
+                return indexSearcher;
+            } catch (AlreadyClosedException e) {
+                // removed after it's got from the map, try again
+                cachedSearcher.decrementAcquireCount();
+            } catch (IOException | RuntimeException e) {
+                cachedSearcher.decrementAcquireCount();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Releases a searcher acquired by acquire().
+     *
+     * @param indexSearcher
+     * @throws IOException
+     */
+    static void release(IndexSearcher indexSearcher) throws IOException {
+        // same as SearcherManager.release(), it still works after the SearcherManager is removed
+        IndexReader indexReader = indexSearcher.getIndexReader();
+        CachedSearcher cachedSearcher = getCachedSearcher(indexReader);
+        indexReader.decRef();
+        if (cachedSearcher != null) {
+            cachedSearcher.decrementAcquireCount();
+            evictUnusedSearchers();
+        }
+    }
+
+    /*
+     * Finds the cached searcher that a reader is acquired from,
+     *   or null if it's already removed (a new searcher of the same directory has a different lucene directory).
+     */
+    private static CachedSearcher getCachedSearcher(IndexReader indexReader) {
+        if (! (indexReader instanceof DirectoryReader)) {
+            return null;
+        }
+        Directory directory = ((DirectoryReader) indexReader).directory();
+        if (! (directory instanceof FSDirectory)) {
+            return null;
+        }
+        CachedSearcher cachedSearcher = searcherMap.get(((FSDirectory) directory).getDirectory());
+        if (cachedSearcher == null || cachedSearcher.directory != directory) {
+            return null;
+        }
+        return cachedSearcher;
+    }
+
+    /**
+     * Reopens the searcher of an index directory if the index has changed.
+     * It does nothing if no searcher of the directory has been acquired.
+     *
+     * @param indexDirectory
+     * @throws IOException
+     */
+    static void refresh(Path indexDirectory) throws IOException {
+        CachedSearcher cachedSearcher = searcherMap.get(getKey(indexDirectory));
+        if (cachedSearcher != null) {
+            try {
+                cachedSearcher.searcherManager.maybeRefreshBlocking();
+            } catch (AlreadyClosedException e) {
+                // removed at the same time, the next acquire() opens the index again
+            }
+        }
+    }
+
+    /**
+     * Removes and closes the searcher of an index directory, and the lucene directory it's opened on.
+     * It must be called before the index directory is deleted.
+     *
+     * @param indexDirectory
+     * @throws IOException
+     */
+    static void remove(Path indexDirectory) throws IOException {
+        CachedSearcher cachedSearcher;
+        synchronized (searcherMap) {
+            cachedSearcher = searcherMap.remove(getKey(indexDirectory));
+        }
+        if (cachedSearcher != null) {
+            cachedSearcher.close();
+        }
+    }
+
+    /**
+     * Sets the maximum number of index directories whose searchers are kept open
+     *   while no reader holds them.
+     *
+     * @param maxCachedSearchers
+     * @throws IOException, if an evicted searcher can't be closed
+     */
+    static void setMaxCachedSearchers(int maxCachedSearchers) throws IOException {
+        if (maxCachedSearchers < 0) {
+            throw new IllegalArgumentException("maxCachedSearchers must be non-negative");
+        }
+        IndexSearcherCache.maxCachedSearchers = maxCachedSearchers;
+        evictUnusedSearchers();
+    }
+
+    static int getMaxCachedSearchers() {
+        return maxCachedSearchers;
+    }
+
+    /**
+     * Gets the number of index directories whose searchers are cached.
+     */
+    static int getCachedSearcherCount() {
+        return searcherMap.size();
+    }
+
+    /*
+     * Closes the least recently used searchers that no reader holds,
+     *   until at most maxCachedSearchers directories are cached (or all the others are held by readers).
+     */
+    private static void evictUnusedSearchers() throws IOException {
+        if (searcherMap.size() <= maxCachedSearchers) {
+            return;
+        }
+        List<CachedSearcher> evictedSearchers = new ArrayList<>();
+        synchronized (searcherMap) {
+            // the last used times are copied, since they can change while the entries are sorted
+            Map<Path, Long> lastUsedTimes = new HashMap<>();
+            for (Map.Entry<Path, CachedSearcher> entry : searcherMap.entrySet()) {
+                lastUsedTimes.put(entry.getKey(), entry.getValue().lastUsedTime);
+            }
+            List<Path> keys = new ArrayList<>(lastUsedTimes.keySet());
+            keys.sort(Comparator.comparingLong(lastUsedTimes::get));
+            for (Path key : keys) {
+                if (searcherMap.size() <= maxCachedSearchers) {
+                    break;
+                }
+                CachedSearcher cachedSearcher = searcherMap.get(key);
+                if (cachedSearcher.markEvicted()) {
+                    searcherMap.remove(key);
+                    evictedSearchers.add(cachedSearcher);
+                }
+            }
+        }
+        IOException closeException = null;
+        for (CachedSearcher cachedSearcher : evictedSearchers) {
+            try {
+                cachedSearcher.close();
+            } catch (IOException e) {
+                closeException = e;
+            }
+        }
+        if (closeException != null) {
+            throw closeException;
+        }
+    }
+
+    /*
+     * The same directory can be given by different paths (relative, absolute, through a symbolic link),
+     *   the real path is used as the key if the directory exists.
+     */
+    private static Path getKey(Path indexDirectory) {
+        try {
+            return indexDirectory.toRealPath();
+        } catch (IOException e) {
+            return indexDirectory.toAbsolutePath().normalize();
+        }
+    }
+
+    /*
+     * The SearcherManager of an index directory and the lucene directory it's opened on,
+     *   the directory is closed with the SearcherManager.
+     *
+     * acquireCount is the number of readers holding a searcher, or -1 after it's evicted.
+     */
+    private static class CachedSearcher {
+        private final Directory directory;
+        private final SearcherManager searcherManager;
+        private final AtomicInteger acquireCount = new AtomicInteger(0);
+        private volatile long lastUsedTime = System.nanoTime();
+
+        private CachedSearcher(Path indexDirectory) throws IOException {
+            this.directory = FSDirectory.open(indexDirectory);
+            try {
+                this.searcherManager = new SearcherManager(directory, null);
+            } catch (IOException | RuntimeException e) {
+                directory.close();
+                throw e;
+            }
+        }
+
+        private boolean incrementAcquireCount() {
+            while (true) {
+                int count = acquireCount.get();
+                if (count < 0) {
+                    return false;
+                }
+                if (acquireCount.compareAndSet(count, count + 1)) {
+                    lastUsedTime = System.nanoTime();
+                    return true;
+                }
+            }
+        }
+
+        private void decrementAcquireCount() {
+            lastUsedTime = System.nanoTime();
+            acquireCount.decrementAndGet();
+        }
+
+        /*
+         * Marks the searcher as evicted if no reader holds it, the readers can't acquire it afterwards.
+         */
+        private boolean markEvicted() {
+            return acquireCount.compareAndSet(0, -1);
+        }
+
+        private void close() throws IOException {
+            try {
+                searcherManager.close();
+            } finally {
+                directory.close();
+            }
+        }
+    }
+
+}
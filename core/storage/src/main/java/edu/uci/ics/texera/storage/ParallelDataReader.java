@@ -0,0 +1,418 @@
+package edu.uci.ics.texera.storage;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+
+import edu.uci.ics.texera.api.constants.ErrorMessages;
+import edu.uci.ics.texera.api.constants.SchemaConstants;
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.exception.StorageException;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
+
+/**
+ * ParallelDataReader reads the tuples that match a lucene query using multiple threads.
+ *
+ * The index is split into partitions:
+ *   if the index has at least as many leaf segments as the parallelism,
+ *     each partition is a group of whole segments,
+ *   otherwise, the doc ID space is split into ranges of (almost) equal size.
+ * Each partition is read by its own thread, which finds the matching documents
+ *   (without scoring), decodes their stored fields and term vector payloads,
+ *   and puts the tuples into the partition's bounded queue.
+ *
+ * The tuples of all the partitions are returned as one merged stream, 
+ *   which is NOT in the doc ID order. 
+ * It's used by a ScanBasedSourceOperator with more than one reader thread.
+ *
+ * A limit on the number of returned tuples can be set (see setLimit()),
+ *   the threads are stopped when the reader is closed.
+ *
+ * ParallelDataReader for a specific table is only accessible from RelationManager.
+ *
+ */
+public class ParallelDataReader implements IOperator {
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final int DEFAULT_QUEUE_DEPTH = 4;
+
+    // the threads check if the reader is closed at this interval when a queue is full
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    // an empty list in a queue indicates the partition has no more tuples
+    private static final List<Tuple> END_OF_PARTITION = new ArrayList<>();
+
+    private final DataStore dataStore;
+    private final Query query;
+    private final int parallelism;
+    private boolean payloadAdded;
+    private int limit = Integer.MAX_VALUE;
+
+    private Schema inputSchema;
+    private Schema outputSchema;
+
+    private IndexSearcher luceneIndexSearcher;
+    private IndexReader luceneIndexReader;
+    private Weight luceneWeight;
+
+    private List<BlockingQueue<List<Tuple>>> partitionQueues;
+    // the number of lists in all the partition queues, used by the merged stream to wait for any partition
+    private Semaphore availableLists;
+    private List<Thread> partitionThreads;
+    private volatile boolean closing = false;
+    private volatile Throwable partitionException = null;
+
+    private int cursor = CLOSED;
+
+    // the number of tuples returned
+    private int resultCursor = 0;
+    private int finishedPartitionCount = 0;
+    private List<Tuple> currentTupleList = new ArrayList<>();
+    private int currentTupleCursor = 0;
+
+    /*
+     * The package-only level constructor is only accessible inside the storage package.
+     * Only the RelationManager is allowed to construct a ParallelDataReader object.
+     */
+    ParallelDataReader(DataStore dataStore, Query query, int parallelism) throws StorageException {
+        if (parallelism <= 0) {
+            throw new StorageException("parallelism of a ParallelDataReader must be positive");
+        }
+        this.dataStore = dataStore;
+        this.query = query;
+        this.parallelism = parallelism;
+        this.payloadAdded = false;
+    }
+
+    @Override
+    public synchronized void open() throws StorageException {
+        if (cursor != CLOSED) {
+            return;
+        }
+        try {
+            luceneIndexSearcher = IndexSearcherCache.acquire(this.dataStore.getDataDirectory());
+            luceneIndexReader = luceneIndexSearcher.getIndexReader();
+            // scores are not needed, the documents are returned in the doc ID order
+            luceneWeight = luceneIndexSearcher.createNormalizedWeight(query, false);
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+
+        inputSchema = this.dataStore.getSchema();
+        if (payloadAdded) {
+            outputSchema = new Schema.Builder(inputSchema).add(SchemaConstants.PAYLOAD_ATTRIBUTE).build();
+        } else {
+            outputSchema = inputSchema;
+        }
+
+        partitionQueues = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            partitionQueues.add(new ArrayBlockingQueue<>(DEFAULT_QUEUE_DEPTH));
+        }
+        availableLists = new Semaphore(0);
+        closing = false;
+        partitionException = null;
+        resultCursor = 0;
+        finishedPartitionCount = 0;
+        currentTupleList = new ArrayList<>();
+        currentTupleCursor = 0;
+
+        List<List<DocRange>> partitions = splitPartitions(luceneIndexReader.leaves(), parallelism);
+        partitionThreads = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            final int partitionIndex = i;
+            final List<DocRange> partition = partitions.get(i);
+            Thread thread = new Thread(() -> readPartition(partitionIndex, partition),
+                    "texera-parallel-reader-" + dataStore.getDataDirectory().getFileName() + "-" + i);
+            thread.setDaemon(true);
+            partitionThreads.add(thread);
+        }
+        partitionThreads.forEach(thread -> thread.start());
+
+        cursor = OPENED;
+    }
+
+    /*
+     * Splits the leaf segments into "parallelism" partitions.
+     *
+     * If there are enough segments, whole segments are assigned to partitions,
+     *   the largest segment first, to the partition with the fewest documents.
+     * Otherwise, the doc ID space is split into equal ranges, a range can span multiple segments.
+     */
+    static List<List<DocRange>> splitPartitions(List<LeafReaderContext> leaves, int parallelism) {
+        List<List<DocRange>> partitions = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            partitions.add(new ArrayList<>());
+        }
+
+        if (leaves.size() >= parallelism) {
+            long[] partitionSizes = new long[parallelism];
+            List<LeafReaderContext> sortedLeaves = new ArrayList<>(leaves);
+            sortedLeaves.sort(Comparator.comparingInt((LeafReaderContext leaf) -> leaf.reader().maxDoc()).reversed());
+            for (LeafReaderContext leaf : sortedLeaves) {
+                int smallest = 0;
+                for (int i = 1; i < parallelism; i++) {
+                    if (partitionSizes[i] < partitionSizes[smallest]) {
+                        smallest = i;
+                    }
+                }
+                partitions.get(smallest).add(new DocRange(leaf, 0, leaf.reader().maxDoc()));
+                partitionSizes[smallest] += leaf.reader().maxDoc();
+            }
+            // keep the doc ID order inside each partition
+            partitions.forEach(partition -> partition.sort(Comparator.comparingInt(range -> range.leaf.docBase)));
+            return partitions;
+        }
+
+        long maxDoc = leaves.stream().mapToLong(leaf -> leaf.reader().maxDoc()).sum();
+        for (int i = 0; i < parallelism; i++) {
+            long rangeStart = maxDoc * i / parallelism;
+            long rangeEnd = maxDoc * (i + 1) / parallelism;
+            for (LeafReaderContext leaf : leaves) {
+                long leafStart = leaf.docBase;
+                long leafEnd = leaf.docBase + leaf.reader().maxDoc();
+                long start = Math.max(rangeStart, leafStart);
+                long end = Math.min(rangeEnd, leafEnd);
+                if (start < end) {
+                    partitions.get(i).add(new DocRange(leaf, (int) (start - leafStart), (int) (end - leafStart)));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    /*
+     * Reads the documents of a partition and puts the tuples into the partition's queue.
+     * It runs on the partition's thread.
+     */
+    private void readPartition(int partitionIndex, List<DocRange> partition) {
+        BlockingQueue<List<Tuple>> queue = partitionQueues.get(partitionIndex);
+        try {
+            List<Tuple> tupleList = new ArrayList<>();
+            for (DocRange range : partition) {
+                Scorer scorer = luceneWeight.scorer(range.leaf);
+                if (scorer == null) {
+                    continue;
+                }
+                Bits liveDocs = range.leaf.reader().getLiveDocs();
+                DocIdSetIterator docIterator = scorer.iterator();
+                int docID = docIterator.advance(range.start);
+                for (; docID < range.end; docID = docIterator.nextDoc()) {
+                    if (closing) {
+                        return;
+                    }
+                    if (liveDocs != null && ! liveDocs.get(docID)) {
+                        continue;
+                    }
+                    tupleList.add(DataReader.constructTuple(luceneIndexReader, range.leaf.docBase + docID,
+                            inputSchema, outputSchema, payloadAdded));
+                    if (tupleList.size() >= DEFAULT_BATCH_SIZE) {
+                        if (! putTupleList(queue, tupleList)) {
+                            return;
+                        }
+                        tupleList = new ArrayList<>();
+                    }
+                }
+            }
+            if (! tupleList.isEmpty() && ! putTupleList(queue, tupleList)) {
+                return;
+            }
+        } catch (IOException | ParseException | RuntimeException e) {
+            partitionException = e;
+        }
+        putTupleList(queue, END_OF_PARTITION);
+    }
+
+    /*
+     * Puts a list of tuples into a partition queue, waits if the queue is full.
+     * Returns false if the reader is closing.
+     */
+    private boolean putTupleList(BlockingQueue<List<Tuple>> queue, List<Tuple> tupleList) {
+        try {
+            while (! closing) {
+                if (queue.offer(tupleList, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    availableLists.release();
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private void rethrowPartitionException() throws StorageException {
+        Throwable e = partitionException;
+        if (e == null) {
+            return;
+        }
+        if (e instanceof StorageException) {
+            throw (StorageException) e;
+        }
+        throw new StorageException(e.getMessage(), e);
+    }
+
+    /**
+     * Gets the next tuple of the merged stream, from any partition.
+     */
+    @Override
+    public Tuple getNextTuple() throws StorageException {
+        if (cursor == CLOSED) {
+            throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        if (resultCursor >= limit) {
+            return null;
+        }
+        if (currentTupleCursor >= currentTupleList.size() && ! takeNextMergedTupleList()) {
+            return null;
+        }
+        resultCursor++;
+        return currentTupleList.get(currentTupleCursor++);
+    }
+
+    @Override
+    public boolean getNextBatch(TupleBatch batch) throws StorageException {
+        if (cursor == CLOSED) {
+            throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        batch.clear();
+        while (! batch.isFull() && resultCursor < limit) {
+            if (currentTupleCursor >= currentTupleList.size() && ! takeNextMergedTupleList()) {
+                break;
+            }
+            resultCursor++;
+            batch.add(currentTupleList.get(currentTupleCursor++));
+        }
+        return ! batch.isEmpty();
+    }
+
+    /*
+     * Takes the next list of tuples from any partition queue that has one.
+     * Returns false if all the partitions are finished.
+     */
+    private boolean takeNextMergedTupleList() throws StorageException {
+        while (finishedPartitionCount < parallelism) {
+            try {
+                availableLists.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StorageException(e.getMessage(), e);
+            }
+            // a permit guarantees that at least one queue is not empty
+            for (BlockingQueue<List<Tuple>> queue : partitionQueues) {
+                List<Tuple> tupleList = queue.poll();
+                if (tupleList == null) {
+                    continue;
+                }
+                if (tupleList == END_OF_PARTITION) {
+                    finishedPartitionCount++;
+                    rethrowPartitionException();
+                    break;
+                }
+                currentTupleList = tupleList;
+                currentTupleCursor = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void close() throws StorageException {
+        if (cursor == CLOSED) {
+            return;
+        }
+        cursor = CLOSED;
+        closing = true;
+        try {
+            for (Thread thread : partitionThreads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageException(e.getMessage(), e);
+        } finally {
+            partitionQueues.forEach(queue -> queue.clear());
+            currentTupleList = new ArrayList<>();
+            try {
+                IndexSearcherCache.release(luceneIndexSearcher);
+                luceneIndexSearcher = null;
+                luceneIndexReader = null;
+            } catch (IOException e) {
+                throw new StorageException(e.getMessage(), e);
+            }
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Sets the maximum number of tuples returned by the merged stream.
+     *
+     * @param limit, must not be negative
+     */
+    public void setLimit(int limit) {
+        if (limit < 0) {
+            throw new StorageException("limit must be greater than or equal to 0, got " + limit);
+        }
+        this.limit = limit;
+    }
+
+    public boolean isPayloadAdded() {
+        return this.payloadAdded;
+    }
+
+    public void setPayloadAdded(boolean payloadAdded) {
+        this.payloadAdded = payloadAdded;
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return outputSchema;
+    }
+
+    @Override
+    public Schema transformToOutputSchema(Schema... inputSchema) {
+        throw new TexeraException(ErrorMessages.INVALID_FUNCTION_CALL);
+    }
+
+    /*
+     * A range of doc IDs [start, end) in a leaf segment, the doc IDs are relative to the segment.
+     */
+    static class DocRange {
+        final LeafReaderContext leaf;
+        final int start;
+        final int end;
+
+        DocRange(LeafReaderContext leaf, int start, int end) {
+            this.leaf = leaf;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+}
@@ -4,12 +4,22 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
@@ -18,7 +28,6 @@ import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.field.IDField;
-import edu.uci.ics.texera.api.field.IField;
 import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
@@ -26,14 +35,35 @@ import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 import edu.uci.ics.texera.storage.utils.StorageUtils;
 
+/**
+ * RelationManager manages the tables: it creates and deletes tables, 
+ *   and gives the DataReaders and DataWriters of the tables.
+ * 
+ * The information of the tables is stored in two system catalog tables (table catalog and schema catalog).
+ * The catalog is loaded into memory when the RelationManager is created, 
+ *   and kept consistent with the catalog tables by createTable() and deleteTable() (write-through),
+ *   so that looking up the directory, schema, or analyzer of a table doesn't read the catalog index.
+ *
+ */
 public class RelationManager {
     
     private static volatile RelationManager singletonInstance = null;
     
-    private RelationManager() throws StorageException {
+    // in-memory copy of the catalog, a map from the table name (lower case) to the table's catalog entry
+    private final ConcurrentHashMap<String, CatalogEntry> catalogCache = new ConcurrentHashMap<>();
+    
+    // the number of catalog lookups and their total time, in nanoseconds
+    private final AtomicLong catalogLookupCount = new AtomicLong();
+    private final AtomicLong catalogLookupNanos = new AtomicLong();
+    
+    // package-private for the test of opening a catalog created by an older version
+    RelationManager() throws StorageException {
         if (! checkCatalogExistence()) {
             initializeCatalog();
+        } else {
+            upgradeCatalog();
         }
+        loadCatalog();
     }
 
     public static RelationManager getInstance() throws StorageException {
@@ -54,8 +84,7 @@ public class RelationManager {
      * @return
      */
     public boolean checkTableExistence(String tableName) {
-        tableName = tableName.toLowerCase();
-        return getTableCatalogTuple(tableName) != null;
+        return getCatalogEntry(tableName) != null;
     }
 
     /**
@@ -75,6 +104,26 @@ public class RelationManager {
      */
     public void createTable(String tableName, Path indexDirectory, Schema schema, String luceneAnalyzerString)
             throws StorageException {
+        createTable(tableName, indexDirectory, schema, luceneAnalyzerString, Collections.emptyList());
+    }
+
+    /**
+     * Creates a new table, whose chosen TEXT attributes are also indexed by their 3-grams.
+     * 
+     * Each trigram attribute gets a sub-field (see StorageUtils.getTrigramFieldName()) 
+     *   maintained by the DataWriter alongside the field analyzed by the table's analyzer.
+     * Regex and substring queries use the sub-fields to find their candidate tuples 
+     *   on a table whose analyzer is not the 3-gram analyzer (see getTrigramFieldNames()).
+     * 
+     * @param tableName, the name of the table, must be unique, case is not sensitive
+     * @param indexDirectory, the directory to store the index and data, must not duplicate with other tables' directories
+     * @param schema, the schema of the table
+     * @param luceneAnalyzerString, the string representing the lucene analyzer used
+     * @param trigramAttributeNames, the TEXT attributes to be indexed by their 3-grams
+     * @throws StorageException
+     */
+    public void createTable(String tableName, Path indexDirectory, Schema schema, String luceneAnalyzerString,
+            List<String> trigramAttributeNames) throws StorageException {
         // convert the table name to lower case
         tableName = tableName.toLowerCase();
         // table should not exist
@@ -95,17 +144,13 @@ public class RelationManager {
         }
         
         // check if the indexDirectory overlaps with another table's index directory
-        Query indexDirectoryQuery = new TermQuery(new Term(CatalogConstants.TABLE_DIRECTORY, indexDirectoryStr));
-        DataReader tableCatalogDataReader = new DataReader(CatalogConstants.TABLE_CATALOG_DATASTORE, indexDirectoryQuery);
-        tableCatalogDataReader.setPayloadAdded(false);
-        
-        tableCatalogDataReader.open();
-        Tuple nextTuple = tableCatalogDataReader.getNextTuple();
-        tableCatalogDataReader.close();
+        String overlapTableName = catalogCache.entrySet().stream()
+                .filter(entry -> entry.getValue().tableDirectory.equals(indexDirectoryStr))
+                .map(entry -> entry.getKey())
+                .findAny().orElse(null);
         
         // if the index directory is already taken by another table, throws an exception
-        if (nextTuple != null) {
-            String overlapTableName = nextTuple.getField(CatalogConstants.TABLE_NAME).getValue().toString();
+        if (overlapTableName != null) {
             throw new StorageException(String.format(
                     "Table %s already takes the index directory %s. Please choose another directory.", 
                     overlapTableName, indexDirectory));
@@ -119,6 +164,20 @@ public class RelationManager {
             throw new StorageException("Lucene Analyzer String is not valid.");
         }
         
+        // check if the trigram attributes are TEXT attributes of the schema
+        for (String attributeName : trigramAttributeNames) {
+            if (! schema.containsAttribute(attributeName) 
+                    || schema.getAttribute(attributeName).getType() != AttributeType.TEXT) {
+                throw new StorageException(String.format(
+                        "Trigram attribute %s is not a TEXT attribute of the table.", attributeName));
+            }
+            if (attributeName.contains(CatalogConstants.TRIGRAM_ATTRIBUTES_DELIMITER)) {
+                throw new StorageException(String.format(
+                        "Trigram attribute %s must not contain \"%s\".", 
+                        attributeName, CatalogConstants.TRIGRAM_ATTRIBUTES_DELIMITER));
+            }
+        }
+        
         // create the directory and clear all data in the index directory
         Schema tableSchema = Schema.Builder.getSchemaWithID(schema);
         DataStore tableDataStore = new DataStore(indexDirectory, tableSchema);
@@ -128,7 +187,7 @@ public class RelationManager {
         dataWriter.close();
         
         // write table info to catalog
-        writeTableInfoToCatalog(tableName, indexDirectory, schema, luceneAnalyzerString);
+        writeTableInfoToCatalog(tableName, indexDirectory, schema, luceneAnalyzerString, trigramAttributeNames);
 
     }
 
@@ -156,6 +215,11 @@ public class RelationManager {
         dataWriter.open();
         dataWriter.clearData();
         dataWriter.close();
+        try {
+            IndexSearcherCache.remove(dataWriter.getDataStore().getDataDirectory());
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
         StorageUtils.deleteDirectory(getTableDirectory(tableName));
 
         // generate a query for the table name
@@ -175,6 +239,7 @@ public class RelationManager {
         schemaCatalogWriter.deleteTuple(catalogTableNameQuery);
         schemaCatalogWriter.close();
         
+        catalogCache.remove(tableName);
     }
     
     /**
@@ -193,6 +258,7 @@ public class RelationManager {
         // find the tuple using DataReader
         DataReader dataReader = getTableDataReader(tableName, tupleIDQuery);
         dataReader.setPayloadAdded(false);
+        dataReader.setStreaming(true);
 
         dataReader.open(); 
         Tuple tuple = dataReader.getNextTuple();
@@ -213,7 +279,8 @@ public class RelationManager {
         if (isSystemCatalog(tableName)) {
             throw new StorageException("modify system catalog is not allowed");
         }
-        return new DataWriter(getTableDataStore(tableName), getTableAnalyzer(tableName));
+        return new DataWriter(getTableDataStore(tableName), getTableAnalyzer(tableName), 
+                getTableTrigramAttributes(tableName));
     }
     
     /**
@@ -230,6 +297,72 @@ public class RelationManager {
         return new DataReader(tableDataStore, tupleQuery);
     }
     
+    /**
+     * Gets a ParallelDataReader for a table based on a query.
+     * ParallelDataReader reads the tuples that match the query using "parallelism" threads.
+     * 
+     * @param tableName, the name of a table, case insensitive
+     * @param tupleQuery, the query to run on the table
+     * @param parallelism, the number of partitions (and threads) to read the table
+     * @return
+     * @throws StorageException
+     */
+    public ParallelDataReader getTableParallelDataReader(String tableName, Query tupleQuery, int parallelism) 
+            throws StorageException {
+        DataStore tableDataStore = getTableDataStore(tableName);
+        return new ParallelDataReader(tableDataStore, tupleQuery, parallelism);
+    }
+    
+    /**
+     * Gets the number of documents in a table.
+     * The deleted documents are not counted.
+     * 
+     * @param tableName, the name of a table, case insensitive
+     * @return
+     * @throws StorageException
+     */
+    public int getTableDocumentCount(String tableName) throws StorageException {
+        DataStore tableDataStore = getTableDataStore(tableName);
+        try {
+            IndexSearcher indexSearcher = IndexSearcherCache.acquire(tableDataStore.getDataDirectory());
+            try {
+                return indexSearcher.getIndexReader().numDocs();
+            } finally {
+                IndexSearcherCache.release(indexSearcher);
+            }
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Gets the number of documents in a table that contain each term, read from the term dictionary of the index.
+     * The deleted documents are still counted until their segments are merged.
+     * 
+     * @param tableName, the name of a table, case insensitive
+     * @param terms, the terms, whose fields are the attribute names
+     * @return the document frequency of each term
+     * @throws StorageException
+     */
+    public int[] getTermDocumentFrequencies(String tableName, List<Term> terms) throws StorageException {
+        DataStore tableDataStore = getTableDataStore(tableName);
+        try {
+            IndexSearcher indexSearcher = IndexSearcherCache.acquire(tableDataStore.getDataDirectory());
+            try {
+                IndexReader indexReader = indexSearcher.getIndexReader();
+                int[] documentFrequencies = new int[terms.size()];
+                for (int i = 0; i < terms.size(); i++) {
+                    documentFrequencies[i] = indexReader.docFreq(terms.get(i));
+                }
+                return documentFrequencies;
+            } finally {
+                IndexSearcherCache.release(indexSearcher);
+            }
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+    
     /**
      * Gets the DataStore(directory and schema) of a table.
      * 
@@ -251,17 +384,13 @@ public class RelationManager {
      * @throws StorageException
      */
     public String getTableDirectory(String tableName) throws StorageException {
-        // get the tuples with tableName from the table catalog
-        Tuple tableCatalogTuple = getTableCatalogTuple(tableName);
+        CatalogEntry catalogEntry = getCatalogEntry(tableName);
         
-        // if the tuple is not found, then the table name is not found
-        if (tableCatalogTuple == null) {
+        // if the entry is not found, then the table name is not found
+        if (catalogEntry == null) {
             throw new StorageException(String.format("The directory for table %s is not found.", tableName));
         }
-
-        // get the directory field
-        IField directoryField = tableCatalogTuple.getField(CatalogConstants.TABLE_DIRECTORY);
-        return directoryField.getValue().toString();
+        return catalogEntry.tableDirectory;
     }
 
     /**
@@ -272,14 +401,19 @@ public class RelationManager {
      * @throws StorageException
      */
     public Schema getTableSchema(String tableName) throws StorageException {
-        // get the tuples with tableName from the schema catalog
-        List<Tuple> tableAttributeTuples = getSchemaCatalogTuples(tableName);
+        CatalogEntry catalogEntry = getCatalogEntry(tableName);
 
-        // if the list is empty, then the schema is not found
-        if (tableAttributeTuples.isEmpty()) {
+        // if the entry is not found, then the schema is not found
+        if (catalogEntry == null) {
             throw new StorageException(String.format("The schema of table %s is not found.", tableName));
         }
-        
+        return catalogEntry.tableSchema;
+    }
+    
+    /*
+     * Converts the tuples of a table in the schema catalog to the schema of the table.
+     */
+    private static Schema convertSchemaCatalogTuples(List<Tuple> tableAttributeTuples) {
         // convert the unordered list of tuples to an order list of attributes
         List<Attribute> tableSchemaData = tableAttributeTuples.stream()
                 // sort the tuples based on the attributePosition field.
@@ -301,23 +435,86 @@ public class RelationManager {
      * @throws StorageException
      */
     public String getTableAnalyzerString(String tableName) throws StorageException {
-        // get the tuples with tableName from the table catalog
-        Tuple tableCatalogTuple = getTableCatalogTuple(tableName);
+        CatalogEntry catalogEntry = getCatalogEntry(tableName);
         
-        // if the tuple is not found, then the table name is not found
-        if (tableCatalogTuple == null) {
+        // if the entry is not found, then the table name is not found
+        if (catalogEntry == null) {
             throw new StorageException(String.format("The analyzer for table %s is not found.", tableName));
         }
+        return catalogEntry.luceneAnalyzerString;
+    }
+    
+    /**
+     * Gets the TEXT attributes of a table that are also indexed by their 3-grams in a sub-field.
+     *   
+     * @param tableName, the name of the table, case insensitive
+     * @return the trigram attributes, empty if the table has none
+     * @throws StorageException
+     */
+    public List<String> getTableTrigramAttributes(String tableName) throws StorageException {
+        CatalogEntry catalogEntry = getCatalogEntry(tableName);
         
-        // get the lucene analyzer string
-        IField analyzerField = tableCatalogTuple.getField(CatalogConstants.TABLE_LUCENE_ANALYZER);
-        String analyzerString = analyzerField.getValue().toString();
+        // if the entry is not found, then the table name is not found
+        if (catalogEntry == null) {
+            throw new StorageException(String.format("The trigram attributes of table %s are not found.", tableName));
+        }
+        return catalogEntry.trigramAttributeNames;
+    }
+    
+    /**
+     * Gets the index fields that contain the 3-grams of the attributes, one for each attribute:
+     *   the attributes themselves if the table's analyzer is the 3-gram analyzer,
+     *   or their 3-gram sub-fields if all of them are trigram attributes.
+     * 
+     * The 3-grams are lower case, the same as the 3-gram analyzer produces.
+     * Returns null if the 3-grams of any attribute are not indexed (for example, a STRING attribute),
+     *   in which case the table must be scanned.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @param attributeNames, the attributes to be searched
+     * @return the index fields, or null if the 3-grams of the attributes are not all indexed
+     * @throws StorageException
+     */
+    public List<String> getTrigramFieldNames(String tableName, List<String> attributeNames) throws StorageException {
+        Schema tableSchema = getTableSchema(tableName);
+        for (String attributeName : attributeNames) {
+            if (! tableSchema.containsAttribute(attributeName) 
+                    || tableSchema.getAttribute(attributeName).getType() != AttributeType.TEXT) {
+                return null;
+            }
+        }
         
-        return analyzerString;
+        if (LuceneAnalyzerConstants.nGramAnalyzerString(3).equals(getTableAnalyzerString(tableName))) {
+            return new ArrayList<>(attributeNames);
+        }
+        if (getTableTrigramAttributes(tableName).containsAll(attributeNames)) {
+            return attributeNames.stream().map(StorageUtils::getTrigramFieldName).collect(Collectors.toList());
+        }
+        return null;
+    }
+    
+    /**
+     * Gets the number of catalog lookups (directory, schema, analyzer, and existence of a table) 
+     *   since the RelationManager is created.
+     * 
+     * @return
+     */
+    public long getCatalogLookupCount() {
+        return catalogLookupCount.get();
+    }
+    
+    /**
+     * Gets the total time of the catalog lookups in nanoseconds.
+     * 
+     * @return
+     */
+    public long getCatalogLookupTotalNanos() {
+        return catalogLookupNanos.get();
     }
 
     /**
      * Gets the Lucene analyzer of a table.
+     * The 3-gram sub-fields of the trigram attributes are analyzed by the 3-gram analyzer.
      *   
      * @param tableName, the name of the table, case insensitive
      * @return
@@ -330,6 +527,17 @@ public class RelationManager {
         Analyzer luceneAnalyzer = null;
         try {
             luceneAnalyzer = LuceneAnalyzerConstants.getLuceneAnalyzer(analyzerString);
+            
+            List<String> trigramAttributeNames = getTableTrigramAttributes(tableName);
+            if (! trigramAttributeNames.isEmpty()) {
+                Analyzer trigramAnalyzer = LuceneAnalyzerConstants.getLuceneAnalyzer(
+                        LuceneAnalyzerConstants.nGramAnalyzerString(3));
+                Map<String, Analyzer> trigramFieldAnalyzers = new HashMap<>();
+                for (String attributeName : trigramAttributeNames) {
+                    trigramFieldAnalyzers.put(StorageUtils.getTrigramFieldName(attributeName), trigramAnalyzer);
+                }
+                luceneAnalyzer = new PerFieldAnalyzerWrapper(luceneAnalyzer, trigramFieldAnalyzers);
+            }
         } catch (DataflowException e) {
             throw new StorageException(e);
         }
@@ -341,14 +549,16 @@ public class RelationManager {
      * This is a helper function that writes the table information to 
      *   the table catalog and the schema catalog.
      */
-    private void writeTableInfoToCatalog(String tableName, Path indexDirectory, Schema schema, String luceneAnalyzerString) 
-            throws StorageException {   
+    private void writeTableInfoToCatalog(String tableName, Path indexDirectory, Schema schema, String luceneAnalyzerString,
+            List<String> trigramAttributeNames) throws StorageException {   
         // write table catalog
         DataStore tableCatalogStore = new DataStore(CatalogConstants.TABLE_CATALOG_DIRECTORY,
                 CatalogConstants.TABLE_CATALOG_SCHEMA);
         DataWriter dataWriter = new DataWriter(tableCatalogStore, LuceneAnalyzerConstants.getStandardAnalyzer());
+        Tuple tableCatalogTuple = CatalogConstants.getTableCatalogTuple(tableName, indexDirectory, luceneAnalyzerString,
+                trigramAttributeNames);
         dataWriter.open();
-        dataWriter.insertTuple(CatalogConstants.getTableCatalogTuple(tableName, indexDirectory, luceneAnalyzerString));
+        dataWriter.insertTuple(tableCatalogTuple);
         dataWriter.close();
        
         // write schema catalog
@@ -357,57 +567,70 @@ public class RelationManager {
                 CatalogConstants.SCHEMA_CATALOG_SCHEMA);
         dataWriter = new DataWriter(schemaCatalogStore, LuceneAnalyzerConstants.getStandardAnalyzer());
         // each attribute in the table schema will be one row in schema catalog
+        List<Tuple> schemaCatalogTuples = CatalogConstants.getSchemaCatalogTuples(tableName, tableSchema);
         dataWriter.open();
-        for (Tuple tuple : CatalogConstants.getSchemaCatalogTuples(tableName, tableSchema)) {
+        for (Tuple tuple : schemaCatalogTuples) {
             dataWriter.insertTuple(tuple);
         }
         dataWriter.close();
+        
+        // the catalog cache is built from the same tuples as the catalog tables
+        catalogCache.put(tableName, new CatalogEntry(tableCatalogTuple, schemaCatalogTuples));
     }
     
     /*
-     * Gets the a tuple of a table from table catalog.
+     * Gets the catalog entry of a table, or null if the table doesn't exist.
      */
-    private static Tuple getTableCatalogTuple(String tableName) throws StorageException {
-        tableName = tableName.toLowerCase();
-        
-        Query tableNameQuery = new TermQuery(new Term(CatalogConstants.TABLE_NAME, tableName));
-        DataReader tableCatalogDataReader = new DataReader(CatalogConstants.TABLE_CATALOG_DATASTORE, tableNameQuery);
-        tableCatalogDataReader.setPayloadAdded(false);
+    private CatalogEntry getCatalogEntry(String tableName) {
+        long startTime = System.nanoTime();
+        CatalogEntry catalogEntry = catalogCache.get(tableName.toLowerCase());
+        catalogLookupNanos.addAndGet(System.nanoTime() - startTime);
+        catalogLookupCount.incrementAndGet();
+        return catalogEntry;
+    }
+    
+    /*
+     * Loads all the tuples of the table catalog and the schema catalog into the catalog cache.
+     */
+    private void loadCatalog() throws StorageException {
+        List<Tuple> tableCatalogTuples = readCatalogTuples(CatalogConstants.TABLE_CATALOG_DATASTORE, 
+                new MatchAllDocsQuery());
         
-        tableCatalogDataReader.open();
-        List<Tuple> tupleList = new ArrayList<>();
-        Tuple nextTuple;
-        while ((nextTuple = tableCatalogDataReader.getNextTuple()) != null) {
-            tupleList.add(nextTuple);
+        Map<String, List<Tuple>> schemaCatalogTupleMap = new HashMap<>();
+        for (Tuple tuple : readCatalogTuples(CatalogConstants.SCHEMA_CATALOG_DATASTORE, new MatchAllDocsQuery())) {
+            String tableName = tuple.getField(CatalogConstants.TABLE_NAME).getValue().toString();
+            schemaCatalogTupleMap.computeIfAbsent(tableName, key -> new ArrayList<>()).add(tuple);
         }
-        tableCatalogDataReader.close();
         
-        if (tupleList.size() == 0) {
-            return null;
-        } else if (tupleList.size() == 1) {
-            return tupleList.get(0);
-        } else {
-            throw new StorageException("Catalog corrupted: duplicate table name found in catalog.");
+        catalogCache.clear();
+        for (Tuple tableCatalogTuple : tableCatalogTuples) {
+            String tableName = tableCatalogTuple.getField(CatalogConstants.TABLE_NAME).getValue().toString();
+            List<Tuple> schemaCatalogTuples = schemaCatalogTupleMap.get(tableName);
+            if (catalogCache.containsKey(tableName)) {
+                throw new StorageException("Catalog corrupted: duplicate table name found in catalog.");
+            }
+            if (schemaCatalogTuples == null) {
+                throw new StorageException(String.format("Catalog corrupted: the schema of table %s is not found.", tableName));
+            }
+            catalogCache.put(tableName, new CatalogEntry(tableCatalogTuple, schemaCatalogTuples));
         }
     }
     
     /*
-     * Gets the tuples of a table from schema catalog.
+     * Reads the tuples of a catalog table that match the query.
      */
-    private static List<Tuple> getSchemaCatalogTuples(String tableName) throws StorageException {
-        tableName = tableName.toLowerCase();
-        
-        Query tableNameQuery = new TermQuery(new Term(CatalogConstants.TABLE_NAME, tableName));
-        DataReader schemaCatalogDataReader = new DataReader(CatalogConstants.SCHEMA_CATALOG_DATASTORE, tableNameQuery);  
+    private static List<Tuple> readCatalogTuples(DataStore catalogDataStore, Query query) throws StorageException {
+        DataReader catalogDataReader = new DataReader(catalogDataStore, query);
+        catalogDataReader.setPayloadAdded(false);
+        catalogDataReader.setStreaming(true);
         
-        // read the tuples into a list
-        schemaCatalogDataReader.open();    
+        catalogDataReader.open();
         List<Tuple> tupleList = new ArrayList<>();
         Tuple nextTuple;
-        while ((nextTuple = schemaCatalogDataReader.getNextTuple()) != null) {
+        while ((nextTuple = catalogDataReader.getNextTuple()) != null) {
             tupleList.add(nextTuple);
         }
-        schemaCatalogDataReader.close();
+        catalogDataReader.close();
         
         return tupleList;
     }
@@ -437,18 +660,49 @@ public class RelationManager {
             writeTableInfoToCatalog(CatalogConstants.TABLE_CATALOG.toLowerCase(), 
             			CatalogConstants.TABLE_CATALOG_DIRECTORY.toRealPath(),
             			CatalogConstants.TABLE_CATALOG_SCHEMA,
-            			LuceneAnalyzerConstants.standardAnalyzerString());
+            			LuceneAnalyzerConstants.standardAnalyzerString(),
+            			Collections.emptyList());
             // create schema catalog
             writeTableInfoToCatalog(CatalogConstants.SCHEMA_CATALOG.toLowerCase(),
         				CatalogConstants.SCHEMA_CATALOG_DIRECTORY.toRealPath(),
                     	CatalogConstants.SCHEMA_CATALOG_SCHEMA,
-                    	LuceneAnalyzerConstants.standardAnalyzerString()); 
+                    	LuceneAnalyzerConstants.standardAnalyzerString(),
+                    	Collections.emptyList()); 
         } catch (IOException e) {
             throw new StorageException(e);
         }
     }
     
     
+    /*
+     * Upgrades a catalog created by an older version, which skipped initializeCatalog() because the catalog exists.
+     * 
+     * The table catalog got the trigramAttributes attribute after the catalog was first released,
+     *   so the rows of the table catalog itself in the schema catalog are written again if they don't have it.
+     * The tuples in the table catalog written without the attribute are read as tables without trigram attributes.
+     */
+    private static void upgradeCatalog() throws StorageException {
+        String tableCatalogName = CatalogConstants.TABLE_CATALOG.toLowerCase();
+        Query tableCatalogNameQuery = new TermQuery(new Term(CatalogConstants.TABLE_NAME, tableCatalogName));
+        
+        List<Tuple> storedSchemaCatalogTuples = readCatalogTuples(CatalogConstants.SCHEMA_CATALOG_DATASTORE, 
+                tableCatalogNameQuery);
+        if (convertSchemaCatalogTuples(storedSchemaCatalogTuples).containsAttribute(
+                CatalogConstants.TABLE_TRIGRAM_ATTRIBUTES)) {
+            return;
+        }
+        
+        DataWriter schemaCatalogWriter = new DataWriter(CatalogConstants.SCHEMA_CATALOG_DATASTORE,
+                LuceneAnalyzerConstants.getStandardAnalyzer());
+        schemaCatalogWriter.open();
+        schemaCatalogWriter.deleteTuple(tableCatalogNameQuery);
+        for (Tuple tuple : CatalogConstants.getSchemaCatalogTuples(tableCatalogName, 
+                Schema.Builder.getSchemaWithID(CatalogConstants.TABLE_CATALOG_SCHEMA))) {
+            schemaCatalogWriter.insertTuple(tuple);
+        }
+        schemaCatalogWriter.close();
+    }
+    
     /*
      * Converts a attributeTypeString to AttributeType (case insensitive).
      * It returns null if string is not a valid type.
@@ -461,21 +715,41 @@ public class RelationManager {
     }
 
     public List<TableMetadata> getMetaData() throws StorageException {
-        DataReader dataReader = RelationManager.getInstance().getTableDataReader(CatalogConstants.TABLE_CATALOG, new MatchAllDocsQuery());
-
         List<TableMetadata> result = new ArrayList<>();
-        Tuple t = null;
-        dataReader.open();
-        while ((t = dataReader.getNextTuple()) != null) {
-            String tableName = (String)t.getField(CatalogConstants.TABLE_NAME).getValue();
+        for (Map.Entry<String, CatalogEntry> entry : catalogCache.entrySet()) {
+            String tableName = entry.getKey();
 
             if (!tableName.equals(CatalogConstants.SCHEMA_CATALOG.toLowerCase())
                     && !tableName.equals(CatalogConstants.TABLE_CATALOG.toLowerCase())) {
-                result.add(new TableMetadata(tableName, getTableSchema(tableName)));
+                result.add(new TableMetadata(tableName, entry.getValue().tableSchema));
             }
         }
-        dataReader.close();
+        result.sort(Comparator.comparing(TableMetadata::getTableName));
 
         return result;
     }
+    
+    /*
+     * The information of a table in the catalog.
+     */
+    private static class CatalogEntry {
+        private final String tableDirectory;
+        private final Schema tableSchema;
+        private final String luceneAnalyzerString;
+        private final List<String> trigramAttributeNames;
+        
+        private CatalogEntry(Tuple tableCatalogTuple, List<Tuple> schemaCatalogTuples) {
+            this.tableDirectory = tableCatalogTuple.getField(CatalogConstants.TABLE_DIRECTORY).getValue().toString();
+            this.tableSchema = convertSchemaCatalogTuples(schemaCatalogTuples);
+            this.luceneAnalyzerString = tableCatalogTuple.getField(CatalogConstants.TABLE_LUCENE_ANALYZER).getValue().toString();
+            // the tables created before the trigram attributes were added to the catalog don't have the field
+            Object trigramAttributesValue = tableCatalogTuple.getField(CatalogConstants.TABLE_TRIGRAM_ATTRIBUTES).getValue();
+            if (trigramAttributesValue == null || trigramAttributesValue.toString().isEmpty()) {
+                this.trigramAttributeNames = Collections.emptyList();
+            } else {
+                this.trigramAttributeNames = Collections.unmodifiableList(Arrays.asList(
+                        trigramAttributesValue.toString().split(CatalogConstants.TRIGRAM_ATTRIBUTES_DELIMITER)));
+            }
+        }
+    }
 }
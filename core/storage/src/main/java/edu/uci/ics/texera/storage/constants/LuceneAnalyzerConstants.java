@@ -1,6 +1,7 @@
 package edu.uci.ics.texera.storage.constants;
 
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.cn.smart.SmartChineseAnalyzer;
@@ -15,6 +16,11 @@ import edu.uci.ics.texera.api.exception.DataflowException;
  * LuceneAnalyzerConstants contains helper functions specifically
  *   used when dealing with different Lucene analyzers.
  * 
+ * getLuceneAnalyzer() returns analyzer instances shared by all the callers, one for each analyzer string.
+ *   An analyzer is thread-safe and reuses its token stream components per thread, 
+ *   therefore a shared analyzer avoids building the components (and loading the dictionaries 
+ *   of the chinese analyzer) again for every call.
+ * 
  * @author Zuozhi Wang
  *
  */
@@ -24,6 +30,9 @@ public class LuceneAnalyzerConstants {
     
     public static final String CHINESE_ANALYZER = "chinese";
     
+    // a map from the analyzer string to the shared analyzer instance
+    private static final ConcurrentHashMap<String, Analyzer> sharedAnalyzerMap = new ConcurrentHashMap<>();
+    
     
     public static String standardAnalyzerString() {
         return STANDARD_ANALYZER;
@@ -47,12 +56,30 @@ public class LuceneAnalyzerConstants {
      *   
      *   "n-gram", n represents the number of grams, for example, "3-gram",
      *     same as calling nGramAnalyzerString(3).
+     *     
+     *   "chinese", same as calling chineseAnalyzerString().
+     * 
+     * The returned analyzer is shared, it must NOT be closed by the caller.
      * 
      * @param luceneAnalyzerString
      * @return
      * @throws DataflowException, if the luceneAnalyzerString is invalid
      */
     public static Analyzer getLuceneAnalyzer(String luceneAnalyzerString) throws DataflowException {
+        // an invalid analyzer string throws an exception and is not added to the map
+        return sharedAnalyzerMap.computeIfAbsent(luceneAnalyzerString, LuceneAnalyzerConstants::newLuceneAnalyzer);
+    }
+    
+    /**
+     * Creates a new lucene analyzer based on the string, the supported strings are the same as getLuceneAnalyzer().
+     * 
+     * The returned analyzer is owned by the caller, it should be closed after use.
+     * 
+     * @param luceneAnalyzerString
+     * @return
+     * @throws DataflowException, if the luceneAnalyzerString is invalid
+     */
+    public static Analyzer newLuceneAnalyzer(String luceneAnalyzerString) throws DataflowException {
         if (luceneAnalyzerString.equals("standard")) {
             return LuceneAnalyzerConstants.getStandardAnalyzer();
         }
@@ -28,6 +28,9 @@ import edu.uci.ics.texera.api.schema.AttributeType;
 
 public class StorageUtils {
     
+    // the suffix of the sub-field that indexes the 3-grams of a TEXT attribute, see getTrigramLuceneField()
+    public static final String TRIGRAM_FIELD_SUFFIX = "._trigram";
+    
     public static IField getField(AttributeType attributeType, String fieldValue) throws ParseException {
         IField field = null;
         switch (attributeType) {
@@ -107,6 +110,35 @@ public class StorageUtils {
         return luceneField;
     }
     
+    /**
+     * Gets the name of the sub-field that indexes the 3-grams of a TEXT attribute.
+     * 
+     * @param attributeName
+     * @return
+     */
+    public static String getTrigramFieldName(String attributeName) {
+        return attributeName + TRIGRAM_FIELD_SUFFIX;
+    }
+    
+    /**
+     * Gets the sub-field that indexes the 3-grams of a TEXT attribute, alongside the field of the attribute itself.
+     * The sub-field is not stored and only indexes which documents contain a gram, 
+     *   it's analyzed by the 3-gram analyzer of the table (see RelationManager.getTableAnalyzer()).
+     * 
+     * @param attributeName
+     * @param fieldValue
+     * @return
+     */
+    public static IndexableField getTrigramLuceneField(String attributeName, String fieldValue) {
+        org.apache.lucene.document.FieldType luceneFieldType = new org.apache.lucene.document.FieldType();
+        luceneFieldType.setIndexOptions(IndexOptions.DOCS);
+        luceneFieldType.setStored(false);
+        luceneFieldType.setTokenized(true);
+        luceneFieldType.setOmitNorms(true);
+        
+        return new org.apache.lucene.document.Field(getTrigramFieldName(attributeName), fieldValue, luceneFieldType);
+    }
+    
     public static void deleteDirectory(String indexDir) throws StorageException {
         Path directory = Paths.get(indexDir);
         if (!Files.exists(directory)) {
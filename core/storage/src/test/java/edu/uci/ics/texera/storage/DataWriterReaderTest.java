@@ -11,6 +11,7 @@ import org.junit.Test;
 
 import edu.uci.ics.texera.api.constants.test.TestConstants;
 import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.field.IDField;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.api.utils.TestUtils;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
@@ -57,5 +58,100 @@ public class DataWriterReaderTest {
         
         Assert.assertTrue(TestUtils.equals(TestConstants.getSamplePeopleTuples(), returnedTuples));
     }
+    
+    private static List<Tuple> readAll(DataReader dataReader) throws TexeraException {
+        List<Tuple> returnedTuples = new ArrayList<Tuple>();
+        Tuple nextTuple = null;
+        dataReader.open();
+        while ((nextTuple = dataReader.getNextTuple()) != null) {
+            returnedTuples.add(nextTuple);
+        }
+        dataReader.close();
+        return returnedTuples;
+    }
+    
+    /*
+     * The streaming mode should return the same tuples as the default mode, and skip the deleted tuples.
+     */
+    @Test
+    public void testStreamingRead() throws Exception {
+        RelationManager relationManager = RelationManager.getInstance();
+        
+        // insert a tuple and delete it in another session, so that the segment has a deleted document
+        DataWriter dataWriter = relationManager.getTableDataWriter(PEOPLE_TABLE);
+        dataWriter.open();
+        IDField idField = dataWriter.insertTuple(TestConstants.getSamplePeopleTuples().get(0));
+        dataWriter.close();
+        dataWriter.open();
+        dataWriter.deleteTupleByID(idField);
+        dataWriter.close();
+        
+        DataReader dataReader = relationManager.getTableDataReader(PEOPLE_TABLE, new MatchAllDocsQuery());
+        List<Tuple> expectedTuples = readAll(dataReader);
+        
+        DataReader streamingDataReader = relationManager.getTableDataReader(PEOPLE_TABLE, new MatchAllDocsQuery());
+        streamingDataReader.setStreaming(true);
+        List<Tuple> streamingTuples = readAll(streamingDataReader);
+        
+        Assert.assertEquals(expectedTuples, streamingTuples);
+        Assert.assertTrue(TestUtils.equals(TestConstants.getSamplePeopleTuples(), streamingTuples));
+    }
+    
+    /*
+     * The readers of a table should share the same index reader.
+     * After a write is committed, the readers opened afterwards should see the change,
+     *   while a reader opened before keeps reading its snapshot.
+     */
+    @Test
+    public void testSharedIndexReader() throws Exception {
+        RelationManager relationManager = RelationManager.getInstance();
+        
+        DataReader dataReader1 = relationManager.getTableDataReader(PEOPLE_TABLE, new MatchAllDocsQuery());
+        DataReader dataReader2 = relationManager.getTableDataReader(PEOPLE_TABLE, new MatchAllDocsQuery());
+        dataReader1.open();
+        dataReader2.open();
+        Assert.assertSame(dataReader1.getLuceneIndexReader(), dataReader2.getLuceneIndexReader());
+        int numDocs = dataReader1.getLuceneIndexReader().numDocs();
+        dataReader2.close();
+        
+        DataWriter dataWriter = relationManager.getTableDataWriter(PEOPLE_TABLE);
+        dataWriter.open();
+        IDField idField = dataWriter.insertTuple(TestConstants.getSamplePeopleTuples().get(0));
+        dataWriter.close();
+        
+        DataReader dataReader3 = relationManager.getTableDataReader(PEOPLE_TABLE, new MatchAllDocsQuery());
+        dataReader3.open();
+        Assert.assertEquals(numDocs + 1, dataReader3.getLuceneIndexReader().numDocs());
+        Assert.assertEquals(numDocs, dataReader1.getLuceneIndexReader().numDocs());
+        Assert.assertEquals(numDocs, readAll(dataReader1).size());
+        dataReader3.close();
+        
+        dataWriter.open();
+        dataWriter.deleteTupleByID(idField);
+        dataWriter.close();
+    }
+    
+    /*
+     * With a limit, both modes should return the first "limit" tuples of the same mode without a limit.
+     */
+    @Test
+    public void testReadWithLimit() throws Exception {
+        RelationManager relationManager = RelationManager.getInstance();
+        int limit = 2;
+        
+        for (boolean streaming : new boolean[] {false, true}) {
+            DataReader dataReader = relationManager.getTableDataReader(PEOPLE_TABLE, new MatchAllDocsQuery());
+            dataReader.setStreaming(streaming);
+            List<Tuple> expectedTuples = readAll(dataReader).subList(0, limit);
+            
+            DataReader limitedDataReader = relationManager.getTableDataReader(PEOPLE_TABLE, new MatchAllDocsQuery());
+            limitedDataReader.setStreaming(streaming);
+            limitedDataReader.setLimit(limit);
+            Assert.assertEquals(expectedTuples, readAll(limitedDataReader));
+            
+            limitedDataReader.setLimit(0);
+            Assert.assertTrue(readAll(limitedDataReader).isEmpty());
+        }
+    }
 
 }
@@ -0,0 +1,125 @@
+package edu.uci.ics.texera.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.utils.TestUtils;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+
+public class IndexSearcherCacheTest {
+
+    public static final String[] PEOPLE_TABLES = {
+            "index_searcher_cache_test_people_1",
+            "index_searcher_cache_test_people_2",
+            "index_searcher_cache_test_people_3" };
+
+    @BeforeClass
+    public static void setUp() throws TexeraException {
+        RelationManager relationManager = RelationManager.getInstance();
+        for (String table : PEOPLE_TABLES) {
+            relationManager.createTable(table, TestUtils.getDefaultTestIndex().resolve(table),
+                    TestConstants.SCHEMA_PEOPLE, LuceneAnalyzerConstants.standardAnalyzerString());
+            DataWriter dataWriter = relationManager.getTableDataWriter(table);
+            dataWriter.open();
+            for (Tuple tuple : TestConstants.getSamplePeopleTuples()) {
+                dataWriter.insertTuple(tuple);
+            }
+            dataWriter.close();
+        }
+    }
+
+    @AfterClass
+    public static void cleanUp() throws TexeraException {
+        RelationManager relationManager = RelationManager.getInstance();
+        for (String table : PEOPLE_TABLES) {
+            relationManager.deleteTable(table);
+        }
+    }
+
+    @Before
+    public void setMaxCachedSearchers() throws IOException {
+        IndexSearcherCache.setMaxCachedSearchers(1);
+    }
+
+    @After
+    public void resetMaxCachedSearchers() throws IOException {
+        IndexSearcherCache.setMaxCachedSearchers(IndexSearcherCache.DEFAULT_MAX_CACHED_SEARCHERS);
+    }
+
+    private static Path getDataDirectory(String table) throws TexeraException {
+        return RelationManager.getInstance().getTableDataStore(table).getDataDirectory();
+    }
+
+    private static int countTuples(IndexSearcher indexSearcher) throws IOException {
+        return indexSearcher.count(new MatchAllDocsQuery());
+    }
+
+    /*
+     * The searchers no reader holds should be evicted when too many directories are cached,
+     *   and opened again by the next acquire().
+     */
+    @Test
+    public void testEvictUnusedSearchers() throws Exception {
+        int expectedCount = TestConstants.getSamplePeopleTuples().size();
+
+        IndexSearcher firstSearcher = IndexSearcherCache.acquire(getDataDirectory(PEOPLE_TABLES[0]));
+        Assert.assertEquals(expectedCount, countTuples(firstSearcher));
+        IndexSearcherCache.release(firstSearcher);
+
+        for (int i = 1; i < PEOPLE_TABLES.length; i++) {
+            IndexSearcher indexSearcher = IndexSearcherCache.acquire(getDataDirectory(PEOPLE_TABLES[i]));
+            Assert.assertEquals(expectedCount, countTuples(indexSearcher));
+            IndexSearcherCache.release(indexSearcher);
+            Assert.assertTrue(IndexSearcherCache.getCachedSearcherCount() <= 1);
+        }
+
+        IndexSearcher reopenedSearcher = IndexSearcherCache.acquire(getDataDirectory(PEOPLE_TABLES[0]));
+        Assert.assertTrue(reopenedSearcher != firstSearcher);
+        Assert.assertEquals(expectedCount, countTuples(reopenedSearcher));
+        IndexSearcherCache.release(reopenedSearcher);
+    }
+
+    /*
+     * The searcher held by a reader should not be evicted, and it's evicted after it's released.
+     */
+    @Test
+    public void testKeepAcquiredSearchers() throws Exception {
+        int expectedCount = TestConstants.getSamplePeopleTuples().size();
+        Path firstDirectory = getDataDirectory(PEOPLE_TABLES[0]);
+
+        IndexSearcher heldSearcher = IndexSearcherCache.acquire(firstDirectory);
+        for (int i = 1; i < PEOPLE_TABLES.length; i++) {
+            IndexSearcher indexSearcher = IndexSearcherCache.acquire(getDataDirectory(PEOPLE_TABLES[i]));
+            IndexSearcherCache.release(indexSearcher);
+        }
+        Assert.assertEquals(expectedCount, countTuples(heldSearcher));
+
+        // still cached, so the same searcher is acquired again
+        IndexSearcher sameSearcher = IndexSearcherCache.acquire(firstDirectory);
+        Assert.assertTrue(sameSearcher == heldSearcher);
+        IndexSearcherCache.release(sameSearcher);
+        IndexSearcherCache.release(heldSearcher);
+
+        IndexSearcher otherSearcher = IndexSearcherCache.acquire(getDataDirectory(PEOPLE_TABLES[1]));
+        IndexSearcherCache.release(otherSearcher);
+        Assert.assertTrue(IndexSearcherCache.getCachedSearcherCount() <= 1);
+
+        IndexSearcher reopenedSearcher = IndexSearcherCache.acquire(firstDirectory);
+        Assert.assertTrue(reopenedSearcher != heldSearcher);
+        Assert.assertEquals(expectedCount, countTuples(reopenedSearcher));
+        IndexSearcherCache.release(reopenedSearcher);
+    }
+
+}
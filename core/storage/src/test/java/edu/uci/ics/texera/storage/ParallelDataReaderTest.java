@@ -0,0 +1,132 @@
+package edu.uci.ics.texera.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBatch;
+import edu.uci.ics.texera.api.utils.TestUtils;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+
+public class ParallelDataReaderTest {
+
+    public static final String PEOPLE_TABLE = "parallel_data_reader_test_people";
+
+    // the tuples are written in several sessions, so that the index has several segments
+    public static final int WRITE_SESSIONS = 4;
+    public static final int TUPLES_PER_SESSION = 50;
+
+    @BeforeClass
+    public static void setUp() throws TexeraException {
+        RelationManager relationManager = RelationManager.getInstance();
+
+        relationManager.createTable(PEOPLE_TABLE, TestUtils.getDefaultTestIndex().resolve(PEOPLE_TABLE),
+                TestConstants.SCHEMA_PEOPLE, LuceneAnalyzerConstants.standardAnalyzerString());
+
+        for (int session = 0; session < WRITE_SESSIONS; session++) {
+            DataWriter peopleDataWriter = relationManager.getTableDataWriter(PEOPLE_TABLE);
+            peopleDataWriter.open();
+            for (int i = 0; i < TUPLES_PER_SESSION; i++) {
+                for (Tuple tuple : TestConstants.getSamplePeopleTuples()) {
+                    peopleDataWriter.insertTuple(tuple);
+                }
+            }
+            peopleDataWriter.close();
+        }
+    }
+
+    @AfterClass
+    public static void cleanUp() throws TexeraException {
+        RelationManager relationManager = RelationManager.getInstance();
+        relationManager.deleteTable(PEOPLE_TABLE);
+    }
+
+    private static List<Tuple> readAll(IOperator operator) throws TexeraException {
+        List<Tuple> results = new ArrayList<>();
+        Tuple nextTuple;
+        while ((nextTuple = operator.getNextTuple()) != null) {
+            results.add(nextTuple);
+        }
+        return results;
+    }
+
+    private static List<Tuple> readWithDataReader(boolean payloadAdded) throws TexeraException {
+        DataReader dataReader = RelationManager.getInstance().getTableDataReader(PEOPLE_TABLE, new MatchAllDocsQuery());
+        dataReader.setPayloadAdded(payloadAdded);
+        dataReader.open();
+        List<Tuple> results = readAll(dataReader);
+        dataReader.close();
+        return results;
+    }
+
+    /*
+     * The merged stream should contain the same tuples as DataReader,
+     *   both when partitions are groups of segments and when they are doc ID ranges.
+     */
+    @Test
+    public void testMergedStream() throws TexeraException {
+        List<Tuple> expectedResults = readWithDataReader(false);
+        Assert.assertEquals(WRITE_SESSIONS * TUPLES_PER_SESSION * TestConstants.getSamplePeopleTuples().size(),
+                expectedResults.size());
+
+        for (int parallelism : new int[] {1, 2, WRITE_SESSIONS * 2}) {
+            ParallelDataReader parallelDataReader = RelationManager.getInstance().getTableParallelDataReader(
+                    PEOPLE_TABLE, new MatchAllDocsQuery(), parallelism);
+            parallelDataReader.open();
+            List<Tuple> results = new ArrayList<>();
+            TupleBatch batch = new TupleBatch(100);
+            while (parallelDataReader.getNextBatch(batch)) {
+                results.addAll(batch.toList());
+            }
+            parallelDataReader.close();
+
+            Assert.assertTrue(TestUtils.equals(expectedResults, results));
+        }
+    }
+
+    /*
+     * The payload decoded by the partition threads should be the same as DataReader.
+     */
+    @Test
+    public void testMergedStreamWithPayload() throws TexeraException {
+        List<Tuple> expectedResults = readWithDataReader(true);
+
+        ParallelDataReader parallelDataReader = RelationManager.getInstance().getTableParallelDataReader(
+                PEOPLE_TABLE, new MatchAllDocsQuery(), 3);
+        parallelDataReader.setPayloadAdded(true);
+        parallelDataReader.open();
+        List<Tuple> results = readAll(parallelDataReader);
+        parallelDataReader.close();
+
+        Assert.assertEquals(expectedResults.size(), results.size());
+        Assert.assertTrue(expectedResults.containsAll(results));
+    }
+
+    /*
+     * The merged stream should stop after "limit" tuples.
+     */
+    @Test
+    public void testLimit() throws TexeraException {
+        List<Tuple> expectedResults = readWithDataReader(false);
+
+        ParallelDataReader parallelDataReader = RelationManager.getInstance().getTableParallelDataReader(
+                PEOPLE_TABLE, new MatchAllDocsQuery(), 3);
+        parallelDataReader.setLimit(10);
+        parallelDataReader.open();
+        List<Tuple> results = readAll(parallelDataReader);
+        parallelDataReader.close();
+
+        Assert.assertEquals(10, results.size());
+        Assert.assertTrue(expectedResults.containsAll(results));
+    }
+
+}
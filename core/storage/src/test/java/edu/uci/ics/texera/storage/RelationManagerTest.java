@@ -1,7 +1,11 @@
 package edu.uci.ics.texera.storage;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,11 +22,13 @@ import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.field.IDField;
 import edu.uci.ics.texera.api.field.StringField;
+import edu.uci.ics.texera.api.field.TextField;
 import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+import edu.uci.ics.texera.storage.utils.StorageUtils;
 
 public class RelationManagerTest {
     
@@ -429,4 +435,169 @@ public class RelationManagerTest {
 
         relationManager.deleteTable(tableName);
     }
+
+    /*
+     * Test the catalog lookups are counted and timed, 
+     *   and the in-memory catalog is updated by createTable() and deleteTable().
+     */
+    @Test
+    public void test18() throws Exception {
+        String tableName = "relation_manager_test_table";
+        String tableDirectory = "./index/test_table";
+        Schema tableSchema = new Schema(
+                new Attribute("content", AttributeType.STRING), new Attribute("number", AttributeType.STRING));
+
+        RelationManager relationManager = RelationManager.getInstance();
+
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(
+                tableName, Paths.get(tableDirectory), tableSchema, LuceneAnalyzerConstants.standardAnalyzerString());
+
+        long lookupCount = relationManager.getCatalogLookupCount();
+        long lookupNanos = relationManager.getCatalogLookupTotalNanos();
+
+        Assert.assertEquals(Schema.Builder.getSchemaWithID(tableSchema), relationManager.getTableSchema(tableName));
+        Assert.assertEquals(Paths.get(tableDirectory).toRealPath().toString(), relationManager.getTableDirectory(tableName));
+        Assert.assertEquals(LuceneAnalyzerConstants.standardAnalyzerString(), relationManager.getTableAnalyzerString(tableName));
+
+        Assert.assertEquals(lookupCount + 3, relationManager.getCatalogLookupCount());
+        Assert.assertTrue(relationManager.getCatalogLookupTotalNanos() >= lookupNanos);
+
+        relationManager.deleteTable(tableName);
+        Assert.assertFalse(relationManager.checkTableExistence(tableName));
+    }
+    
+    /*
+     * Test the tables with the same analyzer string share the same analyzer instance.
+     */
+    @Test
+    public void test19() throws Exception {
+        String tableName = "relation_manager_test_table";
+        String tableDirectory = "./index/test_table";
+        Schema tableSchema = new Schema(new Attribute("content", AttributeType.TEXT));
+        String luceneAnalyzerString = LuceneAnalyzerConstants.nGramAnalyzerString(3);
+
+        RelationManager relationManager = RelationManager.getInstance();
+
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(tableName, Paths.get(tableDirectory), tableSchema, luceneAnalyzerString);
+
+        Analyzer tableAnalyzer = relationManager.getTableAnalyzer(tableName);
+        Assert.assertSame(tableAnalyzer, relationManager.getTableAnalyzer(tableName));
+        Assert.assertSame(tableAnalyzer, LuceneAnalyzerConstants.getLuceneAnalyzer(luceneAnalyzerString));
+        Assert.assertNotSame(tableAnalyzer, LuceneAnalyzerConstants.newLuceneAnalyzer(luceneAnalyzerString));
+
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test the trigram attributes of a table are indexed by their 3-grams in a sub-field,
+     *   and the sub-fields are not returned in the tuples.
+     */
+    @Test
+    public void test20() throws Exception {
+        String tableName = "relation_manager_test_table";
+        String tableDirectory = "./index/test_table";
+        Schema tableSchema = new Schema(
+                new Attribute("content", AttributeType.TEXT), new Attribute("number", AttributeType.STRING));
+
+        RelationManager relationManager = RelationManager.getInstance();
+
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(tableName, Paths.get(tableDirectory), tableSchema, 
+                LuceneAnalyzerConstants.standardAnalyzerString(), Arrays.asList("content"));
+
+        Assert.assertEquals(Arrays.asList("content"), relationManager.getTableTrigramAttributes(tableName));
+        Assert.assertEquals(Arrays.asList(StorageUtils.getTrigramFieldName("content")), 
+                relationManager.getTrigramFieldNames(tableName, Arrays.asList("content")));
+        Assert.assertNull(relationManager.getTrigramFieldNames(tableName, Arrays.asList("content", "number")));
+
+        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        dataWriter.insertTuple(new Tuple(tableSchema, new TextField("Texera regex"), new StringField("1")));
+        dataWriter.insertTuple(new Tuple(tableSchema, new TextField("lucene index"), new StringField("2")));
+        dataWriter.close();
+
+        // "egex" is not a token of the standard analyzer, but its 3-grams are indexed
+        Query trigramQuery = new TermQuery(new Term(StorageUtils.getTrigramFieldName("content"), "ege"));
+        DataReader dataReader = relationManager.getTableDataReader(tableName, trigramQuery);
+        dataReader.setPayloadAdded(false);
+        dataReader.open();
+        Tuple tuple = dataReader.getNextTuple();
+        Assert.assertNull(dataReader.getNextTuple());
+        dataReader.close();
+
+        Assert.assertEquals("Texera regex", tuple.getField("content").getValue());
+        Assert.assertEquals(Schema.Builder.getSchemaWithID(tableSchema), tuple.getSchema());
+
+        relationManager.deleteTable(tableName);
+    }
+
+    /*
+     * Test a trigram attribute must be a TEXT attribute of the table.
+     */
+    @Test(expected = StorageException.class)
+    public void test21() throws Exception {
+        String tableName = "relation_manager_test_table";
+        String tableDirectory = "./index/test_table";
+        Schema tableSchema = new Schema(new Attribute("number", AttributeType.STRING));
+
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(tableName, Paths.get(tableDirectory), tableSchema, 
+                LuceneAnalyzerConstants.standardAnalyzerString(), Arrays.asList("number"));
+    }
+
+    /*
+     * Test a catalog created before the table catalog had the trigramAttributes attribute is upgraded when it's opened,
+     *   and its tables are read as tables without trigram attributes.
+     */
+    @Test
+    public void test22() throws Exception {
+        String tableCatalogName = CatalogConstants.TABLE_CATALOG.toLowerCase();
+        Schema oldTableCatalogSchema = new Schema(CatalogConstants.TABLE_NAME_ATTR, 
+                CatalogConstants.TABLE_DIRECTORY_ATTR, CatalogConstants.TABLE_LUCENE_ANALYZER_ATTR);
+        String tableName = "relation_manager_old_catalog_table";
+        Path tableDirectory = Paths.get("./index/test_old_catalog_table");
+        Schema tableSchema = new Schema(new Attribute("content", AttributeType.TEXT));
+        
+        relationManager.deleteTable(tableName);
+        Files.createDirectories(tableDirectory);
+        
+        // write the schema of the table catalog and a table in the table catalog as the older version did
+        DataWriter schemaCatalogWriter = new DataWriter(CatalogConstants.SCHEMA_CATALOG_DATASTORE, 
+                LuceneAnalyzerConstants.getStandardAnalyzer());
+        schemaCatalogWriter.open();
+        schemaCatalogWriter.deleteTuple(new TermQuery(new Term(CatalogConstants.TABLE_NAME, tableCatalogName)));
+        List<Tuple> schemaCatalogTuples = new ArrayList<>();
+        schemaCatalogTuples.addAll(CatalogConstants.getSchemaCatalogTuples(tableCatalogName, 
+                Schema.Builder.getSchemaWithID(oldTableCatalogSchema)));
+        schemaCatalogTuples.addAll(CatalogConstants.getSchemaCatalogTuples(tableName, 
+                Schema.Builder.getSchemaWithID(tableSchema)));
+        for (Tuple tuple : schemaCatalogTuples) {
+            schemaCatalogWriter.insertTuple(tuple);
+        }
+        schemaCatalogWriter.close();
+        
+        DataWriter tableCatalogWriter = new DataWriter(new DataStore(CatalogConstants.TABLE_CATALOG_DIRECTORY, 
+                Schema.Builder.getSchemaWithID(oldTableCatalogSchema)), LuceneAnalyzerConstants.getStandardAnalyzer());
+        tableCatalogWriter.open();
+        tableCatalogWriter.insertTuple(new Tuple(oldTableCatalogSchema, 
+                new StringField(tableName), 
+                new StringField(tableDirectory.toRealPath().toString()), 
+                new StringField(LuceneAnalyzerConstants.standardAnalyzerString())));
+        tableCatalogWriter.close();
+        
+        RelationManager oldCatalogRelationManager = new RelationManager();
+        Assert.assertEquals(Schema.Builder.getSchemaWithID(CatalogConstants.TABLE_CATALOG_SCHEMA), 
+                oldCatalogRelationManager.getTableSchema(CatalogConstants.TABLE_CATALOG));
+        Assert.assertEquals(Schema.Builder.getSchemaWithID(tableSchema), 
+                oldCatalogRelationManager.getTableSchema(tableName));
+        Assert.assertTrue(oldCatalogRelationManager.getTableTrigramAttributes(tableName).isEmpty());
+        
+        // the catalog is upgraded on disk, so it's read in the same way when it's opened again
+        Assert.assertEquals(Schema.Builder.getSchemaWithID(CatalogConstants.TABLE_CATALOG_SCHEMA), 
+                new RelationManager().getTableSchema(CatalogConstants.TABLE_CATALOG));
+        
+        oldCatalogRelationManager.deleteTable(tableName);
+    }
 }
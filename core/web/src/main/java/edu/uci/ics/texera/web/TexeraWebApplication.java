@@ -1,11 +1,13 @@
 package edu.uci.ics.texera.web;
 
+import com.codahale.metrics.Gauge;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.github.dirkraft.dropwizard.fileassets.FileAssetsBundle;
 
 import edu.uci.ics.texera.perftest.sample.SampleExtraction;
 import edu.uci.ics.texera.perftest.twitter.TwitterSample;
+import edu.uci.ics.texera.storage.RelationManager;
 import edu.uci.ics.texera.web.healthcheck.SampleHealthCheck;
 import edu.uci.ics.texera.web.resource.DownloadFileResource;
 import edu.uci.ics.texera.web.resource.FileUploadResource;
@@ -56,6 +58,14 @@ public class TexeraWebApplication extends Application<TexeraWebConfiguration> {
         // Registering the SampleHealthCheck with the environment
         environment.healthChecks().register("sample", sampleHealthCheck);
 
+        // Registers the catalog lookup metrics, they can be monitored on the admin port
+        final RelationManager relationManager = RelationManager.getInstance();
+        environment.metrics().register("catalog.lookup.count",
+                (Gauge<Long>) () -> relationManager.getCatalogLookupCount());
+        environment.metrics().register("catalog.lookup.meanLatencyNanos",
+                (Gauge<Double>) () -> relationManager.getCatalogLookupCount() == 0 ? 0.0 :
+                        (double) relationManager.getCatalogLookupTotalNanos() / relationManager.getCatalogLookupCount());
+
         // Creates an instance of the InitSystemResource class to register with Jersey
         final SystemResource systemResource = new SystemResource();
         // Registers the systemResource with Jersey
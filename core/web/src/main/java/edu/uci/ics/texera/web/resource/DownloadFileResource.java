@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.List;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
@@ -22,6 +23,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBinaryReader;
 import edu.uci.ics.texera.dataflow.sink.excel.ExcelSink;
 import edu.uci.ics.texera.dataflow.sink.excel.ExcelSinkPredicate;
 import edu.uci.ics.texera.dataflow.source.tuple.TupleSourceOperator;
@@ -34,17 +36,24 @@ public class DownloadFileResource {
     @GET
     @Path("/result")
     public Response downloadExcelFile(@QueryParam("resultID") String resultID) throws JsonParseException, JsonMappingException, IOException {        
-        java.nio.file.Path resultFile = QueryPlanResource.resultDirectory.resolve(resultID + ".json");        
+        java.nio.file.Path resultFile = QueryPlanResource.resultDirectory.resolve(resultID + QueryPlanResource.RESULT_FILE_EXTENSION);
+        // the results written before the binary format are in json files
+        java.nio.file.Path jsonResultFile = QueryPlanResource.resultDirectory.resolve(resultID + ".json");
 
-        if (Files.notExists(resultFile)) {
+        List<Tuple> result;
+        if (Files.exists(resultFile)) {
+            try (TupleBinaryReader resultReader = new TupleBinaryReader(Files.newInputStream(resultFile))) {
+                result = resultReader.readAll();
+            }
+        } else if (Files.exists(jsonResultFile)) {
+            resultFile = jsonResultFile;
+            result = new ObjectMapper().readValue(Files.readAllBytes(resultFile), 
+                    TypeFactory.defaultInstance().constructCollectionLikeType(ArrayList.class, Tuple.class));
+        } else {
             System.out.println(resultFile + " file does not found");
             return Response.status(Status.NOT_FOUND).build();
         }
         
-        
-        ArrayList<Tuple> result = new ObjectMapper().readValue(Files.readAllBytes(resultFile), 
-                TypeFactory.defaultInstance().constructCollectionLikeType(ArrayList.class, Tuple.class));
-        
         if (result.size() == 0) {
             System.out.println(resultFile + " file is empty");
             return Response.status(Status.NOT_FOUND).build();
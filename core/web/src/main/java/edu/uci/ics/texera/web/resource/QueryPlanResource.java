@@ -2,6 +2,7 @@ package edu.uci.ics.texera.web.resource;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collections;
 import java.util.List;
@@ -24,8 +25,11 @@ import edu.uci.ics.texera.api.engine.Engine;
 import edu.uci.ics.texera.api.engine.Plan;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.tuple.TupleBinaryWriter;
 import edu.uci.ics.texera.api.utils.Utils;
+import edu.uci.ics.texera.dataflow.metrics.OperatorMetrics;
 import edu.uci.ics.texera.dataflow.plangen.LogicalPlan;
+import edu.uci.ics.texera.dataflow.plangen.OperatorLink;
 import edu.uci.ics.texera.dataflow.sink.tuple.TupleSink;
 import edu.uci.ics.texera.web.TexeraWebException;
 
@@ -43,9 +47,14 @@ import edu.uci.ics.texera.web.TexeraWebException;
 public class QueryPlanResource {
     
     public static java.nio.file.Path resultDirectory = Utils.getTexeraHomePath().resolve("query-results");
+    public static final String RESULT_FILE_EXTENSION = ".bin";
     
     /**
      * This is the edu.uci.ics.texera.web.request handler for the execution of a Query Plan.
+     * 
+     * The plan can set the optional "pipelinedExecution" and "queueDepths" properties
+     *   to run its operators on their own threads (see {@link LogicalPlan#setPipelinedExecution(boolean)}).
+     * 
      * @param logicalPlanJson, the json representation of the logical plan
      * @return - Generic TexeraWebResponse object
      */
@@ -55,61 +64,129 @@ public class QueryPlanResource {
     public JsonNode executeQueryPlan(String logicalPlanJson) {
         try {
             LogicalPlan logicalPlan = new ObjectMapper().readValue(logicalPlanJson, LogicalPlan.class);
-            Plan plan = logicalPlan.buildQueryPlan();
-            ISink sink = plan.getRoot();
+            return executeLogicalPlan(logicalPlan, null);
+        } catch (IOException | TexeraException e) {
+            throw new TexeraWebException(e.getMessage());
+        }
+    }
+    
+    /**
+     * This is the edu.uci.ics.texera.web.request handler for explaining a Query Plan.
+     * 
+     * The plan is executed with the operators instrumented, the response contains the results (same as "/execute"),
+     *   and an "explain" object with the operator DAG annotated by the runtime metrics of each operator:
+     *   open time, inclusive and self getNextTuple time, input and output tuples, selectivity, and allocated bytes.
+     * 
+     * @param logicalPlanJson, the json representation of the logical plan
+     * @return - Generic TexeraWebResponse object
+     */
+    @POST
+    @Path("/explain")
+    public JsonNode explainQueryPlan(String logicalPlanJson) {
+        try {
+            LogicalPlan logicalPlan = new ObjectMapper().readValue(logicalPlanJson, LogicalPlan.class);
+            logicalPlan.setInstrumented(true);
             
-            // send response back to frontend
-            if (sink instanceof TupleSink) {
-                TupleSink tupleSink = (TupleSink) sink;
-                tupleSink.open();
-                List<Tuple> results = tupleSink.collectAllTuples();
-                tupleSink.close();
-                
-                // make sure result directory is created
-                if (Files.notExists(resultDirectory)) {
-                    Files.createDirectories(resultDirectory);
-                }
-                
-                // clean up old result files
-                cleanupOldResults();
-                
-                // generate new UUID as the result id
-                String resultID = UUID.randomUUID().toString();
-                
-                // write original json of the result into a file                
-                java.nio.file.Path resultFile = resultDirectory.resolve(resultID + ".json");
-
-                Files.createFile(resultFile);
-                Files.write(resultFile, new ObjectMapper().writeValueAsBytes(results));
-                
-                // put readable json of the result into response
-                ArrayNode resultNode = new ObjectMapper().createArrayNode();
-                for (Tuple tuple : results) {
-                    resultNode.add(tuple.getReadableJson());
-                }
-                
-                ObjectNode response = new ObjectMapper().createObjectNode();
-                response.put("code", 0);
-                response.set("result",resultNode);
-                response.put("resultID", resultID);
-                return response;
-            } else {
-                // execute the plan and return success message
-                Engine.getEngine().evaluate(plan);
-                ObjectNode response = new ObjectMapper().createObjectNode();
-                response.put("code", 1);
-                response.put("message", "plan sucessfully executed");
-                return response;
-            }
+            ObjectNode explainNode = new ObjectMapper().createObjectNode();
+            ObjectNode response = executeLogicalPlan(logicalPlan, explainNode);
             
+            List<OperatorMetrics> operatorMetricsList = logicalPlan.getOperatorMetricsList();
+            List<OperatorLink> operatorLinkList = logicalPlan.getOperatorLinkList();
+            explainNode.set("operators", new ObjectMapper().valueToTree(operatorMetricsList));
+            explainNode.set("links", new ObjectMapper().valueToTree(operatorLinkList));
+            response.set("explain", explainNode);
+            return response;
         } catch (IOException | TexeraException e) {
             throw new TexeraWebException(e.getMessage());
-        }   
+        }
+    }
+    
+    /*
+     * Executes the logical plan and builds the response.
+     * 
+     * If the plan is instrumented, the metrics of the sink are recorded here, 
+     *   and the total execution time is put into the explainNode.
+     */
+    private ObjectNode executeLogicalPlan(LogicalPlan logicalPlan, ObjectNode explainNode) 
+            throws IOException, TexeraException {
+        Plan plan = logicalPlan.buildQueryPlan();
+        ISink sink = plan.getRoot();
+        OperatorMetrics sinkMetrics = logicalPlan.getSinkOperatorMetrics();
+        long executionStartNanos = System.nanoTime();
+        
+        // send response back to frontend
+        if (sink instanceof TupleSink) {
+            TupleSink tupleSink = (TupleSink) sink;
+            long startNanos = System.nanoTime();
+            long startAllocatedBytes = OperatorMetrics.getCurrentThreadAllocatedBytes();
+            tupleSink.open();
+            if (sinkMetrics != null) {
+                sinkMetrics.recordOpen(startNanos, startAllocatedBytes);
+            }
+            
+            startNanos = System.nanoTime();
+            startAllocatedBytes = OperatorMetrics.getCurrentThreadAllocatedBytes();
+            List<Tuple> results = tupleSink.collectAllTuples();
+            if (sinkMetrics != null) {
+                sinkMetrics.recordNext(startNanos, startAllocatedBytes, results.size());
+            }
+            tupleSink.close();
+            
+            if (explainNode != null) {
+                explainNode.put("executionTimeNanos", System.nanoTime() - executionStartNanos);
+            }
+            
+            // make sure result directory is created
+            if (Files.notExists(resultDirectory)) {
+                Files.createDirectories(resultDirectory);
+            }
+            
+            // clean up old result files
+            cleanupOldResults();
+            
+            // generate new UUID as the result id
+            String resultID = UUID.randomUUID().toString();
+            
+            // write the result into a file in the compact binary format
+            java.nio.file.Path resultFile = resultDirectory.resolve(resultID + RESULT_FILE_EXTENSION);
+
+            try (TupleBinaryWriter resultWriter = new TupleBinaryWriter(
+                    Files.newOutputStream(resultFile, StandardOpenOption.CREATE_NEW))) {
+                resultWriter.writeAll(results);
+            }
+            
+            // put readable json of the result into response
+            ArrayNode resultNode = new ObjectMapper().createArrayNode();
+            for (Tuple tuple : results) {
+                resultNode.add(tuple.getReadableJson());
+            }
+            
+            ObjectNode response = new ObjectMapper().createObjectNode();
+            response.put("code", 0);
+            response.set("result",resultNode);
+            response.put("resultID", resultID);
+            return response;
+        } else {
+            // execute the plan and return success message
+            long startAllocatedBytes = OperatorMetrics.getCurrentThreadAllocatedBytes();
+            Engine.getEngine().evaluate(plan);
+            if (sinkMetrics != null) {
+                sinkMetrics.recordNext(executionStartNanos, startAllocatedBytes, 0);
+            }
+            
+            if (explainNode != null) {
+                explainNode.put("executionTimeNanos", System.nanoTime() - executionStartNanos);
+            }
+            ObjectNode response = new ObjectMapper().createObjectNode();
+            response.put("code", 1);
+            response.put("message", "plan sucessfully executed");
+            return response;
+        }
     }
     
     
     /**
-     * Cleans up the old result json files stored in the file system.
+     * Cleans up the old result files stored in the file system.
      * The current cleanup policy is to keep the latest 5 files.
      * 
      * TODO: In the case where there are multiple users, they need their own spaces for storing files.
@@ -15,6 +15,7 @@ import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import edu.uci.ics.texera.api.exception.TexeraException;
@@ -44,6 +45,7 @@ public class QueryPlanResourceTest {
             new DropwizardAppRule<>(TexeraWebApplication.class, ResourceHelpers.resourceFilePath("test-config.yml"));
     
     public static String queryPlanEndpoint = "http://localhost:%d/api/queryplan/execute";
+    public static String queryPlanExplainEndpoint = "http://localhost:%d/api/queryplan/explain";
     
     public static final String TEST_TABLE = "query_plan_test_table";
     
@@ -129,4 +131,28 @@ public class QueryPlanResourceTest {
         
 
     }
+    
+    /**
+     * Tests the query plan explain endpoint.
+     */
+    @Test
+    public void checkExplainEndpoint() throws Exception {
+        Client client = new JerseyClientBuilder(RULE.getEnvironment()).build("test explain client");
+        client.property(ClientProperties.CONNECT_TIMEOUT, 5000);
+        client.property(ClientProperties.READ_TIMEOUT,    5000);
+        Response response = client.target(
+                String.format(queryPlanExplainEndpoint, RULE.getLocalPort()))
+                .request()
+                .post(Entity.entity(
+                        new ObjectMapper().writeValueAsString(getLogicalPlan1()), 
+                        MediaType.APPLICATION_JSON));
+        
+        assertThat(response.getStatus()).isEqualTo(200);
+        
+        JsonNode explainNode = new ObjectMapper().readTree(response.readEntity(String.class)).get("explain");
+        assertThat(explainNode.get("operators").size()).isEqualTo(3);
+        assertThat(explainNode.get("links").size()).isEqualTo(2);
+        assertThat(explainNode.get("operators").get(1).get("operatorID").asText()).isEqualTo(REGEX_ID);
+        assertThat(explainNode.get("operators").get(1).has("selfTimeNanos")).isTrue();
+    }
 }